@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.computer;
+
+import java.util.Iterator;
+import java.util.PrimitiveIterator;
+
+/**
+ * A {@link Messenger} of {@code long} messages that can send and receive them without boxing. A
+ * {@link GraphComputer} may provide this messenger to a {@link VertexProgram} with a {@link LongMessageCombiner},
+ * so a program should check for it with {@code instanceof} and otherwise fall back to the boxed methods.
+ */
+public interface LongMessenger extends Messenger<Long> {
+
+    /**
+     * Receive all incoming messages to the currently executing vertex.
+     *
+     * @return the messages for the vertex
+     */
+    public PrimitiveIterator.OfLong receiveLongMessages();
+
+    /**
+     * The currently executing vertex can send a message with provided {@link MessageScope}.
+     *
+     * @param messageScope the message scope of the message being sent
+     * @param message      the message to send
+     */
+    public void sendMessage(final MessageScope messageScope, final long message);
+
+    @Override
+    public default Iterator<Long> receiveMessages() {
+        return this.receiveLongMessages();
+    }
+
+    @Override
+    public default void sendMessage(final MessageScope messageScope, final Long message) {
+        this.sendMessage(messageScope, message.longValue());
+    }
+}
@@ -19,6 +19,7 @@
 package org.apache.tinkerpop.gremlin.process.computer.ranking.pagerank;
 
 import org.apache.commons.configuration.Configuration;
+import org.apache.tinkerpop.gremlin.process.computer.DoubleMessenger;
 import org.apache.tinkerpop.gremlin.process.computer.GraphComputer;
 import org.apache.tinkerpop.gremlin.process.computer.Memory;
 import org.apache.tinkerpop.gremlin.process.computer.MemoryComputeKey;
@@ -45,6 +46,7 @@ import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Optional;
+import java.util.PrimitiveIterator;
 import java.util.Set;
 
 /**
@@ -169,21 +171,21 @@ public class PageRankVertexProgram implements VertexProgram<Double> {
     @Override
     public void execute(final Vertex vertex, Messenger<Double> messenger, final Memory memory) {
         if (memory.isInitialIteration()) {
-            messenger.sendMessage(this.countMessageScope, 1.0d);
+            PageRankVertexProgram.sendMessage(messenger, this.countMessageScope, 1.0d);
             memory.add(VERTEX_COUNT, 1.0d);
         } else {
             final double vertexCount = memory.<Double>get(VERTEX_COUNT);
             final double edgeCount;
             double pageRank;
             if (1 == memory.getIteration()) {
-                edgeCount = IteratorUtils.reduce(messenger.receiveMessages(), 0.0d, (a, b) -> a + b);
+                edgeCount = PageRankVertexProgram.sumMessages(messenger);
                 vertex.property(VertexProperty.Cardinality.single, EDGE_COUNT, edgeCount);
                 pageRank = null == this.initialRankTraversal ?
                         0.0d :
                         TraversalUtil.apply(vertex, this.initialRankTraversal.get()).doubleValue();
             } else {
                 edgeCount = vertex.value(EDGE_COUNT);
-                pageRank = IteratorUtils.reduce(messenger.receiveMessages(), 0.0d, (a, b) -> a + b);
+                pageRank = PageRankVertexProgram.sumMessages(messenger);
             }
             //////////////////////////
             final double teleporationEnergy = memory.get(TELEPORTATION_ENERGY);
@@ -198,12 +200,31 @@ public class PageRankVertexProgram implements VertexProgram<Double> {
             memory.add(TELEPORTATION_ENERGY, (1.0d - this.alpha) * pageRank);
             pageRank = this.alpha * pageRank;
             if (edgeCount > 0.0d)
-                messenger.sendMessage(this.incidentMessageScope, pageRank / edgeCount);
+                PageRankVertexProgram.sendMessage(messenger, this.incidentMessageScope, pageRank / edgeCount);
             else
                 memory.add(TELEPORTATION_ENERGY, pageRank);
         }
     }
 
+    private static double sumMessages(final Messenger<Double> messenger) {
+        if (messenger instanceof DoubleMessenger) {
+            final PrimitiveIterator.OfDouble messages = ((DoubleMessenger) messenger).receiveDoubleMessages();
+            double sum = 0.0d;
+            while (messages.hasNext()) {
+                sum = sum + messages.nextDouble();
+            }
+            return sum;
+        }
+        return IteratorUtils.reduce(messenger.receiveMessages(), 0.0d, (a, b) -> a + b);
+    }
+
+    private static void sendMessage(final Messenger<Double> messenger, final MessageScope messageScope, final double message) {
+        if (messenger instanceof DoubleMessenger)
+            ((DoubleMessenger) messenger).sendMessage(messageScope, message);
+        else
+            messenger.sendMessage(messageScope, message);
+    }
+
     @Override
     public boolean terminate(final Memory memory) {
         boolean terminate = memory.<Double>get(CONVERGENCE_ERROR) < this.epsilon || memory.getIteration() >= this.maxIterations;
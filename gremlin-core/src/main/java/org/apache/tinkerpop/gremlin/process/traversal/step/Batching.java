@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal.step;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.BatchIterator;
+
+import java.util.List;
+
+/**
+ * A {@code Batching} step can process a batch of traversers at once rather than pulling them one at a time from the
+ * step before it. A root traversal whose steps all process batches after its start step is driven a batch at a time
+ * by a {@link BatchIterator}.
+ */
+public interface Batching<S, E> {
+
+    /**
+     * Processes the starts from the one at the index onwards and adds the traversers the step emits to the ends in the
+     * order that the step would otherwise have emitted them, ready for the next step, until the ends hold
+     * {@link BatchIterator#BATCH_SIZE} traversers. Returns the index of the first start that the step is not done
+     * with, which is the size of the starts once they are all processed. A step that stops partway through the
+     * traversers it emits for a start carries on from there when it is next handed that start.
+     */
+    public int processBatch(final List<Traverser.Admin<S>> starts, final int index, final List<Traverser.Admin<E>> ends);
+}
@@ -20,12 +20,20 @@ package org.apache.tinkerpop.gremlin.process.traversal.step.filter;
 
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Batching;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Recycling;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.AbstractStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.BatchIterator;
+import org.apache.tinkerpop.gremlin.process.traversal.traverser.TraverserPool;
+
+import java.util.List;
 
 /**
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
-public abstract class FilterStep<S> extends AbstractStep<S, S> {
+public abstract class FilterStep<S> extends AbstractStep<S, S> implements Recycling {
+
+    private TraverserPool traverserPool = null;
 
     public FilterStep(final Traversal.Admin traversal) {
         super(traversal);
@@ -37,8 +45,35 @@ public abstract class FilterStep<S> extends AbstractStep<S, S> {
             final Traverser.Admin<S> traverser = this.starts.next();
             if (this.filter(traverser))
                 return traverser;
+            else if (null != this.traverserPool)
+                this.traverserPool.recycle(traverser);
+        }
+    }
+
+    /**
+     * Filters a batch of traversers for the subclasses that are {@link Batching}.
+     */
+    public int processBatch(final List<Traverser.Admin<S>> starts, final int index, final List<Traverser.Admin<S>> ends) {
+        int i = index;
+        while (i < starts.size() && ends.size() < BatchIterator.BATCH_SIZE) {
+            final Traverser.Admin<S> traverser = starts.get(i++);
+            if (this.filter(traverser))
+                this.addEnd(traverser, ends);
+            else if (null != this.traverserPool)
+                this.traverserPool.recycle(traverser);
         }
+        return i;
     }
 
     protected abstract boolean filter(final Traverser.Admin<S> traverser);
+
+    @Override
+    public void setTraverserPool(final TraverserPool traverserPool) {
+        this.traverserPool = traverserPool;
+    }
+
+    @Override
+    public TraverserPool getTraverserPool() {
+        return this.traverserPool;
+    }
 }
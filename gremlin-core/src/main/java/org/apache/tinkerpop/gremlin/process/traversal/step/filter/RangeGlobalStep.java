@@ -57,6 +57,14 @@ public final class RangeGlobalStep<S> extends FilterStep<S> implements Ranging,
         this.high = high;
     }
 
+    @Override
+    protected Traverser.Admin<S> processNextStart() {
+        // stop before pulling another traverser so that the steps before the range do no more work than it needs
+        if (!this.bypass && this.high != -1 && this.counter.get() >= this.high)
+            throw FastNoSuchElementException.instance();
+        return super.processNextStart();
+    }
+
     @Override
     protected boolean filter(final Traverser.Admin<S> traverser) {
         if (this.bypass) return true;
@@ -20,19 +20,26 @@ package org.apache.tinkerpop.gremlin.process.traversal.step.map;
 
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Batching;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Recycling;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.AbstractStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.BatchIterator;
+import org.apache.tinkerpop.gremlin.process.traversal.traverser.TraverserPool;
 import org.apache.tinkerpop.gremlin.structure.util.CloseableIterator;
 import org.apache.tinkerpop.gremlin.util.iterator.EmptyIterator;
 
 import java.util.Iterator;
+import java.util.List;
 
 /**
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
-public abstract class FlatMapStep<S, E> extends AbstractStep<S, E> {
+public abstract class FlatMapStep<S, E> extends AbstractStep<S, E> implements Recycling {
 
     private Traverser.Admin<S> head = null;
     private Iterator<E> iterator = EmptyIterator.instance();
+    private TraverserPool traverserPool = null;
+    private Iterator<E> batchEnds = null;
 
     public FlatMapStep(final Traversal.Admin traversal) {
         super(traversal);
@@ -42,25 +49,78 @@ public abstract class FlatMapStep<S, E> extends AbstractStep<S, E> {
     protected Traverser.Admin<E> processNextStart() {
         while (true) {
             if (this.iterator.hasNext()) {
-                return this.head.split(this.iterator.next(), this);
+                return null == this.traverserPool ?
+                        this.head.split(this.iterator.next(), this) :
+                        this.traverserPool.split(this.head, this.iterator.next(), this);
             } else {
                 closeIterator();
+                final Traverser.Admin<S> previous = this.head;
                 this.head = this.starts.next();
+                if (null != this.traverserPool && null != previous)
+                    this.traverserPool.recycle(previous);
                 this.iterator = this.flatMap(this.head);
             }
         }
     }
 
+    /**
+     * Flat-maps a batch of traversers for the subclasses that are {@link Batching}. When the ends fill up partway
+     * through the objects of a start, the iterator over the rest of them is kept for the next call.
+     */
+    public int processBatch(final List<Traverser.Admin<S>> starts, final int index, final List<Traverser.Admin<E>> ends) {
+        int i = index;
+        while (i < starts.size() && ends.size() < BatchIterator.BATCH_SIZE) {
+            final Traverser.Admin<S> traverser = starts.get(i);
+            if (null == this.batchEnds)
+                this.batchEnds = this.flatMap(traverser);
+            while (this.batchEnds.hasNext() && ends.size() < BatchIterator.BATCH_SIZE) {
+                this.addEnd(null == this.traverserPool ?
+                        traverser.split(this.batchEnds.next(), this) :
+                        this.traverserPool.split(traverser, this.batchEnds.next(), this), ends);
+            }
+            if (this.batchEnds.hasNext())
+                break;
+            CloseableIterator.closeIterator(this.batchEnds);
+            this.batchEnds = null;
+            if (null != this.traverserPool)
+                this.traverserPool.recycle(traverser);
+            i++;
+        }
+        return i;
+    }
+
     protected abstract Iterator<E> flatMap(final Traverser.Admin<S> traverser);
 
+    @Override
+    public void setTraverserPool(final TraverserPool traverserPool) {
+        this.traverserPool = traverserPool;
+    }
+
+    @Override
+    public TraverserPool getTraverserPool() {
+        return this.traverserPool;
+    }
+
     @Override
     public void reset() {
         super.reset();
         closeIterator();
         this.iterator = EmptyIterator.instance();
+        CloseableIterator.closeIterator(this.batchEnds);
+        this.batchEnds = null;
     }
 
     protected void closeIterator() {
         CloseableIterator.closeIterator(iterator);
     }
+
+    @Override
+    public FlatMapStep<S, E> clone() {
+        final FlatMapStep<S, E> clone = (FlatMapStep<S, E>) super.clone();
+        // the head is only ever split from, and returned to the pool by, the step that pulled it
+        clone.head = null;
+        clone.iterator = EmptyIterator.instance();
+        clone.batchEnds = null;
+        return clone;
+    }
 }
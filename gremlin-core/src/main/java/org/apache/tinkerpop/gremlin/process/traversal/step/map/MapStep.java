@@ -20,12 +20,20 @@ package org.apache.tinkerpop.gremlin.process.traversal.step.map;
 
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Batching;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Recycling;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.AbstractStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.BatchIterator;
+import org.apache.tinkerpop.gremlin.process.traversal.traverser.TraverserPool;
+
+import java.util.List;
 
 /**
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
-public abstract class MapStep<S, E> extends AbstractStep<S, E> {
+public abstract class MapStep<S, E> extends AbstractStep<S, E> implements Recycling {
+
+    private TraverserPool traverserPool = null;
 
     public MapStep(final Traversal.Admin traversal) {
         super(traversal);
@@ -34,10 +42,42 @@ public abstract class MapStep<S, E> extends AbstractStep<S, E> {
     @Override
     protected Traverser.Admin<E> processNextStart() {
         final Traverser.Admin<S> traverser = this.starts.next();
-        return traverser.split(this.map(traverser), this);
+        if (null == this.traverserPool)
+            return traverser.split(this.map(traverser), this);
+        final Traverser.Admin<E> split = this.traverserPool.split(traverser, this.map(traverser), this);
+        this.traverserPool.recycle(traverser);
+        return split;
+    }
+
+    /**
+     * Maps a batch of traversers for the subclasses that are {@link Batching}.
+     */
+    public int processBatch(final List<Traverser.Admin<S>> starts, final int index, final List<Traverser.Admin<E>> ends) {
+        int i = index;
+        while (i < starts.size() && ends.size() < BatchIterator.BATCH_SIZE) {
+            final Traverser.Admin<S> traverser = starts.get(i++);
+            if (null == this.traverserPool)
+                this.addEnd(traverser.split(this.map(traverser), this), ends);
+            else {
+                final Traverser.Admin<E> split = this.traverserPool.split(traverser, this.map(traverser), this);
+                this.traverserPool.recycle(traverser);
+                this.addEnd(split, ends);
+            }
+        }
+        return i;
     }
 
     protected abstract E map(final Traverser.Admin<S> traverser);
 
+    @Override
+    public void setTraverserPool(final TraverserPool traverserPool) {
+        this.traverserPool = traverserPool;
+    }
+
+    @Override
+    public TraverserPool getTraverserPool() {
+        return this.traverserPool;
+    }
+
 }
 
@@ -182,6 +182,14 @@ public final class MatchStep<S, E> extends ComputerAwareStep<S, Map<String, E>>
         return Collections.unmodifiableList(this.matchTraversals);
     }
 
+    /**
+     * Sorts the match()-traversals, which is the order that the {@link MatchAlgorithm} tries them in until it has
+     * counted how well each of them filters.
+     */
+    public void sortGlobalChildren(final Comparator<? super Traversal.Admin<Object, Object>> comparator) {
+        this.matchTraversals.sort(comparator);
+    }
+
     @Override
     public void setKeepLabels(final Set<String> keepLabels) {
         this.keepLabels = new HashSet<>(keepLabels);
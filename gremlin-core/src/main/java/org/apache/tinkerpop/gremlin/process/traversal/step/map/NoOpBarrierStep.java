@@ -21,24 +21,30 @@ package org.apache.tinkerpop.gremlin.process.traversal.step.map;
 
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Batching;
 import org.apache.tinkerpop.gremlin.process.traversal.step.LocalBarrier;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Recycling;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.AbstractStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.BatchIterator;
+import org.apache.tinkerpop.gremlin.process.traversal.traverser.TraverserPool;
 import org.apache.tinkerpop.gremlin.process.traversal.traverser.TraverserRequirement;
 import org.apache.tinkerpop.gremlin.process.traversal.traverser.util.TraverserSet;
 import org.apache.tinkerpop.gremlin.process.traversal.util.FastNoSuchElementException;
 import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Set;
 
 /**
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
-public final class NoOpBarrierStep<S> extends AbstractStep<S, S> implements LocalBarrier<S> {
+public final class NoOpBarrierStep<S> extends AbstractStep<S, S> implements LocalBarrier<S>, Recycling, Batching<S, S> {
 
     private int maxBarrierSize;
     private TraverserSet<S> barrier = new TraverserSet<>();
+    private TraverserPool traverserPool = null;
 
     public NoOpBarrierStep(final Traversal.Admin traversal) {
         this(traversal, Integer.MAX_VALUE);
@@ -66,10 +72,27 @@ public final class NoOpBarrierStep<S> extends AbstractStep<S, S> implements Loca
         while (this.starts.hasNext() && (this.maxBarrierSize == Integer.MAX_VALUE || this.barrier.size() < this.maxBarrierSize)) {
             final Traverser.Admin<S> traverser = this.starts.next();
             traverser.setStepId(this.getNextStep().getId()); // when barrier is reloaded, the traversers should be at the next step
-            this.barrier.add(traverser);
+            if (!this.barrier.add(traverser) && null != this.traverserPool)
+                this.traverserPool.recycle(traverser); // merged into an equal traverser
         }
     }
 
+    @Override
+    public int processBatch(final List<Traverser.Admin<S>> starts, final int index, final List<Traverser.Admin<S>> ends) {
+        // a batch is bulked on its own as the steps of a batched traversal have no side-effects to hold back, and no
+        // more starts are taken than there is room for in the ends as each of them may be emitted
+        final int end = Math.min(starts.size(), index + BatchIterator.BATCH_SIZE - ends.size());
+        for (int i = index; i < end; i++) {
+            final Traverser.Admin<S> traverser = starts.get(i);
+            if (!this.barrier.add(traverser) && null != this.traverserPool)
+                this.traverserPool.recycle(traverser); // merged into an equal traverser
+        }
+        while (!this.barrier.isEmpty()) {
+            this.addEnd(this.barrier.remove(), ends);
+        }
+        return end;
+    }
+
     @Override
     public boolean hasNextBarrier() {
         this.processAllStarts();
@@ -93,6 +116,16 @@ public final class NoOpBarrierStep<S> extends AbstractStep<S, S> implements Loca
         this.barrier.addAll(barrier);
     }
 
+    @Override
+    public void setTraverserPool(final TraverserPool traverserPool) {
+        this.traverserPool = traverserPool;
+    }
+
+    @Override
+    public TraverserPool getTraverserPool() {
+        return this.traverserPool;
+    }
+
     @Override
     public NoOpBarrierStep<S> clone() {
         final NoOpBarrierStep<S> clone = (NoOpBarrierStep<S>) super.clone();
@@ -20,14 +20,17 @@ package org.apache.tinkerpop.gremlin.process.traversal.step.sideEffect;
 
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Batching;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.AbstractStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.BatchIterator;
 
+import java.util.List;
 import java.util.NoSuchElementException;
 
 /**
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
-public final class IdentityStep<S> extends AbstractStep<S, S> {
+public final class IdentityStep<S> extends AbstractStep<S, S> implements Batching<S, S> {
 
     public IdentityStep(final Traversal.Admin traversal) {
         super(traversal);
@@ -37,4 +40,13 @@ public final class IdentityStep<S> extends AbstractStep<S, S> {
     protected Traverser.Admin<S> processNextStart() throws NoSuchElementException {
         return this.starts.next();
     }
+
+    @Override
+    public int processBatch(final List<Traverser.Admin<S>> starts, final int index, final List<Traverser.Admin<S>> ends) {
+        int i = index;
+        while (i < starts.size() && ends.size() < BatchIterator.BATCH_SIZE) {
+            this.addEnd(starts.get(i++), ends);
+        }
+        return i;
+    }
 }
@@ -21,6 +21,7 @@ package org.apache.tinkerpop.gremlin.process.traversal.step.util;
 import org.apache.tinkerpop.gremlin.process.traversal.Step;
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Batching;
 import org.apache.tinkerpop.gremlin.process.traversal.util.EmptyTraversal;
 import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalInterruptedException;
 import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
@@ -28,6 +29,7 @@ import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
@@ -43,6 +45,7 @@ public abstract class AbstractStep<S, E> implements Step<S, E> {
     protected ExpandableStepIterator<S> starts;
     protected Traverser.Admin<E> nextEnd = null;
     protected boolean traverserStepIdAndLabelsSetByChild = false;
+    protected transient BatchIterator<E> batchIterator = null;
 
     protected Step<?, S> previousStep = EmptyStep.instance();
     protected Step<E, ?> nextStep = EmptyStep.instance();
@@ -82,6 +85,20 @@ public abstract class AbstractStep<S, E> implements Step<S, E> {
     public void reset() {
         this.starts.clear();
         this.nextEnd = null;
+        if (null != this.batchIterator)
+            this.batchIterator.reset();
+    }
+
+    /**
+     * Has the end step of a traversal return the traversers of a {@link BatchIterator} over the steps of the
+     * traversal rather than pull them through its own starts.
+     */
+    public void setBatchIterator(final BatchIterator<E> batchIterator) {
+        this.batchIterator = batchIterator;
+    }
+
+    public BatchIterator<E> getBatchIterator() {
+        return this.batchIterator;
     }
 
     @Override
@@ -116,6 +133,8 @@ public abstract class AbstractStep<S, E> implements Step<S, E> {
 
     @Override
     public Traverser.Admin<E> next() {
+        if (null != this.batchIterator)
+            return this.batchIterator.next();
         if (null != this.nextEnd) {
             try {
                 return this.prepareTraversalForNextStep(this.nextEnd);
@@ -134,6 +153,8 @@ public abstract class AbstractStep<S, E> implements Step<S, E> {
 
     @Override
     public boolean hasNext() {
+        if (null != this.batchIterator)
+            return this.batchIterator.hasNext();
         if (null != this.nextEnd)
             return true;
         else {
@@ -178,6 +199,7 @@ public abstract class AbstractStep<S, E> implements Step<S, E> {
             clone.previousStep = EmptyStep.instance();
             clone.nextStep = EmptyStep.instance();
             clone.nextEnd = null;
+            clone.batchIterator = null;
             clone.traversal = EmptyTraversal.instance();
             clone.labels = new LinkedHashSet<>(this.labels);
             clone.reset();
@@ -201,6 +223,14 @@ public abstract class AbstractStep<S, E> implements Step<S, E> {
         return result;
     }
 
+    /**
+     * Adds a traverser that a {@link Batching} step emits to the ends of a batch as {@link #next()} would return it.
+     */
+    protected final void addEnd(final Traverser.Admin<E> traverser, final List<Traverser.Admin<E>> ends) {
+        if (null != traverser.get() && 0 != traverser.bulk())
+            ends.add(this.prepareTraversalForNextStep(traverser));
+    }
+
     private final Traverser.Admin<E> prepareTraversalForNextStep(final Traverser.Admin<E> traverser) {
         if (!this.traverserStepIdAndLabelsSetByChild) {
             traverser.setStepId(this.nextStep.getId());
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal.step.util;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Batching;
+import org.apache.tinkerpop.gremlin.process.traversal.util.FastNoSuchElementException;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalInterruptedException;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Drives the steps of a traversal that follow its start step a batch at a time. Up to {@link #BATCH_SIZE} traversers
+ * are pulled from the start step and then handed from one {@link Batching} step to the next, so that each step
+ * processes many traversers in a single call. No step emits more than a batch at a time, so a step that expands its
+ * traversers stops once it has filled a batch and carries on from where it left off once the next step has consumed
+ * it. The traversers of the last step are then returned one at a time by the end step of the traversal, which holds
+ * the iterator.
+ */
+public final class BatchIterator<E> implements Iterator<Traverser.Admin<E>> {
+
+    public static final int BATCH_SIZE = 256;
+
+    private final Step<?, ?> startStep;
+    private final Batching[] steps;
+    // the batch pulled from the start step followed by the batch emitted by each step and the index of the first
+    // traverser of each batch that the step after it (or the end step for the last one) has yet to consume
+    private final List<Traverser.Admin>[] batches;
+    private final int[] indices;
+
+    /**
+     * Creates an iterator over the steps of a traversal, all of which but the first must be {@link Batching}.
+     */
+    public BatchIterator(final List<Step> steps) {
+        this.startStep = steps.get(0);
+        this.steps = new Batching[steps.size() - 1];
+        for (int i = 1; i < steps.size(); i++) {
+            this.steps[i - 1] = (Batching) steps.get(i);
+        }
+        this.batches = new List[steps.size()];
+        for (int i = 0; i < this.batches.length; i++) {
+            this.batches[i] = new ArrayList<>(BATCH_SIZE);
+        }
+        this.indices = new int[steps.size()];
+    }
+
+    @Override
+    public boolean hasNext() {
+        final int last = this.batches.length - 1;
+        while (this.indices[last] == this.batches[last].size()) {
+            if (!this.fill(last))
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public Traverser.Admin<E> next() {
+        if (!this.hasNext())
+            throw FastNoSuchElementException.instance();
+        final int last = this.batches.length - 1;
+        final Traverser.Admin<E> traverser = this.batches[last].get(this.indices[last]);
+        this.batches[last].set(this.indices[last]++, null);
+        return traverser;
+    }
+
+    public void reset() {
+        for (int i = 0; i < this.batches.length; i++) {
+            this.batches[i].clear();
+            this.indices[i] = 0;
+        }
+    }
+
+    /**
+     * Replaces the consumed batch at the level with the next one, pulled from the start step for the first level and
+     * emitted by the step before it from the batches of the levels before for the others, returning {@code false} if
+     * there are no more traversers.
+     */
+    private boolean fill(final int level) {
+        if (Thread.interrupted()) throw new TraversalInterruptedException();
+        final List<Traverser.Admin> batch = this.batches[level];
+        batch.clear();
+        this.indices[level] = 0;
+        if (0 == level) {
+            while (batch.size() < BATCH_SIZE && this.startStep.hasNext()) {
+                batch.add(this.startStep.next());
+            }
+        } else {
+            final int previous = level - 1;
+            while (batch.size() < BATCH_SIZE) {
+                if (this.indices[previous] == this.batches[previous].size() && !this.fill(previous))
+                    break;
+                this.indices[previous] = this.steps[previous].processBatch(this.batches[previous], this.indices[previous], batch);
+            }
+        }
+        return !batch.isEmpty();
+    }
+}
@@ -18,29 +18,54 @@
  */
 package org.apache.tinkerpop.gremlin.process.traversal.step.util;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.AbstractMap;
 import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
 import java.util.Spliterator;
 import java.util.function.BiConsumer;
-import java.util.stream.Collectors;
 
 /**
  * BulkSet is a weighted set (i.e. a multi-set). Objects are added along with a bulk counter the denotes how many times the object was added to the set.
  * Given that count-based compression (vs. enumeration) can yield large sets, methods exist that are long-based (2^64).
+ * <p/>
+ * The objects are held in insertion order in an array next to a primitive array of their bulks, and are found by an
+ * open-addressing hash table of indices into those arrays, so adding to the bulk of an object neither boxes nor
+ * allocates. The total bulk is kept as objects are added and removed.
  *
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
 public final class BulkSet<S> extends AbstractSet<S> implements Set<S>, Serializable {
-    private final Map<S, Long> map = new LinkedHashMap<>();
+
+    private static final int EMPTY = -1;
+    private static final int REMOVED = -2;
+    private static final int MINIMUM_CAPACITY = 8;
+    private static final Object[] NO_OBJECTS = new Object[0];
+    private static final long[] NO_BULKS = new long[0];
+    private static final int[] NO_HASHES = new int[0];
+    // stands in for null in the array of objects, where null marks an object that was removed
+    private static final Object NULL = new Object();
+
+    private transient Object[] objects = NO_OBJECTS;
+    private transient long[] bulks = NO_BULKS;
+    private transient int[] hashes = NO_HASHES;
+    private transient int[] table = NO_HASHES;
+    private transient int end = 0;
+    private transient int uniqueSize = 0;
+    private transient long longSize = 0L;
+    private transient int modCount = 0;
 
     @Override
     public int size() {
@@ -48,21 +73,21 @@ public final class BulkSet<S> extends AbstractSet<S> implements Set<S>, Serializ
     }
 
     public int uniqueSize() {
-        return this.map.size();
+        return this.uniqueSize;
     }
 
     public long longSize() {
-        return this.map.values().stream().collect(Collectors.summingLong(Long::longValue));
+        return this.longSize;
     }
 
     @Override
     public boolean isEmpty() {
-        return this.map.isEmpty();
+        return 0 == this.uniqueSize;
     }
 
     @Override
     public boolean contains(final Object s) {
-        return this.map.containsKey(s);
+        return this.indexOf(mask(s)) >= 0;
     }
 
     @Override
@@ -73,7 +98,11 @@ public final class BulkSet<S> extends AbstractSet<S> implements Set<S>, Serializ
     @Override
     public boolean addAll(final Collection<? extends S> collection) {
         if (collection instanceof BulkSet) {
-            ((BulkSet<S>) collection).map.forEach(this::add);
+            final BulkSet<S> bulkSet = (BulkSet<S>) collection;
+            for (int i = 0; i < bulkSet.end; i++) {
+                if (null != bulkSet.objects[i])
+                    this.add((S) unmask(bulkSet.objects[i]), bulkSet.bulks[i]);
+            }
         } else {
             collection.iterator().forEachRemaining(this::add);
         }
@@ -81,27 +110,42 @@ public final class BulkSet<S> extends AbstractSet<S> implements Set<S>, Serializ
     }
 
     public void forEach(final BiConsumer<S, Long> consumer) {
-        this.map.forEach(consumer);
+        final int expectedModCount = this.modCount;
+        for (int i = 0; i < this.end; i++) {
+            if (null != this.objects[i])
+                consumer.accept((S) unmask(this.objects[i]), this.bulks[i]);
+        }
+        if (expectedModCount != this.modCount)
+            throw new ConcurrentModificationException();
     }
 
     public Map<S, Long> asBulk() {
-        return Collections.unmodifiableMap(map);
+        return new BulkMap();
     }
 
     public boolean add(final S s, final long bulk) {
-        final Long current = this.map.get(s);
-        if (current != null) {
-            this.map.put(s, current + bulk);
+        final Object object = mask(s);
+        final int hash = hash(object);
+        final int index = this.indexOf(object, hash);
+        this.longSize = this.longSize + bulk;
+        if (index >= 0) {
+            this.bulks[index] = this.bulks[index] + bulk;
             return false;
-        } else {
-            this.map.put(s, bulk);
-            return true;
         }
+        this.ensureCapacity();
+        this.objects[this.end] = object;
+        this.bulks[this.end] = bulk;
+        this.hashes[this.end] = hash;
+        this.insert(hash, this.end);
+        this.end++;
+        this.uniqueSize++;
+        this.modCount++;
+        return true;
     }
 
     public long get(final S s) {
-        final Long bulk = this.map.get(s);
-        return null == bulk ? 0 : bulk;
+        final int index = this.indexOf(mask(s));
+        return index < 0 ? 0 : this.bulks[index];
     }
 
     /*public void set(final S s, final long bulk) {
@@ -111,12 +155,21 @@ public final class BulkSet<S> extends AbstractSet<S> implements Set<S>, Serializ
 
     @Override
     public boolean remove(final Object s) {
-        return this.map.remove(s) != null;
+        final int index = this.indexOf(mask(s));
+        if (index < 0)
+            return false;
+        this.removeAt(index);
+        return true;
     }
 
     @Override
     public void clear() {
-        this.map.clear();
+        Arrays.fill(this.objects, 0, this.end, null);
+        Arrays.fill(this.table, EMPTY);
+        this.end = 0;
+        this.uniqueSize = 0;
+        this.longSize = 0L;
+        this.modCount++;
     }
 
     @Override
@@ -129,7 +182,7 @@ public final class BulkSet<S> extends AbstractSet<S> implements Set<S>, Serializ
         Objects.requireNonNull(collection);
         boolean modified = false;
         for (final Object object : collection) {
-            if (null != this.map.remove(object))
+            if (this.remove(object))
                 modified = true;
         }
         return modified;
@@ -137,22 +190,40 @@ public final class BulkSet<S> extends AbstractSet<S> implements Set<S>, Serializ
 
     @Override
     public int hashCode() {
-        return this.map.hashCode();
+        // the hash code of the map of objects to bulks that the set used to be backed by
+        int hashCode = 0;
+        for (int i = 0; i < this.end; i++) {
+            if (null != this.objects[i])
+                hashCode = hashCode + (Objects.hashCode(unmask(this.objects[i])) ^ Long.hashCode(this.bulks[i]));
+        }
+        return hashCode;
     }
 
     @Override
     public boolean equals(final Object object) {
-        return object instanceof BulkSet && this.map.equals(((BulkSet) object).map);
+        if (this == object)
+            return true;
+        if (!(object instanceof BulkSet) || ((BulkSet) object).uniqueSize != this.uniqueSize)
+            return false;
+        final BulkSet<?> other = (BulkSet<?>) object;
+        for (int i = 0; i < this.end; i++) {
+            if (null == this.objects[i])
+                continue;
+            final int index = other.indexOf(this.objects[i]);
+            if (index < 0 || other.bulks[index] != this.bulks[i])
+                return false;
+        }
+        return true;
     }
 
     @Override
     public String toString() {
-        return this.map.toString();
+        return this.asBulk().toString();
     }
 
     private List<S> toList() {
         final List<S> list = new ArrayList<>();
-        this.map.forEach((k, v) -> {
+        this.forEach((k, v) -> {
             for (long i = 0; i < v; i++) {
                 list.add(k);
             }
@@ -163,29 +234,200 @@ public final class BulkSet<S> extends AbstractSet<S> implements Set<S>, Serializ
     @Override
     public Iterator<S> iterator() {
         return new Iterator<S>() {
-            final Iterator<Map.Entry<S, Long>> entryIterator = map.entrySet().iterator();
+            final int expectedModCount = modCount;
+            int next = 0;
             S lastObject = null;
             long lastCount = 0l;
 
             public boolean hasNext() {
-                return this.lastCount > 0l || this.entryIterator.hasNext();
+                if (this.lastCount > 0l)
+                    return true;
+                while (this.next < end && null == objects[this.next]) {
+                    this.next++;
+                }
+                return this.next < end;
             }
 
             @Override
             public S next() {
+                if (this.expectedModCount != modCount)
+                    throw new ConcurrentModificationException();
                 if (this.lastCount > 0l) {
                     this.lastCount--;
                     return this.lastObject;
                 }
-                final Map.Entry<S, Long> entry = entryIterator.next();
-                if (entry.getValue() == 1) {
-                    return entry.getKey();
-                } else {
-                    this.lastObject = entry.getKey();
-                    this.lastCount = entry.getValue() - 1;
-                    return this.lastObject;
-                }
+                if (!this.hasNext())
+                    throw new NoSuchElementException();
+                final int index = this.next++;
+                this.lastObject = (S) unmask(objects[index]);
+                this.lastCount = bulks[index] - 1;
+                return this.lastObject;
             }
         };
     }
+
+    private static Object mask(final Object s) {
+        return null == s ? NULL : s;
+    }
+
+    private static Object unmask(final Object object) {
+        return NULL == object ? null : object;
+    }
+
+    private static int hash(final Object object) {
+        final int hash = object.hashCode() * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private int indexOf(final Object object) {
+        return this.indexOf(object, hash(object));
+    }
+
+    private int indexOf(final Object object, final int hash) {
+        if (0 == this.uniqueSize)
+            return -1;
+        final int mask = this.table.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            final int index = this.table[slot];
+            if (EMPTY == index)
+                return -1;
+            if (index >= 0 && this.hashes[index] == hash &&
+                    (object == this.objects[index] || object.equals(this.objects[index])))
+                return index;
+        }
+    }
+
+    private void insert(final int hash, final int index) {
+        final int mask = this.table.length - 1;
+        int slot = hash & mask;
+        while (this.table[slot] >= 0) {
+            slot = (slot + 1) & mask;
+        }
+        this.table[slot] = index;
+    }
+
+    private void removeAt(final int index) {
+        final int mask = this.table.length - 1;
+        int slot = this.hashes[index] & mask;
+        while (this.table[slot] != index) {
+            slot = (slot + 1) & mask;
+        }
+        this.table[slot] = REMOVED;
+        this.objects[index] = null;
+        this.longSize = this.longSize - this.bulks[index];
+        this.uniqueSize--;
+        this.modCount++;
+    }
+
+    /**
+     * Makes room for one more object at the end of the arrays. The holes left by removed objects are squeezed out
+     * first and the arrays only grow if that frees less than half of them, after which the hash table is rebuilt
+     * without the removed slots.
+     */
+    private void ensureCapacity() {
+        if (this.end < this.objects.length)
+            return;
+        int live = 0;
+        for (int i = 0; i < this.end; i++) {
+            if (null != this.objects[i]) {
+                this.objects[live] = this.objects[i];
+                this.bulks[live] = this.bulks[i];
+                this.hashes[live++] = this.hashes[i];
+            }
+        }
+        Arrays.fill(this.objects, live, this.end, null);
+        this.end = live;
+        if (live >= this.objects.length >> 1) {
+            final int capacity = Math.max(MINIMUM_CAPACITY, this.objects.length << 1);
+            this.objects = Arrays.copyOf(this.objects, capacity);
+            this.bulks = Arrays.copyOf(this.bulks, capacity);
+            this.hashes = Arrays.copyOf(this.hashes, capacity);
+            this.table = new int[capacity << 1];
+        }
+        Arrays.fill(this.table, EMPTY);
+        for (int i = 0; i < this.end; i++) {
+            this.insert(this.hashes[i], i);
+        }
+    }
+
+    private void writeObject(final ObjectOutputStream outputStream) throws IOException {
+        outputStream.defaultWriteObject();
+        outputStream.writeInt(this.uniqueSize);
+        for (int i = 0; i < this.end; i++) {
+            if (null != this.objects[i]) {
+                outputStream.writeObject(unmask(this.objects[i]));
+                outputStream.writeLong(this.bulks[i]);
+            }
+        }
+    }
+
+    private void readObject(final ObjectInputStream inputStream) throws IOException, ClassNotFoundException {
+        inputStream.defaultReadObject();
+        this.objects = NO_OBJECTS;
+        this.bulks = NO_BULKS;
+        this.hashes = NO_HASHES;
+        this.table = NO_HASHES;
+        final int uniqueSize = inputStream.readInt();
+        for (int i = 0; i < uniqueSize; i++) {
+            this.add((S) inputStream.readObject(), inputStream.readLong());
+        }
+    }
+
+    /**
+     * A read-only view of the objects of the set and their bulks.
+     */
+    private final class BulkMap extends AbstractMap<S, Long> {
+
+        @Override
+        public Long get(final Object key) {
+            final int index = indexOf(mask(key));
+            return index < 0 ? null : bulks[index];
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return indexOf(mask(key)) >= 0;
+        }
+
+        @Override
+        public int size() {
+            return uniqueSize;
+        }
+
+        @Override
+        public Set<Entry<S, Long>> entrySet() {
+            return new AbstractSet<Entry<S, Long>>() {
+                @Override
+                public Iterator<Entry<S, Long>> iterator() {
+                    return new Iterator<Entry<S, Long>>() {
+                        private final int expectedModCount = modCount;
+                        private int next = 0;
+
+                        @Override
+                        public boolean hasNext() {
+                            while (this.next < end && null == objects[this.next]) {
+                                this.next++;
+                            }
+                            return this.next < end;
+                        }
+
+                        @Override
+                        public Entry<S, Long> next() {
+                            if (this.expectedModCount != modCount)
+                                throw new ConcurrentModificationException();
+                            if (!this.hasNext())
+                                throw new NoSuchElementException();
+                            final int index = this.next++;
+                            return new SimpleImmutableEntry<>((S) unmask(objects[index]), bulks[index]);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return uniqueSize;
+                }
+            };
+        }
+    }
 }
@@ -0,0 +1,520 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal.step.util;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Path;
+import org.apache.tinkerpop.gremlin.process.traversal.Pop;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable {@link Path} that, like {@link ImmutablePath}, shares its prefix with the path it was extended from,
+ * but which refers to the labels of each of its objects by the id of an interned label set in a table that is shared
+ * by all the paths made from the same {@link #make() empty path}. The table keeps a bitset of the labels of every set
+ * so that {@link #get(String)}, {@link #get(Pop, String)} and {@link #hasLabel(String)} walk the path testing bits
+ * and {@link #objects()} and {@link #labels()} are views of the path rather than copies of it. A retraction only
+ * rebuilds the part of the path that follows the oldest object that loses a label.
+ * <p/>
+ * A table holds up to 63 distinct labels and 1024 distinct label sets. A path that is extended past that is copied
+ * into an {@link ImmutablePath} which it is from then on.
+ */
+public final class CompactPath implements Path, Serializable, Cloneable {
+
+    private final LabelTable table;
+    private final CompactPath previousPath;
+    private final Object currentObject;
+    private final int currentLabels;
+
+    /**
+     * Creates an empty path with a new label table that the paths extended from it share.
+     */
+    public static Path make() {
+        return new LabelTable().tail;
+    }
+
+    private CompactPath(final LabelTable table, final CompactPath previousPath, final Object currentObject, final int currentLabels) {
+        this.table = table;
+        this.previousPath = previousPath;
+        this.currentObject = currentObject;
+        this.currentLabels = currentLabels;
+    }
+
+    /**
+     * Gets the empty path that shares the label table of this path.
+     */
+    public Path emptyPath() {
+        return this.table.tail;
+    }
+
+    @SuppressWarnings("CloneDoesntCallSuperClone,CloneDoesntDeclareCloneNotSupportedException")
+    @Override
+    public CompactPath clone() {
+        return this;
+    }
+
+    private boolean isTail() {
+        return null == this.previousPath;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.isTail();
+    }
+
+    @Override
+    public int size() {
+        int counter = 0;
+        for (CompactPath currentPath = this; !currentPath.isTail(); currentPath = currentPath.previousPath) {
+            counter++;
+        }
+        return counter;
+    }
+
+    @Override
+    public <A> A head() {
+        return (A) this.currentObject;
+    }
+
+    @Override
+    public Path extend(final Object object, final Set<String> labels) {
+        final int id = this.table.intern(labels);
+        return LabelTable.OVERFLOW == id ?
+                this.toImmutablePath().extend(object, labels) :
+                new CompactPath(this.table, this, object, id);
+    }
+
+    @Override
+    public Path extend(final Set<String> labels) {
+        if (labels.isEmpty() || this.isTail())
+            return this;
+        final long mask = this.table.mask(labels);
+        if (Long.bitCount(mask) == labels.size() && (this.table.masks[this.currentLabels] & mask) == mask)
+            return this;
+        final Set<String> newLabels = new LinkedHashSet<>(this.table.sets[this.currentLabels]);
+        newLabels.addAll(labels);
+        final int id = this.table.intern(newLabels);
+        return LabelTable.OVERFLOW == id ?
+                this.toImmutablePath().extend(labels) :
+                new CompactPath(this.table, this.previousPath, this.currentObject, id);
+    }
+
+    @Override
+    public Path retract(final Set<String> labels) {
+        if (labels.isEmpty())
+            return this;
+        final long mask = this.table.mask(labels);
+        // objects without labels are dropped too, so everything before the oldest object that is changed is kept
+        final long[] masks = this.table.masks;
+        CompactPath oldestPath = null;
+        int depth = 0;
+        int counter = 0;
+        for (CompactPath currentPath = this; !currentPath.isTail(); currentPath = currentPath.previousPath) {
+            counter++;
+            final long currentMask = masks[currentPath.currentLabels];
+            if (0L == currentMask || 0L != (currentMask & mask)) {
+                oldestPath = currentPath;
+                depth = counter;
+            }
+        }
+        if (null == oldestPath)
+            return this;
+
+        final CompactPath[] paths = new CompactPath[depth];
+        CompactPath currentPath = this;
+        for (int i = depth - 1; i >= 0; i--) {
+            paths[i] = currentPath;
+            currentPath = currentPath.previousPath;
+        }
+        Path newPath = oldestPath.previousPath;
+        for (final CompactPath path : paths) {
+            final Set<String> currentLabels = this.table.sets[path.currentLabels];
+            if (0L == (masks[path.currentLabels] & mask)) {
+                if (!currentLabels.isEmpty())
+                    newPath = newPath.extend(path.currentObject, currentLabels);
+            } else {
+                final Set<String> temp = new LinkedHashSet<>(currentLabels);
+                temp.removeAll(labels);
+                if (!temp.isEmpty())
+                    newPath = newPath.extend(path.currentObject, temp);
+            }
+        }
+        return newPath;
+    }
+
+    @Override
+    public <A> A get(final int index) {
+        final int size = this.size();
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        CompactPath currentPath = this;
+        for (int i = size - 1; i > index; i--) {
+            currentPath = currentPath.previousPath;
+        }
+        return (A) currentPath.currentObject;
+    }
+
+    @Override
+    public <A> A get(final String label) {
+        final long bit = this.table.bit(label);
+        final long[] masks = this.table.masks;
+        int found = 0;
+        Object object = null;
+        for (CompactPath currentPath = this; !currentPath.isTail(); currentPath = currentPath.previousPath) {
+            if (0L != (masks[currentPath.currentLabels] & bit)) {
+                if (0 == found++)
+                    object = currentPath.currentObject;
+            }
+        }
+        if (0 == found)
+            throw Path.Exceptions.stepWithProvidedLabelDoesNotExist(label);
+        return 1 == found ? (A) object : (A) this.getAll(bit, found);
+    }
+
+    @Override
+    public <A> A get(final Pop pop, final String label) {
+        if (Pop.mixed == pop)
+            return this.get(label);
+
+        final long bit = this.table.bit(label);
+        final long[] masks = this.table.masks;
+        if (Pop.all == pop) {
+            int found = 0;
+            for (CompactPath currentPath = this; !currentPath.isTail(); currentPath = currentPath.previousPath) {
+                if (0L != (masks[currentPath.currentLabels] & bit))
+                    found++;
+            }
+            return (A) this.getAll(bit, found);
+        }
+
+        boolean found = false;
+        Object object = null;
+        for (CompactPath currentPath = this; !currentPath.isTail(); currentPath = currentPath.previousPath) {
+            if (0L != (masks[currentPath.currentLabels] & bit)) {
+                found = true;
+                object = currentPath.currentObject;
+                if (Pop.last == pop)
+                    break;
+            }
+        }
+        if (!found)
+            throw Path.Exceptions.stepWithProvidedLabelDoesNotExist(label);
+        return (A) object;
+    }
+
+    /**
+     * Collects the objects of the path with the label in path order, given the number of objects that have it.
+     */
+    private List<Object> getAll(final long bit, final int found) {
+        final Object[] objects = new Object[found];
+        final long[] masks = this.table.masks;
+        int index = found;
+        for (CompactPath currentPath = this; index > 0; currentPath = currentPath.previousPath) {
+            if (0L != (masks[currentPath.currentLabels] & bit))
+                objects[--index] = currentPath.currentObject;
+        }
+        return new ArrayList<>(Arrays.asList(objects));
+    }
+
+    @Override
+    public boolean hasLabel(final String label) {
+        final long bit = this.table.bit(label);
+        if (0L == bit)
+            return false;
+        final long[] masks = this.table.masks;
+        for (CompactPath currentPath = this; !currentPath.isTail(); currentPath = currentPath.previousPath) {
+            if (0L != (masks[currentPath.currentLabels] & bit))
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    public List<Object> objects() {
+        return new PathView<Object>(this) {
+            @Override
+            protected Object get(final CompactPath path) {
+                return path.currentObject;
+            }
+        };
+    }
+
+    @Override
+    public List<Set<String>> labels() {
+        return new PathView<Set<String>>(this) {
+            @Override
+            protected Set<String> get(final CompactPath path) {
+                return path.table.sets[path.currentLabels];
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return this.objects().toString();
+    }
+
+    @Override
+    public int hashCode() {
+        // hashCode algorithm from AbstractList computed from the head of the path back
+        int hashCode = 0;
+        int multiplier = 1;
+        for (CompactPath currentPath = this; !currentPath.isTail(); currentPath = currentPath.previousPath) {
+            hashCode += multiplier * currentPath.currentObject.hashCode();
+            multiplier *= 31;
+        }
+        return hashCode + multiplier;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other)
+            return true;
+        if (!(other instanceof Path))
+            return false;
+        if (other instanceof CompactPath && ((CompactPath) other).table == this.table) {
+            CompactPath currentPath = this;
+            CompactPath otherPath = (CompactPath) other;
+            while (currentPath != otherPath) {
+                if (currentPath.isTail() || otherPath.isTail() ||
+                        currentPath.currentLabels != otherPath.currentLabels ||
+                        !currentPath.currentObject.equals(otherPath.currentObject))
+                    return false;
+                currentPath = currentPath.previousPath;
+                otherPath = otherPath.previousPath;
+            }
+            return true;
+        }
+
+        final Path otherPath = (Path) other;
+        final int size = this.size();
+        if (otherPath.size() != size)
+            return false;
+        final List<Object> otherObjects = otherPath.objects();
+        final List<Set<String>> otherLabels = otherPath.labels();
+        CompactPath currentPath = this;
+        for (int i = size - 1; i >= 0; i--) {
+            if (!currentPath.currentObject.equals(otherObjects.get(i)) ||
+                    !this.table.sets[currentPath.currentLabels].equals(otherLabels.get(i)))
+                return false;
+            currentPath = currentPath.previousPath;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean popEquals(final Pop pop, final Object other) {
+        if (!(other instanceof Path))
+            return false;
+        final Path otherPath = (Path) other;
+        for (CompactPath currentPath = this; !currentPath.isTail(); currentPath = currentPath.previousPath) {
+            for (final String label : this.table.sets[currentPath.currentLabels]) {
+                if (!otherPath.hasLabel(label) || !this.get(pop, label).equals(otherPath.get(pop, label)))
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isSimple() {
+        final Set<Object> objects = new HashSet<>();
+        for (CompactPath currentPath = this; !currentPath.isTail(); currentPath = currentPath.previousPath) {
+            if (!objects.add(currentPath.currentObject))
+                return false;
+        }
+        return true;
+    }
+
+    private Path toImmutablePath() {
+        final CompactPath[] paths = new CompactPath[this.size()];
+        CompactPath currentPath = this;
+        for (int i = paths.length - 1; i >= 0; i--) {
+            paths[i] = currentPath;
+            currentPath = currentPath.previousPath;
+        }
+        Path path = ImmutablePath.make();
+        for (final CompactPath compactPath : paths) {
+            path = path.extend(compactPath.currentObject, this.table.sets[compactPath.currentLabels]);
+        }
+        return path;
+    }
+
+    /**
+     * A read-only list over the path in path order that is backed by the path itself.
+     */
+    private static abstract class PathView<E> extends AbstractList<E> {
+
+        private final CompactPath path;
+        private final int size;
+
+        private PathView(final CompactPath path) {
+            this.path = path;
+            this.size = path.size();
+        }
+
+        protected abstract E get(final CompactPath path);
+
+        @Override
+        public E get(final int index) {
+            if (index < 0 || index >= this.size)
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+            CompactPath currentPath = this.path;
+            for (int i = this.size - 1; i > index; i--) {
+                currentPath = currentPath.previousPath;
+            }
+            return this.get(currentPath);
+        }
+
+        @Override
+        public int size() {
+            return this.size;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            // the path links back from its head, so it is walked once into an array to iterate from the front
+            final CompactPath[] paths = new CompactPath[this.size];
+            CompactPath currentPath = this.path;
+            for (int i = this.size - 1; i >= 0; i--) {
+                paths[i] = currentPath;
+                currentPath = currentPath.previousPath;
+            }
+            return new Iterator<E>() {
+                private int index = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return this.index < paths.length;
+                }
+
+                @Override
+                public E next() {
+                    if (this.index >= paths.length)
+                        throw new NoSuchElementException();
+                    return get(paths[this.index++]);
+                }
+            };
+        }
+    }
+
+    /**
+     * The labels and label sets of the paths that share an empty path. Label sets are interned in the order of their
+     * labels and each is given the bitset of its labels. The table only ever grows and is copied on write so that it
+     * may be read without locking by paths on any thread.
+     */
+    private static final class LabelTable implements Serializable {
+
+        private static final int OVERFLOW = -1;
+        private static final int MAX_LABELS = 63;
+        private static final int MAX_LABEL_SETS = 1024;
+
+        private final CompactPath tail = new CompactPath(this, null, null, 0);
+        private volatile Set<String>[] sets = new Set[]{Collections.emptySet()};
+        private volatile long[] masks = new long[]{0L};
+        private volatile Map<String, Integer> labels = Collections.emptyMap();
+        private volatile Map<Set<String>, Integer> ids = Collections.singletonMap(Collections.emptySet(), 0);
+
+        /**
+         * Gets the bit of the label, which is zero if no interned label set holds it.
+         */
+        private long bit(final String label) {
+            final Integer index = this.labels.get(label);
+            return null == index ? 0L : 1L << index;
+        }
+
+        /**
+         * Gets the bitset of those of the labels that an interned label set holds.
+         */
+        private long mask(final Set<String> labels) {
+            final Map<String, Integer> indices = this.labels;
+            long mask = 0L;
+            for (final String label : labels) {
+                final Integer index = indices.get(label);
+                if (null != index)
+                    mask |= 1L << index;
+            }
+            return mask;
+        }
+
+        private int intern(final Set<String> labels) {
+            final Integer id = this.ids.get(labels);
+            return null != id && inSameOrder(this.sets[id], labels) ? id : this.internSlow(labels);
+        }
+
+        private synchronized int internSlow(final Set<String> labels) {
+            // a set with the same labels in another order may have been interned first
+            final Set<String>[] sets = this.sets;
+            for (int i = 0; i < sets.length; i++) {
+                if (sets[i].equals(labels) && inSameOrder(sets[i], labels))
+                    return i;
+            }
+            if (MAX_LABEL_SETS == sets.length)
+                return OVERFLOW;
+            final Map<String, Integer> newLabels = new HashMap<>(this.labels);
+            long mask = 0L;
+            for (final String label : labels) {
+                Integer index = newLabels.get(label);
+                if (null == index) {
+                    if (MAX_LABELS == newLabels.size())
+                        return OVERFLOW;
+                    index = newLabels.size();
+                    newLabels.put(label, index);
+                }
+                mask |= 1L << index;
+            }
+            final Set<String> set = Collections.unmodifiableSet(new LinkedHashSet<>(labels));
+            final int id = sets.length;
+            final Set<String>[] newSets = Arrays.copyOf(sets, id + 1);
+            newSets[id] = set;
+            final long[] newMasks = Arrays.copyOf(this.masks, id + 1);
+            newMasks[id] = mask;
+            final Map<Set<String>, Integer> newIds = new HashMap<>(this.ids);
+            newIds.putIfAbsent(set, id);
+            // the arrays are published before the maps that hand out their indices
+            this.sets = newSets;
+            this.masks = newMasks;
+            this.labels = newLabels;
+            this.ids = newIds;
+            return id;
+        }
+
+        private static boolean inSameOrder(final Set<String> a, final Set<String> b) {
+            if (a.size() != b.size())
+                return false;
+            final Iterator<String> iterator = b.iterator();
+            for (final String label : a) {
+                if (!label.equals(iterator.next()))
+                    return false;
+            }
+            return true;
+        }
+    }
+}
@@ -24,6 +24,8 @@ import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
 import org.apache.tinkerpop.gremlin.process.traversal.step.Barrier;
 import org.apache.tinkerpop.gremlin.process.traversal.step.Generating;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Recycling;
+import org.apache.tinkerpop.gremlin.process.traversal.traverser.TraverserPool;
 import org.apache.tinkerpop.gremlin.process.traversal.util.FastNoSuchElementException;
 
 import java.util.function.BinaryOperator;
@@ -33,11 +35,12 @@ import java.util.function.Supplier;
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
 
-public abstract class ReducingBarrierStep<S, E> extends AbstractStep<S, E> implements Barrier<E>, Generating<E, E> {
+public abstract class ReducingBarrierStep<S, E> extends AbstractStep<S, E> implements Barrier<E>, Generating<E, E>, Recycling {
 
     protected Supplier<E> seedSupplier;
     protected BinaryOperator<E> reducingBiOperator;
     private boolean hasProcessedOnce = false;
+    private TraverserPool traverserPool = null;
     private E seed = null;
 
     public ReducingBarrierStep(final Traversal.Admin traversal) {
@@ -80,8 +83,16 @@ public abstract class ReducingBarrierStep<S, E> extends AbstractStep<S, E> imple
             return;
         this.hasProcessedOnce = true;
         if (this.seed == null) this.seed = this.seedSupplier.get();
-        while (this.starts.hasNext())
-            this.seed = this.reducingBiOperator.apply(this.seed, this.projectTraverser(this.starts.next()));
+        if (null == this.traverserPool) {
+            while (this.starts.hasNext())
+                this.seed = this.reducingBiOperator.apply(this.seed, this.projectTraverser(this.starts.next()));
+        } else {
+            while (this.starts.hasNext()) {
+                final Traverser.Admin<S> traverser = this.starts.next();
+                this.seed = this.reducingBiOperator.apply(this.seed, this.projectTraverser(traverser));
+                this.traverserPool.recycle(traverser);
+            }
+        }
     }
 
     @Override
@@ -118,6 +129,16 @@ public abstract class ReducingBarrierStep<S, E> extends AbstractStep<S, E> imple
         return traverser;
     }
 
+    @Override
+    public void setTraverserPool(final TraverserPool traverserPool) {
+        this.traverserPool = traverserPool;
+    }
+
+    @Override
+    public TraverserPool getTraverserPool() {
+        return this.traverserPool;
+    }
+
     @Override
     public ReducingBarrierStep<S, E> clone() {
         final ReducingBarrierStep<S, E> clone = (ReducingBarrierStep<S, E>) super.clone();
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal.strategy.finalization;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Barrier;
+import org.apache.tinkerpop.gremlin.process.traversal.step.LambdaHolder;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Mutating;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Recycling;
+import org.apache.tinkerpop.gremlin.process.traversal.step.TraversalParent;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.FilterStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.EmptyStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.ReducingBarrierStep;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.traverser.B_O_TraverserGenerator;
+import org.apache.tinkerpop.gremlin.process.traversal.traverser.TraverserPool;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+
+/**
+ * {@code TraverserRecyclingStrategy} gives the {@link Recycling} steps of an OLTP traversal a {@link TraverserPool}
+ * so that the traversers which are filtered out, split from or merged away by barriers are reused by the splits that
+ * follow rather than left to the garbage collector. It is not installed by default and only applies to traversals
+ * whose requirements are met by the {@link B_O_TraverserGenerator} as those are the traversers that are pooled.
+ * <p/>
+ * A pooled traverser must never be reachable from outside the traversal, so the strategy does nothing if the
+ * traversal holds a lambda, which could keep the traversers it is handed, and leaves out the steps that keep
+ * traversers around: filtering barriers like {@code dedup()}, reducing barriers that hand traversers to their
+ * children and steps that mutate the graph. The traversers emitted by the traversal are never recycled.
+ *
+ * @example <pre>
+ * g.withStrategies(TraverserRecyclingStrategy.instance()).V().out().out().out().count()  // recycles traversers
+ * g.withStrategies(TraverserRecyclingStrategy.instance()).V().as('a').out().select('a') // does nothing
+ * </pre>
+ */
+public final class TraverserRecyclingStrategy extends AbstractTraversalStrategy<TraversalStrategy.FinalizationStrategy> implements TraversalStrategy.FinalizationStrategy {
+
+    private static final TraverserRecyclingStrategy INSTANCE = new TraverserRecyclingStrategy();
+
+    private TraverserRecyclingStrategy() {
+    }
+
+    @Override
+    public void apply(final Traversal.Admin<?, ?> traversal) {
+        if (!(traversal.getParent() instanceof EmptyStep) || TraversalHelper.onGraphComputer(traversal) ||
+                !B_O_TraverserGenerator.instance().getProvidedRequirements().containsAll(traversal.getTraverserRequirements()) ||
+                TraversalHelper.hasStepOfAssignableClassRecursively(LambdaHolder.class, traversal))
+            return;
+
+        final TraverserPool traverserPool = new TraverserPool();
+        for (final Recycling step : TraversalHelper.getStepsOfAssignableClassRecursively(Recycling.class, traversal)) {
+            if (step instanceof Mutating ||
+                    (step instanceof FilterStep && step instanceof Barrier) ||
+                    (step instanceof ReducingBarrierStep && step instanceof TraversalParent))
+                continue;
+            step.setTraverserPool(traverserPool);
+        }
+    }
+
+    public static TraverserRecyclingStrategy instance() {
+        return INSTANCE;
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal.strategy.optimization;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Compare;
+import org.apache.tinkerpop.gremlin.process.traversal.Contains;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.FilterStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.HasStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.WhereTraversalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.EdgeOtherVertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.EdgeVertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.GraphStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.MatchStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.GraphStatistics;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@code CostBasedStrategy} uses the {@link GraphStatistics} of the graph to choose between traversals that return
+ * the same results. The predicates of a {@code has()} are tested in the order of how few elements they are estimated
+ * to keep, a {@code where()} that tests whether two labeled vertices are adjacent walks the edges from whichever end
+ * has the fewer of them on average and the patterns of a {@code match()} are tried in the order of their estimated
+ * cost until the match algorithm has counted how well each of them does. It is not installed by default and does
+ * nothing for a graph without statistics or a traversal that runs on a {@code GraphComputer}.
+ *
+ * @example <pre>
+ * __.has("age", gt(30)).has("name", "marko")              // is replaced by __.has("name", "marko").has("age", gt(30))
+ * __.where(as("a").out("created").as("b"))                // is replaced by __.where(as("b").in("created").as("a"))
+ * __.match(as("a").out("knows").as("b"), as("a").out("created").as("c"))   // tries out("created") first
+ * </pre>
+ */
+public final class CostBasedStrategy extends AbstractTraversalStrategy<TraversalStrategy.OptimizationStrategy> implements TraversalStrategy.OptimizationStrategy {
+
+    private static final CostBasedStrategy INSTANCE = new CostBasedStrategy();
+    private static final Set<Class<? extends OptimizationStrategy>> PRIORS = new HashSet<>(Arrays.asList(
+            FilterRankingStrategy.class,
+            IncidentToAdjacentStrategy.class,
+            InlineFilterStrategy.class,
+            MatchPredicateStrategy.class));
+
+    private CostBasedStrategy() {
+    }
+
+    @Override
+    public void apply(final Traversal.Admin<?, ?> traversal) {
+        if (TraversalHelper.onGraphComputer(traversal))
+            return;
+        final GraphStatistics statistics = traversal.getGraph().flatMap(Graph::statistics).orElse(null);
+        if (null == statistics)
+            return;
+
+        for (final HasStep<?> hasStep : TraversalHelper.getStepsOfClass(HasStep.class, traversal)) {
+            if (hasStep.getHasContainers().size() > 1)
+                rankHasContainers(hasStep, statistics);
+        }
+        for (final WhereTraversalStep<?> whereStep : TraversalHelper.getStepsOfClass(WhereTraversalStep.class, traversal)) {
+            reverseWhereTraversal(whereStep.getLocalChildren().get(0), statistics);
+        }
+        for (final MatchStep<?, ?> matchStep : TraversalHelper.getStepsOfClass(MatchStep.class, traversal)) {
+            final Map<Traversal.Admin<?, ?>, Double> costs = new IdentityHashMap<>();
+            for (final Traversal.Admin<?, ?> matchTraversal : matchStep.getGlobalChildren()) {
+                costs.put(matchTraversal, estimateCost(matchTraversal, statistics));
+            }
+            matchStep.sortGlobalChildren(Comparator.comparingDouble(costs::get));
+        }
+    }
+
+    /**
+     * Sorts the predicates of the step so that those estimated to keep the fewest elements are tested first.
+     */
+    private static void rankHasContainers(final HasStep<?> hasStep, final GraphStatistics statistics) {
+        final Class<? extends Element> elementClass = getElementClass(hasStep);
+        if (null == elementClass)
+            return;
+        final String label = getLabel(hasStep.getHasContainers());
+        final Map<HasContainer, Double> selectivities = new IdentityHashMap<>();
+        for (final HasContainer hasContainer : hasStep.getHasContainers()) {
+            selectivities.put(hasContainer, estimateSelectivity(hasContainer, elementClass, label, statistics));
+        }
+        final List<HasContainer> hasContainers = new ArrayList<>(hasStep.getHasContainers());
+        hasContainers.sort(Comparator.comparingDouble(selectivities::get));
+        if (hasContainers.equals(hasStep.getHasContainers()))
+            return;
+        hasContainers.forEach(hasStep::removeHasContainer);
+        hasContainers.forEach(hasStep::addHasContainer);
+    }
+
+    /**
+     * Replaces {@code where(as('a').out().as('b'))} with {@code where(as('b').in().as('a'))} when the vertices have
+     * fewer incoming than outgoing edges of the labels on average, and likewise the other way around.
+     */
+    private static void reverseWhereTraversal(final Traversal.Admin<?, ?> whereTraversal, final GraphStatistics statistics) {
+        final List<Step> steps = whereTraversal.getSteps();
+        if (3 != steps.size() ||
+                !(steps.get(0) instanceof WhereTraversalStep.WhereStartStep) ||
+                !(steps.get(1) instanceof VertexStep) ||
+                !(steps.get(2) instanceof WhereTraversalStep.WhereEndStep))
+            return;
+        final WhereTraversalStep.WhereStartStep<?> startStep = (WhereTraversalStep.WhereStartStep<?>) steps.get(0);
+        final VertexStep<?> vertexStep = (VertexStep<?>) steps.get(1);
+        final WhereTraversalStep.WhereEndStep endStep = (WhereTraversalStep.WhereEndStep) steps.get(2);
+        if (startStep.getScopeKeys().isEmpty() || endStep.getScopeKeys().isEmpty() ||
+                !vertexStep.returnsVertex() || Direction.BOTH == vertexStep.getDirection() || !vertexStep.getLabels().isEmpty())
+            return;
+
+        final Direction direction = vertexStep.getDirection();
+        if (estimateDegree(direction.opposite(), vertexStep.getEdgeLabels(), statistics) >=
+                estimateDegree(direction, vertexStep.getEdgeLabels(), statistics))
+            return;
+        final String startKey = startStep.getScopeKeys().iterator().next();
+        final String endKey = endStep.getScopeKeys().iterator().next();
+        TraversalHelper.replaceStep((Step) startStep, new WhereTraversalStep.WhereStartStep<>(whereTraversal, endKey), whereTraversal);
+        TraversalHelper.replaceStep((Step) vertexStep, new VertexStep<>(whereTraversal, Vertex.class, direction.opposite(), vertexStep.getEdgeLabels()), whereTraversal);
+        TraversalHelper.replaceStep((Step) endStep, new WhereTraversalStep.WhereEndStep(whereTraversal, startKey), whereTraversal);
+    }
+
+    /**
+     * Estimates the number of traversers that a single traverser fans out to, or is filtered down to, by the vertex
+     * and {@code has()} steps of the traversal.
+     */
+    private static double estimateCost(final Traversal.Admin<?, ?> traversal, final GraphStatistics statistics) {
+        double cost = 1d;
+        for (final Step<?, ?> step : traversal.getSteps()) {
+            if (step instanceof VertexStep) {
+                cost = cost * estimateDegree(((VertexStep<?>) step).getDirection(), ((VertexStep<?>) step).getEdgeLabels(), statistics);
+            } else if (step instanceof HasStep) {
+                final Class<? extends Element> elementClass = getElementClass(step);
+                if (null == elementClass)
+                    continue;
+                final String label = getLabel(((HasStep<?>) step).getHasContainers());
+                for (final HasContainer hasContainer : ((HasStep<?>) step).getHasContainers()) {
+                    cost = cost * estimateSelectivity(hasContainer, elementClass, label, statistics);
+                }
+            }
+        }
+        return cost;
+    }
+
+    private static double estimateDegree(final Direction direction, final String[] edgeLabels, final GraphStatistics statistics) {
+        if (0 == edgeLabels.length)
+            return statistics.averageDegree(direction, null);
+        double degree = 0d;
+        for (final String edgeLabel : edgeLabels) {
+            degree = degree + statistics.averageDegree(direction, edgeLabel);
+        }
+        return degree;
+    }
+
+    private static double estimateSelectivity(final HasContainer hasContainer, final Class<? extends Element> elementClass,
+                                              final String label, final GraphStatistics statistics) {
+        final P<?> predicate = hasContainer.getPredicate();
+        if (hasContainer.getKey().equals(T.label.getAccessor())) {
+            final long count = statistics.count(elementClass);
+            if (0 == count)
+                return 0d;
+            if (Compare.eq == predicate.getBiPredicate() && predicate.getValue() instanceof String)
+                return (double) statistics.count(elementClass, (String) predicate.getValue()) / count;
+            if (Contains.within == predicate.getBiPredicate() && predicate.getValue() instanceof Collection) {
+                long labelCount = 0;
+                for (final Object value : (Collection<?>) predicate.getValue()) {
+                    if (value instanceof String)
+                        labelCount = labelCount + statistics.count(elementClass, (String) value);
+                }
+                return Math.min(1d, (double) labelCount / count);
+            }
+            return 1d;
+        } else if (hasContainer.getKey().equals(T.id.getAccessor())) {
+            final long count = Math.max(1, null == label ? statistics.count(elementClass) : statistics.count(elementClass, label));
+            if (Compare.eq == predicate.getBiPredicate())
+                return 1d / count;
+            if (Contains.within == predicate.getBiPredicate() && predicate.getValue() instanceof Collection)
+                return Math.min(1d, (double) ((Collection<?>) predicate.getValue()).size() / count);
+            return 1d;
+        } else
+            return statistics.selectivity(elementClass, label, hasContainer.getKey(), predicate);
+    }
+
+    /**
+     * Gets the label that the predicates require the elements to have, if there is a single one.
+     */
+    private static String getLabel(final List<HasContainer> hasContainers) {
+        for (final HasContainer hasContainer : hasContainers) {
+            if (hasContainer.getKey().equals(T.label.getAccessor()) &&
+                    Compare.eq == hasContainer.getPredicate().getBiPredicate() &&
+                    hasContainer.getPredicate().getValue() instanceof String)
+                return (String) hasContainer.getPredicate().getValue();
+        }
+        return null;
+    }
+
+    /**
+     * Gets the class of the elements that the step is handed by the steps before it or {@code null} if it can not be
+     * told from them.
+     */
+    private static Class<? extends Element> getElementClass(final Step<?, ?> step) {
+        Step<?, ?> previousStep = step.getPreviousStep();
+        while (previousStep instanceof FilterStep) {
+            previousStep = previousStep.getPreviousStep();
+        }
+        if (previousStep instanceof GraphStep)
+            return ((GraphStep<?, ?>) previousStep).getReturnClass();
+        else if (previousStep instanceof VertexStep)
+            return ((VertexStep<?>) previousStep).getReturnClass();
+        else if (previousStep instanceof EdgeVertexStep || previousStep instanceof EdgeOtherVertexStep)
+            return Vertex.class;
+        return null;
+    }
+
+    @Override
+    public Set<Class<? extends OptimizationStrategy>> applyPrior() {
+        return PRIORS;
+    }
+
+    public static CostBasedStrategy instance() {
+        return INSTANCE;
+    }
+}
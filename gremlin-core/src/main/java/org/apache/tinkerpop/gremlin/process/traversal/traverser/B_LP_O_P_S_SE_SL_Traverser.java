@@ -37,8 +37,12 @@ public class B_LP_O_P_S_SE_SL_Traverser<T> extends B_O_S_SE_SL_Traverser<T> {
     }
 
     public B_LP_O_P_S_SE_SL_Traverser(final T t, final Step<T, ?> step, final long initialBulk) {
+        this(t, step, initialBulk, ImmutablePath.make());
+    }
+
+    public B_LP_O_P_S_SE_SL_Traverser(final T t, final Step<T, ?> step, final long initialBulk, final Path emptyPath) {
         super(t, step, initialBulk);
-        this.path = ImmutablePath.make().extend(t, step.getLabels());
+        this.path = emptyPath.extend(t, step.getLabels());
     }
 
     /////////////////
@@ -18,9 +18,12 @@
  */
 package org.apache.tinkerpop.gremlin.process.traversal.traverser;
 
+import org.apache.tinkerpop.gremlin.process.traversal.Path;
 import org.apache.tinkerpop.gremlin.process.traversal.Step;
 import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
 import org.apache.tinkerpop.gremlin.process.traversal.TraverserGenerator;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.CompactPath;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.ImmutablePath;
 
 import java.util.EnumSet;
 import java.util.Set;
@@ -30,7 +33,7 @@ import java.util.Set;
  */
 public final class B_LP_O_P_S_SE_SL_TraverserGenerator implements TraverserGenerator {
 
-    private static final B_LP_O_P_S_SE_SL_TraverserGenerator INSTANCE = new B_LP_O_P_S_SE_SL_TraverserGenerator();
+    private static final B_LP_O_P_S_SE_SL_TraverserGenerator INSTANCE = new B_LP_O_P_S_SE_SL_TraverserGenerator(ImmutablePath.make());
     private static final Set<TraverserRequirement> REQUIREMENTS = EnumSet.of(
             TraverserRequirement.BULK,
             TraverserRequirement.LABELED_PATH,
@@ -40,12 +43,15 @@ public final class B_LP_O_P_S_SE_SL_TraverserGenerator implements TraverserGener
             TraverserRequirement.SIDE_EFFECTS,
             TraverserRequirement.SINGLE_LOOP);
 
-    private B_LP_O_P_S_SE_SL_TraverserGenerator() {
+    private final Path emptyPath;
+
+    private B_LP_O_P_S_SE_SL_TraverserGenerator(final Path emptyPath) {
+        this.emptyPath = emptyPath;
     }
 
     @Override
     public <S> Traverser.Admin<S> generate(final S start, final Step<S, ?> startStep, final long initialBulk) {
-        return new B_LP_O_P_S_SE_SL_Traverser<>(start, startStep, initialBulk);
+        return new B_LP_O_P_S_SE_SL_Traverser<>(start, startStep, initialBulk, this.emptyPath);
     }
 
     @Override
@@ -56,4 +62,12 @@ public final class B_LP_O_P_S_SE_SL_TraverserGenerator implements TraverserGener
     public static B_LP_O_P_S_SE_SL_TraverserGenerator instance() {
         return INSTANCE;
     }
+
+    /**
+     * Creates a generator whose traversers extend their paths from a new empty {@link CompactPath} and so share its
+     * label table. A generator is created for each traversal by the {@code DefaultTraverserGeneratorFactory}.
+     */
+    public static B_LP_O_P_S_SE_SL_TraverserGenerator compact() {
+        return new B_LP_O_P_S_SE_SL_TraverserGenerator(CompactPath.make());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal.traverser;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Recycling;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.finalization.TraverserRecyclingStrategy;
+
+import java.io.Serializable;
+import java.util.HashSet;
+
+/**
+ * A pool of the {@link B_O_Traverser} instances that the {@link Recycling} steps of a traversal are done with, which
+ * are reused in place of the clones that {@link Traverser.Admin#split(Object, Step)} would otherwise allocate. Only
+ * the plain {@link B_O_Traverser} that the {@link B_O_TraverserGenerator} creates is pooled as it holds nothing but
+ * its object, bulk, step id and tags and any other traverser simply passes through.
+ * <p/>
+ * A pool is created for a single traversal by the {@link TraverserRecyclingStrategy} and is bound to the thread that
+ * created it. The pool is not thread safe, so any other thread that iterates the traversal, or a clone of it, splits
+ * and drops its traversers as it would without a pool.
+ * <p/>
+ * A pool is serialized with the steps of its traversal but none of its state. It is deserialized as a new empty pool
+ * bound to the deserializing thread, which the steps that shared the pool go on sharing.
+ */
+public final class TraverserPool implements Serializable {
+
+    private static final int CAPACITY = 1024;
+
+    private final transient Thread owner = Thread.currentThread();
+    private final transient B_O_Traverser[] traversers = new B_O_Traverser[CAPACITY];
+    private transient int size = 0;
+
+    /**
+     * Splits the traverser like {@link Traverser.Admin#split(Object, Step)} but reuses a pooled traverser if there is
+     * one to be had.
+     */
+    public <R> Traverser.Admin<R> split(final Traverser.Admin<?> traverser, final R r, final Step<?, R> step) {
+        if (0 == this.size || traverser.getClass() != B_O_Traverser.class || Thread.currentThread() != this.owner)
+            return ((Traverser.Admin) traverser).split(r, step);
+        final B_O_Traverser<?> parent = (B_O_Traverser<?>) traverser;
+        final B_O_Traverser<R> clone = this.traversers[--this.size];
+        this.traversers[this.size] = null;
+        clone.set(r);
+        clone.bulk = parent.bulk;
+        clone.future = parent.future;
+        if (null != parent.tags)
+            clone.tags = new HashSet<>(parent.tags);
+        return clone;
+    }
+
+    /**
+     * Returns a traverser to the pool. The caller must hold the only reference to the traverser as it will be handed
+     * out again by {@link #split(Traverser.Admin, Object, Step)}.
+     */
+    public void recycle(final Traverser.Admin<?> traverser) {
+        if (CAPACITY == this.size || traverser.getClass() != B_O_Traverser.class || Thread.currentThread() != this.owner)
+            return;
+        final B_O_Traverser recycled = (B_O_Traverser) traverser;
+        // release the object so that a pooled traverser does not keep it from being collected
+        recycled.set(null);
+        recycled.tags = null;
+        this.traversers[this.size++] = recycled;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    private Object readResolve() {
+        return new TraverserPool();
+    }
+}
@@ -20,6 +20,7 @@ package org.apache.tinkerpop.gremlin.process.traversal.traverser.util;
 
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.TraverserGenerator;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.CompactPath;
 import org.apache.tinkerpop.gremlin.process.traversal.traverser.B_LP_O_P_S_SE_SL_TraverserGenerator;
 import org.apache.tinkerpop.gremlin.process.traversal.traverser.B_LP_O_S_SE_SL_TraverserGenerator;
 import org.apache.tinkerpop.gremlin.process.traversal.traverser.B_O_S_SE_SL_TraverserGenerator;
@@ -47,6 +48,10 @@ public class DefaultTraverserGeneratorFactory implements TraverserGeneratorFacto
     private DefaultTraverserGeneratorFactory() {
     }
 
+    /**
+     * Gets the generator for the requirements. A generator of traversers with labeled paths is created for each call
+     * so that every traversal has its own table of the labels of its {@link CompactPath} paths.
+     */
     @Override
     public TraverserGenerator getTraverserGenerator(final Set<TraverserRequirement> requirements) {
         if (requirements.contains(TraverserRequirement.ONE_BULK)) {
@@ -54,10 +59,10 @@ public class DefaultTraverserGeneratorFactory implements TraverserGeneratorFacto
                 return O_OB_S_SE_SL_TraverserGenerator.instance();
 
             if (LP_O_OB_S_SE_SL_TraverserGenerator.instance().getProvidedRequirements().containsAll(requirements))
-                return LP_O_OB_S_SE_SL_TraverserGenerator.instance();
+                return LP_O_OB_S_SE_SL_TraverserGenerator.compact();
 
             if (LP_O_OB_P_S_SE_SL_TraverserGenerator.instance().getProvidedRequirements().containsAll(requirements))
-                return LP_O_OB_P_S_SE_SL_TraverserGenerator.instance();
+                return LP_O_OB_P_S_SE_SL_TraverserGenerator.compact();
         } else {
             if (B_O_TraverserGenerator.instance().getProvidedRequirements().containsAll(requirements))
                 return B_O_TraverserGenerator.instance();
@@ -66,10 +71,10 @@ public class DefaultTraverserGeneratorFactory implements TraverserGeneratorFacto
                 return B_O_S_SE_SL_TraverserGenerator.instance();
 
             if (B_LP_O_S_SE_SL_TraverserGenerator.instance().getProvidedRequirements().containsAll(requirements))
-                return B_LP_O_S_SE_SL_TraverserGenerator.instance();
+                return B_LP_O_S_SE_SL_TraverserGenerator.compact();
 
             if (B_LP_O_P_S_SE_SL_TraverserGenerator.instance().getProvidedRequirements().containsAll(requirements))
-                return B_LP_O_P_S_SE_SL_TraverserGenerator.instance();
+                return B_LP_O_P_S_SE_SL_TraverserGenerator.compact();
         }
 
         throw new IllegalStateException("The provided traverser generator factory does not support the requirements of the traversal: " + this.getClass().getCanonicalName() + requirements);
@@ -20,78 +20,109 @@ package org.apache.tinkerpop.gremlin.process.traversal.traverser.util;
 
 import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
 import org.apache.tinkerpop.gremlin.process.traversal.util.FastNoSuchElementException;
-import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import java.util.Spliterator;
+import java.util.Spliterators;
 
 /**
+ * A set of traversers in insertion order in which adding a traverser equal to one already in the set merges their
+ * bulks. It is also a queue that is drained from its oldest traverser.
+ * <p/>
+ * The traversers are held in an array in insertion order and are found by an open-addressing hash table of indices
+ * into that array, so adding a traverser allocates nothing once the arrays are large enough. Removed traversers leave
+ * a hole in the array that is squeezed out the next time the array fills up, which keeps draining the set as a queue
+ * constant in time.
+ *
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
 public class TraverserSet<S> extends AbstractSet<Traverser.Admin<S>> implements Set<Traverser.Admin<S>>, Queue<Traverser.Admin<S>>, Serializable {
 
-    private final Map<Traverser.Admin<S>, Traverser.Admin<S>> map = new LinkedHashMap<>();
+    private static final int EMPTY = -1;
+    private static final int REMOVED = -2;
+    private static final int MINIMUM_CAPACITY = 8;
+    private static final Object[] NO_TRAVERSERS = new Object[0];
+    private static final int[] NO_HASHES = new int[0];
+
+    private transient Object[] traversers = NO_TRAVERSERS;
+    private transient int[] hashes = NO_HASHES;
+    private transient int[] table = NO_HASHES;
+    private transient int head = 0;
+    private transient int end = 0;
+    private transient int size = 0;
+    private transient int modCount = 0;
 
     public TraverserSet() {
 
     }
 
     public TraverserSet(final Traverser.Admin<S> traverser) {
-        this.map.put(traverser, traverser);
+        this.add(traverser);
     }
 
     @Override
     public Iterator<Traverser.Admin<S>> iterator() {
-        return this.map.values().iterator();
+        return new TraverserIterator();
     }
 
     public Traverser.Admin<S> get(final Traverser.Admin<S> traverser) {
-        return this.map.get(traverser);
+        final int index = this.indexOf(traverser, hash(traverser));
+        return index < 0 ? null : (Traverser.Admin<S>) this.traversers[index];
     }
 
     @Override
     public int size() {
-        return this.map.size();
+        return this.size;
     }
 
     public long bulkSize() {
         long bulk = 0L;
-        for (final Traverser.Admin<S> traverser : this.map.values()) {
-            bulk = bulk + traverser.bulk();
+        for (int i = this.head; i < this.end; i++) {
+            if (null != this.traversers[i])
+                bulk = bulk + ((Traverser.Admin<S>) this.traversers[i]).bulk();
         }
         return bulk;
     }
 
     @Override
     public boolean isEmpty() {
-        return this.map.isEmpty();
+        return 0 == this.size;
     }
 
     @Override
     public boolean contains(final Object traverser) {
-        return this.map.containsKey(traverser);
+        return null != traverser && this.indexOf(traverser, hash(traverser)) >= 0;
     }
 
     @Override
     public boolean add(final Traverser.Admin<S> traverser) {
-        final Traverser.Admin<S> existing = this.map.get(traverser);
-        if (null == existing) {
-            this.map.put(traverser, traverser);
-            return true;
-        } else {
-            existing.merge(traverser);
+        final int hash = hash(traverser);
+        final int index = this.indexOf(traverser, hash);
+        if (index >= 0) {
+            ((Traverser.Admin<S>) this.traversers[index]).merge(traverser);
             return false;
         }
+        this.ensureCapacity();
+        this.traversers[this.end] = traverser;
+        this.hashes[this.end] = hash;
+        this.insert(hash, this.end);
+        this.end++;
+        this.size++;
+        this.modCount++;
+        return true;
     }
 
     @Override
@@ -101,63 +132,192 @@ public class TraverserSet<S> extends AbstractSet<Traverser.Admin<S>> implements
 
     @Override
     public Traverser.Admin<S> remove() {  // pop, exception if empty
-        final Iterator<Traverser.Admin<S>> iterator = this.map.values().iterator();
-        if (!iterator.hasNext())
+        if (0 == this.size)
             throw FastNoSuchElementException.instance();
-        final Traverser.Admin<S> next = iterator.next();
-        iterator.remove();
+        final Traverser.Admin<S> next = (Traverser.Admin<S>) this.traversers[this.head];
+        this.removeAt(this.head);
         return next;
     }
 
     @Override
     public Traverser.Admin<S> poll() {  // pop, null if empty
-        return this.map.isEmpty() ? null : this.remove();
+        return 0 == this.size ? null : this.remove();
     }
 
     @Override
     public Traverser.Admin<S> element() { // peek, exception if empty
-        return this.iterator().next();
+        if (0 == this.size)
+            throw FastNoSuchElementException.instance();
+        return (Traverser.Admin<S>) this.traversers[this.head];
     }
 
     @Override
     public Traverser.Admin<S> peek() { // peek, null if empty
-        return this.map.isEmpty() ? null : this.iterator().next();
+        return 0 == this.size ? null : (Traverser.Admin<S>) this.traversers[this.head];
     }
 
     @Override
     public boolean remove(final Object traverser) {
-        return this.map.remove(traverser) != null;
+        final int index = null == traverser ? -1 : this.indexOf(traverser, hash(traverser));
+        if (index < 0)
+            return false;
+        this.removeAt(index);
+        return true;
     }
 
     @Override
     public void clear() {
-        this.map.clear();
+        Arrays.fill(this.traversers, this.head, this.end, null);
+        Arrays.fill(this.table, EMPTY);
+        this.head = 0;
+        this.end = 0;
+        this.size = 0;
+        this.modCount++;
     }
 
     @Override
     public Spliterator<Traverser.Admin<S>> spliterator() {
-        return this.map.values().spliterator();
-    }
-
-    @Override
-    public String toString() {
-        return this.map.values().toString();
+        return Spliterators.spliterator(this, Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
     }
 
     public void sort(final Comparator<Traverser<S>> comparator) {
-        final List<Traverser.Admin<S>> list = new ArrayList<>(this.map.size());
-        IteratorUtils.removeOnNext(this.map.values().iterator()).forEachRemaining(list::add);
+        final List<Traverser.Admin<S>> list = new ArrayList<>(this);
         Collections.sort(list, comparator);
-        this.map.clear();
-        list.forEach(traverser -> this.map.put(traverser, traverser));
+        this.clear();
+        list.forEach(this::add);
     }
 
     public void shuffle() {
-        final List<Traverser.Admin<S>> list = new ArrayList<>(this.map.size());
-        IteratorUtils.removeOnNext(this.map.values().iterator()).forEachRemaining(list::add);
+        final List<Traverser.Admin<S>> list = new ArrayList<>(this);
         Collections.shuffle(list);
-        this.map.clear();
-        list.forEach(traverser -> this.map.put(traverser, traverser));
+        this.clear();
+        list.forEach(this::add);
+    }
+
+    private static int hash(final Object traverser) {
+        final int hash = traverser.hashCode() * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private int indexOf(final Object traverser, final int hash) {
+        if (0 == this.size)
+            return -1;
+        final int mask = this.table.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            final int index = this.table[slot];
+            if (EMPTY == index)
+                return -1;
+            if (index >= 0 && this.hashes[index] == hash &&
+                    (traverser == this.traversers[index] || traverser.equals(this.traversers[index])))
+                return index;
+        }
+    }
+
+    private void insert(final int hash, final int index) {
+        final int mask = this.table.length - 1;
+        int slot = hash & mask;
+        while (this.table[slot] >= 0) {
+            slot = (slot + 1) & mask;
+        }
+        this.table[slot] = index;
+    }
+
+    private void removeAt(final int index) {
+        final int mask = this.table.length - 1;
+        int slot = this.hashes[index] & mask;
+        while (this.table[slot] != index) {
+            slot = (slot + 1) & mask;
+        }
+        this.table[slot] = REMOVED;
+        this.traversers[index] = null;
+        this.size--;
+        this.modCount++;
+        while (this.head < this.end && null == this.traversers[this.head]) {
+            this.head++;
+        }
     }
 
+    /**
+     * Makes room for one more traverser at the end of the array. The holes left by removed traversers are squeezed
+     * out first and the arrays only grow if that frees less than half of them, after which the hash table is rebuilt
+     * without the removed slots.
+     */
+    private void ensureCapacity() {
+        if (this.end < this.traversers.length)
+            return;
+        int live = 0;
+        for (int i = this.head; i < this.end; i++) {
+            if (null != this.traversers[i]) {
+                this.traversers[live] = this.traversers[i];
+                this.hashes[live++] = this.hashes[i];
+            }
+        }
+        Arrays.fill(this.traversers, live, this.end, null);
+        this.head = 0;
+        this.end = live;
+        if (live >= this.traversers.length >> 1) {
+            final int capacity = Math.max(MINIMUM_CAPACITY, this.traversers.length << 1);
+            this.traversers = Arrays.copyOf(this.traversers, capacity);
+            this.hashes = Arrays.copyOf(this.hashes, capacity);
+            this.table = new int[capacity << 1];
+        }
+        Arrays.fill(this.table, EMPTY);
+        for (int i = 0; i < this.end; i++) {
+            this.insert(this.hashes[i], i);
+        }
+    }
+
+    private void writeObject(final ObjectOutputStream outputStream) throws IOException {
+        outputStream.defaultWriteObject();
+        outputStream.writeInt(this.size);
+        for (final Traverser.Admin<S> traverser : this) {
+            outputStream.writeObject(traverser);
+        }
+    }
+
+    private void readObject(final ObjectInputStream inputStream) throws IOException, ClassNotFoundException {
+        inputStream.defaultReadObject();
+        this.traversers = NO_TRAVERSERS;
+        this.hashes = NO_HASHES;
+        this.table = NO_HASHES;
+        final int size = inputStream.readInt();
+        for (int i = 0; i < size; i++) {
+            this.add((Traverser.Admin<S>) inputStream.readObject());
+        }
+    }
+
+    private final class TraverserIterator implements Iterator<Traverser.Admin<S>> {
+        private int next = head;
+        private int last = -1;
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            while (this.next < end && null == traversers[this.next]) {
+                this.next++;
+            }
+            return this.next < end;
+        }
+
+        @Override
+        public Traverser.Admin<S> next() {
+            if (this.expectedModCount != modCount)
+                throw new ConcurrentModificationException();
+            if (!this.hasNext())
+                throw FastNoSuchElementException.instance();
+            this.last = this.next++;
+            return (Traverser.Admin<S>) traversers[this.last];
+        }
+
+        @Override
+        public void remove() {
+            if (this.last < 0)
+                throw new IllegalStateException();
+            if (this.expectedModCount != modCount)
+                throw new ConcurrentModificationException();
+            removeAt(this.last);
+            this.last = -1;
+            this.expectedModCount = modCount;
+        }
+    }
 }
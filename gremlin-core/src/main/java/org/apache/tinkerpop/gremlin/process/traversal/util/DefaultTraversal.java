@@ -26,7 +26,10 @@ import org.apache.tinkerpop.gremlin.process.traversal.TraversalSource;
 import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategies;
 import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
 import org.apache.tinkerpop.gremlin.process.traversal.TraverserGenerator;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Batching;
 import org.apache.tinkerpop.gremlin.process.traversal.step.TraversalParent;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.AbstractStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.BatchIterator;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.EmptyStep;
 import org.apache.tinkerpop.gremlin.process.traversal.traverser.TraverserRequirement;
 import org.apache.tinkerpop.gremlin.process.traversal.traverser.util.DefaultTraverserGeneratorFactory;
@@ -141,9 +144,25 @@ public class DefaultTraversal<S, E> implements Traversal.Admin<S, E> {
             this.requirements = null;
             this.getTraverserRequirements();
         }
+        this.batchSteps();
         this.locked = true;
     }
 
+    /**
+     * Has the end step of a root traversal drive the traversal a batch at a time when every step that follows its
+     * start step is {@link Batching}.
+     */
+    private void batchSteps() {
+        if (!(this.parent instanceof EmptyStep) || this.steps.size() < 2 ||
+                !(this.finalEndStep instanceof AbstractStep) || TraversalHelper.onGraphComputer(this))
+            return;
+        for (int i = 1; i < this.steps.size(); i++) {
+            if (!(this.steps.get(i) instanceof Batching))
+                return;
+        }
+        ((AbstractStep<?, E>) this.finalEndStep).setBatchIterator(new BatchIterator<>(this.steps));
+    }
+
     @Override
     public Set<TraverserRequirement> getTraverserRequirements() {
         if (null == this.requirements) {
@@ -257,6 +276,8 @@ public class DefaultTraversal<S, E> implements Traversal.Admin<S, E> {
                 clone.steps.add(clonedStep);
             }
             clone.finalEndStep = clone.getEndStep();
+            if (this.locked)
+                clone.batchSteps();
             return clone;
         } catch (final CloneNotSupportedException e) {
             throw new IllegalStateException(e.getMessage(), e);
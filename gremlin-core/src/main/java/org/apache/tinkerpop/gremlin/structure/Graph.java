@@ -389,6 +389,15 @@ public interface Graph extends AutoCloseable, Host {
 
     }
 
+    /**
+     * Gets the {@link GraphStatistics} of the graph, which are used by cost-based optimization strategies to choose
+     * between equivalent traversals. Graphs that do not gather statistics return an empty {@code Optional}, which
+     * is the default.
+     */
+    public default Optional<GraphStatistics> statistics() {
+        return Optional.empty();
+    }
+
     /**
      * Gets the {@link Features} exposed by the underlying {@code Graph} implementation.
      */
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.structure;
+
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.optimization.CostBasedStrategy;
+
+/**
+ * Estimates of the shape of the data in a {@link Graph} as returned by {@link Graph#statistics()}. They are used by
+ * {@link CostBasedStrategy} to choose between traversals that return the same results, so they need not be exact,
+ * only good enough to tell a cheap plan from an expensive one. Implementations are expected to be cheap to call as
+ * they are consulted every time a traversal is planned.
+ */
+public interface GraphStatistics {
+
+    /**
+     * The number of elements of the element class ({@link Vertex} or {@link Edge}).
+     */
+    public long count(final Class<? extends Element> elementClass);
+
+    /**
+     * The number of elements of the element class ({@link Vertex} or {@link Edge}) with the label.
+     */
+    public long count(final Class<? extends Element> elementClass, final String label);
+
+    /**
+     * The average number of edges with the label in the direction of each vertex that has at least one such edge,
+     * or of the edges with any label if the label is {@code null}. The average for {@link Direction#BOTH} is the sum
+     * of the averages for {@link Direction#OUT} and {@link Direction#IN}.
+     */
+    public double averageDegree(final Direction direction, final String edgeLabel);
+
+    /**
+     * The fraction, between {@code 0} and {@code 1}, of the elements of the element class ({@link Vertex} or
+     * {@link Edge}) with the label, or with any label if the label is {@code null}, that have a value of the property
+     * key which the predicate accepts.
+     */
+    public double selectivity(final Class<? extends Element> elementClass, final String label, final String key, final P<?> predicate);
+}
@@ -18,6 +18,7 @@
  */
 package org.apache.tinkerpop.gremlin.process.traversal;
 
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.CompactPath;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.ImmutablePath;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.MutablePath;
 import org.apache.tinkerpop.gremlin.structure.util.detached.DetachedPath;
@@ -30,12 +31,14 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -45,7 +48,7 @@ import static org.junit.Assert.fail;
 public class PathTest {
 
     private final static List<Supplier<Path>> PATH_SUPPLIERS =
-            Arrays.asList(MutablePath::make, ImmutablePath::make, DetachedPath::make, ReferencePath::make);
+            Arrays.asList(MutablePath::make, ImmutablePath::make, CompactPath::make, DetachedPath::make, ReferencePath::make);
 
     @Test
     public void shouldHaveStandardSemanticsImplementedCorrectly() {
@@ -501,4 +504,24 @@ public class PathTest {
             assertEquals(1, subPath.labels().get(2).size());
         });
     }
+
+    @Test
+    public void shouldShareCompactPathPrefixesAndOverflowToImmutablePath() {
+        Path path = CompactPath.make();
+        Path immutablePath = ImmutablePath.make();
+        for (int i = 0; i < 70; i++) {
+            final Set<String> labels = new LinkedHashSet<>(Arrays.asList("a" + i, "b"));
+            path = path.extend(i, labels);
+            immutablePath = immutablePath.extend(i, labels);
+            assertEquals(immutablePath, path);
+            assertEquals(immutablePath.hashCode(), path.hashCode());
+        }
+        assertTrue(path instanceof ImmutablePath);
+        assertEquals(70, path.<List>get("b").size());
+        ///
+        final Path prefix = CompactPath.make().extend("marko", Collections.singleton("a")).extend("stephen", Collections.singleton("b"));
+        final Path retracted = prefix.extend("matthias", Collections.singleton("c")).retract(Collections.singleton("c"));
+        assertSame(prefix, retracted);
+        assertSame(prefix.extend("daniel", Collections.singleton("c")).labels().get(1), prefix.labels().get(1));
+    }
 }
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal.strategy.finalization;
+
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Recycling;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.DedupGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.CountGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.MapStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.ReducingBarrierStep;
+import org.apache.tinkerpop.gremlin.process.traversal.traverser.B_O_Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.traverser.TraverserPool;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.util.empty.EmptyGraph;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TraverserRecyclingStrategyTest {
+
+    private final GraphTraversalSource g = EmptyGraph.instance().traversal().withStrategies(TraverserRecyclingStrategy.instance());
+
+    @Test
+    public void shouldRecycleFilteredAndReducedTraversers() {
+        final Traversal.Admin<Integer, Integer> traversal = g.inject(1, 2, 3, 4, 5, 6, 7, 8, 9, 10).is(P.gt(3)).constant(1).<Integer>sum().asAdmin();
+        assertEquals(7, traversal.next().intValue());
+        final TraverserPool traverserPool = TraversalHelper.getFirstStepOfAssignableClass(ReducingBarrierStep.class, traversal).get().getTraverserPool();
+        assertNotNull(traverserPool);
+        assertTrue(traverserPool.size() > 0);
+    }
+
+    @Test
+    public void shouldNotRecycleEmittedTraversers() {
+        final Traversal.Admin<Integer, Integer> traversal = g.inject(1, 2, 3, 4, 5, 6, 7, 8, 9, 10).is(P.gt(3)).constant(1).barrier().asAdmin();
+        final Traverser.Admin<Integer> traverser = traversal.nextTraverser();
+        assertEquals(1, traverser.get().intValue());
+        assertEquals(7, traverser.bulk());
+        assertEquals(B_O_Traverser.class, traverser.getClass());
+
+        final List<Traverser.Admin<Integer>> traversers = new ArrayList<>();
+        final Traversal.Admin<Integer, Integer> constants = g.inject(1, 2, 3, 4, 5, 6, 7, 8, 9, 10).is(P.gt(3)).constant(1).asAdmin();
+        while (constants.hasNext()) {
+            traversers.add(constants.nextTraverser());
+        }
+        final Set<Traverser.Admin<Integer>> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+        distinct.addAll(traversers);
+        assertEquals(7, distinct.size());
+        traversers.forEach(t -> assertEquals(1, t.get().intValue()));
+    }
+
+    @Test
+    public void shouldShareOnePoolAcrossTheTraversal() {
+        final Traversal.Admin<Integer, Long> traversal = g.inject(1, 1, 2).is(P.gt(0)).constant(1).dedup().count().asAdmin();
+        traversal.applyStrategies();
+        final TraverserPool traverserPool = TraversalHelper.getFirstStepOfAssignableClass(MapStep.class, traversal).get().getTraverserPool();
+        assertNotNull(traverserPool);
+        assertSame(traverserPool, TraversalHelper.getFirstStepOfAssignableClass(CountGlobalStep.class, traversal).get().getTraverserPool());
+        assertNull(TraversalHelper.getFirstStepOfAssignableClass(DedupGlobalStep.class, traversal).get().getTraverserPool());
+        assertEquals(1l, traversal.next().longValue());
+    }
+
+    @Test
+    public void shouldSerializeTheTraversalWithAnEmptyPool() throws Exception {
+        final Traversal.Admin<Integer, Long> traversal = g.inject(1, 2, 3, 4).is(P.gt(1)).constant(1).count().asAdmin();
+        traversal.applyStrategies();
+        TraversalHelper.getFirstStepOfAssignableClass(MapStep.class, traversal).get().getTraverserPool().recycle(new B_O_Traverser<>(1, 1l));
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final ObjectOutputStream outputStream = new ObjectOutputStream(bytes)) {
+            outputStream.writeObject(traversal);
+        }
+        try (final ObjectInputStream inputStream = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            final Traversal.Admin<Integer, Long> copy = (Traversal.Admin<Integer, Long>) inputStream.readObject();
+            final TraverserPool traverserPool = TraversalHelper.getFirstStepOfAssignableClass(MapStep.class, copy).get().getTraverserPool();
+            assertNotNull(traverserPool);
+            assertEquals(0, traverserPool.size());
+            assertSame(traverserPool, TraversalHelper.getFirstStepOfAssignableClass(CountGlobalStep.class, copy).get().getTraverserPool());
+            assertEquals(3l, copy.next().longValue());
+        }
+    }
+
+    @Test
+    public void shouldNotRecycleTraversersThatLambdasOrPathsCanReach() {
+        Traversal.Admin<Integer, Integer> traversal = g.inject(1, 2, 3).map(t -> t.get() + 1).is(P.gt(2)).asAdmin();
+        traversal.applyStrategies();
+        for (final Recycling step : TraversalHelper.getStepsOfAssignableClassRecursively(Recycling.class, traversal)) {
+            assertNull(step.getTraverserPool());
+        }
+        //
+        traversal = g.inject(1, 2, 3).as("a").is(P.gt(2)).<Integer>select("a").asAdmin();
+        traversal.applyStrategies();
+        for (final Recycling step : TraversalHelper.getStepsOfAssignableClassRecursively(Recycling.class, traversal)) {
+            assertNull(step.getTraverserPool());
+        }
+    }
+
+    @Test
+    public void shouldOnlyPoolOnTheOwningThread() throws Exception {
+        final TraverserPool traverserPool = new TraverserPool();
+        final Thread thread = new Thread(() -> traverserPool.recycle(new B_O_Traverser<>(1, 1l)));
+        thread.start();
+        thread.join();
+        assertEquals(0, traverserPool.size());
+
+        final B_O_Traverser<Integer> traverser = new B_O_Traverser<>(1, 1l);
+        traverserPool.recycle(traverser);
+        assertEquals(1, traverserPool.size());
+        final Traverser.Admin<String> split = traverserPool.split(new B_O_Traverser<>(2, 5l), "a", null);
+        assertSame(traverser, split);
+        assertEquals("a", split.get());
+        assertEquals(5l, split.bulk());
+        assertEquals(0, traverserPool.size());
+    }
+}
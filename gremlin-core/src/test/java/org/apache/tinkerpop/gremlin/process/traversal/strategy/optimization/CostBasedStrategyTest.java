@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal.strategy.optimization;
+
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategies;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.WhereTraversalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.util.DefaultTraversalStrategies;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.GraphStatistics;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.apache.tinkerpop.gremlin.process.traversal.P.gt;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.as;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(Parameterized.class)
+public class CostBasedStrategyTest {
+
+    /**
+     * The statistics of a graph of 10 people and 90 pieces of software in which people know 4 others on average and
+     * have created 2 pieces of software, each created by a single person.
+     */
+    private static final GraphStatistics STATISTICS = new GraphStatistics() {
+        @Override
+        public long count(final Class<? extends Element> elementClass) {
+            return Vertex.class.isAssignableFrom(elementClass) ? 100 : 60;
+        }
+
+        @Override
+        public long count(final Class<? extends Element> elementClass, final String label) {
+            return "person".equals(label) ? 10 : "software".equals(label) ? 90 : 0;
+        }
+
+        @Override
+        public double averageDegree(final Direction direction, final String edgeLabel) {
+            if (Direction.BOTH == direction)
+                return this.averageDegree(Direction.OUT, edgeLabel) + this.averageDegree(Direction.IN, edgeLabel);
+            if ("knows".equals(edgeLabel))
+                return 4d;
+            else if ("created".equals(edgeLabel))
+                return Direction.OUT == direction ? 2d : 1d;
+            return 0d;
+        }
+
+        @Override
+        public double selectivity(final Class<? extends Element> elementClass, final String label, final String key, final P<?> predicate) {
+            return "name".equals(key) ? 0.01d : "age".equals(key) ? 0.5d : 1d;
+        }
+    };
+
+    @Parameterized.Parameter(value = 0)
+    public Traversal original;
+
+    @Parameterized.Parameter(value = 1)
+    public Traversal optimized;
+
+    @Test
+    public void doTest() {
+        final Graph graph = mock(Graph.class);
+        when(graph.statistics()).thenReturn(Optional.of(STATISTICS));
+        final TraversalStrategies strategies = new DefaultTraversalStrategies();
+        strategies.addStrategies(CostBasedStrategy.instance());
+        this.original.asAdmin().setStrategies(strategies);
+        this.original.asAdmin().setGraph(graph);
+        this.original.asAdmin().applyStrategies();
+        assertEquals(this.optimized, this.original);
+        // the predicates of a has() and the patterns of a match() are hashed regardless of their order
+        assertEquals(this.optimized.toString(), this.original.toString());
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Iterable<Object[]> generateTestParameters() {
+        return Arrays.asList(new Object[][]{
+                {__.out().has("age", gt(30)).has("name", "marko"), __.out().has("name", "marko").has("age", gt(30))},
+                {__.out().has("name", "marko").has("age", gt(30)), __.out().has("name", "marko").has("age", gt(30))},
+                {__.out().hasLabel("software").has("name", "marko"), __.out().has("name", "marko").hasLabel("software")},
+                {__.out().has("age", gt(30)).hasLabel("person"), __.out().hasLabel("person").has("age", gt(30))},
+                {__.V().has("age", gt(30)).has("name", "marko"), __.V().has("name", "marko").has("age", gt(30))},
+                {__.has("age", gt(30)).has("name", "marko"), __.has("age", gt(30)).has("name", "marko")},
+                {__.where(as("a").out("created").as("b")), __.where(as("b").in("created").as("a"))},
+                {__.where(as("a").in("created").as("b")), __.where(as("a").in("created").as("b"))},
+                {__.where(as("a").out("knows").as("b")), __.where(as("a").out("knows").as("b"))},
+                {__.where(as("a").both("created").as("b")), __.where(as("a").both("created").as("b"))},
+                {labelVertexStep(__.where(as("a").out("created").as("b"))), labelVertexStep(__.where(as("a").out("created").as("b")))},
+                {__.where(as("a").out("created").out("knows").as("b")), __.where(as("a").out("created").out("knows").as("b"))},
+                {__.where(as("a").out("created").has("name", "lop").as("b")), __.where(as("a").out("created").has("name", "lop").as("b"))},
+                {__.match(as("a").out("knows").as("b"), as("a").out("created").as("c")), __.match(as("a").out("created").as("c"), as("a").out("knows").as("b"))},
+                {__.match(as("a").out("created").as("c"), as("a").out("knows").as("b")), __.match(as("a").out("created").as("c"), as("a").out("knows").as("b"))},
+        });
+    }
+
+    /**
+     * Labels the vertex step of the where()-traversal, which can not be done through the DSL as the label of its
+     * last step becomes the end key of the where().
+     */
+    private static Traversal labelVertexStep(final Traversal traversal) {
+        final WhereTraversalStep<?> whereStep = TraversalHelper.getFirstStepOfAssignableClass(WhereTraversalStep.class, traversal.asAdmin()).get();
+        whereStep.getLocalChildren().get(0).getSteps().get(1).addLabel("x");
+        return traversal;
+    }
+}
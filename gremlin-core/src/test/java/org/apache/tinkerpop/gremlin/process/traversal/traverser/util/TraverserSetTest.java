@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process.traversal.traverser.util;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.traverser.B_O_Traverser;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TraverserSetTest {
+
+    @Test
+    public void shouldMergeBulksOfEqualTraversers() {
+        final TraverserSet<String> set = new TraverserSet<>();
+        assertTrue(set.add(new B_O_Traverser<>("marko", 1l)));
+        assertTrue(set.add(new B_O_Traverser<>("josh", 2l)));
+        assertFalse(set.add(new B_O_Traverser<>("marko", 3l)));
+        assertEquals(2, set.size());
+        assertEquals(6, set.bulkSize());
+        assertEquals(4, set.get(new B_O_Traverser<>("marko", 1l)).bulk());
+        assertTrue(set.contains(new B_O_Traverser<>("josh", 1l)));
+        assertFalse(set.contains(new B_O_Traverser<>("vadas", 1l)));
+        assertEquals(Arrays.asList("marko", "josh"), values(set));
+    }
+
+    @Test
+    public void shouldDrainInInsertionOrderAsQueue() {
+        final TraverserSet<Integer> set = new TraverserSet<>();
+        final List<Integer> drained = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            set.add(new B_O_Traverser<>(i, 1l));
+            set.add(new B_O_Traverser<>(i + 1000, 1l));
+            drained.add(set.remove().get());
+        }
+        while (!set.isEmpty()) {
+            drained.add(set.poll().get());
+        }
+        assertNull(set.poll());
+        assertNull(set.peek());
+        assertEquals(2000, drained.size());
+        for (int i = 0; i < 2000; i++) {
+            assertEquals(i % 2 == 0 ? i / 2 : 1000 + i / 2, drained.get(i).intValue());
+        }
+    }
+
+    @Test
+    public void shouldRemoveTraversersAndKeepOrder() {
+        final TraverserSet<Integer> set = new TraverserSet<>();
+        for (int i = 0; i < 100; i++) {
+            set.add(new B_O_Traverser<>(i, 1l));
+        }
+        for (int i = 0; i < 100; i = i + 2) {
+            assertTrue(set.remove(new B_O_Traverser<>(i, 1l)));
+        }
+        assertFalse(set.remove(new B_O_Traverser<>(0, 1l)));
+        final Iterator<Traverser.Admin<Integer>> iterator = set.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().get() % 3 == 0)
+                iterator.remove();
+        }
+        for (int i = 100; i < 200; i++) {
+            set.add(new B_O_Traverser<>(i, 1l));
+        }
+        final List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            if (i >= 100 || (i % 2 != 0 && i % 3 != 0))
+                expected.add(i);
+        }
+        assertEquals(expected, values(set));
+        assertEquals(expected.size(), set.size());
+        assertEquals(1, set.peek().get().intValue());
+    }
+
+    @Test
+    public void shouldSortAndSerialize() throws Exception {
+        final TraverserSet<Integer> set = new TraverserSet<>();
+        for (int i = 0; i < 50; i++) {
+            set.add(new B_O_Traverser<>((i * 7) % 50, 2l));
+        }
+        set.sort(Comparator.comparing(Traverser::get));
+        final List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            expected.add(i);
+        }
+        assertEquals(expected, values(set));
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final ObjectOutputStream outputStream = new ObjectOutputStream(bytes)) {
+            outputStream.writeObject(set);
+        }
+        try (final ObjectInputStream inputStream = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            final TraverserSet<Integer> copy = (TraverserSet<Integer>) inputStream.readObject();
+            assertEquals(expected, values(copy));
+            assertEquals(100, copy.bulkSize());
+            copy.add(new B_O_Traverser<>(0, 1l));
+            assertEquals(3, copy.peek().bulk());
+        }
+    }
+
+    private static <S> List<S> values(final TraverserSet<S> set) {
+        final List<S> values = new ArrayList<>();
+        set.forEach(traverser -> values.add(traverser.get()));
+        return values;
+    }
+}
@@ -23,21 +23,31 @@ import org.apache.tinkerpop.gremlin.process.traversal.Operator;
 import org.apache.tinkerpop.gremlin.process.traversal.Step;
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.TraversalSideEffects;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.DefaultGraphTraversal;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Batching;
 import org.apache.tinkerpop.gremlin.process.traversal.step.TraversalParent;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.FlatMapStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.AbstractStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.BatchIterator;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.util.detached.DetachedVertex;
 import org.apache.tinkerpop.gremlin.util.function.ConstantSupplier;
 import org.apache.tinkerpop.gremlin.util.function.HashSetSupplier;
 import org.hamcrest.CoreMatchers;
 import org.junit.Test;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -45,10 +55,13 @@ import java.util.stream.IntStream;
 import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.is;
 import static org.hamcrest.number.OrderingComparison.greaterThan;
 import static org.hamcrest.number.OrderingComparison.lessThan;
+import static org.hamcrest.number.OrderingComparison.lessThanOrEqualTo;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -106,6 +119,50 @@ public class DefaultTraversalTest {
         assertNotSame(original.bytecode, clone.bytecode);
     }
 
+    @Test
+    public void shouldProcessBatchingStepsABatchAtATime() {
+        final Vertex[] vertices = IntStream.range(0, 1000)
+                .mapToObj(i -> DetachedVertex.build().setId(i).setLabel(0 == i % 2 ? "person" : "software").create())
+                .toArray(Vertex[]::new);
+        final Traversal.Admin<Vertex, Object> traversal = __.inject(vertices).hasLabel("person").as("a").id().asAdmin();
+        traversal.applyStrategies();
+        assertNotNull(((AbstractStep) traversal.getEndStep()).getBatchIterator());
+        assertNotNull(((AbstractStep) traversal.clone().getEndStep()).getBatchIterator());
+        int counter = 0;
+        while (traversal.hasNext()) {
+            final Traverser.Admin<Object> traverser = traversal.nextTraverser();
+            assertEquals(counter * 2, traverser.get());
+            assertTrue(traverser.path().hasLabel("a"));
+            counter++;
+        }
+        assertEquals(500, counter);
+        ///
+        final Traversal.Admin<Vertex, String> unbatched = __.inject(vertices).hasLabel("person").label().dedup().asAdmin();
+        unbatched.applyStrategies();
+        assertNull(((AbstractStep) unbatched.getEndStep()).getBatchIterator());
+        assertEquals(Collections.singletonList("person"), unbatched.toList());
+    }
+
+    @Test
+    public void shouldNotExpandMoreThanABatchPerStepToReturnTheFirstTraverser() {
+        final AtomicLong emitted = new AtomicLong();
+        final Traversal.Admin<Integer, Integer> traversal = __.inject(IntStream.range(0, 10).boxed().toArray(Integer[]::new)).asAdmin();
+        for (int i = 0; i < 3; i++) {
+            traversal.addStep(new FanOutStep(traversal, 20, emitted));
+        }
+        traversal.applyStrategies();
+        assertNotNull(((AbstractStep) traversal.getEndStep()).getBatchIterator());
+        assertEquals(0, traversal.next().intValue());
+        // expanding the whole batch would emit 10 * (20 + 20^2 + 20^3) traversers
+        assertThat(emitted.get(), lessThanOrEqualTo(3L * BatchIterator.BATCH_SIZE));
+        int counter = 1;
+        while (traversal.hasNext()) {
+            assertEquals(counter++, traversal.next().intValue());
+        }
+        assertEquals(10 * 20 * 20 * 20, counter);
+        assertEquals(10 * (20 + 20 * 20 + 20 * 20 * 20), emitted.get());
+    }
+
     @Test
     public void shouldBeTheSameSideEffectsThroughoutAllChildTraversals() {
         final DefaultTraversal.Admin<?, ?> traversal = (DefaultTraversal.Admin) __.out().repeat(__.in().groupCount("a").by(__.select("a"))).in();
@@ -148,4 +205,24 @@ public class DefaultTraversalTest {
             }
         }
     }
+
+    private static final class FanOutStep extends FlatMapStep<Integer, Integer> implements Batching<Integer, Integer> {
+
+        private final int fanOut;
+        private final AtomicLong emitted;
+
+        private FanOutStep(final Traversal.Admin traversal, final int fanOut, final AtomicLong emitted) {
+            super(traversal);
+            this.fanOut = fanOut;
+            this.emitted = emitted;
+        }
+
+        @Override
+        protected Iterator<Integer> flatMap(final Traverser.Admin<Integer> traverser) {
+            return IntStream.range(0, this.fanOut).mapToObj(i -> {
+                this.emitted.incrementAndGet();
+                return traverser.get() * this.fanOut + i;
+            }).iterator();
+        }
+    }
 }
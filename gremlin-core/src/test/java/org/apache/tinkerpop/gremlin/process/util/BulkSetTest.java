@@ -22,6 +22,7 @@ import org.apache.tinkerpop.gremlin.process.traversal.step.util.BulkSet;
 import org.junit.Test;
 
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 
@@ -89,4 +90,37 @@ public class BulkSetTest {
         }
         assertEquals(11, set.size());
     }
+
+    @Test
+    public void shouldKeepCountsAndOrderAcrossRemovals() {
+        final BulkSet<String> set = new BulkSet<>();
+        for (int i = 0; i < 100; i++) {
+            set.add("object-" + i, i + 1);
+        }
+        set.add(null, 3);
+        for (int i = 0; i < 100; i = i + 2) {
+            assertTrue(set.remove("object-" + i));
+        }
+        assertFalse(set.remove("object-0"));
+        set.add("marko", 5);
+        set.add("object-1", 10);
+        assertEquals(52, set.uniqueSize());
+        assertEquals(2550 + 3 + 5 + 10, set.longSize());
+        assertEquals(3, set.get(null));
+        assertEquals(12, set.get("object-1"));
+        assertTrue(set.contains(null));
+        assertFalse(set.contains("object-2"));
+
+        final Iterator<Map.Entry<String, Long>> entries = set.asBulk().entrySet().iterator();
+        for (int i = 1; i < 100; i = i + 2) {
+            assertEquals("object-" + i, entries.next().getKey());
+        }
+        assertEquals(null, entries.next().getKey());
+        assertEquals("marko", entries.next().getKey());
+        assertFalse(entries.hasNext());
+
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertEquals(0, set.longSize());
+    }
 }
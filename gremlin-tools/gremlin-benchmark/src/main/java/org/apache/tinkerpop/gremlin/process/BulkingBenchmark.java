@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.process;
+
+import org.apache.tinkerpop.benchmark.util.AbstractGraphBenchmark;
+import org.apache.tinkerpop.gremlin.LoadGraphWith;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.BulkSet;
+import org.apache.tinkerpop.gremlin.process.traversal.traverser.B_O_Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.traverser.util.TraverserSet;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.out;
+
+/**
+ * Runs benchmarks of the {@link TraverserSet} and {@link BulkSet} that hold the traversers of barriers and the
+ * objects of side-effects, on their own and under traversals that bulk heavily, against a
+ * {@link org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph} loaded with the Grateful Dead data set.
+ */
+@LoadGraphWith(LoadGraphWith.GraphData.GRATEFUL)
+public class BulkingBenchmark extends AbstractGraphBenchmark {
+
+    private static final int TRAVERSERS = 100000;
+    private static final int DISTINCT = 1000;
+
+    private Traverser.Admin<Integer>[] traversers;
+    private Integer[] objects;
+
+    @Setup
+    public void prepareObjects() {
+        final Random random = new Random(42);
+        this.traversers = new Traverser.Admin[TRAVERSERS];
+        this.objects = new Integer[TRAVERSERS];
+        for (int i = 0; i < TRAVERSERS; i++) {
+            this.objects[i] = random.nextInt(DISTINCT);
+            this.traversers[i] = new B_O_Traverser<>(this.objects[i], 1l);
+        }
+    }
+
+    @Benchmark
+    public long traverserSet_add() {
+        final TraverserSet<Integer> set = new TraverserSet<>();
+        for (final Traverser.Admin<Integer> traverser : this.traversers) {
+            set.add(traverser.split());
+        }
+        return set.bulkSize();
+    }
+
+    @Benchmark
+    public long traverserSet_add_remove() {
+        final TraverserSet<Integer> set = new TraverserSet<>();
+        long bulk = 0l;
+        for (final Traverser.Admin<Integer> traverser : this.traversers) {
+            set.add(traverser.split());
+            if (set.size() > 10)
+                bulk = bulk + set.remove().bulk();
+        }
+        return bulk;
+    }
+
+    @Benchmark
+    public long bulkSet_add_longSize() {
+        final BulkSet<Integer> set = new BulkSet<>();
+        long size = 0l;
+        for (final Integer object : this.objects) {
+            set.add(object);
+            size = size + set.longSize();
+        }
+        return size;
+    }
+
+    @Benchmark
+    public List<Vertex> g_V_out_out_out_barrier() throws Exception {
+        return g.V().out().out().out().barrier().toList();
+    }
+
+    @Benchmark
+    public List<Map<Object, Long>> g_V_out_out_groupCount() throws Exception {
+        return g.V().out().out().groupCount().toList();
+    }
+
+    @Benchmark
+    public List<Vertex> g_V_repeatXoutX_timesX3X_dedup() throws Exception {
+        return g.V().repeat(out()).times(3).dedup().toList();
+    }
+
+    @Benchmark
+    public List<Object> g_V_out_out_aggregateXxX_capXxX() throws Exception {
+        return g.V().out().out().aggregate("x").cap("x").toList();
+    }
+}
@@ -46,6 +46,17 @@ public class GraphTraversalBenchmark extends AbstractGraphBenchmark {
         return g.V().outE().inV().outE().inV().outE().inV().toList();
     }
 
+    // the limit() cases track a scan that can stop at its first matches, there are no reference results for them yet
+    @Benchmark
+    public List<Vertex> g_V_hasXname_GarciaX_limitX1X() throws Exception {
+        return g.V().has("name", "Garcia").limit(1).toList();
+    }
+
+    @Benchmark
+    public List<Vertex> g_V_hasLabelXsongX_limitX10X() throws Exception {
+        return g.V().hasLabel("song").limit(10).toList();
+    }
+
     @Benchmark
     public List<Vertex> g_V_out_out_out() throws Exception {
         return g.V().out().out().out().toList();
@@ -20,9 +20,13 @@ package org.apache.tinkerpop.gremlin.tinkergraph.process.computer;
 
 import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 import org.apache.tinkerpop.gremlin.process.computer.ComputerResult;
+import org.apache.tinkerpop.gremlin.process.computer.DoubleMessageCombiner;
 import org.apache.tinkerpop.gremlin.process.computer.GraphComputer;
 import org.apache.tinkerpop.gremlin.process.computer.GraphFilter;
+import org.apache.tinkerpop.gremlin.process.computer.LongMessageCombiner;
 import org.apache.tinkerpop.gremlin.process.computer.MapReduce;
+import org.apache.tinkerpop.gremlin.process.computer.MessageCombiner;
+import org.apache.tinkerpop.gremlin.process.computer.Messenger;
 import org.apache.tinkerpop.gremlin.process.computer.VertexProgram;
 import org.apache.tinkerpop.gremlin.process.computer.traversal.strategy.optimization.GraphFilterStrategy;
 import org.apache.tinkerpop.gremlin.process.computer.util.ComputerGraph;
@@ -34,10 +38,14 @@ import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalInterruptedE
 import org.apache.tinkerpop.gremlin.structure.Edge;
 import org.apache.tinkerpop.gremlin.structure.Graph;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.io.gryo.GryoPool;
+import org.apache.tinkerpop.gremlin.structure.io.gryo.GryoVersion;
 import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerHelper;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerIoRegistryV3d0;
 
+import java.io.File;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -62,6 +70,17 @@ public final class TinkerGraphComputer implements GraphComputer {
                 TraversalStrategies.GlobalCache.getStrategies(GraphComputer.class).clone().removeStrategies(GraphFilterStrategy.class));
     }
 
+    /**
+     * The fraction of the maximum heap that may be in use at the end of an iteration before the messages and compute
+     * properties of the vertex program are spilled to disk. A threshold of {@code 1} or more disables spilling.
+     */
+    public static final String GREMLIN_TINKERGRAPH_COMPUTER_SPILL_THRESHOLD = "gremlin.tinkergraph.computer.spillThreshold";
+
+    /**
+     * The directory of the spill files, which defaults to the temporary-file directory of the JVM.
+     */
+    public static final String GREMLIN_TINKERGRAPH_COMPUTER_SPILL_DIRECTORY = "gremlin.tinkergraph.computer.spillDirectory";
+
     private ResultGraph resultGraph = null;
     private Persist persist = null;
 
@@ -73,6 +92,9 @@ public final class TinkerGraphComputer implements GraphComputer {
     private final Set<MapReduce> mapReducers = new HashSet<>();
     private int workers = Runtime.getRuntime().availableProcessors();
     private final GraphFilter graphFilter = new GraphFilter();
+    private double spillThreshold;
+    private File spillDirectory;
+    private GryoPool spillPool = null;
 
     private final ThreadFactory threadFactoryBoss = new BasicThreadFactory.Builder().namingPattern(TinkerGraphComputer.class.getSimpleName() + "-boss").build();
 
@@ -84,6 +106,9 @@ public final class TinkerGraphComputer implements GraphComputer {
 
     public TinkerGraphComputer(final TinkerGraph graph) {
         this.graph = graph;
+        this.spillThreshold = graph.configuration().getDouble(GREMLIN_TINKERGRAPH_COMPUTER_SPILL_THRESHOLD, 0.8d);
+        final String spillDirectory = graph.configuration().getString(GREMLIN_TINKERGRAPH_COMPUTER_SPILL_DIRECTORY, null);
+        this.spillDirectory = null == spillDirectory ? null : new File(spillDirectory);
     }
 
     @Override
@@ -128,6 +153,15 @@ public final class TinkerGraphComputer implements GraphComputer {
         return this;
     }
 
+    @Override
+    public GraphComputer configure(final String key, final Object value) {
+        if (GREMLIN_TINKERGRAPH_COMPUTER_SPILL_THRESHOLD.equals(key))
+            this.spillThreshold = value instanceof Number ? ((Number) value).doubleValue() : Double.parseDouble(value.toString());
+        else if (GREMLIN_TINKERGRAPH_COMPUTER_SPILL_DIRECTORY.equals(key))
+            this.spillDirectory = null == value ? null : new File(value.toString());
+        return this;
+    }
+
     @Override
     public Future<ComputerResult> submit() {
         // a graph computer can only be executed once
@@ -148,6 +182,9 @@ public final class TinkerGraphComputer implements GraphComputer {
         this.persist = GraphComputerHelper.getPersistState(Optional.ofNullable(this.vertexProgram), Optional.ofNullable(this.persist));
         if (!this.features().supportsResultGraphPersistCombination(this.resultGraph, this.persist))
             throw GraphComputer.Exceptions.resultGraphPersistCombinationNotSupported(this.resultGraph, this.persist);
+        // a frozen graph can not take on the compute properties
+        if (this.graph.isFrozen() && ResultGraph.ORIGINAL == this.resultGraph && Persist.NOTHING != this.persist)
+            throw GraphComputer.Exceptions.resultGraphPersistCombinationNotSupported(this.resultGraph, this.persist);
         // ensure requested workers are not larger than supported workers
         if (this.workers > this.features().getMaxWorkers())
             throw GraphComputer.Exceptions.computerRequiresMoreWorkersThanSupported(this.workers, this.features().getMaxWorkers());
@@ -161,6 +198,8 @@ public final class TinkerGraphComputer implements GraphComputer {
             try {
                 if (null != this.vertexProgram) {
                     // execute the vertex program
+                    final Object combiner = this.vertexProgram.getMessageCombiner().orElse(null);
+                    this.messageBoard.initialize(this.graph.vertices(), combiner instanceof DoubleMessageCombiner || combiner instanceof LongMessageCombiner);
                     this.vertexProgram.setup(this.memory);
                     while (true) {
                         if (Thread.interrupted()) throw new TraversalInterruptedException();
@@ -173,7 +212,7 @@ public final class TinkerGraphComputer implements GraphComputer {
                                 if (Thread.interrupted()) throw new TraversalInterruptedException();
                                 vertexProgram.execute(
                                         ComputerGraph.vertexProgram(vertex, vertexProgram),
-                                        new TinkerMessenger<>(vertex, this.messageBoard, vertexProgram.getMessageCombiner()),
+                                        this.createMessenger(vertex, vertexProgram),
                                         workerMemory);
                             }
                             vertexProgram.workerIterationEnd(workerMemory.asImmutable());
@@ -186,6 +225,11 @@ public final class TinkerGraphComputer implements GraphComputer {
                             break;
                         } else {
                             this.memory.incrIteration();
+                            // the messages and compute properties are read back as the next iteration needs them
+                            if (this.isMemoryLow()) {
+                                this.messageBoard.spill(this::createSpillFile);
+                                view.spill(this.createSpillFile());
+                            }
                         }
                     }
                     view.complete(); // drop all transient vertex compute keys
@@ -194,15 +238,12 @@ public final class TinkerGraphComputer implements GraphComputer {
                 // execute mapreduce jobs
                 for (final MapReduce mapReduce : mapReducers) {
                     final TinkerMapEmitter<?, ?> mapEmitter = new TinkerMapEmitter<>(mapReduce.doStage(MapReduce.Stage.REDUCE));
-                    final SynchronizedIterator<Vertex> vertices = new SynchronizedIterator<>(this.graph.vertices());
                     workers.setMapReduce(mapReduce);
-                    workers.executeMapReduce(workerMapReduce -> {
+                    workers.executeMapReduce((vertices, workerMapReduce) -> {
                         workerMapReduce.workerStart(MapReduce.Stage.MAP);
-                        while (true) {
+                        while (vertices.hasNext()) {
                             if (Thread.interrupted()) throw new TraversalInterruptedException();
-                            final Vertex vertex = vertices.next();
-                            if (null == vertex) break;
-                            workerMapReduce.map(ComputerGraph.mapReduce(vertex), mapEmitter);
+                            workerMapReduce.map(ComputerGraph.mapReduce(vertices.next()), mapEmitter);
                         }
                         workerMapReduce.workerEnd(MapReduce.Stage.MAP);
                     });
@@ -244,12 +285,42 @@ public final class TinkerGraphComputer implements GraphComputer {
                 throw new RuntimeException(ex);
             } finally {
                 workers.close();
+                this.messageBoard.close();
+                view.closeSpillFile();
             }
         });
         this.computerService.shutdown();
         return result;
     }
 
+    private Messenger createMessenger(final Vertex vertex, final VertexProgram vertexProgram) {
+        final Optional<MessageCombiner> combiner = vertexProgram.getMessageCombiner();
+        if (combiner.isPresent() && combiner.get() instanceof DoubleMessageCombiner)
+            return new TinkerDoubleMessenger(vertex, this.messageBoard, (DoubleMessageCombiner) combiner.get());
+        else if (combiner.isPresent() && combiner.get() instanceof LongMessageCombiner)
+            return new TinkerLongMessenger(vertex, this.messageBoard, (LongMessageCombiner) combiner.get());
+        else
+            return new TinkerMessenger<>(vertex, this.messageBoard, (Optional) combiner);
+    }
+
+    private boolean isMemoryLow() {
+        final Runtime runtime = Runtime.getRuntime();
+        return this.spillThreshold < 1.0d &&
+                runtime.totalMemory() - runtime.freeMemory() >= this.spillThreshold * runtime.maxMemory();
+    }
+
+    private TinkerSpillFile createSpillFile() {
+        if (null == this.spillPool)
+            this.spillPool = GryoPool.build().
+                    version(GryoVersion.V3_0).
+                    ioRegistry(TinkerIoRegistryV3d0.instance()).
+                    type(GryoPool.Type.READER).
+                    poolSize(this.workers).
+                    initializeMapper(mapper -> mapper.registrationRequired(false)).
+                    create();
+        return new TinkerSpillFile(this.spillDirectory, this.spillPool);
+    }
+
     @Override
     public String toString() {
         return StringFactory.graphComputerString(this);
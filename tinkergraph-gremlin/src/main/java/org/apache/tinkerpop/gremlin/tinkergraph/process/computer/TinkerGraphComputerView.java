@@ -34,6 +34,7 @@ import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerHelper;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerVertex;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerVertexProperty;
+import org.apache.tinkerpop.shaded.kryo.KryoException;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -55,6 +56,8 @@ public final class TinkerGraphComputerView {
     private final Set<Object> legalVertices = new HashSet<>();
     private final Map<Object, Set<Object>> legalEdges = new HashMap<>();
     private final GraphFilter graphFilter;
+    private final Map<Element, Long> spilledProperties = new ConcurrentHashMap<>();
+    private TinkerSpillFile spillFile = null;
 
     public TinkerGraphComputerView(final TinkerGraph graph, final GraphFilter graphFilter, final Set<VertexComputeKey> computeKeys) {
         this.graph = graph;
@@ -102,6 +105,7 @@ public final class TinkerGraphComputerView {
     }
 
     public List<Property> getProperties(final TinkerVertex vertex) {
+        this.restore(vertex);
         final List<Property> list = new ArrayList<>();
         for (final List<VertexProperty> properties : TinkerHelper.getProperties(vertex).values()) {
             list.addAll(properties);
@@ -120,6 +124,10 @@ public final class TinkerGraphComputerView {
         }
     }
 
+    public boolean hasVertexFilter() {
+        return this.graphFilter.hasVertexFilter();
+    }
+
     public boolean legalVertex(final Vertex vertex) {
         return !this.graphFilter.hasVertexFilter() || this.legalVertices.contains(vertex.id());
     }
@@ -129,6 +137,11 @@ public final class TinkerGraphComputerView {
     }
 
     protected void complete() {
+        // bring back the properties that were spilled and not touched since
+        for (final Element element : this.spilledProperties.keySet()) {
+            this.restore(element);
+        }
+        this.closeSpillFile();
         // remove all transient properties from the vertices
         for (final VertexComputeKey computeKey : this.computeKeys.values()) {
             if (computeKey.isTransient()) {
@@ -139,6 +152,50 @@ public final class TinkerGraphComputerView {
         }
     }
 
+    /**
+     * Moves the compute properties of the vertices to the spill file, which replaces the previous spill file of the
+     * view. The properties of a vertex are brought back on the heap the next time that they are accessed. Properties
+     * that can not be serialized stay on the heap.
+     */
+    protected void spill(final TinkerSpillFile spillFile) {
+        for (final Map.Entry<Element, Long> entry : this.spilledProperties.entrySet()) {
+            entry.setValue(spillFile.copy(this.spillFile, entry.getValue()));
+        }
+        for (final Map.Entry<Element, Map<String, List<VertexProperty<?>>>> entry : this.computeProperties.entrySet()) {
+            final List<Object> record = new ArrayList<>();
+            entry.getValue().forEach((key, vertexProperties) -> vertexProperties.forEach(vertexProperty -> {
+                final List<Object> keyValues = new ArrayList<>();
+                vertexProperty.properties().forEachRemaining(property -> {
+                    keyValues.add(property.key());
+                    keyValues.add(property.value());
+                });
+                record.add(key);
+                record.add(vertexProperty.id());
+                record.add(vertexProperty.value());
+                record.add(keyValues);
+            }));
+            try {
+                this.spilledProperties.put(entry.getKey(), spillFile.write(record));
+                this.computeProperties.remove(entry.getKey());
+            } catch (final KryoException e) {
+                // the properties stay on the heap
+            }
+        }
+        spillFile.complete();
+        this.closeSpillFile();
+        this.spillFile = spillFile;
+    }
+
+    /**
+     * Deletes the spill file of the view, if any.
+     */
+    protected void closeSpillFile() {
+        if (null != this.spillFile) {
+            this.spillFile.close();
+            this.spillFile = null;
+        }
+    }
+
     //////////////////////
 
     public Graph processResultGraphPersist(final GraphComputer.ResultGraph resultGraph,
@@ -212,7 +269,31 @@ public final class TinkerGraphComputerView {
         return this.computeKeys.containsKey(key);
     }
 
+    private void restore(final Element vertex) {
+        if (!this.spilledProperties.isEmpty() && this.spilledProperties.containsKey(vertex)) {
+            // the spilled entry is only removed once the properties are back on the heap so that they are always found
+            this.spilledProperties.computeIfPresent(vertex, (v, offset) -> {
+                final List<Object> record = (List<Object>) this.spillFile.read(offset);
+                final Map<String, List<VertexProperty<?>>> properties = new HashMap<>();
+                for (int i = 0; i < record.size(); i = i + 4) {
+                    final String key = (String) record.get(i);
+                    final Object[] keyValues = ((List<Object>) record.get(i + 3)).toArray();
+                    properties.computeIfAbsent(key, k -> new ArrayList<>()).add(
+                            new TinkerVertexProperty<Object>(record.get(i + 1), (TinkerVertex) v, key, record.get(i + 2), keyValues) {
+                                @Override
+                                public void remove() {
+                                    removeProperty((TinkerVertex) v, key, this);
+                                }
+                            });
+                }
+                this.computeProperties.put(v, properties);
+                return null;
+            });
+        }
+    }
+
     private void addValue(final Vertex vertex, final String key, final VertexProperty property) {
+        this.restore(vertex);
         final Map<String, List<VertexProperty<?>>> elementProperties = this.computeProperties.computeIfAbsent(vertex, k -> new HashMap<>());
         elementProperties.compute(key, (k, v) -> {
             if (null == v) v = new ArrayList<>();
@@ -222,10 +303,12 @@ public final class TinkerGraphComputerView {
     }
 
     private void removeValue(final Vertex vertex, final String key, final VertexProperty property) {
+        this.restore(vertex);
         this.computeProperties.<List<Map<String, VertexProperty<?>>>>getOrDefault(vertex, Collections.emptyMap()).get(key).remove(property);
     }
 
     private List<VertexProperty<?>> getValue(final Vertex vertex, final String key) {
+        this.restore(vertex);
         return this.computeProperties.getOrDefault(vertex, Collections.emptyMap()).getOrDefault(key, Collections.emptyList());
     }
 }
\ No newline at end of file
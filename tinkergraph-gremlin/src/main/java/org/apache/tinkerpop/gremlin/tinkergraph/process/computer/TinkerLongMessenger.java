@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.computer;
+
+import org.apache.tinkerpop.gremlin.process.computer.LongMessageCombiner;
+import org.apache.tinkerpop.gremlin.process.computer.LongMessenger;
+import org.apache.tinkerpop.gremlin.process.computer.MessageScope;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+
+import java.util.PrimitiveIterator;
+import java.util.function.BiFunction;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * A {@link LongMessenger} that combines messages into the {@code long} arrays of a primitive {@link TinkerMessageBoard}
+ * without boxing them.
+ */
+public final class TinkerLongMessenger implements LongMessenger {
+
+    private final Vertex vertex;
+    private final TinkerMessageBoard<Long> messageBoard;
+    private final LongBinaryOperator combiner;
+    private final int slot;
+
+    public TinkerLongMessenger(final Vertex vertex, final TinkerMessageBoard<Long> messageBoard, final LongMessageCombiner combiner) {
+        this.vertex = vertex;
+        this.messageBoard = messageBoard;
+        this.combiner = combiner::combine;
+        this.slot = messageBoard.getSlot(vertex);
+    }
+
+    @Override
+    public PrimitiveIterator.OfLong receiveLongMessages() {
+        final TinkerPrimitiveMessages messages = new TinkerPrimitiveMessages(this.vertex, this.slot, this.messageBoard);
+        return new PrimitiveIterator.OfLong() {
+            @Override
+            public boolean hasNext() {
+                return messages.hasNext();
+            }
+
+            @Override
+            public long nextLong() {
+                final long message = messages.next();
+                final MessageScope.Local<?> localMessageScope = messages.getEdgeFunctionScope();
+                return null == localMessageScope ?
+                        message :
+                        ((BiFunction<Long, Edge, Long>) localMessageScope.getEdgeFunction()).apply(message, messages.getEdge());
+            }
+        };
+    }
+
+    @Override
+    public void sendMessage(final MessageScope messageScope, final long message) {
+        final TinkerMessageBoard.MessageBuffer<Long> buffer = this.messageBoard.getSendBuffer(messageScope);
+        if (messageScope instanceof MessageScope.Local) {
+            buffer.sendValue(this.slot, message, this.combiner);
+        } else {
+            for (final Vertex vertex : ((MessageScope.Global) messageScope).vertices()) {
+                buffer.sendValue(this.messageBoard.getSlot(vertex), message, this.combiner);
+            }
+        }
+    }
+}
@@ -18,29 +18,326 @@
  */
 package org.apache.tinkerpop.gremlin.tinkergraph.process.computer;
 
+import org.apache.tinkerpop.gremlin.process.computer.MessageCombiner;
 import org.apache.tinkerpop.gremlin.process.computer.MessageScope;
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.Direction;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.shaded.kryo.KryoException;
 
-import java.util.HashSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
-import java.util.Queue;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongBinaryOperator;
+import java.util.function.Supplier;
 
 /**
+ * Holds the messages of the current and the previous iteration of a vertex program. Each vertex is assigned a dense
+ * slot when the computation starts and every {@link MessageScope} gets an array with one entry per slot, so sending a
+ * message is a compare-and-set on the slot of the vertex that holds it. With a {@link MessageCombiner} the entry is
+ * the combined message, otherwise it is a chain of the messages. A board for primitive messages instead keeps the raw
+ * bits of each combined message in a {@code long} array. The arrays of an iteration are cleared and reused two
+ * iterations later. The messages of the previous iteration can be {@link #spill(Supplier) spilled} to a
+ * {@link TinkerSpillFile} when the heap runs low, in which case they are read back from the file as they are received.
+ *
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
 final class TinkerMessageBoard<M> {
 
-    public Map<MessageScope, Map<Vertex,Queue<M>>> sendMessages = new ConcurrentHashMap<>();
-    public Map<MessageScope, Map<Vertex, Queue<M>>> receiveMessages = new ConcurrentHashMap<>();
-    public Set<MessageScope> previousMessageScopes = new HashSet<>();
-    public Set<MessageScope> currentMessageScopes = new HashSet<>();
+    /**
+     * The number of scope instances that are looked up by identity, beyond which equal instances are found by
+     * {@code equals()} under the lock of the board.
+     */
+    private static final int MAX_SCOPE_INSTANCES = 256;
+
+    private Map<Object, Integer> slots = Collections.emptyMap();
+    private boolean primitive = false;
+    private final List<MessageBuffer<M>> sendBuffers = new ArrayList<>();
+    private volatile Map<MessageScope, MessageBuffer<M>> sendBuffersByScope = new IdentityHashMap<>();
+    private volatile MessageBuffer<M> globalSendBuffer = null;
+    private List<MessageBuffer<M>> receiveBuffers = Collections.emptyList();
+    private final Deque<MessageBuffer<M>> spareBuffers = new ArrayDeque<>();
+    private TinkerSpillFile spillFile = null;
+
+    /**
+     * Assigns a slot to each vertex that takes part in the computation.
+     *
+     * @param primitive whether messages are combined into primitive values
+     */
+    public void initialize(final Iterator<Vertex> vertices, final boolean primitive) {
+        final Map<Object, Integer> slots = new HashMap<>();
+        vertices.forEachRemaining(vertex -> slots.put(vertex.id(), slots.size()));
+        this.slots = slots;
+        this.primitive = primitive;
+        this.spareBuffers.clear();
+    }
+
+    /**
+     * Gets the slot of the vertex or {@code -1} if it does not take part in the computation.
+     */
+    public int getSlot(final Vertex vertex) {
+        final Integer slot = this.slots.get(vertex.id());
+        return null == slot ? -1 : slot;
+    }
+
+    /**
+     * Gets the buffer that messages of the scope are sent to in the current iteration.
+     */
+    public MessageBuffer<M> getSendBuffer(final MessageScope messageScope) {
+        // global scopes are all equal and are typically created for every message
+        final MessageBuffer<M> buffer = messageScope instanceof MessageScope.Global ?
+                this.globalSendBuffer :
+                this.sendBuffersByScope.get(messageScope);
+        return null == buffer ? this.createSendBuffer(messageScope) : buffer;
+    }
+
+    private synchronized MessageBuffer<M> createSendBuffer(final MessageScope messageScope) {
+        MessageBuffer<M> buffer = messageScope instanceof MessageScope.Global ?
+                this.globalSendBuffer :
+                this.sendBuffersByScope.get(messageScope);
+        if (null != buffer)
+            return buffer;
+        for (final MessageBuffer<M> sendBuffer : this.sendBuffers) {
+            if (sendBuffer.messageScope.equals(messageScope))
+                buffer = sendBuffer;
+        }
+        if (null == buffer) {
+            buffer = this.spareBuffers.isEmpty() ?
+                    new MessageBuffer<>(this.slots.size(), this.primitive) :
+                    this.spareBuffers.pop();
+            buffer.setMessageScope(messageScope);
+            this.sendBuffers.add(buffer);
+        }
+        if (messageScope instanceof MessageScope.Global)
+            this.globalSendBuffer = buffer;
+        else if (this.sendBuffersByScope.size() < MAX_SCOPE_INSTANCES) {
+            // each worker has its own copy of the vertex program and thus its own, equal instances of a scope
+            final Map<MessageScope, MessageBuffer<M>> sendBuffersByScope = new IdentityHashMap<>(this.sendBuffersByScope);
+            sendBuffersByScope.put(messageScope, buffer);
+            this.sendBuffersByScope = sendBuffersByScope;
+        }
+        return buffer;
+    }
+
+    /**
+     * Gets the buffers of the messages that were sent in the previous iteration.
+     */
+    public List<MessageBuffer<M>> getReceiveBuffers() {
+        return this.receiveBuffers;
+    }
+
+    public synchronized void completeIteration() {
+        for (final MessageBuffer<M> buffer : this.receiveBuffers) {
+            buffer.clear();
+            this.spareBuffers.push(buffer);
+        }
+        this.close();
+        this.receiveBuffers = new ArrayList<>(this.sendBuffers);
+        this.sendBuffers.clear();
+        this.sendBuffersByScope = new IdentityHashMap<>();
+        this.globalSendBuffer = null;
+    }
+
+    /**
+     * Moves the messages that are to be received in the next iteration to a spill file. Primitive messages are
+     * compact enough to stay on the heap, as do messages that can not be serialized.
+     */
+    public synchronized void spill(final Supplier<TinkerSpillFile> spillFiles) {
+        if (this.primitive || this.receiveBuffers.isEmpty())
+            return;
+        this.close();
+        this.spillFile = spillFiles.get();
+        for (final MessageBuffer<M> buffer : this.receiveBuffers) {
+            buffer.spill(this.spillFile);
+        }
+        this.spillFile.complete();
+    }
+
+    /**
+     * Deletes the spill file of the messages, if any.
+     */
+    public synchronized void close() {
+        if (null != this.spillFile) {
+            this.spillFile.close();
+            this.spillFile = null;
+        }
+    }
+
+    static final class MessageBuffer<M> {
+
+        private static final int EMPTY = 0;
+        private static final int WRITING = 1;
+        private static final int PRESENT = 2;
+
+        MessageScope messageScope;
+
+        /**
+         * The direction of the edges of a local scope that lead from the receiving vertex to the sending vertex.
+         */
+        Direction direction;
+
+        /**
+         * The labels of the edges of a local scope whose incident traversal is a single edge step, which is
+         * {@code null} for any other local scope.
+         */
+        String[] edgeLabels;
+
+        private final AtomicReferenceArray<Object> messages;
+        private final AtomicLongArray values;
+        private final AtomicIntegerArray states;
+        private TinkerSpillFile spillFile = null;
+        private long[] spillOffsets = null;
+
+        private MessageBuffer(final int size, final boolean primitive) {
+            this.messages = primitive ? null : new AtomicReferenceArray<>(size);
+            this.values = primitive ? new AtomicLongArray(size) : null;
+            this.states = primitive ? new AtomicIntegerArray(size) : null;
+        }
+
+        private void setMessageScope(final MessageScope messageScope) {
+            this.messageScope = messageScope;
+            this.direction = null;
+            this.edgeLabels = null;
+            if (messageScope instanceof MessageScope.Local) {
+                final Traversal.Admin<Vertex, ?> incidentTraversal = ((MessageScope.Local<?>) messageScope).getIncidentTraversal().get().asAdmin();
+                this.direction = TraversalHelper.getLastStepOfAssignableClass(VertexStep.class, incidentTraversal).get().getDirection();
+                final List<Step> steps = incidentTraversal.getSteps();
+                if (1 == steps.size() && steps.get(0) instanceof VertexStep && ((VertexStep) steps.get(0)).returnsEdge())
+                    this.edgeLabels = ((VertexStep) steps.get(0)).getEdgeLabels();
+            }
+        }
+
+        private void clear() {
+            if (null == this.messages) {
+                for (int i = 0; i < this.states.length(); i++) {
+                    this.states.lazySet(i, EMPTY);
+                }
+            } else {
+                for (int i = 0; i < this.messages.length(); i++) {
+                    this.messages.lazySet(i, null);
+                }
+            }
+            this.spillFile = null;
+        }
+
+        private void spill(final TinkerSpillFile spillFile) {
+            if (null == this.spillOffsets)
+                this.spillOffsets = new long[this.messages.length()];
+            Arrays.fill(this.spillOffsets, -1L);
+            this.spillFile = spillFile;
+            for (int i = 0; i < this.messages.length(); i++) {
+                if (null != this.messages.get(i)) {
+                    final List<M> messages = new ArrayList<>();
+                    this.receive(i).forEachRemaining(messages::add);
+                    try {
+                        this.spillOffsets[i] = spillFile.write(messages);
+                        this.messages.lazySet(i, null);
+                    } catch (final KryoException e) {
+                        // the messages stay on the heap
+                    }
+                }
+            }
+        }
+
+        public void send(final int slot, final M message, final MessageCombiner<M> combiner) {
+            if (slot < 0)
+                return;
+            while (true) {
+                final Object current = this.messages.get(slot);
+                final Object next;
+                if (null == current)
+                    next = null == combiner ? new MessageNode(message, null) : message;
+                else
+                    next = null == combiner ? new MessageNode(message, (MessageNode) current) : combiner.combine((M) current, message);
+                if (this.messages.compareAndSet(slot, current, next))
+                    return;
+            }
+        }
+
+        public Iterator<M> receive(final int slot) {
+            final Object current = slot < 0 ? null : this.messages.get(slot);
+            if (null == current)
+                return null == this.spillFile || slot < 0 || this.spillOffsets[slot] < 0 ?
+                        Collections.<M>emptyIterator() :
+                        ((List<M>) this.spillFile.read(this.spillOffsets[slot])).iterator();
+            else if (!(current instanceof MessageNode))
+                return Collections.singleton((M) current).iterator();
+            else {
+                return new Iterator<M>() {
+                    private MessageNode node = (MessageNode) current;
+
+                    @Override
+                    public boolean hasNext() {
+                        return null != this.node;
+                    }
+
+                    @Override
+                    public M next() {
+                        if (null == this.node)
+                            throw new NoSuchElementException();
+                        final M message = (M) this.node.message;
+                        this.node = this.node.next;
+                        return message;
+                    }
+                };
+            }
+        }
+
+        /**
+         * Combines the raw bits of a primitive message into the slot.
+         */
+        public void sendValue(final int slot, final long value, final LongBinaryOperator combiner) {
+            if (slot < 0)
+                return;
+            if (PRESENT != this.states.get(slot)) {
+                if (this.states.compareAndSet(slot, EMPTY, WRITING)) {
+                    this.values.set(slot, value);
+                    this.states.set(slot, PRESENT);
+                    return;
+                }
+                // another worker is writing the first message of the slot
+                while (PRESENT != this.states.get(slot)) {
+                    Thread.yield();
+                }
+            }
+            while (true) {
+                final long current = this.values.get(slot);
+                if (this.values.compareAndSet(slot, current, combiner.applyAsLong(current, value)))
+                    return;
+            }
+        }
+
+        public boolean hasValue(final int slot) {
+            return slot >= 0 && PRESENT == this.states.get(slot);
+        }
+
+        public long getValue(final int slot) {
+            return this.values.get(slot);
+        }
+    }
+
+    private static final class MessageNode {
+
+        private final Object message;
+        private final MessageNode next;
 
-    public void completeIteration() {
-        this.receiveMessages = this.sendMessages;
-        this.sendMessages = new ConcurrentHashMap<>();
-        this.previousMessageScopes = this.currentMessageScopes;
-        this.currentMessageScopes = new HashSet<>();
+        private MessageNode(final Object message, final MessageNode next) {
+            this.message = message;
+            this.next = next;
+        }
     }
 }
@@ -23,24 +23,16 @@ import org.apache.tinkerpop.gremlin.process.computer.MessageScope;
 import org.apache.tinkerpop.gremlin.process.computer.Messenger;
 import org.apache.tinkerpop.gremlin.process.computer.util.VertexProgramHelper;
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
-import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
-import org.apache.tinkerpop.gremlin.process.traversal.step.sideEffect.StartStep;
-import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
 import org.apache.tinkerpop.gremlin.structure.Direction;
 import org.apache.tinkerpop.gremlin.structure.Edge;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
 import org.apache.tinkerpop.gremlin.util.iterator.MultiIterator;
 
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
-import java.util.Queue;
-import java.util.Spliterator;
-import java.util.Spliterators;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
 
 /**
  * @author Marko A. Rodriguez (http://markorodriguez.com)
@@ -50,36 +42,31 @@ public final class TinkerMessenger<M> implements Messenger<M> {
     private final Vertex vertex;
     private final TinkerMessageBoard<M> messageBoard;
     private final MessageCombiner<M> combiner;
+    private final int slot;
 
     public TinkerMessenger(final Vertex vertex, final TinkerMessageBoard<M> messageBoard, final Optional<MessageCombiner<M>> combiner) {
         this.vertex = vertex;
         this.messageBoard = messageBoard;
         this.combiner = combiner.isPresent() ? combiner.get() : null;
+        this.slot = messageBoard.getSlot(vertex);
     }
 
     @Override
     public Iterator<M> receiveMessages() {
-        final MultiIterator<M> multiIterator = new MultiIterator<>();
-        for (final MessageScope messageScope : this.messageBoard.receiveMessages.keySet()) {
-//        for (final MessageScope messageScope : this.messageBoard.previousMessageScopes) {
-            if (messageScope instanceof MessageScope.Local) {
-                final MessageScope.Local<M> localMessageScope = (MessageScope.Local<M>) messageScope;
-                final Traversal.Admin<Vertex, Edge> incidentTraversal = TinkerMessenger.setVertexStart(localMessageScope.getIncidentTraversal().get().asAdmin(), this.vertex);
-                final Direction direction = TinkerMessenger.getDirection(incidentTraversal);
-                final Edge[] edge = new Edge[1]; // simulates storage side-effects available in Gremlin, but not Java8 streams
-                multiIterator.addIterator(StreamSupport.stream(Spliterators.spliteratorUnknownSize(VertexProgramHelper.reverse(incidentTraversal.asAdmin()), Spliterator.IMMUTABLE | Spliterator.SIZED), false)
-                        .map(e -> this.messageBoard.receiveMessages.get(messageScope).get((edge[0] = e).vertices(direction).next()))
-                        .filter(q -> null != q)
-                        .flatMap(Queue::stream)
-                        .map(message -> localMessageScope.getEdgeFunction().apply(message, edge[0]))
-                        .iterator());
+        final List<TinkerMessageBoard.MessageBuffer<M>> buffers = this.messageBoard.getReceiveBuffers();
+        if (buffers.isEmpty())
+            return Collections.emptyIterator();
 
+        final MultiIterator<M> multiIterator = new MultiIterator<>();
+        for (final TinkerMessageBoard.MessageBuffer<M> buffer : buffers) {
+            if (buffer.messageScope instanceof MessageScope.Local) {
+                final MessageScope.Local<M> localMessageScope = (MessageScope.Local<M>) buffer.messageScope;
+                final Direction direction = buffer.direction;
+                multiIterator.addIterator(IteratorUtils.flatMap(TinkerMessenger.getIncidentEdges(this.vertex, buffer), edge ->
+                        IteratorUtils.map(buffer.receive(this.messageBoard.getSlot(edge.vertices(direction).next())),
+                                message -> localMessageScope.getEdgeFunction().apply(message, edge))));
             } else {
-                multiIterator.addIterator(Stream.of(this.vertex)
-                        .map(this.messageBoard.receiveMessages.get(messageScope)::get)
-                        .filter(q -> null != q)
-                        .flatMap(Queue::stream)
-                        .iterator());
+                multiIterator.addIterator(buffer.receive(this.slot));
             }
         }
         return multiIterator;
@@ -87,26 +74,14 @@ public final class TinkerMessenger<M> implements Messenger<M> {
 
     @Override
     public void sendMessage(final MessageScope messageScope, final M message) {
-//        this.messageBoard.currentMessageScopes.add(messageScope);
+        final TinkerMessageBoard.MessageBuffer<M> buffer = this.messageBoard.getSendBuffer(messageScope);
         if (messageScope instanceof MessageScope.Local) {
-            addMessage(this.vertex, message, messageScope);
+            buffer.send(this.slot, message, this.combiner);
         } else {
-            ((MessageScope.Global) messageScope).vertices().forEach(v -> addMessage(v, message, messageScope));
+            ((MessageScope.Global) messageScope).vertices().forEach(v -> buffer.send(this.messageBoard.getSlot(v), message, this.combiner));
         }
     }
 
-    private void addMessage(final Vertex vertex, final M message, MessageScope messageScope) {
-        this.messageBoard.sendMessages.compute(messageScope, (ms, messages) -> {
-            if(null==messages) messages = new ConcurrentHashMap<>();
-            return messages;
-        });
-        this.messageBoard.sendMessages.get(messageScope).compute(vertex, (v, queue) -> {
-            if (null == queue) queue = new ConcurrentLinkedQueue<>();
-            queue.add(null != this.combiner && !queue.isEmpty() ? this.combiner.combine(queue.remove(), message) : message);
-            return queue;
-        });
-    }
-
     ///////////
 
     private static <T extends Traversal.Admin<Vertex, Edge>> T setVertexStart(final Traversal.Admin<Vertex, Edge> incidentTraversal, final Vertex vertex) {
@@ -114,8 +89,14 @@ public final class TinkerMessenger<M> implements Messenger<M> {
         return (T) incidentTraversal;
     }
 
-    private static Direction getDirection(final Traversal.Admin<Vertex, Edge> incidentTraversal) {
-        final VertexStep step = TraversalHelper.getLastStepOfAssignableClass(VertexStep.class, incidentTraversal).get();
-        return step.getDirection();
+    /**
+     * Gets the edges that lead from the vertex to the vertices that send it messages of the local scope of the buffer.
+     */
+    static Iterator<Edge> getIncidentEdges(final Vertex vertex, final TinkerMessageBoard.MessageBuffer<?> buffer) {
+        // a single edge step is walked in reverse without building a traversal for the vertex
+        if (null != buffer.edgeLabels)
+            return vertex.edges(buffer.direction.opposite(), buffer.edgeLabels);
+        final MessageScope.Local<?> localMessageScope = (MessageScope.Local<?>) buffer.messageScope;
+        return VertexProgramHelper.reverse(TinkerMessenger.setVertexStart(localMessageScope.getIncidentTraversal().get().asAdmin(), vertex));
     }
 }
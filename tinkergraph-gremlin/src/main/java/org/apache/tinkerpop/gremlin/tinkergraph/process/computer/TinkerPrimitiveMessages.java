@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.computer;
+
+import org.apache.tinkerpop.gremlin.process.computer.MessageScope;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates the raw bits of the primitive messages that a vertex receives from the buffers of a
+ * {@link TinkerMessageBoard}, along with the scope and edge of each so that the edge function of a local scope can be
+ * applied to it.
+ */
+final class TinkerPrimitiveMessages {
+
+    private final Vertex vertex;
+    private final int slot;
+    private final TinkerMessageBoard<?> messageBoard;
+    private final Iterator<? extends TinkerMessageBoard.MessageBuffer<?>> buffers;
+
+    private TinkerMessageBoard.MessageBuffer<?> buffer = null;
+    private Iterator<Edge> edges = Collections.emptyIterator();
+    private boolean hasNext = false;
+    private long value;
+    private Edge edge;
+    private MessageScope.Local<?> localMessageScope;
+
+    TinkerPrimitiveMessages(final Vertex vertex, final int slot, final TinkerMessageBoard<?> messageBoard) {
+        this.vertex = vertex;
+        this.slot = slot;
+        this.messageBoard = messageBoard;
+        this.buffers = messageBoard.getReceiveBuffers().iterator();
+    }
+
+    public boolean hasNext() {
+        while (!this.hasNext) {
+            if (this.edges.hasNext()) {
+                final Edge edge = this.edges.next();
+                final int sender = this.messageBoard.getSlot(edge.vertices(this.buffer.direction).next());
+                if (this.buffer.hasValue(sender)) {
+                    this.value = this.buffer.getValue(sender);
+                    this.edge = edge;
+                    this.localMessageScope = (MessageScope.Local<?>) this.buffer.messageScope;
+                    this.hasNext = true;
+                }
+            } else if (this.buffers.hasNext()) {
+                this.buffer = this.buffers.next();
+                if (this.buffer.messageScope instanceof MessageScope.Local)
+                    this.edges = TinkerMessenger.getIncidentEdges(this.vertex, this.buffer);
+                else if (this.buffer.hasValue(this.slot)) {
+                    this.value = this.buffer.getValue(this.slot);
+                    this.edge = null;
+                    this.localMessageScope = null;
+                    this.hasNext = true;
+                }
+            } else
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Moves to the next message and returns its raw bits.
+     */
+    public long next() {
+        if (!this.hasNext())
+            throw new NoSuchElementException();
+        this.hasNext = false;
+        return this.value;
+    }
+
+    /**
+     * Gets the local scope of the last message returned by {@link #next()} if it has an edge function to apply,
+     * otherwise {@code null}.
+     */
+    public MessageScope.Local<?> getEdgeFunctionScope() {
+        return null == this.localMessageScope || this.localMessageScope.hasIdentityEdgeFunction() ? null : this.localMessageScope;
+    }
+
+    /**
+     * Gets the edge that the last message returned by {@link #next()} was received over.
+     */
+    public Edge getEdge() {
+        return this.edge;
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.computer;
+
+import org.apache.tinkerpop.gremlin.structure.io.gryo.GryoPool;
+import org.apache.tinkerpop.shaded.kryo.io.Input;
+import org.apache.tinkerpop.shaded.kryo.io.Output;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A temporary file that {@link TinkerGraphComputer} spills messages and compute properties to when the heap runs
+ * low. Objects are appended with Gryo as length-prefixed records and, once the file is {@link #complete() complete},
+ * read back through {@link MappedByteBuffer} windows by any number of threads. A record never straddles two windows
+ * so that it can be read from a single mapping.
+ */
+final class TinkerSpillFile implements AutoCloseable {
+
+    /**
+     * Files larger than this are mapped in windows.
+     */
+    private static final long WINDOW_SIZE = 1L << 30;
+
+    private static final int PENDING_SIZE = 1 << 20;
+
+    private final File file;
+    private final RandomAccessFile randomAccessFile;
+    private final FileChannel channel;
+    private final GryoPool pool;
+    private final Output record = new Output(4096, -1);
+    private final ByteBuffer pending = ByteBuffer.allocate(PENDING_SIZE);
+    private long size = 0;
+    private MappedByteBuffer[] windows = null;
+
+    /**
+     * Creates an empty file in the directory or in the default temporary-file directory if it is {@code null}.
+     */
+    public TinkerSpillFile(final File directory, final GryoPool pool) {
+        this.pool = pool;
+        try {
+            this.file = File.createTempFile("tinkergraph-spill-", ".bin", directory);
+            this.randomAccessFile = new RandomAccessFile(this.file, "rw");
+            this.channel = this.randomAccessFile.getChannel();
+        } catch (IOException ioe) {
+            throw new IllegalStateException(String.format("Could not create a spill file in %s", directory), ioe);
+        }
+    }
+
+    /**
+     * Appends the object and returns the offset of its record. Nothing is appended if the object can not be
+     * serialized, in which case the {@code KryoException} of Gryo is thrown.
+     */
+    public long write(final Object object) {
+        this.record.clear();
+        this.pool.writeWithKryo(kryo -> kryo.writeClassAndObject(this.record, object));
+        return this.append(this.record.getBuffer(), this.record.position());
+    }
+
+    /**
+     * Appends a record of another complete file without deserializing it and returns the offset of the copy.
+     */
+    public long copy(final TinkerSpillFile source, final long offset) {
+        final byte[] bytes = source.readBytes(offset);
+        return this.append(bytes, bytes.length);
+    }
+
+    /**
+     * Writes out the appended records and maps the file so that they can be read.
+     */
+    public void complete() {
+        try {
+            this.flush();
+            this.windows = new MappedByteBuffer[(int) ((this.size + WINDOW_SIZE - 1) / WINDOW_SIZE)];
+            for (int i = 0; i < this.windows.length; i++) {
+                final long position = i * WINDOW_SIZE;
+                this.windows[i] = this.channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, this.size - position));
+            }
+        } catch (IOException ioe) {
+            throw new IllegalStateException(String.format("Could not map spill file %s", this.file), ioe);
+        }
+    }
+
+    /**
+     * Reads the object of the record at the offset.
+     */
+    public Object read(final long offset) {
+        final byte[] bytes = this.readBytes(offset);
+        return this.pool.readWithKryo(kryo -> kryo.readClassAndObject(new Input(bytes)));
+    }
+
+    @Override
+    public void close() {
+        this.windows = null;
+        try {
+            this.channel.close();
+            this.randomAccessFile.close();
+        } catch (IOException ioe) {
+            throw new IllegalStateException(String.format("Could not close spill file %s", this.file), ioe);
+        } finally {
+            this.file.delete();
+        }
+    }
+
+    private byte[] readBytes(final long offset) {
+        final ByteBuffer window = this.windows[(int) (offset / WINDOW_SIZE)].duplicate();
+        window.position((int) (offset % WINDOW_SIZE));
+        final byte[] bytes = new byte[window.getInt()];
+        window.get(bytes);
+        return bytes;
+    }
+
+    private long append(final byte[] bytes, final int length) {
+        final int recordLength = length + 4;
+        if (recordLength > WINDOW_SIZE)
+            throw new IllegalStateException(String.format("A record of %s bytes is too large to spill", length));
+        try {
+            // skip to the next window rather than straddle two of them
+            if (this.size / WINDOW_SIZE != (this.size + recordLength - 1) / WINDOW_SIZE) {
+                this.flush();
+                this.size = (this.size / WINDOW_SIZE + 1) * WINDOW_SIZE;
+            }
+            if (this.pending.remaining() < recordLength)
+                this.flush();
+
+            final long offset = this.size;
+            if (this.pending.remaining() < recordLength) {
+                final ByteBuffer buffer = ByteBuffer.allocate(recordLength);
+                buffer.putInt(length).put(bytes, 0, length).flip();
+                this.write(buffer, offset);
+            } else {
+                this.pending.putInt(length).put(bytes, 0, length);
+            }
+            this.size = this.size + recordLength;
+            return offset;
+        } catch (IOException ioe) {
+            throw new IllegalStateException(String.format("Could not append to spill file %s", this.file), ioe);
+        }
+    }
+
+    private void flush() throws IOException {
+        this.pending.flip();
+        this.write(this.pending, this.size - this.pending.remaining());
+        this.pending.clear();
+    }
+
+    private void write(final ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position = position + this.channel.write(buffer, position);
+        }
+    }
+}
@@ -26,20 +26,31 @@ import org.apache.tinkerpop.gremlin.process.computer.util.VertexProgramPool;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerHelper;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerVertex;
 import org.apache.tinkerpop.gremlin.util.function.TriConsumer;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Queue;
 import java.util.concurrent.CompletionService;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 /**
+ * Executes vertex programs and map reduce jobs over a fixed number of workers. The vertices are split into chunks of
+ * roughly equal total degree, many more chunks than there are workers, and each worker claims the next unprocessed
+ * chunk whenever it finishes one. A worker that is handed a high degree vertex thus processes fewer vertices while
+ * the other workers take the remaining chunks, rather than every worker being given a fixed share up front.
+ *
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  * @author Stephen Mallette (http://stephen.genoprime.com)
  */
@@ -47,6 +58,11 @@ public final class TinkerWorkerPool implements AutoCloseable {
 
     private static final BasicThreadFactory THREAD_FACTORY_WORKER = new BasicThreadFactory.Builder().namingPattern("tinker-worker-%d").build();
 
+    /**
+     * The number of chunks to aim for per worker, which bounds how unevenly the last chunks can finish.
+     */
+    private static final int CHUNKS_PER_WORKER = 16;
+
     private final int numberOfWorkers;
     private final ExecutorService workerPool;
     private final CompletionService<Object> completionService;
@@ -54,7 +70,7 @@ public final class TinkerWorkerPool implements AutoCloseable {
     private VertexProgramPool vertexProgramPool;
     private MapReducePool mapReducePool;
     private final Queue<TinkerWorkerMemory> workerMemoryPool = new ConcurrentLinkedQueue<>();
-    private final List<List<Vertex>> workerVertices = new ArrayList<>();
+    private final List<List<Vertex>> vertexChunks = new ArrayList<>();
 
     public TinkerWorkerPool(final TinkerGraph graph, final TinkerMemory memory, final int numberOfWorkers) {
         this.numberOfWorkers = numberOfWorkers;
@@ -62,26 +78,53 @@ public final class TinkerWorkerPool implements AutoCloseable {
         this.completionService = new ExecutorCompletionService<>(this.workerPool);
         for (int i = 0; i < this.numberOfWorkers; i++) {
             this.workerMemoryPool.add(new TinkerWorkerMemory(memory));
-            this.workerVertices.add(new ArrayList<>());
         }
-        int batchSize = TinkerHelper.getVertices(graph).size() / this.numberOfWorkers;
-        if (0 == batchSize)
-            batchSize = 1;
-        int counter = 0;
-        int index = 0;
-
-        List<Vertex> currentWorkerVertices = this.workerVertices.get(index);
-        final Iterator<Vertex> iterator = graph.vertices();
-        while (iterator.hasNext()) {
-            final Vertex vertex = iterator.next();
-            if (counter++ < batchSize || index == this.workerVertices.size() - 1) {
-                currentWorkerVertices.add(vertex);
-            } else {
-                currentWorkerVertices = this.workerVertices.get(++index);
-                currentWorkerVertices.add(vertex);
-                counter = 1;
+
+        // the chunks of a frozen graph are ranges of the vertex array of its layout rather than copies
+        final List<Vertex> frozenVertices = TinkerHelper.getFrozenVertices(graph);
+        final TinkerGraphComputerView view = TinkerHelper.getGraphComputerView(graph);
+        final List<Vertex> vertices;
+        if (null != frozenVertices && (null == view || !view.hasVertexFilter())) {
+            vertices = frozenVertices;
+        } else {
+            vertices = new ArrayList<>(TinkerHelper.getVertices(graph).size());
+            graph.vertices().forEachRemaining(vertices::add);
+        }
+
+        // a vertex costs about as much as the edges it has to process and message over
+        final long[] weights = new long[vertices.size()];
+        long totalWeight = 0;
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = 1 + TinkerHelper.getDegree((TinkerVertex) vertices.get(i));
+            totalWeight = totalWeight + weights[i];
+        }
+
+        final long chunkWeight = Math.max(1, totalWeight / ((long) this.numberOfWorkers * CHUNKS_PER_WORKER));
+        final List<List<Vertex>> chunks = new ArrayList<>();
+        final List<Long> chunkWeights = new ArrayList<>();
+        int start = 0;
+        long weight = 0;
+        for (int i = 0; i < weights.length; i++) {
+            weight = weight + weights[i];
+            if (weight >= chunkWeight) {
+                chunks.add(vertices.subList(start, i + 1));
+                chunkWeights.add(weight);
+                start = i + 1;
+                weight = 0;
             }
         }
+        if (start < weights.length) {
+            chunks.add(vertices.subList(start, weights.length));
+            chunkWeights.add(weight);
+        }
+
+        // hand out the heaviest chunks first so that a supernode is not left to be started last
+        final List<Integer> order = new ArrayList<>(chunks.size());
+        for (int i = 0; i < chunks.size(); i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.comparing(chunkWeights::get, Comparator.reverseOrder()));
+        order.forEach(i -> this.vertexChunks.add(chunks.get(i)));
     }
 
     public void setVertexProgram(final VertexProgram vertexProgram) {
@@ -93,27 +136,26 @@ public final class TinkerWorkerPool implements AutoCloseable {
     }
 
     public void executeVertexProgram(final TriConsumer<Iterator<Vertex>, VertexProgram, TinkerWorkerMemory> worker) throws InterruptedException {
+        final AtomicInteger nextChunk = new AtomicInteger(0);
         for (int i = 0; i < this.numberOfWorkers; i++) {
-            final int index = i;
             this.completionService.submit(() -> {
                 final VertexProgram vp = this.vertexProgramPool.take();
                 final TinkerWorkerMemory workerMemory = this.workerMemoryPool.poll();
-                final List<Vertex> vertices = this.workerVertices.get(index);
-                worker.accept(vertices.iterator(), vp, workerMemory);
+                worker.accept(new ChunkIterator(nextChunk), vp, workerMemory);
                 this.vertexProgramPool.offer(vp);
                 this.workerMemoryPool.offer(workerMemory);
                 return null;
             });
         }
-        for (int i = 0; i < this.numberOfWorkers; i++) {
-            try {
-                this.completionService.take().get();
-            } catch (InterruptedException ie) {
-                throw ie;
-            } catch (final Exception e) {
-                throw new IllegalStateException(e.getMessage(), e);
-            }
-        }
+        this.awaitWorkers();
+    }
+
+    /**
+     * Executes the map stage of a job with each worker given the vertices of the chunks it claims.
+     */
+    public void executeMapReduce(final BiConsumer<Iterator<Vertex>, MapReduce> worker) throws InterruptedException {
+        final AtomicInteger nextChunk = new AtomicInteger(0);
+        this.executeMapReduce(mr -> worker.accept(new ChunkIterator(nextChunk), mr));
     }
 
     public void executeMapReduce(final Consumer<MapReduce> worker) throws InterruptedException {
@@ -125,6 +167,10 @@ public final class TinkerWorkerPool implements AutoCloseable {
                 return null;
             });
         }
+        this.awaitWorkers();
+    }
+
+    private void awaitWorkers() throws InterruptedException {
         for (int i = 0; i < this.numberOfWorkers; i++) {
             try {
                 this.completionService.take().get();
@@ -144,4 +190,35 @@ public final class TinkerWorkerPool implements AutoCloseable {
     public void close() throws Exception {
         this.workerPool.shutdown();
     }
-}
\ No newline at end of file
+
+    /**
+     * Iterates the vertices of the chunks that it claims from those shared by the workers of one execution.
+     */
+    private final class ChunkIterator implements Iterator<Vertex> {
+
+        private final AtomicInteger nextChunk;
+        private Iterator<Vertex> chunk = Collections.emptyIterator();
+
+        private ChunkIterator(final AtomicInteger nextChunk) {
+            this.nextChunk = nextChunk;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!this.chunk.hasNext()) {
+                final int index = this.nextChunk.getAndIncrement();
+                if (index >= vertexChunks.size())
+                    return false;
+                this.chunk = vertexChunks.get(index).iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public Vertex next() {
+            if (!this.hasNext())
+                throw new NoSuchElementException();
+            return this.chunk.next();
+        }
+    }
+}
@@ -23,12 +23,15 @@ import org.apache.tinkerpop.gremlin.process.traversal.Step;
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.AbstractStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
 import org.apache.tinkerpop.gremlin.process.traversal.util.FastNoSuchElementException;
 import org.apache.tinkerpop.gremlin.structure.Element;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.sideEffect.TinkerGraphStep;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerHelper;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
 
 import java.util.NoSuchElementException;
 
@@ -38,11 +41,23 @@ import java.util.NoSuchElementException;
 public final class TinkerCountGlobalStep<S extends Element> extends AbstractStep<S, Long> {
 
     private final Class<S> elementClass;
+    private final TinkerGraphStep<?, S> graphStep;
     private boolean done = false;
 
     public TinkerCountGlobalStep(final Traversal.Admin traversal, final Class<S> elementClass) {
         super(traversal);
         this.elementClass = elementClass;
+        this.graphStep = null;
+    }
+
+    /**
+     * Counts the elements of a {@link TinkerGraphStep} that holds the {@link HasContainer} objects of the counted
+     * traversal, answering from a composite index where one covers them.
+     */
+    public TinkerCountGlobalStep(final Traversal.Admin traversal, final TinkerGraphStep<?, S> graphStep) {
+        super(traversal);
+        this.elementClass = graphStep.getReturnClass();
+        this.graphStep = graphStep;
     }
 
     @Override
@@ -50,22 +65,34 @@ public final class TinkerCountGlobalStep<S extends Element> extends AbstractStep
         if (!this.done) {
             this.done = true;
             final TinkerGraph graph = (TinkerGraph) this.getTraversal().getGraph().get();
-            return this.getTraversal().getTraverserGenerator().generate(Vertex.class.isAssignableFrom(this.elementClass) ?
-                            (long) TinkerHelper.getVertices(graph).size() :
-                            (long) TinkerHelper.getEdges(graph).size(),
-                    (Step) this, 1L);
+            final long count;
+            if (null != this.graphStep)
+                count = this.graphStep.count();
+            else if (TinkerHelper.hasExpired(graph))
+                // the expired elements that are yet to be removed are still in the element maps
+                count = IteratorUtils.count(Vertex.class.isAssignableFrom(this.elementClass) ? graph.vertices() : graph.edges());
+            else
+                count = Vertex.class.isAssignableFrom(this.elementClass) ?
+                        (long) TinkerHelper.getVertices(graph).size() :
+                        (long) TinkerHelper.getEdges(graph).size();
+            return this.getTraversal().getTraverserGenerator().generate(count, (Step) this, 1L);
         } else
             throw FastNoSuchElementException.instance();
     }
 
     @Override
     public String toString() {
-        return StringFactory.stepString(this, this.elementClass.getSimpleName().toLowerCase());
+        return null == this.graphStep || this.graphStep.getHasContainers().isEmpty() ?
+                StringFactory.stepString(this, this.elementClass.getSimpleName().toLowerCase()) :
+                StringFactory.stepString(this, this.elementClass.getSimpleName().toLowerCase(), this.graphStep.getHasContainers());
     }
 
     @Override
     public int hashCode() {
-        return super.hashCode() ^ this.elementClass.hashCode();
+        int result = super.hashCode() ^ this.elementClass.hashCode();
+        if (null != this.graphStep)
+            result ^= this.graphStep.getHasContainers().hashCode();
+        return result;
     }
 
     @Override
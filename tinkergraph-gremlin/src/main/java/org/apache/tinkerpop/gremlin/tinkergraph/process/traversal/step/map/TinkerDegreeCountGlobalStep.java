@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.map;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Operator;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.ReducingBarrierStep;
+import org.apache.tinkerpop.gremlin.process.traversal.traverser.TraverserRequirement;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerHelper;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerVertex;
+import org.apache.tinkerpop.gremlin.util.function.ConstantSupplier;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.BinaryOperator;
+
+/**
+ * Counts the edges or adjacent vertices of a {@link VertexStep} followed by a {@code count()} from the degrees of the
+ * vertices, without visiting the edges. The count may be capped to a limit as it is when a {@code limit()} lies
+ * between the two steps.
+ */
+public final class TinkerDegreeCountGlobalStep extends ReducingBarrierStep<Vertex, Long> {
+
+    private static final Set<TraverserRequirement> REQUIREMENTS = EnumSet.of(TraverserRequirement.OBJECT, TraverserRequirement.BULK);
+
+    private final Direction direction;
+    private final String[] edgeLabels;
+    private final long limit;
+
+    public TinkerDegreeCountGlobalStep(final Traversal.Admin traversal, final VertexStep<?> vertexStep, final long limit) {
+        super(traversal);
+        this.direction = vertexStep.getDirection();
+        this.edgeLabels = vertexStep.getEdgeLabels();
+        this.limit = limit;
+        this.setSeedSupplier(new ConstantSupplier<>(0L));
+        this.setReducingBiOperator((BinaryOperator) Operator.sumLong);
+    }
+
+    @Override
+    public Long projectTraverser(final Traverser.Admin<Vertex> traverser) {
+        final Vertex vertex = traverser.get();
+        final long degree = vertex instanceof TinkerVertex && !TinkerHelper.inComputerMode((TinkerGraph) vertex.graph()) ?
+                TinkerHelper.getDegree((TinkerVertex) vertex, this.direction, this.edgeLabels) :
+                IteratorUtils.count(vertex.edges(this.direction, this.edgeLabels));
+        return Math.min(degree * traverser.bulk(), this.limit);
+    }
+
+    @Override
+    public Long generateFinalResult(final Long count) {
+        return Math.min(count, this.limit);
+    }
+
+    @Override
+    public Set<TraverserRequirement> getRequirements() {
+        return REQUIREMENTS;
+    }
+
+    @Override
+    public String toString() {
+        return Long.MAX_VALUE == this.limit ?
+                StringFactory.stepString(this, this.direction, Arrays.asList(this.edgeLabels)) :
+                StringFactory.stepString(this, this.direction, Arrays.asList(this.edgeLabels), this.limit);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = super.hashCode() ^ this.direction.hashCode() ^ Long.hashCode(this.limit);
+        for (final String edgeLabel : this.edgeLabels) {
+            result ^= edgeLabel.hashCode();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.map;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Order;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.HasContainerHolder;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Mutating;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.process.traversal.util.AndP;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerHelper;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerVertex;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * A {@link VertexStep} over the incident edges of a single label that answers the {@code has()} steps that follow it
+ * from the vertex-centric indices of the label. When the edges are then ordered by an indexed key and limited, the
+ * edges of each vertex are read from the index in order and only as many as the limit are returned. The global
+ * order and limit still apply to the edges of all the vertices together.
+ */
+public final class TinkerVertexStep extends VertexStep<Edge> implements HasContainerHolder {
+
+    private final List<HasContainer> hasContainers = new ArrayList<>();
+    private String orderKey = null;
+    private boolean descending = false;
+    private long limit = Long.MAX_VALUE;
+    private boolean scan = false;
+    private Boolean mutating = null;
+
+    public TinkerVertexStep(final VertexStep<Edge> originalVertexStep) {
+        super(originalVertexStep.getTraversal(), Edge.class, originalVertexStep.getDirection(), originalVertexStep.getEdgeLabels());
+        originalVertexStep.getLabels().forEach(this::addLabel);
+    }
+
+    /**
+     * Caps the edges returned for each vertex to the first of them in the order of the key.
+     */
+    public void setOrderLimit(final String orderKey, final boolean descending, final long limit) {
+        this.orderKey = orderKey;
+        this.descending = descending;
+        this.limit = limit;
+    }
+
+    /**
+     * Has the {@code has()} predicates tested against every incident edge of the label rather than answered from the
+     * vertex-centric indices, which is cheaper when the predicates keep most of the edges.
+     */
+    public void setScan(final boolean scan) {
+        this.scan = scan;
+    }
+
+    public boolean isScan() {
+        return this.scan;
+    }
+
+    @Override
+    protected Iterator<Edge> flatMap(final Traverser.Admin<Vertex> traverser) {
+        final Vertex vertex = traverser.get();
+        final Iterator<Edge> indexed = vertex instanceof TinkerVertex && !TinkerHelper.inComputerMode((TinkerGraph) vertex.graph()) ?
+                this.queryIndex((TinkerVertex) vertex) :
+                null;
+        if (null == indexed)
+            return this.filter(vertex.edges(this.getDirection(), this.getEdgeLabels()));
+        return this.isMutating() ? IteratorUtils.list(indexed).iterator() : indexed;
+    }
+
+    /**
+     * Gets the edges of the vertex from a vertex-centric index in the order of the key when there is a limit to cap
+     * them with, or else from the index of the first key with a predicate the index can answer unless the step scans
+     * the edges, or {@code null} if no index applies.
+     */
+    private Iterator<Edge> queryIndex(final TinkerVertex vertex) {
+        final String label = this.getEdgeLabels()[0];
+        if (null != this.orderKey && Long.MAX_VALUE != this.limit && Direction.BOTH != this.getDirection() &&
+                TinkerHelper.isVertexCentricIndexSorted(vertex, this.getDirection(), label, this.orderKey)) {
+            final Iterator<Edge> edges = TinkerHelper.queryVertexCentricIndex(vertex, this.getDirection(), label, this.orderKey,
+                    this.getIndexPredicates(this.orderKey), this.descending);
+            return IteratorUtils.limit(this.filter(edges), (int) Math.min(this.limit, Integer.MAX_VALUE));
+        }
+        if (this.scan)
+            return null;
+
+        for (final HasContainer hasContainer : this.hasContainers) {
+            final List<P<?>> predicates = this.getIndexPredicates(hasContainer.getKey());
+            if (predicates.isEmpty())
+                continue;
+            if (Direction.BOTH == this.getDirection()) {
+                // either direction is null when the key is not indexed for the label and then neither can be used
+                final Iterator<Edge> outEdges = TinkerHelper.queryVertexCentricIndex(vertex, Direction.OUT, label, hasContainer.getKey(), predicates, false);
+                final Iterator<Edge> inEdges = TinkerHelper.queryVertexCentricIndex(vertex, Direction.IN, label, hasContainer.getKey(), predicates, false);
+                if (null != outEdges && null != inEdges)
+                    return this.filter(IteratorUtils.concat(outEdges, inEdges));
+            } else {
+                final Iterator<Edge> edges = TinkerHelper.queryVertexCentricIndex(vertex, this.getDirection(), label, hasContainer.getKey(), predicates, false);
+                if (null != edges)
+                    return this.filter(edges);
+            }
+        }
+        return null;
+    }
+
+    private Iterator<Edge> filter(final Iterator<Edge> edges) {
+        return IteratorUtils.filter(edges, edge -> HasContainer.testAll(edge, this.hasContainers) && !TinkerHelper.isExpired(edge));
+    }
+
+    private List<P<?>> getIndexPredicates(final String key) {
+        return this.hasContainers.stream()
+                .filter(hasContainer -> key.equals(hasContainer.getKey()))
+                .map(HasContainer::getPredicate)
+                .filter(TinkerHelper::isVertexCentricIndexable)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * The indices are live views, so the edges are copied when the traversal mutates the graph as it could otherwise
+     * move an edge to a value that is yet to be iterated.
+     */
+    private boolean isMutating() {
+        if (null == this.mutating)
+            this.mutating = TraversalHelper.hasStepOfAssignableClassRecursively(Mutating.class, TraversalHelper.getRootTraversal(this.getTraversal()));
+        return this.mutating;
+    }
+
+    @Override
+    public String toString() {
+        if (null != this.orderKey)
+            return StringFactory.stepString(this, this.getDirection(), Arrays.asList(this.getEdgeLabels()), "edge", this.hasContainers,
+                    Arrays.asList(this.orderKey, this.descending ? Order.decr : Order.incr, this.limit));
+        return this.hasContainers.isEmpty() ?
+                super.toString() :
+                StringFactory.stepString(this, this.getDirection(), Arrays.asList(this.getEdgeLabels()), "edge", this.hasContainers);
+    }
+
+    @Override
+    public List<HasContainer> getHasContainers() {
+        return Collections.unmodifiableList(this.hasContainers);
+    }
+
+    @Override
+    public void addHasContainer(final HasContainer hasContainer) {
+        if (hasContainer.getPredicate() instanceof AndP) {
+            for (final P<?> predicate : ((AndP<?>) hasContainer.getPredicate()).getPredicates()) {
+                this.addHasContainer(new HasContainer(hasContainer.getKey(), predicate));
+            }
+        } else
+            this.hasContainers.add(hasContainer);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = super.hashCode() ^ this.hasContainers.hashCode();
+        if (null != this.orderKey)
+            result ^= this.orderKey.hashCode() ^ Boolean.hashCode(this.descending) ^ Long.hashCode(this.limit);
+        return result;
+    }
+}
@@ -19,13 +19,18 @@
 package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.sideEffect;
 
 import org.apache.tinkerpop.gremlin.process.traversal.Compare;
+import org.apache.tinkerpop.gremlin.process.traversal.Contains;
 import org.apache.tinkerpop.gremlin.process.traversal.P;
 import org.apache.tinkerpop.gremlin.process.traversal.step.HasContainerHolder;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Mutating;
 import org.apache.tinkerpop.gremlin.process.traversal.step.map.GraphStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.EmptyStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
 import org.apache.tinkerpop.gremlin.process.traversal.util.AndP;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
 import org.apache.tinkerpop.gremlin.structure.Edge;
 import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.T;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
@@ -34,11 +39,17 @@ import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.Spliterator;
+import java.util.Spliterators;
 
 /**
  * @author Marko A. Rodriguez (http://markorodriguez.com)
@@ -56,43 +67,254 @@ public final class TinkerGraphStep<S, E extends Element> extends GraphStep<S, E>
         // but that allowed the filter in g.V(v).has('k','v') to be ignored.  this created problems for
         // PartitionStrategy which wants to prevent someone from passing "v" from one TraversalSource to
         // another TraversalSource using a different partition
-        this.setIteratorSupplier(() -> (Iterator<E>) (Vertex.class.isAssignableFrom(this.returnClass) ? this.vertices() : this.edges()));
+        this.setIteratorSupplier(() -> {
+            // expired elements are only removed by the writer, when a root traversal that mutates the graph starts as
+            // nothing is iterating the graph yet, and reads leave them out of what they iterate until then
+            if (this.isStartStep() && this.getTraversal().getParent() instanceof EmptyStep && this.isMutating())
+                TinkerHelper.removeExpired((TinkerGraph) this.getTraversal().getGraph().get());
+            return (Iterator<E>) (Vertex.class.isAssignableFrom(this.returnClass) ? this.vertices() : this.edges());
+        });
     }
 
     private Iterator<? extends Edge> edges() {
         final TinkerGraph graph = (TinkerGraph) this.getTraversal().getGraph().get();
-        final HasContainer indexedContainer = getIndexKey(Edge.class);
         // ids are present, filter on them first
         if (this.ids != null && this.ids.length > 0)
-            return this.iteratorList(graph.edges(this.ids));
-        else
-            return null == indexedContainer ?
-                    this.iteratorList(graph.edges()) :
-                    TinkerHelper.queryEdgeIndex(graph, indexedContainer.getKey(), indexedContainer.getPredicate().getValue()).stream()
-                            .filter(edge -> HasContainer.testAll(edge, this.hasContainers))
-                            .collect(Collectors.<Edge>toList()).iterator();
+            return this.filter(graph.edges(this.ids));
+        final Collection<? extends Element> indexed = this.getIndexedElements(Edge.class);
+        return null == indexed ?
+                this.filterAll(graph.edges()) :
+                IteratorUtils.map(IteratorUtils.filter(indexed.iterator(), edge -> TinkerHelper.isVisible(edge) && !TinkerHelper.isExpired(edge) && HasContainer.testAll(edge, this.hasContainers)),
+                        edge -> (Edge) edge);
     }
 
     private Iterator<? extends Vertex> vertices() {
         final TinkerGraph graph = (TinkerGraph) this.getTraversal().getGraph().get();
-        final HasContainer indexedContainer = getIndexKey(Vertex.class);
         // ids are present, filter on them first
         if (this.ids != null && this.ids.length > 0)
-            return this.iteratorList(graph.vertices(this.ids));
-        else
-            return null == indexedContainer ?
-                    this.iteratorList(graph.vertices()) :
-                    IteratorUtils.filter(TinkerHelper.queryVertexIndex(graph, indexedContainer.getKey(), indexedContainer.getPredicate().getValue()).iterator(),
-                            vertex -> HasContainer.testAll(vertex, this.hasContainers));
+            return this.filter(graph.vertices(this.ids));
+        final Collection<? extends Element> indexed = this.getIndexedElements(Vertex.class);
+        return null == indexed ?
+                this.filterAll(graph.vertices()) :
+                IteratorUtils.map(IteratorUtils.filter(indexed.iterator(), vertex -> TinkerHelper.isVisible(vertex) && !TinkerHelper.isExpired(vertex) && HasContainer.testAll(vertex, this.hasContainers)),
+                        vertex -> (Vertex) vertex);
+    }
+
+    /**
+     * Counts the elements produced by this step. If the label index or a composite index covers every
+     * {@link HasContainer}, the count is answered by the index alone unless the graph holds expired elements that
+     * are yet to be removed.
+     */
+    public long count() {
+        final TinkerGraph graph = (TinkerGraph) this.getTraversal().getGraph().get();
+        if ((null == this.ids || 0 == this.ids.length) && !TinkerHelper.hasExpired(graph)) {
+            if (this.isCoveredByLabelIndex())
+                return TinkerHelper.countLabelIndex(graph, this.returnClass, this.getIndexLabels());
+            if (this.isCoveredByCompositeIndex())
+                return TinkerHelper.countCompositeIndex(graph, this.returnClass, this.getIndexLabel(), this.getIndexValues());
+        }
+        return IteratorUtils.count(Vertex.class.isAssignableFrom(this.returnClass) ? this.vertices() : this.edges());
     }
 
-    private HasContainer getIndexKey(final Class<? extends Element> indexedClass) {
-        final Set<String> indexedKeys = ((TinkerGraph) this.getTraversal().getGraph().get()).getIndexedKeys(indexedClass);
+    /**
+     * Determines if the elements of this step are looked up by their ids or from an index rather than iterated from
+     * the whole graph.
+     */
+    public boolean isIndexed() {
+        return (null != this.ids && this.ids.length > 0) || null != this.queryIndex(this.returnClass);
+    }
+
+    /**
+     * Restricts the step to the elements of a shard of the graph as split by
+     * {@link TinkerHelper#getShards(TinkerGraph, Class)}, which it filters as it would the whole graph.
+     */
+    public void setShard(final Spliterator<? extends Element> shard) {
+        this.setIteratorSupplier(() -> {
+            final Iterator<Element> elements = Spliterators.iterator(shard);
+            return (Iterator<E>) this.filter(TinkerHelper.hasExpired((TinkerGraph) this.getTraversal().getGraph().get()) ?
+                    IteratorUtils.filter(elements, element -> !TinkerHelper.isExpired(element)) :
+                    elements);
+        });
+    }
 
-        final Iterator<HasContainer> itty = IteratorUtils.filter(hasContainers.iterator(),
-                c -> c.getPredicate().getBiPredicate() == Compare.eq && indexedKeys.contains(c.getKey()));
-        return itty.hasNext() ? itty.next() : null;
+    /**
+     * Gets the elements of the index lookup that yields the fewest elements, or {@code null} if no index applies. The
+     * key indices return live views of their buckets, so the elements are copied when the traversal mutates the graph
+     * as it could otherwise move an element to a bucket that is yet to be iterated.
+     */
+    private Collection<? extends Element> getIndexedElements(final Class<? extends Element> indexedClass) {
+        final Collection<? extends Element> indexed = this.queryIndex(indexedClass);
+        return null != indexed && this.isMutating() ?
+                new ArrayList<>(indexed) :
+                indexed;
+    }
 
+    private boolean isMutating() {
+        return TraversalHelper.hasStepOfAssignableClassRecursively(Mutating.class, TraversalHelper.getRootTraversal(this.getTraversal()));
+    }
+
+    /**
+     * Queries the index that yields the fewest elements, choosing between the single key indices, the composite
+     * indices and the label index.
+     */
+    private Collection<? extends Element> queryIndex(final Class<? extends Element> indexedClass) {
+        final TinkerGraph graph = (TinkerGraph) this.getTraversal().getGraph().get();
+        final String label = this.getIndexLabel();
+        final Map<String, Set<Object>> values = this.getIndexValues();
+        final long compositeCount = TinkerHelper.countCompositeIndex(graph, indexedClass, label, values);
+        final Set<String> labels = this.getIndexLabels();
+        final long labelCount = null == labels ? Long.MAX_VALUE : TinkerHelper.countLabelIndex(graph, indexedClass, labels);
+
+        // a key index is chosen over a composite index that yields as many elements but not over the label index
+        final long limit = Math.min(compositeCount < 0 ? Long.MAX_VALUE : compositeCount,
+                null == labels ? Long.MAX_VALUE : labelCount + 1);
+        final String indexedKey = this.getIndexKey(indexedClass, limit);
+        if (null != indexedKey)
+            return Vertex.class.isAssignableFrom(indexedClass) ?
+                    TinkerHelper.queryVertexIndex(graph, indexedKey, this.getIndexPredicates(indexedClass, indexedKey)) :
+                    TinkerHelper.queryEdgeIndex(graph, indexedKey, this.getIndexPredicates(indexedClass, indexedKey));
+        if (compositeCount >= 0 && compositeCount <= labelCount)
+            return TinkerHelper.queryCompositeIndex(graph, indexedClass, label, values);
+        if (null != labels)
+            return TinkerHelper.queryLabelIndex(graph, indexedClass, labels);
+        return null;
+    }
+
+    /**
+     * Determines if the label index answers every {@link HasContainer} exactly.
+     */
+    private boolean isCoveredByLabelIndex() {
+        for (final HasContainer hasContainer : this.hasContainers) {
+            if (!hasContainer.getKey().equals(T.label.getAccessor()) || !isIndexValuePredicate(hasContainer))
+                return false;
+        }
+        return !this.hasContainers.isEmpty();
+    }
+
+    /**
+     * Determines if a composite index answers every {@link HasContainer} exactly, so that its result needs no
+     * further filtering.
+     */
+    private boolean isCoveredByCompositeIndex() {
+        final TinkerGraph graph = (TinkerGraph) this.getTraversal().getGraph().get();
+        final String label = this.getIndexLabel();
+        if (null == label)
+            return false;
+        final Map<String, Set<Object>> values = this.getIndexValues();
+        for (final HasContainer hasContainer : this.hasContainers) {
+            if (hasContainer.getKey().equals(T.label.getAccessor())) {
+                if (!(hasContainer.getBiPredicate() == Compare.eq && label.equals(hasContainer.getValue())))
+                    return false;
+            } else if (!values.containsKey(hasContainer.getKey()) || !isIndexValuePredicate(hasContainer))
+                return false;
+        }
+        return TinkerHelper.getCompositeIndexCoverage(graph, this.returnClass, label, values.keySet()) == values.size();
+    }
+
+    /**
+     * Gets the label that the {@link HasContainer} objects require with {@code eq()}, if any.
+     */
+    private String getIndexLabel() {
+        for (final HasContainer hasContainer : this.hasContainers) {
+            if (hasContainer.getKey().equals(T.label.getAccessor()) && hasContainer.getBiPredicate() == Compare.eq &&
+                    hasContainer.getValue() instanceof String)
+                return (String) hasContainer.getValue();
+        }
+        return null;
+    }
+
+    /**
+     * Gets the labels that the {@link HasContainer} objects allow with {@code eq()} and {@code within()}, or
+     * {@code null} if they do not constrain the label that way.
+     */
+    private Set<String> getIndexLabels() {
+        Set<String> labels = null;
+        for (final HasContainer hasContainer : this.hasContainers) {
+            if (!hasContainer.getKey().equals(T.label.getAccessor()) || !isIndexValuePredicate(hasContainer))
+                continue;
+            // labels are always strings so any other value can never match
+            final Set<String> containerLabels = new HashSet<>();
+            final Collection<?> values = hasContainer.getBiPredicate() == Compare.eq ?
+                    Collections.singleton(hasContainer.getValue()) :
+                    (Collection<?>) hasContainer.getValue();
+            for (final Object value : values) {
+                if (value instanceof String)
+                    containerLabels.add((String) value);
+            }
+            if (null == labels)
+                labels = containerLabels;
+            else
+                labels.retainAll(containerLabels);
+        }
+        return labels;
+    }
+
+    /**
+     * Gets the values each property key must have according to the {@code eq()} and {@code within()} predicates of
+     * the {@link HasContainer} objects.
+     */
+    private Map<String, Set<Object>> getIndexValues() {
+        final Map<String, Set<Object>> values = new HashMap<>();
+        for (final HasContainer hasContainer : this.hasContainers) {
+            final String key = hasContainer.getKey();
+            if (key.equals(T.label.getAccessor()) || key.equals(T.id.getAccessor()))
+                continue;
+            if (!isIndexValuePredicate(hasContainer))
+                continue;
+            final Set<Object> keyValues = hasContainer.getBiPredicate() == Compare.eq ?
+                    new HashSet<>(Collections.singleton(hasContainer.getValue())) :
+                    new HashSet<>((Collection<?>) hasContainer.getValue());
+            if (values.containsKey(key))
+                values.get(key).retainAll(keyValues);
+            else
+                values.put(key, keyValues);
+        }
+        return values;
+    }
+
+    /**
+     * Chooses the indexed key whose index lookup yields the fewest elements, and fewer than the limit, for the
+     * predicates of the {@link HasContainer} objects on that key. Each key is only counted up to the fewest elements
+     * found so far, and the keys with equality or {@code within()} predicates are counted first as they are cheap to
+     * count and bound the counting of any range that follows.
+     */
+    private String getIndexKey(final Class<? extends Element> indexedClass, final long limit) {
+        final TinkerGraph graph = (TinkerGraph) this.getTraversal().getGraph().get();
+        final Set<String> indexedKeys = graph.getIndexedKeys(indexedClass);
+        final List<HasContainer> hasContainers = new ArrayList<>(this.hasContainers);
+        hasContainers.sort(Comparator.comparing(hasContainer -> !isIndexValuePredicate(hasContainer)));
+
+        String indexedKey = null;
+        long indexedCount = limit;
+        final Set<String> countedKeys = new HashSet<>();
+        for (final HasContainer hasContainer : hasContainers) {
+            final String key = hasContainer.getKey();
+            if (!indexedKeys.contains(key) || countedKeys.contains(key) ||
+                    !TinkerHelper.isIndexable(graph, indexedClass, key, hasContainer.getPredicate()))
+                continue;
+            countedKeys.add(key);
+            final long count = TinkerHelper.countIndex(graph, indexedClass, key, this.getIndexPredicates(indexedClass, key), indexedCount);
+            if (count < indexedCount) {
+                indexedKey = key;
+                indexedCount = count;
+            }
+        }
+        return indexedKey;
+    }
+
+    private List<P<?>> getIndexPredicates(final Class<? extends Element> indexedClass, final String key) {
+        final TinkerGraph graph = (TinkerGraph) this.getTraversal().getGraph().get();
+        final List<P<?>> predicates = new ArrayList<>();
+        for (final HasContainer hasContainer : this.hasContainers) {
+            if (hasContainer.getKey().equals(key) && TinkerHelper.isIndexable(graph, indexedClass, key, hasContainer.getPredicate()))
+                predicates.add(hasContainer.getPredicate());
+        }
+        return predicates;
+    }
+
+    private static boolean isIndexValuePredicate(final HasContainer hasContainer) {
+        return (hasContainer.getBiPredicate() == Compare.eq && null != hasContainer.getValue()) ||
+                (hasContainer.getBiPredicate() == Contains.within && hasContainer.getValue() instanceof Collection);
     }
 
     @Override
@@ -105,7 +327,15 @@ public final class TinkerGraphStep<S, E extends Element> extends GraphStep<S, E>
                     StringFactory.stepString(this, this.returnClass.getSimpleName().toLowerCase(), Arrays.toString(this.ids), this.hasContainers);
     }
 
-    private <E extends Element> Iterator<E> iteratorList(final Iterator<E> iterator) {
+    /**
+     * Filters the elements of the graph as they are iterated so that a traversal which stops early, like one ending
+     * in {@code limit()}, only visits the elements it needs. The element maps of the graph are iterated live, so
+     * the elements are copied first when the traversal mutates the graph as it could otherwise visit the elements
+     * it adds.
+     */
+    private <E extends Element> Iterator<E> filterAll(final Iterator<E> iterator) {
+        if (!this.isMutating())
+            return this.filter(iterator);
         final List<E> list = new ArrayList<>();
         while (iterator.hasNext()) {
             final E e = iterator.next();
@@ -115,6 +345,10 @@ public final class TinkerGraphStep<S, E extends Element> extends GraphStep<S, E>
         return list.iterator();
     }
 
+    private <E extends Element> Iterator<E> filter(final Iterator<E> iterator) {
+        return this.hasContainers.isEmpty() ? iterator : IteratorUtils.filter(iterator, e -> HasContainer.testAll(e, this.hasContainers));
+    }
+
     @Override
     public List<HasContainer> getHasContainers() {
         return Collections.unmodifiableList(this.hasContainers);
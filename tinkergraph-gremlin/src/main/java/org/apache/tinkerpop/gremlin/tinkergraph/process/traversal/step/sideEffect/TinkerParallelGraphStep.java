@@ -0,0 +1,247 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.sideEffect;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.TraversalParent;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.AbstractStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.ReducingBarrierStep;
+import org.apache.tinkerpop.gremlin.process.traversal.traverser.TraverserRequirement;
+import org.apache.tinkerpop.gremlin.process.traversal.util.FastNoSuchElementException;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalInterruptedException;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerHelper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Runs a {@link TinkerGraphStep} and the steps that follow it up to a barrier over the shards of the graph in
+ * parallel. Every shard runs its own clone of the steps on the threads of the graph and the results of the shards
+ * are merged into the barrier that follows this step: a {@link ReducingBarrierStep} is handed the partial result of
+ * each shard to reduce, as it would be by the workers of a graph computer, and any other barrier is handed the
+ * traversers of all the shards to collect.
+ * <p/>
+ * The elements of an id or index lookup are not worth splitting, so such a step runs on the calling thread.
+ */
+public final class TinkerParallelGraphStep<S, E> extends AbstractStep<S, E> implements TraversalParent {
+
+    private TinkerGraphStep<S, ? extends Element> graphStep;
+    private List<Step> steps;
+    private Iterator<Traverser.Admin<E>> results = null;
+
+    public TinkerParallelGraphStep(final Traversal.Admin traversal, final TinkerGraphStep<S, ? extends Element> graphStep, final List<Step> steps) {
+        super(traversal);
+        this.graphStep = graphStep;
+        this.steps = steps;
+    }
+
+    @Override
+    protected Traverser.Admin<E> processNextStart() {
+        if (null == this.results)
+            this.results = this.execute();
+        if (!this.results.hasNext())
+            throw FastNoSuchElementException.instance();
+        return this.results.next();
+    }
+
+    private Iterator<Traverser.Admin<E>> execute() {
+        final TinkerGraph graph = (TinkerGraph) this.getTraversal().getGraph().get();
+        final boolean reducing = this.getNextStep() instanceof ReducingBarrierStep;
+        // the generator is resolved lazily and the shards must not race to do so
+        this.getTraversal().getTraverserGenerator();
+
+        final List<Step<?, ?>> shards = new ArrayList<>();
+        if (this.graphStep.isIndexed() || TinkerHelper.inComputerMode(graph))
+            shards.add(this.createShard(null, reducing));
+        else {
+            for (final Spliterator<? extends Element> shard : TinkerHelper.getShards(graph, this.graphStep.getReturnClass())) {
+                shards.add(this.createShard(shard, reducing));
+            }
+        }
+
+        final List<Object> partials = new ArrayList<>(shards.size());
+        if (1 == shards.size())
+            partials.add(drain(shards.get(0), reducing));
+        else {
+            final ExecutorService executor = TinkerHelper.getShardExecutor(graph);
+            final List<Future<Object>> futures = new ArrayList<>(shards.size());
+            for (final Step<?, ?> shard : shards) {
+                futures.add(executor.submit(() -> drain(shard, reducing)));
+            }
+            try {
+                for (final Future<Object> future : futures) {
+                    partials.add(future.get());
+                }
+            } catch (final InterruptedException e) {
+                futures.forEach(future -> future.cancel(true));
+                throw new TraversalInterruptedException();
+            } catch (final ExecutionException e) {
+                futures.forEach(future -> future.cancel(true));
+                if (e.getCause() instanceof RuntimeException)
+                    throw (RuntimeException) e.getCause();
+                if (e.getCause() instanceof Error)
+                    throw (Error) e.getCause();
+                throw new IllegalStateException(e.getCause().getMessage(), e.getCause());
+            }
+        }
+
+        if (reducing) {
+            final ReducingBarrierStep barrier = (ReducingBarrierStep) this.getNextStep();
+            for (final Object partial : partials) {
+                if (null != partial)
+                    barrier.addBarrier(partial);
+            }
+            return Collections.emptyIterator();
+        }
+        final List<Traverser.Admin<E>> traversers = new ArrayList<>();
+        for (final Object partial : partials) {
+            traversers.addAll((List<Traverser.Admin<E>>) partial);
+        }
+        return traversers.iterator();
+    }
+
+    /**
+     * Links clones of the steps into a pipeline over the shard, or over the elements the {@link TinkerGraphStep}
+     * would produce if there is no shard, and returns the last step of the pipeline.
+     */
+    private Step<?, ?> createShard(final Spliterator<? extends Element> shard, final boolean reducing) {
+        final TinkerGraphStep<S, ? extends Element> graphStep = (TinkerGraphStep<S, ? extends Element>) this.graphStep.clone();
+        graphStep.setTraversal(this.getTraversal());
+        if (null != shard)
+            graphStep.setShard(shard);
+        Step previous = graphStep;
+        for (final Step<?, ?> step : this.steps) {
+            previous = this.link(previous, step.clone());
+        }
+        return reducing ? this.link(previous, this.getNextStep().clone()) : previous;
+    }
+
+    private Step link(final Step previous, final Step step) {
+        step.setTraversal(this.getTraversal());
+        step.setPreviousStep(previous);
+        previous.setNextStep(step);
+        return step;
+    }
+
+    private static Object drain(final Step<?, ?> shard, final boolean reducing) {
+        if (reducing)
+            return ((ReducingBarrierStep) shard).hasNextBarrier() ? ((ReducingBarrierStep) shard).nextBarrier() : null;
+        final List<Traverser.Admin<?>> traversers = new ArrayList<>();
+        while (shard.hasNext()) {
+            traversers.add(shard.next());
+        }
+        return traversers;
+    }
+
+    public TinkerGraphStep<S, ? extends Element> getGraphStep() {
+        return this.graphStep;
+    }
+
+    public List<Step> getSteps() {
+        return Collections.unmodifiableList(this.steps);
+    }
+
+    @Override
+    public <A, B> List<Traversal.Admin<A, B>> getGlobalChildren() {
+        final List<Traversal.Admin<A, B>> children = new ArrayList<>();
+        for (final Step<?, ?> step : this.steps) {
+            if (step instanceof TraversalParent)
+                children.addAll(((TraversalParent) step).getGlobalChildren());
+        }
+        return children;
+    }
+
+    @Override
+    public <A, B> List<Traversal.Admin<A, B>> getLocalChildren() {
+        final List<Traversal.Admin<A, B>> children = new ArrayList<>();
+        for (final Step<?, ?> step : this.steps) {
+            if (step instanceof TraversalParent)
+                children.addAll(((TraversalParent) step).getLocalChildren());
+        }
+        return children;
+    }
+
+    @Override
+    public Set<TraverserRequirement> getRequirements() {
+        final Set<TraverserRequirement> requirements = EnumSet.noneOf(TraverserRequirement.class);
+        requirements.addAll(this.graphStep.getRequirements());
+        for (final Step<?, ?> step : this.steps) {
+            requirements.addAll(step.getRequirements());
+        }
+        // the labels of the steps are hidden from the traversal that would otherwise require the labeled path
+        if (hasLabels(this.graphStep) || this.steps.stream().anyMatch(TinkerParallelGraphStep::hasLabels))
+            requirements.add(TraverserRequirement.LABELED_PATH);
+        return requirements;
+    }
+
+    private static boolean hasLabels(final Step<?, ?> step) {
+        return step.getLabels().stream().anyMatch(label -> !Graph.Hidden.isHidden(label));
+    }
+
+    @Override
+    public void setTraversal(final Traversal.Admin<?, ?> parentTraversal) {
+        super.setTraversal(parentTraversal);
+        this.graphStep.setTraversal(parentTraversal);
+        for (final Step<?, ?> step : this.steps) {
+            step.setTraversal(parentTraversal);
+        }
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        this.results = null;
+    }
+
+    @Override
+    public TinkerParallelGraphStep<S, E> clone() {
+        final TinkerParallelGraphStep<S, E> clone = (TinkerParallelGraphStep<S, E>) super.clone();
+        clone.graphStep = (TinkerGraphStep<S, ? extends Element>) this.graphStep.clone();
+        clone.steps = new ArrayList<>(this.steps.size());
+        for (final Step<?, ?> step : this.steps) {
+            clone.steps.add(step.clone());
+        }
+        clone.results = null;
+        return clone;
+    }
+
+    @Override
+    public String toString() {
+        return StringFactory.stepString(this, this.graphStep, this.steps);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode() ^ this.graphStep.hashCode() ^ this.steps.hashCode();
+    }
+}
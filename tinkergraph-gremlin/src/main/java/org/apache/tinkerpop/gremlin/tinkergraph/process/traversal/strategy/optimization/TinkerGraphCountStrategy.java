@@ -22,7 +22,9 @@ package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.opti
 import org.apache.tinkerpop.gremlin.process.traversal.Step;
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.step.HasContainerHolder;
 import org.apache.tinkerpop.gremlin.process.traversal.step.TraversalParent;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.HasStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.map.CountGlobalStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.map.GraphStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.map.MapStep;
@@ -32,10 +34,12 @@ import org.apache.tinkerpop.gremlin.process.traversal.step.sideEffect.IdentitySt
 import org.apache.tinkerpop.gremlin.process.traversal.step.sideEffect.SideEffectStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.CollectingBarrierStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.EmptyStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
 import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
 import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
 import org.apache.tinkerpop.gremlin.structure.Element;
 import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.map.TinkerCountGlobalStep;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.sideEffect.TinkerGraphStep;
 
 import java.util.Collections;
 import java.util.List;
@@ -44,12 +48,14 @@ import java.util.Set;
 /**
  * This strategy will do a direct {@link org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerHelper#getVertices}
  * size call if the traversal is a count of the vertices and edges of the graph or a one-to-one map chain thereof.
+ * Leading {@code has()} steps are folded into the count so that it can be answered by a composite index.
  *
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  * @example <pre>
  * g.V().count()               // is replaced by TinkerCountGlobalStep
  * g.V().map(out()).count()    // is replaced by TinkerCountGlobalStep
  * g.E().label().count()       // is replaced by TinkerCountGlobalStep
+ * g.V().hasLabel('person').has('name','marko').count()  // is replaced by TinkerCountGlobalStep
  * </pre>
  */
 public final class TinkerGraphCountStrategy extends AbstractTraversalStrategy<TraversalStrategy.ProviderOptimizationStrategy> implements TraversalStrategy.ProviderOptimizationStrategy {
@@ -63,13 +69,28 @@ public final class TinkerGraphCountStrategy extends AbstractTraversalStrategy<Tr
     public void apply(final Traversal.Admin<?, ?> traversal) {
         if (!(traversal.getParent() instanceof EmptyStep) || TraversalHelper.onGraphComputer(traversal))
             return;
+        // the graph structures hold more than a transaction can see so they can not answer the count
+        if (traversal.getGraph().map(graph -> graph.features().graph().supportsTransactions()).orElse(false))
+            return;
         final List<Step> steps = traversal.getSteps();
         if (steps.size() < 2 ||
                 !(steps.get(0) instanceof GraphStep) ||
                 0 != ((GraphStep) steps.get(0)).getIds().length ||
                 !(steps.get(steps.size() - 1) instanceof CountGlobalStep))
             return;
-        for (int i = 1; i < steps.size() - 1; i++) {
+        // has() steps directly after the graph step are folded into a TinkerGraphStep which can count from an index
+        final TinkerGraphStep<?, ?> tinkerGraphStep = new TinkerGraphStep<>((GraphStep<?, ?>) steps.get(0));
+        int start = 1;
+        while (start < steps.size() - 1 && steps.get(start) instanceof HasStep) {
+            for (final HasContainer hasContainer : ((HasContainerHolder) steps.get(start)).getHasContainers()) {
+                if (!GraphStep.processHasContainerIds(tinkerGraphStep, hasContainer))
+                    tinkerGraphStep.addHasContainer(hasContainer);
+            }
+            start++;
+        }
+        if (0 != tinkerGraphStep.getIds().length)
+            return;
+        for (int i = start; i < steps.size() - 1; i++) {
             final Step current = steps.get(i);
             if (!(current instanceof MapStep ||
                     current instanceof IdentityStep ||
@@ -81,7 +102,9 @@ public final class TinkerGraphCountStrategy extends AbstractTraversalStrategy<Tr
         }
         final Class<? extends Element> elementClass = ((GraphStep<?, ?>) steps.get(0)).getReturnClass();
         TraversalHelper.removeAllSteps(traversal);
-        traversal.addStep(new TinkerCountGlobalStep<>(traversal, elementClass));
+        traversal.addStep(tinkerGraphStep.getHasContainers().isEmpty() ?
+                new TinkerCountGlobalStep<>(traversal, elementClass) :
+                new TinkerCountGlobalStep(traversal, tinkerGraphStep));
     }
 
     @Override
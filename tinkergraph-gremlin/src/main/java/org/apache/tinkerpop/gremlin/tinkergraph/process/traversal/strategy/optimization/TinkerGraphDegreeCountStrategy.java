@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization;
+
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.step.TraversalParent;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.ConnectiveStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.IsStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.NotStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.RangeGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.TraversalFilterStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.CountGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.sideEffect.ProfileSideEffectStep;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.map.TinkerDegreeCountGlobalStep;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * This strategy counts the edges or adjacent vertices of a vertex from the size of its adjacency with a
+ * {@link TinkerDegreeCountGlobalStep} rather than by iterating them. It applies to a {@link VertexStep} followed by a
+ * {@code count()}, with or without the {@code limit()} that {@code CountStrategy} places between them, and to a
+ * {@link VertexStep} that is the whole of a filtering traversal, which is how {@code CountStrategy} rewrites a test of
+ * the count against zero.
+ *
+ * @example <pre>
+ * g.V(x).outE('knows').count()                  // is replaced by TinkerDegreeCountGlobalStep
+ * g.V().where(outE().count().is(gt(10)))        // is replaced by where(TinkerDegreeCountGlobalStep.is(gt(10)))
+ * g.V().where(both().count().is(0))             // is replaced by not(TinkerDegreeCountGlobalStep.is(gt(0)))
+ * </pre>
+ */
+public final class TinkerGraphDegreeCountStrategy extends AbstractTraversalStrategy<TraversalStrategy.ProviderOptimizationStrategy> implements TraversalStrategy.ProviderOptimizationStrategy {
+
+    private static final TinkerGraphDegreeCountStrategy INSTANCE = new TinkerGraphDegreeCountStrategy();
+    private static final boolean IS_TESTING = Boolean.valueOf(System.getProperty("is.testing", "false"));
+
+    private TinkerGraphDegreeCountStrategy() {
+    }
+
+    @Override
+    public void apply(final Traversal.Admin<?, ?> traversal) {
+        if (TraversalHelper.onGraphComputer(traversal) ||
+                (IS_TESTING && TraversalHelper.hasStepOfAssignableClassRecursively(ProfileSideEffectStep.class, TraversalHelper.getRootTraversal(traversal)))) // necessary cause ProfileTest analyzes counts
+            return;
+        // the adjacency holds more than a transaction can see so it can not answer the count
+        final Graph graph = traversal.getGraph().orElse(null);
+        if (!(graph instanceof TinkerGraph) || graph.features().graph().supportsTransactions())
+            return;
+
+        // a filter on the existence of adjacent edges only needs to know that the degree is not zero
+        final TraversalParent parent = traversal.getParent();
+        if (1 == traversal.getSteps().size() && isVertexStep(traversal.getStartStep()) &&
+                (parent instanceof TraversalFilterStep || parent instanceof NotStep || parent instanceof ConnectiveStep)) {
+            final VertexStep<?> vertexStep = (VertexStep<?>) traversal.getStartStep();
+            TraversalHelper.replaceStep((Step) vertexStep, new TinkerDegreeCountGlobalStep(traversal, vertexStep, 1L), traversal);
+            traversal.addStep(new IsStep<>(traversal, P.gt(0L)));
+            return;
+        }
+
+        for (int i = 0; i < traversal.getSteps().size() - 1; i++) {
+            final Step<?, ?> currentStep = traversal.getSteps().get(i);
+            if (!isVertexStep(currentStep))
+                continue;
+            Step<?, ?> nextStep = currentStep.getNextStep();
+            long limit = Long.MAX_VALUE;
+            if (nextStep instanceof RangeGlobalStep && nextStep.getLabels().isEmpty() &&
+                    0 == ((RangeGlobalStep) nextStep).getLowRange() && -1 != ((RangeGlobalStep) nextStep).getHighRange()) {
+                limit = ((RangeGlobalStep) nextStep).getHighRange();
+                nextStep = nextStep.getNextStep();
+            }
+            if (!(nextStep instanceof CountGlobalStep))
+                continue;
+
+            final TinkerDegreeCountGlobalStep degreeCountStep = new TinkerDegreeCountGlobalStep(traversal, (VertexStep<?>) currentStep, limit);
+            nextStep.getLabels().forEach(degreeCountStep::addLabel);
+            TraversalHelper.replaceStep((Step) nextStep, degreeCountStep, traversal);
+            while (degreeCountStep.getPreviousStep() != currentStep.getPreviousStep()) {
+                traversal.removeStep(degreeCountStep.getPreviousStep());
+            }
+        }
+    }
+
+    private static boolean isVertexStep(final Step<?, ?> step) {
+        return step.getClass().equals(VertexStep.class) && step.getLabels().isEmpty();
+    }
+
+    @Override
+    public Set<Class<? extends ProviderOptimizationStrategy>> applyPost() {
+        return Collections.singleton(TinkerGraphVertexStepStrategy.class);
+    }
+
+    public static TinkerGraphDegreeCountStrategy instance() {
+        return INSTANCE;
+    }
+}
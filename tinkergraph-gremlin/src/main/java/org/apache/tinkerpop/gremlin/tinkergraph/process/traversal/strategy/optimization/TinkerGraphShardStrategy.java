@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Barrier;
+import org.apache.tinkerpop.gremlin.process.traversal.step.LambdaHolder;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Mutating;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Ranging;
+import org.apache.tinkerpop.gremlin.process.traversal.step.SideEffectCapable;
+import org.apache.tinkerpop.gremlin.process.traversal.step.TraversalParent;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.NoOpBarrierStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.sideEffect.StartStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.CollectingBarrierStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.EmptyStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.ReducingBarrierStep;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.sideEffect.TinkerGraphStep;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.sideEffect.TinkerParallelGraphStep;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerHelper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * This strategy runs the start of a traversal over the shards of a {@link TinkerGraph} in parallel when the graph is
+ * configured with more than one {@link TinkerGraph#GREMLIN_TINKERGRAPH_SHARDS shard}. The {@link TinkerGraphStep}
+ * and the steps that follow it are folded into a {@link TinkerParallelGraphStep} if they are followed by a
+ * {@link ReducingBarrierStep} or {@link CollectingBarrierStep} that merges the results of the shards. The steps
+ * that are folded each process one traverser at a time, so they may not hold a barrier, a range or a lambda and the
+ * traversal may not mutate the graph or hold side-effects.
+ *
+ * @example <pre>
+ * g.V().out().values('age').sum()           // is replaced by TinkerParallelGraphStep.sum()
+ * g.V().hasLabel('person').groupCount()     // is replaced by TinkerParallelGraphStep.groupCount()
+ * g.E().inV().order().by('name')            // is replaced by TinkerParallelGraphStep.order().by('name')
+ * g.V().out().limit(10).count()             // is not replaced
+ * </pre>
+ */
+public final class TinkerGraphShardStrategy extends AbstractTraversalStrategy<TraversalStrategy.ProviderOptimizationStrategy> implements TraversalStrategy.ProviderOptimizationStrategy {
+
+    private static final TinkerGraphShardStrategy INSTANCE = new TinkerGraphShardStrategy();
+
+    private static final Set<Class<? extends ProviderOptimizationStrategy>> PRIORS = new HashSet<>(Arrays.asList(
+            TinkerGraphStepStrategy.class, TinkerGraphVertexStepStrategy.class,
+            TinkerGraphDegreeCountStrategy.class, TinkerGraphCountStrategy.class));
+
+    private TinkerGraphShardStrategy() {
+    }
+
+    @Override
+    public void apply(final Traversal.Admin<?, ?> traversal) {
+        if (!(traversal.getParent() instanceof EmptyStep) || TraversalHelper.onGraphComputer(traversal))
+            return;
+        final Graph graph = traversal.getGraph().orElse(null);
+        if (!(graph instanceof TinkerGraph) || graph.features().graph().supportsTransactions() ||
+                TinkerHelper.getShardCount((TinkerGraph) graph) < 2)
+            return;
+        // the shards share the side-effects of the traversal and must not change the graph under each other
+        if (TraversalHelper.hasStepOfAssignableClassRecursively(Arrays.asList(Mutating.class, SideEffectCapable.class), traversal))
+            return;
+        final Step<?, ?> startStep = traversal.getStartStep();
+        if (!(startStep instanceof TinkerGraphStep) || !((TinkerGraphStep) startStep).isStartStep() ||
+                0 != ((TinkerGraphStep) startStep).getIds().length)
+            return;
+
+        final List<Step> steps = new ArrayList<>();
+        Step<?, ?> barrier = startStep.getNextStep();
+        while (!(barrier instanceof EmptyStep) && isShardable(barrier)) {
+            steps.add(barrier);
+            barrier = barrier.getNextStep();
+        }
+        if (!(barrier instanceof ReducingBarrierStep) && !(barrier instanceof CollectingBarrierStep))
+            return;
+
+        final TinkerParallelGraphStep<?, ?> parallelStep = new TinkerParallelGraphStep<>(traversal, (TinkerGraphStep) startStep, steps);
+        for (final Step step : steps) {
+            traversal.removeStep(step);
+        }
+        TraversalHelper.replaceStep((Step) startStep, parallelStep, traversal);
+    }
+
+    /**
+     * Determines if the step gives the same results when each shard runs its own clone of it, which is the case if
+     * it keeps no state across traversers.
+     */
+    private static boolean isShardable(final Step<?, ?> step) {
+        if ((step instanceof Barrier && !(step instanceof NoOpBarrierStep)) || step instanceof Ranging ||
+                step instanceof StartStep || step instanceof LambdaHolder)
+            return false;
+        if (step instanceof TraversalParent) {
+            for (final Traversal.Admin<?, ?> localChild : ((TraversalParent) step).getLocalChildren()) {
+                if (TraversalHelper.hasStepOfAssignableClassRecursively(LambdaHolder.class, localChild))
+                    return false;
+            }
+            for (final Traversal.Admin<?, ?> globalChild : ((TraversalParent) step).getGlobalChildren()) {
+                for (final Step<?, ?> childStep : globalChild.getSteps()) {
+                    if (!isShardable(childStep))
+                        return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Set<Class<? extends ProviderOptimizationStrategy>> applyPrior() {
+        return PRIORS;
+    }
+
+    public static TinkerGraphShardStrategy instance() {
+        return INSTANCE;
+    }
+}
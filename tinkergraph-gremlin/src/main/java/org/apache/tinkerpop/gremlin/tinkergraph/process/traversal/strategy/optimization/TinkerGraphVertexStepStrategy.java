@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Order;
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.lambda.ElementValueTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.step.HasContainerHolder;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.HasStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.RangeGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.NoOpBarrierStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.OrderGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.optimization.CostBasedStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.GraphStatistics;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.map.TinkerVertexStep;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerHelper;
+import org.javatuples.Pair;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * This strategy replaces a {@link VertexStep} over the incident edges of a single label that has a vertex-centric
+ * index with a {@link TinkerVertexStep}, folding the {@code has()} steps that follow it into the lookup. If the edges
+ * are then ordered by an indexed key and limited, the edges of each vertex are capped to the limit in the order of the
+ * index. The order and limit steps are left in place as they still apply across all the vertices. When the traversal
+ * has the {@link CostBasedStrategy}, the edges are scanned rather than read from the index if the graph statistics
+ * estimate that the indexed predicates keep more than half of them.
+ *
+ * @example <pre>
+ * g.V().outE('rated').has('stars',gt(4))                  // is replaced by TinkerVertexStep
+ * g.V(v).outE('follows').order().by('time',decr).limit(10) // is replaced by TinkerVertexStep, order and limit
+ * </pre>
+ */
+public final class TinkerGraphVertexStepStrategy extends AbstractTraversalStrategy<TraversalStrategy.ProviderOptimizationStrategy> implements TraversalStrategy.ProviderOptimizationStrategy {
+
+    private static final TinkerGraphVertexStepStrategy INSTANCE = new TinkerGraphVertexStepStrategy();
+    private static final double SCAN_SELECTIVITY = 0.5d;
+
+    private TinkerGraphVertexStepStrategy() {
+    }
+
+    @Override
+    public void apply(final Traversal.Admin<?, ?> traversal) {
+        if (TraversalHelper.onGraphComputer(traversal))
+            return;
+        final Graph graph = traversal.getGraph().orElse(null);
+        if (!(graph instanceof TinkerGraph))
+            return;
+
+        for (final VertexStep<?> originalVertexStep : TraversalHelper.getStepsOfClass(VertexStep.class, traversal)) {
+            if (!originalVertexStep.returnsEdge() || 1 != originalVertexStep.getEdgeLabels().length)
+                continue;
+            final Set<String> indexedKeys = ((TinkerGraph) graph).getVertexCentricIndexKeys(originalVertexStep.getEdgeLabels()[0]);
+            if (indexedKeys.isEmpty())
+                continue;
+
+            final TinkerVertexStep tinkerVertexStep = new TinkerVertexStep((VertexStep<Edge>) originalVertexStep);
+            TraversalHelper.replaceStep((VertexStep<Edge>) originalVertexStep, tinkerVertexStep, traversal);
+            Step<?, ?> currentStep = tinkerVertexStep.getNextStep();
+            while (currentStep instanceof HasStep || currentStep instanceof NoOpBarrierStep) {
+                if (currentStep instanceof HasStep) {
+                    for (final HasContainer hasContainer : ((HasContainerHolder) currentStep).getHasContainers()) {
+                        tinkerVertexStep.addHasContainer(hasContainer);
+                    }
+                    TraversalHelper.copyLabels(currentStep, currentStep.getPreviousStep(), false);
+                    traversal.removeStep(currentStep);
+                }
+                currentStep = currentStep.getNextStep();
+            }
+            if (traversal.getStrategies().getStrategy(CostBasedStrategy.class).isPresent())
+                tinkerVertexStep.setScan(estimateSelectivity(tinkerVertexStep, indexedKeys, graph) > SCAN_SELECTIVITY);
+
+            if (currentStep instanceof OrderGlobalStep) {
+                final OrderGlobalStep<?, ?> orderGlobalStep = (OrderGlobalStep<?, ?>) currentStep;
+                final List<? extends Pair<? extends Traversal.Admin<?, ?>, ? extends Comparator<?>>> comparators = orderGlobalStep.getComparators();
+                long limit = orderGlobalStep.getLimit();
+                if (orderGlobalStep.getNextStep() instanceof RangeGlobalStep && -1 != ((RangeGlobalStep) orderGlobalStep.getNextStep()).getHighRange())
+                    limit = Math.min(limit, ((RangeGlobalStep) orderGlobalStep.getNextStep()).getHighRange());
+                if (Long.MAX_VALUE != limit && 1 == comparators.size() &&
+                        comparators.get(0).getValue0() instanceof ElementValueTraversal &&
+                        (Order.incr == comparators.get(0).getValue1() || Order.decr == comparators.get(0).getValue1())) {
+                    final String orderKey = ((ElementValueTraversal) comparators.get(0).getValue0()).getPropertyKey();
+                    if (indexedKeys.contains(orderKey))
+                        tinkerVertexStep.setOrderLimit(orderKey, Order.decr == comparators.get(0).getValue1(), limit);
+                }
+            }
+        }
+    }
+
+    /**
+     * Estimates the fraction of the edges of the label that the most selective of the predicates which the indices
+     * can answer keeps.
+     */
+    private static double estimateSelectivity(final TinkerVertexStep tinkerVertexStep, final Set<String> indexedKeys, final Graph graph) {
+        final GraphStatistics statistics = graph.statistics().get();
+        double selectivity = 1d;
+        for (final HasContainer hasContainer : tinkerVertexStep.getHasContainers()) {
+            if (indexedKeys.contains(hasContainer.getKey()) && TinkerHelper.isVertexCentricIndexable(hasContainer.getPredicate()))
+                selectivity = Math.min(selectivity, statistics.selectivity(Edge.class, tinkerVertexStep.getEdgeLabels()[0],
+                        hasContainer.getKey(), hasContainer.getPredicate()));
+        }
+        return selectivity;
+    }
+
+    public static TinkerGraphVertexStepStrategy instance() {
+        return INSTANCE;
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.VertexProperty;
+
+import java.util.ArrayList;
+
+/**
+ * Loads vertices and edges into a {@link TinkerGraph} from any number of threads at once. Elements are added
+ * directly to the graph structures, skipping the checks that {@link TinkerGraph#addVertex(Object...)} and
+ * {@link Vertex#addEdge(String, Vertex, Object...)} make on their arguments, and the indices of the graph are only
+ * rebuilt once the loader is closed. The adjacency of each vertex is guarded by one of a fixed set of locks chosen by
+ * the vertex, so threads only contend when they add edges to vertices that share a lock.
+ * <p/>
+ * Property keys are expected to be non-empty {@code String} values and property values are expected to be non-null.
+ * Vertex properties are added with {@link VertexProperty.Cardinality#list} cardinality. The graph should not be
+ * mutated or read through other means until the loader is closed.
+ */
+public final class TinkerBulkLoader implements AutoCloseable {
+
+    private static final int LOCK_STRIPES = 1024;
+
+    private final TinkerGraph graph;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private volatile boolean closed = false;
+
+    TinkerBulkLoader(final TinkerGraph graph) {
+        if (TinkerHelper.inComputerMode(graph))
+            throw new IllegalStateException("A graph cannot be bulk loaded while a GraphComputer is executing over it");
+        if (null != graph.transaction)
+            throw new IllegalStateException("A transactional graph cannot be bulk loaded");
+        this.graph = graph;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            this.locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Adds a vertex to the graph.
+     *
+     * @param id        the identifier of the vertex or {@code null} to generate one
+     * @param label     the label of the vertex or {@code null} for the {@link Vertex#DEFAULT_LABEL}
+     * @param keyValues alternating property keys and values
+     */
+    public Vertex addVertex(final Object id, final String label, final Object... keyValues) {
+        this.checkOpen();
+        final Object idValue = null == id ? this.graph.vertexIdManager.getNextId(this.graph) : this.graph.vertexIdManager.convert(id);
+        final TinkerVertex vertex = new TinkerVertex(idValue, null == label ? Vertex.DEFAULT_LABEL : label, this.graph);
+        if (keyValues.length > 0) {
+            vertex.properties = TinkerHelper.createPropertyMap(this.graph);
+            for (int i = 0; i < keyValues.length; i = i + 2) {
+                final Object vertexPropertyId = this.graph.vertexPropertyIdManager.getNextId(this.graph);
+                final TinkerVertexProperty<?> vertexProperty = new TinkerVertexProperty<>(vertexPropertyId, vertex, (String) keyValues[i], keyValues[i + 1]);
+                vertex.properties.computeIfAbsent(vertexProperty.key(), k -> new ArrayList<>(1)).add(vertexProperty);
+            }
+        }
+
+        if (null != this.graph.vertices.putIfAbsent(idValue, vertex))
+            throw Graph.Exceptions.vertexWithIdAlreadyExists(idValue);
+        TinkerHelper.addLabelIndex(this.graph.vertexLabels, vertex);
+        return vertex;
+    }
+
+    /**
+     * Adds an edge between two vertices that are already in the graph.
+     *
+     * @param id          the identifier of the edge or {@code null} to generate one
+     * @param outVertexId the identifier of the vertex the edge is directed out of
+     * @param label       the label of the edge or {@code null} for the {@link Edge#DEFAULT_LABEL}
+     * @param inVertexId  the identifier of the vertex the edge is directed into
+     * @param keyValues   alternating property keys and values
+     */
+    public Edge addEdge(final Object id, final Object outVertexId, final String label, final Object inVertexId,
+                        final Object... keyValues) {
+        this.checkOpen();
+        final TinkerVertex outVertex = this.getVertex(outVertexId);
+        final TinkerVertex inVertex = this.getVertex(inVertexId);
+        final String edgeLabel = null == label ? Edge.DEFAULT_LABEL : label;
+        final Object idValue = null == id ? this.graph.edgeIdManager.getNextId(this.graph) : this.graph.edgeIdManager.convert(id);
+        final TinkerEdge edge = new TinkerEdge(idValue, outVertex, edgeLabel, inVertex);
+        if (keyValues.length > 0) {
+            edge.properties = TinkerHelper.createPropertyMap(this.graph);
+            for (int i = 0; i < keyValues.length; i = i + 2) {
+                final TinkerProperty<?> property = new TinkerProperty<>(edge, (String) keyValues[i], keyValues[i + 1]);
+                edge.properties.put(property.key(), property);
+            }
+        }
+
+        if (null != this.graph.edges.putIfAbsent(idValue, edge))
+            throw Graph.Exceptions.edgeWithIdAlreadyExists(idValue);
+        TinkerHelper.addLabelIndex(this.graph.edgeLabels, edge);
+
+        // always take the lower stripe first so that two threads adding edges in opposite directions can't deadlock
+        final int outStripe = this.stripe(outVertex);
+        final int inStripe = this.stripe(inVertex);
+        synchronized (this.locks[Math.min(outStripe, inStripe)]) {
+            synchronized (this.locks[Math.max(outStripe, inStripe)]) {
+                TinkerHelper.addOutEdge(outVertex, edgeLabel, edge);
+                TinkerHelper.addInEdge(inVertex, edgeLabel, edge);
+            }
+        }
+        return edge;
+    }
+
+    /**
+     * Rebuilds the indices of the graph over the loaded elements and queues those that expire. If the graph has a
+     * journal, the loaded elements were not journaled as they were added, so they are made durable by writing the
+     * whole graph to its location and starting a new journal.
+     */
+    @Override
+    public void close() {
+        if (this.closed) return;
+        this.closed = true;
+        if (null != this.graph.vertexIndex) this.graph.vertexIndex.rebuild();
+        if (null != this.graph.edgeIndex) this.graph.edgeIndex.rebuild();
+        if (null != this.graph.expiry) this.graph.expiry.rebuild();
+        if (null != this.graph.journal) this.graph.journal.save();
+    }
+
+    private TinkerVertex getVertex(final Object id) {
+        final Vertex vertex = this.graph.vertices.get(this.graph.vertexIdManager.convert(id));
+        if (null == vertex)
+            throw Graph.Exceptions.elementNotFound(Vertex.class, id);
+        return (TinkerVertex) vertex;
+    }
+
+    private int stripe(final Vertex vertex) {
+        final int hash = vertex.id().hashCode();
+        return (hash ^ (hash >>> 16)) & (LOCK_STRIPES - 1);
+    }
+
+    private void checkOpen() {
+        if (this.closed)
+            throw new IllegalStateException("The bulk loader has been closed");
+    }
+}
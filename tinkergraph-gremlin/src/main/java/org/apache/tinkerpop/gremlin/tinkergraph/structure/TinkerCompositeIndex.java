@@ -0,0 +1,208 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.Property;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * An index over the elements of a label by an ordered tuple of property keys. The index is a tree with one level per
+ * key, so a lookup can supply values for any prefix of the keys. An element is only indexed if it has a value for
+ * every key and a vertex with multi-properties is indexed under every combination of their values.
+ */
+final class TinkerCompositeIndex<T extends Element> {
+
+    private final String label;
+    private final List<String> keys;
+    private final Node<T> root = new Node<>();
+    private final Map<T, List<List<Object>>> tuples = new ConcurrentHashMap<>();
+    private final AtomicInteger multiTupleElements = new AtomicInteger();
+
+    public TinkerCompositeIndex(final String label, final List<String> keys) {
+        this.label = label;
+        this.keys = Collections.unmodifiableList(new ArrayList<>(keys));
+    }
+
+    public String getLabel() {
+        return this.label;
+    }
+
+    public List<String> getKeys() {
+        return this.keys;
+    }
+
+    public boolean isIndexed(final String label, final String key) {
+        return this.label.equals(label) && this.keys.contains(key);
+    }
+
+    /**
+     * The number of leading keys of the index that are contained in the given keys.
+     */
+    public int getPrefixLength(final Set<String> keys) {
+        int length = 0;
+        while (length < this.keys.size() && keys.contains(this.keys.get(length))) {
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * Gets the elements that have any of the values given for each key of a prefix of the keys of the index. The
+     * leaves of the index are returned as a live, read-only view unless an element may be in more than one of them.
+     */
+    public Collection<T> get(final List<? extends Collection<?>> prefixValues) {
+        final List<Set<T>> leaves = new ArrayList<>();
+        this.collect(this.root, prefixValues, 0, leaves);
+        if (leaves.size() == 1)
+            return Collections.unmodifiableSet(leaves.get(0));
+        else if (0 == this.multiTupleElements.get())
+            return new TinkerIndex.BucketUnion<>(leaves);
+        else {
+            // a vertex with multi-properties on the keys is in a leaf for each combination of their values
+            final Set<T> elements = new LinkedHashSet<>();
+            leaves.forEach(elements::addAll);
+            return elements;
+        }
+    }
+
+    /**
+     * Counts the elements that {@link #get(List)} would return. A lookup of a single value for every key is answered
+     * from the size of a single leaf.
+     */
+    public long count(final List<? extends Collection<?>> prefixValues) {
+        if (prefixValues.size() == this.keys.size() && prefixValues.stream().allMatch(values -> values.size() == 1)) {
+            Node<T> node = this.root;
+            for (final Collection<?> values : prefixValues) {
+                node = node.children.get(values.iterator().next());
+                if (null == node) return 0;
+            }
+            return node.elements.size();
+        }
+        return this.get(prefixValues).size();
+    }
+
+    /**
+     * Reindexes the element from its current label and property values.
+     */
+    public void update(final T element) {
+        this.remove(element);
+        if (!this.label.equals(element.label()))
+            return;
+
+        final List<List<Object>> elementTuples = this.tuples(element);
+        if (elementTuples.isEmpty())
+            return;
+        for (final List<Object> tuple : elementTuples) {
+            Node<T> node = this.root;
+            for (final Object value : tuple) {
+                node = node.children.computeIfAbsent(value, v -> new Node<>());
+            }
+            node.elements.add(element);
+        }
+        this.tuples.put(element, elementTuples);
+        if (elementTuples.size() > 1)
+            this.multiTupleElements.incrementAndGet();
+    }
+
+    public void remove(final T element) {
+        final List<List<Object>> elementTuples = this.tuples.remove(element);
+        if (null == elementTuples)
+            return;
+        if (elementTuples.size() > 1)
+            this.multiTupleElements.decrementAndGet();
+        for (final List<Object> tuple : elementTuples) {
+            this.remove(this.root, tuple, 0, element);
+        }
+    }
+
+    public void rebuild(final Stream<T> elements) {
+        this.root.children.clear();
+        this.tuples.clear();
+        this.multiTupleElements.set(0);
+        elements.forEach(this::update);
+    }
+
+    private void collect(final Node<T> node, final List<? extends Collection<?>> prefixValues, final int depth, final List<Set<T>> leaves) {
+        if (depth == this.keys.size())
+            leaves.add(node.elements);
+        else if (depth < prefixValues.size()) {
+            for (final Object value : prefixValues.get(depth)) {
+                final Node<T> child = node.children.get(value);
+                if (null != child)
+                    this.collect(child, prefixValues, depth + 1, leaves);
+            }
+        } else {
+            for (final Node<T> child : node.children.values()) {
+                this.collect(child, prefixValues, depth + 1, leaves);
+            }
+        }
+    }
+
+    /**
+     * Removes the element from the leaf of the tuple and prunes the nodes that are left empty.
+     */
+    private boolean remove(final Node<T> node, final List<Object> tuple, final int depth, final T element) {
+        if (depth == tuple.size()) {
+            node.elements.remove(element);
+            return node.elements.isEmpty();
+        }
+        final Node<T> child = node.children.get(tuple.get(depth));
+        if (null != child && this.remove(child, tuple, depth + 1, element))
+            node.children.remove(tuple.get(depth));
+        return node.children.isEmpty();
+    }
+
+    private List<List<Object>> tuples(final T element) {
+        List<List<Object>> tuples = Collections.singletonList(Collections.emptyList());
+        for (final String key : this.keys) {
+            final Set<Object> values = new LinkedHashSet<>();
+            element.properties(key).forEachRemaining(property -> values.add(((Property) property).value()));
+            if (values.isEmpty())
+                return Collections.emptyList();
+
+            final List<List<Object>> extended = new ArrayList<>(tuples.size() * values.size());
+            for (final List<Object> tuple : tuples) {
+                for (final Object value : values) {
+                    final List<Object> next = new ArrayList<>(tuple.size() + 1);
+                    next.addAll(tuple);
+                    next.add(value);
+                    extended.add(next);
+                }
+            }
+            tuples = extended;
+        }
+        return tuples;
+    }
+
+    private static final class Node<T> {
+        private final Map<Object, Node<T>> children = new ConcurrentHashMap<>();
+        private final Set<T> elements = ConcurrentHashMap.newKeySet();
+    }
+}
@@ -29,10 +29,10 @@ import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
 import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
 
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -48,34 +48,66 @@ public final class TinkerEdge extends TinkerElement implements Edge {
         super(id, label);
         this.outVertex = outVertex;
         this.inVertex = inVertex;
+        if (null != ((TinkerGraph) inVertex.graph()).transaction) this.properties = new ConcurrentHashMap<>();
         TinkerHelper.autoUpdateIndex(this, T.label.getAccessor(), this.label, null);
     }
 
     @Override
     public <V> Property<V> property(final String key, final V value) {
-        if (this.removed) throw elementAlreadyRemoved(Edge.class, id);
+        if (this.isRemoved()) throw elementAlreadyRemoved(Edge.class, id);
+        ((TinkerGraph) this.graph()).verifyNotFrozen();
         ElementHelper.validateProperty(key, value);
         final Property oldProperty = super.property(key);
-        final Property<V> newProperty = new TinkerProperty<>(this, key, value);
-        if (null == this.properties) this.properties = new HashMap<>();
-        this.properties.put(key, newProperty);
+        final TinkerProperty<V> newProperty = new TinkerProperty<>(this, key, value);
+        final TinkerGraph graph = (TinkerGraph) this.graph();
+        if (null != graph.transaction) {
+            // the replaced property stays in the chain of versions for the transactions that can still see it
+            newProperty.version = graph.transaction.created(newProperty, true);
+            if (oldProperty.isPresent()) oldProperty.remove();
+            this.properties.compute(key, (k, previous) -> {
+                newProperty.previous = (TinkerProperty<V>) previous;
+                return newProperty;
+            });
+            TinkerHelper.autoUpdateIndex(this, key, value, null);
+            return newProperty;
+        }
+        if (null != graph.expiry) graph.expiry.propertySet(this, key, value);
+        if (null == this.properties) this.properties = TinkerHelper.createPropertyMap(graph);
+        this.properties.put(newProperty.key(), newProperty);
         TinkerHelper.autoUpdateIndex(this, key, value, oldProperty.isPresent() ? oldProperty.value() : null);
+        if (null != graph.journal) graph.journal.setEdgeProperty(this, key, value);
         return newProperty;
 
     }
 
     @Override
     public <V> Property<V> property(final String key) {
-        return null == this.properties ? Property.<V>empty() : this.properties.getOrDefault(key, Property.<V>empty());
+        if (null == this.properties) return Property.<V>empty();
+        final TinkerTransaction transaction = ((TinkerGraph) this.graph()).transaction;
+        if (null == transaction)
+            return this.properties.getOrDefault(key, Property.<V>empty());
+        return this.isRemoved() ? Property.<V>empty() : transaction.getVisible(this.properties.get(key));
     }
 
     @Override
     public Set<String> keys() {
-        return null == this.properties ? Collections.emptySet() : this.properties.keySet();
+        if (null == this.properties) return Collections.emptySet();
+        final TinkerTransaction transaction = ((TinkerGraph) this.graph()).transaction;
+        return null == transaction ?
+                this.properties.keySet() :
+                this.properties.keySet().stream().filter(key -> this.property(key).isPresent()).collect(Collectors.toSet());
     }
 
     @Override
     public void remove() {
+        final TinkerGraph graph = (TinkerGraph) this.graph();
+        graph.verifyNotFrozen();
+        if (null != graph.transaction) {
+            if (!this.isRemoved())
+                graph.transaction.removed(this);
+            return;
+        }
+
         final TinkerVertex outVertex = (TinkerVertex) this.outVertex;
         final TinkerVertex inVertex = (TinkerVertex) this.inVertex;
 
@@ -91,9 +123,11 @@ public final class TinkerEdge extends TinkerElement implements Edge {
         }
 
         TinkerHelper.removeElementIndex(this);
-        ((TinkerGraph) this.graph()).edges.remove(this.id());
+        graph.edges.remove(this.id());
+        TinkerHelper.removeLabelIndex(graph.edgeLabels, this);
         this.properties = null;
         this.removed = true;
+        if (null != graph.journal) graph.journal.removeEdge(this);
     }
 
     @Override
@@ -114,7 +148,7 @@ public final class TinkerEdge extends TinkerElement implements Edge {
 
     @Override
     public Iterator<Vertex> vertices(final Direction direction) {
-        if (removed) return Collections.emptyIterator();
+        if (this.isRemoved()) return Collections.emptyIterator();
         switch (direction) {
             case OUT:
                 return IteratorUtils.of(this.outVertex);
@@ -133,6 +167,10 @@ public final class TinkerEdge extends TinkerElement implements Edge {
     @Override
     public <V> Iterator<Property<V>> properties(final String... propertyKeys) {
         if (null == this.properties) return Collections.emptyIterator();
+        if (null != ((TinkerGraph) this.graph()).transaction) {
+            if (this.isRemoved()) return Collections.emptyIterator();
+            return (Iterator) this.keys().stream().filter(key -> ElementHelper.keyExists(key, propertyKeys)).map(this::property).collect(Collectors.toList()).iterator();
+        }
         if (propertyKeys.length == 1) {
             final Property<V> property = this.properties.get(propertyKeys[0]);
             return null == property ? Collections.emptyIterator() : IteratorUtils.of(property);
@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import org.apache.tinkerpop.gremlin.structure.Edge;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * A packed array of the {@link Edge} objects incident to a {@link TinkerVertex} for a single label and direction. It
+ * is used in place of a {@code HashSet} when {@link TinkerGraph#GREMLIN_TINKERGRAPH_COMPACT_ADJACENCY} is enabled and
+ * costs a single reference per edge rather than a hash entry. Small sets are searched by scanning the array. Once a set
+ * holds more than {@link #SCAN_LIMIT} edges it also keeps an open-addressing table of the positions of its edges in
+ * the array, which costs about two {@code int} values per edge, so {@link #contains(Object)} and
+ * {@link #remove(Object)} take constant time and dropping a vertex costs time linear in its degree. The table uses
+ * the hash code and equality of the edges, so any {@link Edge} with the id of an edge in the set is found.
+ * <p/>
+ * {@link #add(Edge)} does not check for duplicates as {@link TinkerGraph} only ever adds newly created edges.
+ */
+final class TinkerEdgeArraySet extends AbstractSet<Edge> {
+
+    private static final Edge[] EMPTY = new Edge[0];
+
+    /**
+     * The number of edges up to which the set is scanned rather than keeping a table of positions.
+     */
+    static final int SCAN_LIMIT = 16;
+
+    private Edge[] edges = EMPTY;
+    private int size = 0;
+    private int modCount = 0;
+
+    /**
+     * The position in the array plus one of the edge in each bucket, or zero for an empty bucket, probed linearly from
+     * the hash of the edge. This is {@code null} while the set is small enough to scan.
+     */
+    private int[] table = null;
+
+    @Override
+    public boolean add(final Edge edge) {
+        if (this.size == this.edges.length)
+            this.edges = Arrays.copyOf(this.edges, this.size + (this.size >> 1) + 1);
+        this.edges[this.size++] = edge;
+        if (null != this.table && this.size << 1 <= this.table.length)
+            this.insert(this.size - 1);
+        else if (this.size > SCAN_LIMIT)
+            this.rehash();
+        this.modCount++;
+        return true;
+    }
+
+    @Override
+    public boolean remove(final Object object) {
+        final int index = this.indexOf(object);
+        if (index < 0)
+            return false;
+        this.removeAt(index);
+        return true;
+    }
+
+    @Override
+    public boolean contains(final Object object) {
+        return this.indexOf(object) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(this.edges, 0, this.size, null);
+        this.size = 0;
+        this.table = null;
+        this.modCount++;
+    }
+
+    @Override
+    public Object[] toArray() {
+        return Arrays.copyOf(this.edges, this.size, Object[].class);
+    }
+
+    @Override
+    public void forEach(final Consumer<? super Edge> action) {
+        final int expectedModCount = this.modCount;
+        for (int i = 0; i < this.size; i++) {
+            action.accept(this.edges[i]);
+        }
+        if (expectedModCount != this.modCount)
+            throw new ConcurrentModificationException();
+    }
+
+    @Override
+    public Iterator<Edge> iterator() {
+        return new Iterator<Edge>() {
+            private int current = 0;
+            private int last = -1;
+            private int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return this.current < size;
+            }
+
+            @Override
+            public Edge next() {
+                if (this.expectedModCount != modCount)
+                    throw new ConcurrentModificationException();
+                if (this.current >= size)
+                    throw new NoSuchElementException();
+                this.last = this.current;
+                return edges[this.current++];
+            }
+
+            @Override
+            public void remove() {
+                if (this.last < 0)
+                    throw new IllegalStateException();
+                if (this.expectedModCount != modCount)
+                    throw new ConcurrentModificationException();
+                removeAt(this.last);
+                // the last edge was swapped into the removed slot so it must be visited next
+                this.current = this.last;
+                this.last = -1;
+                this.expectedModCount = modCount;
+            }
+        };
+    }
+
+    /**
+     * Gets the index of the edge in the array or {@code -1} if it is not in the set.
+     */
+    private int indexOf(final Object object) {
+        if (null == this.table) {
+            for (int i = 0; i < this.size; i++) {
+                if (this.edges[i] == object || this.edges[i].equals(object))
+                    return i;
+            }
+            return -1;
+        }
+        if (!(object instanceof Edge))
+            return -1;
+        final int mask = this.table.length - 1;
+        for (int bucket = hash(object) & mask; 0 != this.table[bucket]; bucket = (bucket + 1) & mask) {
+            final Edge edge = this.edges[this.table[bucket] - 1];
+            if (edge == object || edge.equals(object))
+                return this.table[bucket] - 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Removes the edge at the index by moving the last edge into its slot which keeps the array packed.
+     */
+    private void removeAt(final int index) {
+        final int last = --this.size;
+        if (null != this.table) {
+            this.delete(this.bucketOf(index));
+            if (index != last)
+                this.table[this.bucketOf(last)] = index + 1;
+        }
+        this.edges[index] = this.edges[last];
+        this.edges[last] = null;
+        this.modCount++;
+    }
+
+    /**
+     * Rebuilds the table with room for the set to double in size before it is rebuilt again.
+     */
+    private void rehash() {
+        this.table = new int[Integer.highestOneBit(this.size) << 2];
+        for (int i = 0; i < this.size; i++) {
+            this.insert(i);
+        }
+    }
+
+    private void insert(final int index) {
+        final int mask = this.table.length - 1;
+        int bucket = hash(this.edges[index]) & mask;
+        while (0 != this.table[bucket]) {
+            bucket = (bucket + 1) & mask;
+        }
+        this.table[bucket] = index + 1;
+    }
+
+    private int bucketOf(final int index) {
+        final int mask = this.table.length - 1;
+        int bucket = hash(this.edges[index]) & mask;
+        while (this.table[bucket] != index + 1) {
+            bucket = (bucket + 1) & mask;
+        }
+        return bucket;
+    }
+
+    /**
+     * Empties the bucket and shifts back the entries that follow it in its probe sequence so that none of them is
+     * cut off from the bucket their probe starts at.
+     */
+    private void delete(final int bucket) {
+        final int mask = this.table.length - 1;
+        int hole = bucket;
+        for (int next = (bucket + 1) & mask; 0 != this.table[next]; next = (next + 1) & mask) {
+            final int home = hash(this.edges[this.table[next] - 1]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                this.table[hole] = this.table[next];
+                hole = next;
+            }
+        }
+        this.table[hole] = 0;
+    }
+
+    private static int hash(final Object edge) {
+        final int hash = edge.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import org.apache.tinkerpop.gremlin.structure.Edge;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * A read-only view of the {@link Edge} objects incident to a {@link TinkerVertex} for a single label and direction
+ * once its {@link TinkerGraph} is {@link TinkerGraph#freeze() frozen}. The edges are a range of one of the arrays of
+ * the {@link TinkerGraphCsr} that holds the edges of every vertex, so the view costs no more than its bounds.
+ */
+final class TinkerEdgeArraySlice extends AbstractSet<Edge> {
+
+    private final Edge[] edges;
+    private final int from;
+    private final int to;
+
+    TinkerEdgeArraySlice(final Edge[] edges, final int from, final int to) {
+        this.edges = edges;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    public boolean contains(final Object object) {
+        for (int i = this.from; i < this.to; i++) {
+            if (this.edges[i].equals(object))
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return this.to - this.from;
+    }
+
+    @Override
+    public Object[] toArray() {
+        return Arrays.copyOfRange(this.edges, this.from, this.to, Object[].class);
+    }
+
+    @Override
+    public void forEach(final Consumer<? super Edge> action) {
+        for (int i = this.from; i < this.to; i++) {
+            action.accept(this.edges[i]);
+        }
+    }
+
+    @Override
+    public Iterator<Edge> iterator() {
+        return new Iterator<Edge>() {
+            private int current = from;
+
+            @Override
+            public boolean hasNext() {
+                return this.current < to;
+            }
+
+            @Override
+            public Edge next() {
+                if (this.current >= to)
+                    throw new NoSuchElementException();
+                return edges[this.current++];
+            }
+        };
+    }
+}
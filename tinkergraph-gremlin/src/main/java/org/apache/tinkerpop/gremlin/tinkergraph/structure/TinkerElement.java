@@ -29,6 +29,7 @@ public abstract class TinkerElement implements Element {
     protected final Object id;
     protected final String label;
     protected boolean removed = false;
+    volatile TinkerTransaction.Version version = null;
 
     protected TinkerElement(final Object id, final String label) {
         this.id = id;
@@ -56,6 +57,15 @@ public abstract class TinkerElement implements Element {
         return ElementHelper.areEqual(this, object);
     }
 
+    /**
+     * Determines if the element was removed. When the graph is transactional this is the case if the element is
+     * not visible to the current thread.
+     */
+    boolean isRemoved() {
+        final TinkerTransaction transaction = ((TinkerGraph) this.graph()).transaction;
+        return this.removed || (null != transaction && !transaction.isVisible(this, this.version));
+    }
+
     protected static IllegalStateException elementAlreadyRemoved(final Class<? extends Element> clazz, final Object id) {
         return new IllegalStateException(String.format("%s with id %s was removed.", clazz.getSimpleName(), id));
     }
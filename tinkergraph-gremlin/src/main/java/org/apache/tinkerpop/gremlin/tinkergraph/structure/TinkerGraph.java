@@ -20,11 +20,15 @@ package org.apache.tinkerpop.gremlin.tinkergraph.structure;
 
 import org.apache.commons.configuration.BaseConfiguration;
 import org.apache.commons.configuration.Configuration;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 import org.apache.tinkerpop.gremlin.process.computer.GraphComputer;
 import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategies;
+import org.apache.tinkerpop.gremlin.structure.Direction;
 import org.apache.tinkerpop.gremlin.structure.Edge;
 import org.apache.tinkerpop.gremlin.structure.Element;
 import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.GraphStatistics;
+import org.apache.tinkerpop.gremlin.structure.Property;
 import org.apache.tinkerpop.gremlin.structure.Transaction;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.apache.tinkerpop.gremlin.structure.VertexProperty;
@@ -38,7 +42,10 @@ import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
 import org.apache.tinkerpop.gremlin.tinkergraph.process.computer.TinkerGraphComputer;
 import org.apache.tinkerpop.gremlin.tinkergraph.process.computer.TinkerGraphComputerView;
 import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization.TinkerGraphCountStrategy;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization.TinkerGraphDegreeCountStrategy;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization.TinkerGraphShardStrategy;
 import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization.TinkerGraphStepStrategy;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization.TinkerGraphVertexStepStrategy;
 import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
 
 import java.io.File;
@@ -47,11 +54,16 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -70,7 +82,10 @@ public final class TinkerGraph implements Graph {
     static {
         TraversalStrategies.GlobalCache.registerStrategies(TinkerGraph.class, TraversalStrategies.GlobalCache.getStrategies(Graph.class).clone().addStrategies(
                 TinkerGraphStepStrategy.instance(),
-                TinkerGraphCountStrategy.instance()));
+                TinkerGraphVertexStepStrategy.instance(),
+                TinkerGraphDegreeCountStrategy.instance(),
+                TinkerGraphCountStrategy.instance(),
+                TinkerGraphShardStrategy.instance()));
     }
 
     private static final Configuration EMPTY_CONFIGURATION = new BaseConfiguration() {{
@@ -83,12 +98,27 @@ public final class TinkerGraph implements Graph {
     public static final String GREMLIN_TINKERGRAPH_DEFAULT_VERTEX_PROPERTY_CARDINALITY = "gremlin.tinkergraph.defaultVertexPropertyCardinality";
     public static final String GREMLIN_TINKERGRAPH_GRAPH_LOCATION = "gremlin.tinkergraph.graphLocation";
     public static final String GREMLIN_TINKERGRAPH_GRAPH_FORMAT = "gremlin.tinkergraph.graphFormat";
+    public static final String GREMLIN_TINKERGRAPH_COMPACT_ADJACENCY = "gremlin.tinkergraph.compactAdjacency";
+    public static final String GREMLIN_TINKERGRAPH_COMPACT_PROPERTIES = "gremlin.tinkergraph.compactProperties";
+    public static final String GREMLIN_TINKERGRAPH_JOURNAL = "gremlin.tinkergraph.journal";
+    public static final String GREMLIN_TINKERGRAPH_JOURNAL_SYNC_INTERVAL = "gremlin.tinkergraph.journalSyncInterval";
+    public static final String GREMLIN_TINKERGRAPH_CHECKPOINT_INTERVAL = "gremlin.tinkergraph.checkpointInterval";
+    public static final String GREMLIN_TINKERGRAPH_TRANSACTIONS = "gremlin.tinkergraph.transactions";
+    public static final String GREMLIN_TINKERGRAPH_FROZEN = "gremlin.tinkergraph.frozen";
+    public static final String GREMLIN_TINKERGRAPH_EXPIRY_KEY = "gremlin.tinkergraph.expiryKey";
+    public static final String GREMLIN_TINKERGRAPH_EXPIRY_INTERVAL = "gremlin.tinkergraph.expiryInterval";
+    public static final String GREMLIN_TINKERGRAPH_EXPIRY_BATCH_SIZE = "gremlin.tinkergraph.expiryBatchSize";
+    public static final String GREMLIN_TINKERGRAPH_SHARDS = "gremlin.tinkergraph.shards";
 
     private final TinkerGraphFeatures features = new TinkerGraphFeatures();
 
     protected AtomicLong currentId = new AtomicLong(-1L);
     protected Map<Object, Vertex> vertices = new ConcurrentHashMap<>();
     protected Map<Object, Edge> edges = new ConcurrentHashMap<>();
+    protected Map<String, Set<Vertex>> vertexLabels = new ConcurrentHashMap<>();
+    protected Map<String, Set<Edge>> edgeLabels = new ConcurrentHashMap<>();
+    protected Map<String, Set<String>> vertexCentricIndexKeys = new ConcurrentHashMap<>();
+    protected Map<String, String> propertyKeys = new ConcurrentHashMap<>();
 
     protected TinkerGraphVariables variables = null;
     protected TinkerGraphComputerView graphComputerView = null;
@@ -99,6 +129,15 @@ public final class TinkerGraph implements Graph {
     protected final IdManager<?> edgeIdManager;
     protected final IdManager<?> vertexPropertyIdManager;
     protected final VertexProperty.Cardinality defaultVertexPropertyCardinality;
+    protected final boolean compactAdjacency;
+    protected final boolean compactProperties;
+    protected final int shards;
+    protected TinkerGraphJournal journal = null;
+    protected TinkerTransaction transaction = null;
+    protected TinkerGraphExpiry expiry = null;
+    protected TinkerGraphCsr csr = null;
+    private final TinkerGraphStatistics statistics = new TinkerGraphStatistics(this);
+    private ExecutorService shardExecutor = null;
 
     private final Configuration configuration;
     private final String graphLocation;
@@ -114,6 +153,8 @@ public final class TinkerGraph implements Graph {
         vertexPropertyIdManager = selectIdManager(configuration, GREMLIN_TINKERGRAPH_VERTEX_PROPERTY_ID_MANAGER, VertexProperty.class);
         defaultVertexPropertyCardinality = VertexProperty.Cardinality.valueOf(
                 configuration.getString(GREMLIN_TINKERGRAPH_DEFAULT_VERTEX_PROPERTY_CARDINALITY, VertexProperty.Cardinality.single.name()));
+        compactAdjacency = configuration.getBoolean(GREMLIN_TINKERGRAPH_COMPACT_ADJACENCY, false);
+        compactProperties = configuration.getBoolean(GREMLIN_TINKERGRAPH_COMPACT_PROPERTIES, false);
 
         graphLocation = configuration.getString(GREMLIN_TINKERGRAPH_GRAPH_LOCATION, null);
         graphFormat = configuration.getString(GREMLIN_TINKERGRAPH_GRAPH_FORMAT, null);
@@ -122,7 +163,55 @@ public final class TinkerGraph implements Graph {
             throw new IllegalStateException(String.format("The %s and %s must both be specified if either is present",
                     GREMLIN_TINKERGRAPH_GRAPH_LOCATION, GREMLIN_TINKERGRAPH_GRAPH_FORMAT));
 
+        final boolean transactional = configuration.getBoolean(GREMLIN_TINKERGRAPH_TRANSACTIONS, false);
+        if (transactional && compactAdjacency)
+            throw new IllegalStateException(String.format("The %s and %s can not both be enabled",
+                    GREMLIN_TINKERGRAPH_TRANSACTIONS, GREMLIN_TINKERGRAPH_COMPACT_ADJACENCY));
+        if (transactional && compactProperties)
+            throw new IllegalStateException(String.format("The %s and %s can not both be enabled",
+                    GREMLIN_TINKERGRAPH_TRANSACTIONS, GREMLIN_TINKERGRAPH_COMPACT_PROPERTIES));
+        if (transactional && configuration.getBoolean(GREMLIN_TINKERGRAPH_JOURNAL, false))
+            throw new IllegalStateException(String.format("The %s and %s can not both be enabled",
+                    GREMLIN_TINKERGRAPH_TRANSACTIONS, GREMLIN_TINKERGRAPH_JOURNAL));
+
+        final String expiryKey = configuration.getString(GREMLIN_TINKERGRAPH_EXPIRY_KEY, null);
+        if (transactional && expiryKey != null)
+            throw new IllegalStateException(String.format("The %s and %s can not both be enabled",
+                    GREMLIN_TINKERGRAPH_TRANSACTIONS, GREMLIN_TINKERGRAPH_EXPIRY_KEY));
+        if (expiryKey != null) expiry = createExpiry(expiryKey);
+
+        final boolean frozen = configuration.getBoolean(GREMLIN_TINKERGRAPH_FROZEN, false);
+        if (frozen && transactional)
+            throw new IllegalStateException(String.format("The %s and %s can not both be enabled",
+                    GREMLIN_TINKERGRAPH_TRANSACTIONS, GREMLIN_TINKERGRAPH_FROZEN));
+        if (frozen && expiryKey != null)
+            throw new IllegalStateException(String.format("The %s and %s can not both be enabled",
+                    GREMLIN_TINKERGRAPH_EXPIRY_KEY, GREMLIN_TINKERGRAPH_FROZEN));
+
+        shards = configuration.getInt(GREMLIN_TINKERGRAPH_SHARDS, 1);
+        if (shards < 1)
+            throw new IllegalStateException(String.format("The %s must be at least 1", GREMLIN_TINKERGRAPH_SHARDS));
+        if (transactional && shards > 1)
+            throw new IllegalStateException(String.format("The %s and %s can not both be enabled",
+                    GREMLIN_TINKERGRAPH_TRANSACTIONS, GREMLIN_TINKERGRAPH_SHARDS));
+
         if (graphLocation != null) loadGraph();
+        if (transactional) transaction = new TinkerTransaction(this);
+
+        if (configuration.getBoolean(GREMLIN_TINKERGRAPH_JOURNAL, false)) {
+            if (null == graphLocation)
+                throw new IllegalStateException(String.format("The %s must be specified if %s is enabled",
+                        GREMLIN_TINKERGRAPH_GRAPH_LOCATION, GREMLIN_TINKERGRAPH_JOURNAL));
+            try {
+                journal = TinkerGraphJournal.open(this, graphLocation,
+                        configuration.getLong(GREMLIN_TINKERGRAPH_JOURNAL_SYNC_INTERVAL, 1000L),
+                        configuration.getLong(GREMLIN_TINKERGRAPH_CHECKPOINT_INTERVAL, 600000L));
+            } catch (Exception ex) {
+                throw new RuntimeException(String.format("Could not open journal for graph at %s", graphLocation), ex);
+            }
+        }
+
+        if (frozen) freeze();
     }
 
     /**
@@ -158,6 +247,7 @@ public final class TinkerGraph implements Graph {
 
     @Override
     public Vertex addVertex(final Object... keyValues) {
+        this.verifyNotFrozen();
         ElementHelper.legalPropertyKeyValueArray(keyValues);
         Object idValue = vertexIdManager.convert(ElementHelper.getIdValue(keyValues).orElse(null));
         final String label = ElementHelper.getLabelValue(keyValues).orElse(Vertex.DEFAULT_LABEL);
@@ -169,10 +259,30 @@ public final class TinkerGraph implements Graph {
             idValue = vertexIdManager.getNextId(this);
         }
 
-        final Vertex vertex = new TinkerVertex(idValue, label, this);
+        final TinkerVertex vertex = new TinkerVertex(idValue, label, this);
+        if (null != this.transaction) {
+            vertex.version = this.transaction.created(vertex, false);
+            if (null != this.vertices.putIfAbsent(idValue, vertex))
+                throw Exceptions.vertexWithIdAlreadyExists(idValue);
+            TinkerHelper.addLabelIndex(this.vertexLabels, vertex);
+            ElementHelper.attachProperties(vertex, VertexProperty.Cardinality.list, keyValues);
+            return vertex;
+        }
         this.vertices.put(vertex.id(), vertex);
+        TinkerHelper.addLabelIndex(this.vertexLabels, vertex);
 
-        ElementHelper.attachProperties(vertex, VertexProperty.Cardinality.list, keyValues);
+        if (null != this.journal) {
+            this.journal.suppress();
+            try {
+                ElementHelper.attachProperties(vertex, VertexProperty.Cardinality.list, keyValues);
+            } finally {
+                this.journal.resume();
+            }
+            this.journal.addVertex(vertex);
+        } else {
+            ElementHelper.attachProperties(vertex, VertexProperty.Cardinality.list, keyValues);
+        }
+        if (null != this.expiry) this.expiry.added(vertex);
         return vertex;
     }
 
@@ -188,8 +298,16 @@ public final class TinkerGraph implements Graph {
         return new TinkerGraphComputer(this);
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @throws UnsupportedOperationException if the {@link #GREMLIN_TINKERGRAPH_JOURNAL} is enabled, as the variables
+     *                                       are neither journaled nor written by all of the graph formats
+     */
     @Override
     public Variables variables() {
+        if (null != this.journal)
+            throw Exceptions.variablesNotSupported();
         if (null == this.variables)
             this.variables = new TinkerGraphVariables();
         return this.variables;
@@ -211,28 +329,167 @@ public final class TinkerGraph implements Graph {
     }
 
     public void clear() {
+        this.verifyNotFrozen();
         this.vertices.clear();
         this.edges.clear();
+        this.vertexLabels.clear();
+        this.edgeLabels.clear();
+        this.vertexCentricIndexKeys.clear();
+        this.propertyKeys.clear();
         this.variables = null;
         this.currentId.set(-1L);
         this.vertexIndex = null;
         this.edgeIndex = null;
         this.graphComputerView = null;
+        this.statistics.clear();
+        if (null != this.expiry) this.expiry.clear();
     }
 
     /**
      * This method only has an effect if the {@link #GREMLIN_TINKERGRAPH_GRAPH_LOCATION} is set, in which case the
      * data in the graph is persisted to that location. This method may be called multiple times and does not release
-     * resources.
+     * resources. When the {@link #GREMLIN_TINKERGRAPH_JOURNAL} is enabled the graph is already durable in its
+     * journal, so the journal is forced to disk and closed instead of rewriting the whole graph.
      */
     @Override
     public void close() {
-        if (graphLocation != null) saveGraph();
+        if (null != transaction && transaction.isOpen()) transaction.close();
+        if (null != expiry) expiry.close();
+        synchronized (this) {
+            if (null != shardExecutor) shardExecutor.shutdownNow();
+            shardExecutor = null;
+        }
+        if (graphLocation != null) {
+            if (null != journal)
+                journal.close();
+            else
+                saveGraph(graphLocation);
+        }
+    }
+
+    /**
+     * Writes the records of the journal into the graph at the {@link #GREMLIN_TINKERGRAPH_GRAPH_LOCATION} and starts
+     * a new journal, returning once they are written. Checkpoints are otherwise taken in the background every
+     * {@link #GREMLIN_TINKERGRAPH_CHECKPOINT_INTERVAL} milliseconds.
+     *
+     * @throws IllegalStateException if the {@link #GREMLIN_TINKERGRAPH_JOURNAL} is not enabled
+     */
+    public void checkpoint() {
+        if (null == journal)
+            throw new IllegalStateException(String.format("%s is not enabled", GREMLIN_TINKERGRAPH_JOURNAL));
+        journal.checkpoint();
+    }
+
+    /**
+     * Sets the time-to-live of the elements of said element class ({@link Vertex} or {@link Edge}) with the
+     * specified label, after which they are removed from the graph. Elements of the label that are already in the
+     * graph expire the time-to-live from now. A time-to-live that is not positive stops the elements of the label
+     * from expiring by their label. An element with a value for the {@link #GREMLIN_TINKERGRAPH_EXPIRY_KEY} expires
+     * at that time instead.
+     * <p/>
+     * Once every {@link #GREMLIN_TINKERGRAPH_EXPIRY_INTERVAL} milliseconds the next read of the graph collects a batch
+     * of {@link #GREMLIN_TINKERGRAPH_EXPIRY_BATCH_SIZE} expired elements, which are then left out of what is read from
+     * the graph, and the collected elements are removed by the next traversal of the graph that mutates it, before it
+     * reads anything, or all at once by {@link #expire()}.
+     *
+     * @param label        the label of the elements that expire
+     * @param elementClass the element class that expires
+     * @param timeToLive   the time after being added that elements of the label expire
+     * @param unit         the unit of the time-to-live
+     * @param <E>          The type of the element class
+     * @throws IllegalStateException if the graph is transactional or frozen
+     */
+    public <E extends Element> void setTimeToLive(final String label, final Class<E> elementClass, final long timeToLive, final TimeUnit unit) {
+        if (null != this.transaction)
+            throw new IllegalStateException(String.format("Expiry is not supported when %s is enabled", GREMLIN_TINKERGRAPH_TRANSACTIONS));
+        this.verifyNotFrozen();
+        if (null == this.expiry)
+            this.expiry = createExpiry(null);
+        this.expiry.setTimeToLive(label, elementClass, unit.toMillis(timeToLive));
+    }
+
+    /**
+     * Return the time-to-live in milliseconds of the elements of said element class ({@link Vertex} or
+     * {@link Edge}) with the specified label or zero if they do not expire by their label.
+     *
+     * @param label        the label of the elements
+     * @param elementClass the element class to get the time-to-live for
+     * @param <E>          The type of the element class
+     */
+    public <E extends Element> long getTimeToLive(final String label, final Class<E> elementClass) {
+        return null == this.expiry ? 0L : this.expiry.getTimeToLive(label, elementClass);
+    }
+
+    /**
+     * Removes every element that has expired, rather than waiting for the traversals that mutate the graph to remove
+     * them in batches. This must not be called while the calling thread is iterating over the elements of the graph.
+     */
+    public void expire() {
+        if (null != this.expiry) this.expiry.expire();
+    }
+
+    /**
+     * Converts the graph to a read-only layout in which the vertices are held in an array and the edges of all the
+     * vertices are packed into two arrays, one per direction, in compressed sparse row form, so that traversals
+     * iterate contiguous memory and the per-edge hash entries of the mutable layout are released. Once frozen, any
+     * attempt to add, change or remove an element or property throws an {@link IllegalStateException} and the graph
+     * is safe to read from any number of threads. Indices may still be created and dropped. A
+     * {@link TinkerGraphComputer} run on a frozen graph may not persist its results to the graph itself. A graph can
+     * also be opened frozen with {@link #GREMLIN_TINKERGRAPH_FROZEN}. Freezing a frozen graph has no effect.
+     *
+     * @throws IllegalStateException if the graph is transactional, has elements that expire or a
+     *                               {@link TinkerGraphComputer} is running against it
+     */
+    public void freeze() {
+        if (null != this.csr)
+            return;
+        if (null != this.transaction)
+            throw new IllegalStateException(String.format("The graph can not be frozen when %s is enabled", GREMLIN_TINKERGRAPH_TRANSACTIONS));
+        if (null != this.expiry)
+            throw new IllegalStateException("The graph can not be frozen while its elements expire");
+        if (TinkerHelper.inComputerMode(this))
+            throw new IllegalStateException("The graph can not be frozen while a graph computer is running against it");
+        this.csr = new TinkerGraphCsr(this);
+    }
+
+    /**
+     * Determines if the graph was {@link #freeze() frozen} and can no longer be modified.
+     */
+    public boolean isFrozen() {
+        return null != this.csr;
+    }
+
+    /**
+     * @throws IllegalStateException if the graph is frozen, unless a graph computer is running in which case the
+     *                               change is made to its view of the graph
+     */
+    void verifyNotFrozen() {
+        if (null != this.csr && null == this.graphComputerView)
+            throw new IllegalStateException("The graph is frozen and can not be modified");
+    }
+
+    /**
+     * Gets the pool of {@link #GREMLIN_TINKERGRAPH_SHARDS} daemon threads that traversals run their shards on, which
+     * is created by the first traversal that needs it.
+     */
+    synchronized ExecutorService getShardExecutor() {
+        if (null == this.shardExecutor)
+            this.shardExecutor = Executors.newFixedThreadPool(this.shards,
+                    new BasicThreadFactory.Builder().namingPattern("tinkergraph-shard-%d").daemon(true).build());
+        return this.shardExecutor;
+    }
+
+    private TinkerGraphExpiry createExpiry(final String expiryKey) {
+        return new TinkerGraphExpiry(this, expiryKey,
+                configuration.getLong(GREMLIN_TINKERGRAPH_EXPIRY_INTERVAL, 1000L),
+                configuration.getInt(GREMLIN_TINKERGRAPH_EXPIRY_BATCH_SIZE, 10000));
     }
 
     @Override
     public Transaction tx() {
-        throw Exceptions.transactionsNotSupported();
+        if (null == transaction)
+            throw Exceptions.transactionsNotSupported();
+        return transaction;
     }
 
     @Override
@@ -260,6 +517,8 @@ public final class TinkerGraph implements Graph {
                     io(IoCore.graphson()).readGraph(graphLocation);
                 } else if (graphFormat.equals("gryo")) {
                     io(IoCore.gryo()).readGraph(graphLocation);
+                } else if (graphFormat.equals("snapshot")) {
+                    TinkerGraphSnapshot.read(this, graphLocation);
                 } else {
                     io(IoCore.createIoBuilder(graphFormat)).readGraph(graphLocation);
                 }
@@ -269,8 +528,8 @@ public final class TinkerGraph implements Graph {
         }
     }
 
-    private void saveGraph() {
-        final File f = new File(graphLocation);
+    void saveGraph(final String location) {
+        final File f = new File(location);
         if (f.exists()) {
             f.delete();
         } else {
@@ -284,25 +543,38 @@ public final class TinkerGraph implements Graph {
 
         try {
             if (graphFormat.equals("graphml")) {
-                io(IoCore.graphml()).writeGraph(graphLocation);
+                io(IoCore.graphml()).writeGraph(location);
             } else if (graphFormat.equals("graphson")) {
-                io(IoCore.graphson()).writeGraph(graphLocation);
+                io(IoCore.graphson()).writeGraph(location);
             } else if (graphFormat.equals("gryo")) {
-                io(IoCore.gryo()).writeGraph(graphLocation);
+                io(IoCore.gryo()).writeGraph(location);
+            } else if (graphFormat.equals("snapshot")) {
+                TinkerGraphSnapshot.write(this, location);
             } else {
-                io(IoCore.createIoBuilder(graphFormat)).writeGraph(graphLocation);
+                io(IoCore.createIoBuilder(graphFormat)).writeGraph(location);
             }
         } catch (Exception ex) {
-            throw new RuntimeException(String.format("Could not save graph at %s with %s", graphLocation, graphFormat), ex);
+            throw new RuntimeException(String.format("Could not save graph at %s with %s", location, graphFormat), ex);
         }
     }
 
     private <T extends Element> Iterator<T> createElementIterator(final Class<T> clazz, final Map<Object, T> elements,
                                                                   final IdManager idManager,
                                                                   final Object... ids) {
+        // reads open a transaction like writes do so that the thread keeps reading from the same snapshot
+        if (null != this.transaction && !TinkerHelper.inComputerMode(this))
+            this.transaction.readWrite();
+
         final Iterator<T> iterator;
         if (0 == ids.length) {
-            iterator = elements.values().iterator();
+            if (null != this.csr)
+                iterator = (Iterator<T>) (Vertex.class.equals(clazz) ? this.csr.getVertices().iterator() : this.csr.edges());
+            else if (null != this.transaction)
+                iterator = IteratorUtils.filter(elements.values().iterator(), TinkerHelper::isVisible);
+            else
+                iterator = TinkerHelper.hasExpired(this) ?
+                        IteratorUtils.filter(elements.values().iterator(), element -> !TinkerHelper.isExpired(element)) :
+                        elements.values().iterator();
         } else {
             final List<Object> idList = Arrays.asList(ids);
             validateHomogenousIds(idList);
@@ -312,8 +584,8 @@ public final class TinkerGraph implements Graph {
             // stuff - doesn't seem likely someone would detach a Titan vertex then try to expect that
             // vertex to be findable in OrientDB
             return clazz.isAssignableFrom(ids[0].getClass()) ?
-                    IteratorUtils.filter(IteratorUtils.map(idList, id -> elements.get(clazz.cast(id).id())).iterator(), Objects::nonNull)
-                    : IteratorUtils.filter(IteratorUtils.map(idList, id -> elements.get(idManager.convert(id))).iterator(), Objects::nonNull);
+                    IteratorUtils.filter(IteratorUtils.map(idList, id -> elements.get(clazz.cast(id).id())).iterator(), this::isVisible)
+                    : IteratorUtils.filter(IteratorUtils.map(idList, id -> elements.get(idManager.convert(id))).iterator(), this::isVisible);
         }
         return TinkerHelper.inComputerMode(this) ?
                 (Iterator<T>) (clazz.equals(Vertex.class) ?
@@ -322,6 +594,22 @@ public final class TinkerGraph implements Graph {
                 iterator;
     }
 
+    /**
+     * Gets the single instance of the property key that the properties of the graph share when
+     * {@link #GREMLIN_TINKERGRAPH_COMPACT_PROPERTIES} is enabled, so that the elements of a graph with millions of
+     * elements and a handful of keys do not each hold their own copy of the keys.
+     */
+    String internKey(final String key) {
+        if (!this.compactProperties)
+            return key;
+        final String interned = this.propertyKeys.putIfAbsent(key, key);
+        return null == interned ? key : interned;
+    }
+
+    private boolean isVisible(final Element element) {
+        return null != element && (null == this.transaction ? !TinkerHelper.isExpired(element) : TinkerHelper.isVisible(element));
+    }
+
     /**
      * Return TinkerGraph feature set.
      * <p/>
@@ -334,6 +622,16 @@ public final class TinkerGraph implements Graph {
         return features;
     }
 
+    /**
+     * Return the {@link GraphStatistics} of the graph. The degrees of the vertices and the values of a property key
+     * are gathered when they are first asked for and then again once the number of vertices or edges has changed by
+     * more than a tenth.
+     */
+    @Override
+    public Optional<GraphStatistics> statistics() {
+        return Optional.of(this.statistics);
+    }
+
     private void validateHomogenousIds(final List<Object> ids) {
         final Iterator<Object> iterator = ids.iterator();
         Object id = iterator.next();
@@ -434,7 +732,7 @@ public final class TinkerGraph implements Graph {
 
         @Override
         public boolean supportsTransactions() {
-            return false;
+            return null != transaction;
         }
 
         @Override
@@ -442,6 +740,24 @@ public final class TinkerGraph implements Graph {
             return false;
         }
 
+        @Override
+        public Features.VariableFeatures variables() {
+            return null == journal ? Features.GraphFeatures.super.variables() : TinkerGraphVariableFeatures.INSTANCE;
+        }
+
+    }
+
+    /**
+     * The variables of a graph with the {@link #GREMLIN_TINKERGRAPH_JOURNAL} enabled, which are not supported.
+     */
+    private static final class TinkerGraphVariableFeatures implements Features.VariableFeatures {
+
+        private static final TinkerGraphVariableFeatures INSTANCE = new TinkerGraphVariableFeatures();
+
+        @Override
+        public boolean supportsVariables() {
+            return false;
+        }
     }
 
     public class TinkerGraphVertexPropertyFeatures implements Features.VertexPropertyFeatures {
@@ -460,6 +776,16 @@ public final class TinkerGraph implements Graph {
         }
     }
 
+    /**
+     * Opens a {@link TinkerBulkLoader} which adds vertices and edges to this graph from multiple threads and
+     * rebuilds the indices of the graph once, when it is closed. The graph should not otherwise be used until the
+     * loader is closed.
+     */
+    public TinkerBulkLoader bulkLoader() {
+        this.verifyNotFrozen();
+        return new TinkerBulkLoader(this);
+    }
+
     ///////////// GRAPH SPECIFIC INDEXING METHODS ///////////////
 
     /**
@@ -472,12 +798,26 @@ public final class TinkerGraph implements Graph {
      * @param <E>          The type of the element class
      */
     public <E extends Element> void createIndex(final String key, final Class<E> elementClass) {
+        this.createIndex(key, elementClass, IndexType.HASH);
+    }
+
+    /**
+     * Create an index of the specified {@link IndexType} for said element class ({@link Vertex} or {@link Edge}) and
+     * said property key. If the key is already indexed with a different {@link IndexType} then that index is
+     * rebuilt with the new type.
+     *
+     * @param key          the property key to index
+     * @param elementClass the element class to index
+     * @param indexType    the structure of the index which determines the predicates it can answer
+     * @param <E>          The type of the element class
+     */
+    public <E extends Element> void createIndex(final String key, final Class<E> elementClass, final IndexType indexType) {
         if (Vertex.class.isAssignableFrom(elementClass)) {
             if (null == this.vertexIndex) this.vertexIndex = new TinkerIndex<>(this, TinkerVertex.class);
-            this.vertexIndex.createKeyIndex(key);
+            this.vertexIndex.createKeyIndex(key, indexType);
         } else if (Edge.class.isAssignableFrom(elementClass)) {
             if (null == this.edgeIndex) this.edgeIndex = new TinkerIndex<>(this, TinkerEdge.class);
-            this.edgeIndex.createKeyIndex(key);
+            this.edgeIndex.createKeyIndex(key, indexType);
         } else {
             throw new IllegalArgumentException("Class is not indexable: " + elementClass);
         }
@@ -517,6 +857,246 @@ public final class TinkerGraph implements Graph {
         }
     }
 
+    /**
+     * Return the {@link IndexType} of the index on the key for said element class ({@link Vertex} or {@link Edge})
+     * or {@code null} if the key is not indexed.
+     *
+     * @param key          the indexed property key
+     * @param elementClass the element class to get the index type for
+     * @param <E>          The type of the element class
+     */
+    public <E extends Element> IndexType getIndexType(final String key, final Class<E> elementClass) {
+        if (Vertex.class.isAssignableFrom(elementClass)) {
+            return null == this.vertexIndex ? null : this.vertexIndex.getIndexType(key);
+        } else if (Edge.class.isAssignableFrom(elementClass)) {
+            return null == this.edgeIndex ? null : this.edgeIndex.getIndexType(key);
+        } else {
+            throw new IllegalArgumentException("Class is not indexable: " + elementClass);
+        }
+    }
+
+    /**
+     * Return the {@link IndexStatistics} of the index on the key for said element class ({@link Vertex} or
+     * {@link Edge}) or {@code null} if the key is not indexed.
+     *
+     * @param key          the indexed property key
+     * @param elementClass the element class to get the statistics for
+     * @param <E>          The type of the element class
+     */
+    public <E extends Element> IndexStatistics getIndexStatistics(final String key, final Class<E> elementClass) {
+        if (Vertex.class.isAssignableFrom(elementClass)) {
+            return null == this.vertexIndex ? null : this.vertexIndex.getStatistics(key, Vertex.class);
+        } else if (Edge.class.isAssignableFrom(elementClass)) {
+            return null == this.edgeIndex ? null : this.edgeIndex.getStatistics(key, Edge.class);
+        } else {
+            throw new IllegalArgumentException("Class is not indexable: " + elementClass);
+        }
+    }
+
+    /**
+     * Create a composite index over the elements of said element class ({@link Vertex} or {@link Edge}) with the
+     * specified label, keyed by the values of the specified property keys in order. An element is only indexed when
+     * it has a value for every key. The index is used for {@code has()} steps on the label that test equality or
+     * {@code within()} on a prefix of the keys, and counts of such traversals are answered from the index.
+     *
+     * @param label        the label of the elements to index
+     * @param elementClass the element class to index
+     * @param keys         the property keys to index, in order
+     * @param <E>          The type of the element class
+     * @throws IllegalStateException if the graph is transactional
+     */
+    public <E extends Element> void createCompositeIndex(final String label, final Class<E> elementClass, final String... keys) {
+        if (null != this.transaction)
+            throw new IllegalStateException(String.format("Composite indices are not supported when %s is enabled", GREMLIN_TINKERGRAPH_TRANSACTIONS));
+        if (Vertex.class.isAssignableFrom(elementClass)) {
+            if (null == this.vertexIndex) this.vertexIndex = new TinkerIndex<>(this, TinkerVertex.class);
+            this.vertexIndex.createCompositeIndex(label, Arrays.asList(keys));
+        } else if (Edge.class.isAssignableFrom(elementClass)) {
+            if (null == this.edgeIndex) this.edgeIndex = new TinkerIndex<>(this, TinkerEdge.class);
+            this.edgeIndex.createCompositeIndex(label, Arrays.asList(keys));
+        } else {
+            throw new IllegalArgumentException("Class is not indexable: " + elementClass);
+        }
+    }
+
+    /**
+     * Drop the composite index for the specified label, element class ({@link Vertex} or {@link Edge}) and keys.
+     *
+     * @param label        the label of the indexed elements
+     * @param elementClass the element class of the index to drop
+     * @param keys         the indexed property keys, in order
+     * @param <E>          The type of the element class
+     */
+    public <E extends Element> void dropCompositeIndex(final String label, final Class<E> elementClass, final String... keys) {
+        if (Vertex.class.isAssignableFrom(elementClass)) {
+            if (null != this.vertexIndex) this.vertexIndex.dropCompositeIndex(label, Arrays.asList(keys));
+        } else if (Edge.class.isAssignableFrom(elementClass)) {
+            if (null != this.edgeIndex) this.edgeIndex.dropCompositeIndex(label, Arrays.asList(keys));
+        } else {
+            throw new IllegalArgumentException("Class is not indexable: " + elementClass);
+        }
+    }
+
+    /**
+     * Return the keys of each composite index on the label for said element class ({@link Vertex} or {@link Edge}).
+     *
+     * @param label        the label of the indexed elements
+     * @param elementClass the element class to get the composite indices for
+     * @param <E>          The type of the element class
+     */
+    public <E extends Element> List<List<String>> getCompositeIndexKeys(final String label, final Class<E> elementClass) {
+        final TinkerIndex<?> index;
+        if (Vertex.class.isAssignableFrom(elementClass)) {
+            index = this.vertexIndex;
+        } else if (Edge.class.isAssignableFrom(elementClass)) {
+            index = this.edgeIndex;
+        } else {
+            throw new IllegalArgumentException("Class is not indexable: " + elementClass);
+        }
+        return null == index ? Collections.emptyList() : index.getCompositeIndices().stream()
+                .filter(compositeIndex -> compositeIndex.getLabel().equals(label))
+                .map(TinkerCompositeIndex::getKeys)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Create a vertex-centric index over the edges with the specified label, keyed by the values of the specified
+     * property key. Each vertex keeps the edges of the label that it is incident to sorted by their value of the key,
+     * separately for each direction, so {@code outE(label)} and {@code inE(label)} followed by {@code has()} on the
+     * key, or by an {@code order().by(key).limit()}, only visit the edges they return rather than every edge of the
+     * vertex. Edges that do not have the key are not indexed.
+     *
+     * @param edgeLabel the label of the edges to index
+     * @param key       the property key to index
+     * @throws IllegalStateException if the graph is transactional
+     */
+    public void createVertexCentricIndex(final String edgeLabel, final String key) {
+        if (null != this.transaction)
+            throw new IllegalStateException(String.format("Vertex-centric indices are not supported when %s is enabled", GREMLIN_TINKERGRAPH_TRANSACTIONS));
+        if (!this.vertexCentricIndexKeys.computeIfAbsent(edgeLabel, l -> new CopyOnWriteArraySet<>()).add(key))
+            return;
+        this.edgeLabels.getOrDefault(edgeLabel, Collections.emptySet()).forEach(edge -> {
+            final Property<?> property = edge.property(key);
+            if (property.isPresent())
+                TinkerHelper.updateVertexCentricIndex((TinkerEdge) edge, key, property.value(), null);
+        });
+    }
+
+    /**
+     * Drop the vertex-centric index for the specified edge label and key.
+     *
+     * @param edgeLabel the label of the indexed edges
+     * @param key       the indexed property key
+     */
+    public void dropVertexCentricIndex(final String edgeLabel, final String key) {
+        final Set<String> keys = this.vertexCentricIndexKeys.get(edgeLabel);
+        if (null == keys || !keys.remove(key))
+            return;
+        this.edgeLabels.getOrDefault(edgeLabel, Collections.emptySet()).forEach(edge -> {
+            TinkerHelper.dropVertexCentricIndex((TinkerVertex) edge.outVertex(), Direction.OUT, edgeLabel, key);
+            TinkerHelper.dropVertexCentricIndex((TinkerVertex) edge.inVertex(), Direction.IN, edgeLabel, key);
+        });
+    }
+
+    /**
+     * Return the property keys of the vertex-centric indices on the edge label.
+     *
+     * @param edgeLabel the label of the indexed edges
+     */
+    public Set<String> getVertexCentricIndexKeys(final String edgeLabel) {
+        final Set<String> keys = this.vertexCentricIndexKeys.get(edgeLabel);
+        return null == keys ? Collections.emptySet() : Collections.unmodifiableSet(keys);
+    }
+
+    /**
+     * The structures available to {@link #createIndex(String, Class, IndexType)}.
+     */
+    public enum IndexType {
+        /**
+         * A hash of property value to elements that can answer equality and {@code within()} lookups.
+         */
+        HASH,
+
+        /**
+         * A sorted map of property value to elements that can answer equality, {@code within()} and range lookups
+         * like {@code gt()}, {@code lte()}, {@code between()}, {@code inside()} and {@code outside()}.
+         */
+        ORDERED
+    }
+
+    /**
+     * The state of the index on a property key as returned by {@link #getIndexStatistics(String, Class)}. The counts
+     * are gathered without locking, so they are approximate while the graph is being modified.
+     */
+    public static final class IndexStatistics {
+        private final String key;
+        private final Class<? extends Element> elementClass;
+        private final IndexType indexType;
+        private final long valueCount;
+        private final long elementCount;
+        private final long hits;
+        private final long misses;
+
+        IndexStatistics(final String key, final Class<? extends Element> elementClass, final IndexType indexType,
+                        final long valueCount, final long elementCount, final long hits, final long misses) {
+            this.key = key;
+            this.elementClass = elementClass;
+            this.indexType = indexType;
+            this.valueCount = valueCount;
+            this.elementCount = elementCount;
+            this.hits = hits;
+            this.misses = misses;
+        }
+
+        public String getKey() {
+            return this.key;
+        }
+
+        public Class<? extends Element> getElementClass() {
+            return this.elementClass;
+        }
+
+        public IndexType getIndexType() {
+            return this.indexType;
+        }
+
+        /**
+         * The number of distinct property values in the index.
+         */
+        public long getValueCount() {
+            return this.valueCount;
+        }
+
+        /**
+         * The number of element and value pairs in the index, which is more than the number of indexed elements
+         * when vertices have multi-properties on the key.
+         */
+        public long getElementCount() {
+            return this.elementCount;
+        }
+
+        /**
+         * The number of lookups that found at least one element.
+         */
+        public long getHits() {
+            return this.hits;
+        }
+
+        /**
+         * The number of lookups that found no elements.
+         */
+        public long getMisses() {
+            return this.misses;
+        }
+
+        @Override
+        public String toString() {
+            return "IndexStatistics[" + this.elementClass.getSimpleName().toLowerCase() + ":" + this.key + ":" + this.indexType +
+                    ", values=" + this.valueCount + ", elements=" + this.elementCount +
+                    ", hits=" + this.hits + ", misses=" + this.misses + "]";
+        }
+    }
+
     /**
      * Construct an {@link TinkerGraph.IdManager} from the TinkerGraph {@code Configuration}.
      */
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The read-only layout that {@link TinkerGraph#freeze()} converts a {@link TinkerGraph} to. The vertices are held in
+ * a single array and their edges in compressed sparse row form: the out edges of every vertex are packed into one
+ * array, grouped by vertex and then by label, so that the out edges of the vertex at position {@code i} lie between
+ * {@code outOffsets[i]} and {@code outOffsets[i + 1]}, and likewise for the in edges. The adjacency sets of each
+ * vertex are replaced by {@link TinkerEdgeArraySlice} views of its ranges, which releases the hash entries of the
+ * mutable layout and leaves a single reference per edge in each array.
+ * <p/>
+ * Nothing in the layout changes once it is built, so it is read from any number of threads without synchronization.
+ * {@link org.apache.tinkerpop.gremlin.tinkergraph.process.computer.TinkerGraphComputer} splits its work into
+ * contiguous ranges of the vertex array rather than copying the vertices.
+ */
+final class TinkerGraphCsr {
+
+    final Vertex[] vertices;
+    final Edge[] outEdges;
+    final Edge[] inEdges;
+    final int[] outOffsets;
+    final int[] inOffsets;
+
+    TinkerGraphCsr(final TinkerGraph graph) {
+        this.vertices = graph.vertices.values().toArray(new Vertex[graph.vertices.size()]);
+        this.outOffsets = new int[this.vertices.length + 1];
+        this.inOffsets = new int[this.vertices.length + 1];
+        for (int i = 0; i < this.vertices.length; i++) {
+            final TinkerVertex vertex = (TinkerVertex) this.vertices[i];
+            this.outOffsets[i + 1] = this.outOffsets[i] + (int) TinkerHelper.getDegree(vertex, Direction.OUT);
+            this.inOffsets[i + 1] = this.inOffsets[i] + (int) TinkerHelper.getDegree(vertex, Direction.IN);
+        }
+        this.outEdges = new Edge[this.outOffsets[this.vertices.length]];
+        this.inEdges = new Edge[this.inOffsets[this.vertices.length]];
+        for (int i = 0; i < this.vertices.length; i++) {
+            final TinkerVertex vertex = (TinkerVertex) this.vertices[i];
+            vertex.outEdges = pack(vertex.outEdges, this.outEdges, this.outOffsets[i]);
+            vertex.inEdges = pack(vertex.inEdges, this.inEdges, this.inOffsets[i]);
+        }
+    }
+
+    /**
+     * Gets the vertices in the order of the layout, which is the order that the graph iterates them in.
+     */
+    List<Vertex> getVertices() {
+        return Collections.unmodifiableList(Arrays.asList(this.vertices));
+    }
+
+    /**
+     * Gets the edges in the order of the layout, which is the order of their out vertices.
+     */
+    Iterator<Edge> edges() {
+        return Arrays.asList(this.outEdges).iterator();
+    }
+
+    /**
+     * Copies the edges of the adjacency into the array from the offset on and returns the views of the ranges of
+     * each label.
+     */
+    private static Map<String, Set<Edge>> pack(final Map<String, Set<Edge>> adjacency, final Edge[] edges, final int offset) {
+        if (null == adjacency || adjacency.isEmpty())
+            return null;
+        final Map<String, Set<Edge>> packed = 1 == adjacency.size() ? null : new HashMap<>((int) (adjacency.size() / 0.75f) + 1);
+        int end = offset;
+        for (final Map.Entry<String, Set<Edge>> entry : adjacency.entrySet()) {
+            final int start = end;
+            for (final Edge edge : entry.getValue()) {
+                edges[end++] = edge;
+            }
+            final Set<Edge> slice = new TinkerEdgeArraySlice(edges, start, end);
+            if (null == packed)
+                return Collections.singletonMap(entry.getKey(), slice);
+            packed.put(entry.getKey(), slice);
+        }
+        return packed;
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.Property;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Removes the elements of a {@link TinkerGraph} once they expire, either after the time-to-live of their label set
+ * with {@link TinkerGraph#setTimeToLive(String, Class, long, TimeUnit)} or at the time in milliseconds since the
+ * epoch held by their {@link TinkerGraph#GREMLIN_TINKERGRAPH_EXPIRY_KEY} property, which takes precedence over the
+ * time-to-live of the label while it is present.
+ * <p/>
+ * Elements are queued by the time at which they expire. Every {@link TinkerGraph#GREMLIN_TINKERGRAPH_EXPIRY_INTERVAL}
+ * milliseconds an expiry becomes due and the next read of the graph collects up to
+ * {@link TinkerGraph#GREMLIN_TINKERGRAPH_EXPIRY_BATCH_SIZE} expired elements, which only reads the elements, and from
+ * then on the collected elements and the edges of collected vertices are left out of what is read from the graph,
+ * whether the elements of the graph, their count, those looked up by id or the adjacent elements of a vertex. Queued entries are checked against the element when they are collected, so
+ * elements that were removed or whose expiry changed in the meantime are skipped.
+ * <p/>
+ * Collected elements are only removed from the graph by {@link #removeExpired()}, which is called by the writer of
+ * the graph when it starts a root traversal that mutates the graph, before the traversal has opened any iterators
+ * over the graph, and by {@link TinkerGraph#expire()}. Removal is never done by a read or within a mutation made
+ * through the structure API, so that a read does not modify the graph under other readers and a removal can not
+ * leave an element being added attached to a removed one or change an adjacency that the thread is iterating.
+ * Removal goes through {@link Element#remove()} so that the indices and the journal of the graph are maintained as
+ * they would be for any other removal. Collecting and removing are synchronized on the expiry, and the background
+ * thread only marks the expiry as due rather than touching the graph itself.
+ */
+final class TinkerGraphExpiry {
+
+    private final TinkerGraph graph;
+    private final String key;
+    private final int batchSize;
+    private final ScheduledExecutorService scheduler;
+
+    private final Map<String, Long> vertexTimeToLive = new ConcurrentHashMap<>();
+    private final Map<String, Long> edgeTimeToLive = new ConcurrentHashMap<>();
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>();
+    private final Set<TinkerElement> expired = ConcurrentHashMap.newKeySet();
+    private volatile boolean due = false;
+
+    TinkerGraphExpiry(final TinkerGraph graph, final String key, final long interval, final int batchSize) {
+        this.graph = graph;
+        this.key = key;
+        this.batchSize = batchSize;
+        if (interval > 0) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "tinkergraph-expiry");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.scheduler.scheduleWithFixedDelay(() -> this.due = true, interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    /**
+     * Sets the time-to-live of the elements with the label, or stops them from expiring by their label if the
+     * time-to-live is not positive. The elements of the label that are already in the graph expire the time-to-live
+     * from now.
+     */
+    void setTimeToLive(final String label, final Class<? extends Element> elementClass, final long timeToLive) {
+        final Map<String, Long> timeToLives = this.getTimeToLives(elementClass);
+        if (timeToLive <= 0) {
+            timeToLives.remove(label);
+            return;
+        }
+        timeToLives.put(label, timeToLive);
+        final Set<? extends Element> elements = Vertex.class.isAssignableFrom(elementClass) ?
+                this.graph.vertexLabels.getOrDefault(label, Collections.emptySet()) :
+                this.graph.edgeLabels.getOrDefault(label, Collections.emptySet());
+        final long expiresAt = System.currentTimeMillis() + timeToLive;
+        synchronized (this) {
+            elements.forEach(element -> this.queue.add(new Entry((TinkerElement) element, expiresAt, false)));
+        }
+    }
+
+    /**
+     * Gets the time-to-live of the elements with the label in milliseconds or zero if they do not expire by label.
+     */
+    long getTimeToLive(final String label, final Class<? extends Element> elementClass) {
+        return this.getTimeToLives(elementClass).getOrDefault(label, 0L);
+    }
+
+    String getKey() {
+        return this.key;
+    }
+
+    /**
+     * Queues an element that was added to the graph if its label has a time-to-live.
+     */
+    void added(final TinkerElement element) {
+        final Long timeToLive = this.getTimeToLives(element instanceof Vertex ? Vertex.class : Edge.class).get(element.label());
+        if (null != timeToLive) {
+            synchronized (this) {
+                this.queue.add(new Entry(element, System.currentTimeMillis() + timeToLive, false));
+            }
+        }
+    }
+
+    /**
+     * Queues an element at the time held by a property that is being set on it if the property is the expiry key.
+     *
+     * @throws IllegalArgumentException if the value of the expiry key is not a {@link Number}
+     */
+    void propertySet(final TinkerElement element, final String key, final Object value) {
+        if (null == this.key || !this.key.equals(key))
+            return;
+        if (!(value instanceof Number))
+            throw new IllegalArgumentException(String.format("The value of the expiry key %s must be a Number of milliseconds since the epoch but was %s", key, value.getClass().getName()));
+        synchronized (this) {
+            // an element that was collected is checked again once the new time comes due
+            this.expired.remove(element);
+            this.queue.add(new Entry(element, ((Number) value).longValue(), true));
+        }
+    }
+
+    /**
+     * Queues every element of the graph, as is needed after elements are added without going through the
+     * structure API. Elements that are already queued keep their earlier expiry.
+     */
+    void rebuild() {
+        final long now = System.currentTimeMillis();
+        synchronized (this) {
+            this.graph.vertices.values().forEach(vertex -> this.queue(now, (TinkerElement) vertex, Vertex.class));
+            this.graph.edges.values().forEach(edge -> this.queue(now, (TinkerElement) edge, Edge.class));
+        }
+    }
+
+    private void queue(final long now, final TinkerElement element, final Class<? extends Element> elementClass) {
+        final Long timeToLive = this.getTimeToLives(elementClass).get(element.label());
+        if (null != timeToLive)
+            this.queue.add(new Entry(element, now + timeToLive, false));
+        final Long expiresAt = this.getExpiresAt(element);
+        if (null != expiresAt)
+            this.queue.add(new Entry(element, expiresAt, true));
+    }
+
+    /**
+     * Collects a batch of expired elements if the background thread marked the expiry as due.
+     */
+    void collectIfDue() {
+        if (!this.due)
+            return;
+        synchronized (this) {
+            if (!this.due)
+                return;
+            this.due = false;
+            if (this.collect(this.batchSize) == this.batchSize)
+                this.due = true;
+        }
+    }
+
+    /**
+     * Determines if there are collected elements that are yet to be removed, collecting a batch first if an expiry
+     * is due.
+     */
+    boolean hasExpired() {
+        this.collectIfDue();
+        return !this.expired.isEmpty();
+    }
+
+    /**
+     * Determines if the element was collected, or is an edge of a vertex that was, and is yet to be removed.
+     */
+    boolean isExpired(final TinkerElement element) {
+        if (this.expired.isEmpty())
+            return false;
+        if (this.expired.contains(element))
+            return true;
+        if (element instanceof TinkerEdge) {
+            final TinkerEdge edge = (TinkerEdge) element;
+            return this.expired.contains(edge.outVertex) || this.expired.contains(edge.inVertex);
+        }
+        return false;
+    }
+
+    /**
+     * Removes the collected elements from the graph, collecting a batch first if an expiry is due.
+     */
+    synchronized void removeExpired() {
+        this.collectIfDue();
+        if (this.expired.isEmpty())
+            return;
+        final long now = System.currentTimeMillis();
+        for (final TinkerElement element : this.expired) {
+            if (!element.removed && this.isDue(element, now))
+                element.remove();
+        }
+        this.expired.clear();
+    }
+
+    /**
+     * Collects and removes every element that has expired.
+     */
+    synchronized void expire() {
+        this.collect(Integer.MAX_VALUE);
+        this.removeExpired();
+    }
+
+    /**
+     * Collects up to the limit of expired elements and returns the number of queued entries that came due.
+     */
+    private int collect(final int limit) {
+        final long now = System.currentTimeMillis();
+        int count = 0;
+        while (count < limit && !this.queue.isEmpty() && this.queue.peek().expiresAt <= now) {
+            final Entry entry = this.queue.poll();
+            count++;
+            final TinkerElement element = entry.element;
+            if (element.removed)
+                continue;
+            final Long expiresAt = this.getExpiresAt(element);
+            if (entry.byKey ? null != expiresAt && expiresAt <= now : this.isDue(element, now))
+                this.expired.add(element);
+        }
+        return count;
+    }
+
+    /**
+     * Determines if the element is due to expire by the expiry key if it has a value for it, or else by the
+     * time-to-live of its label, as long as the label still has one.
+     */
+    private boolean isDue(final TinkerElement element, final long now) {
+        final Long expiresAt = this.getExpiresAt(element);
+        return null == expiresAt ?
+                this.getTimeToLives(element instanceof Vertex ? Vertex.class : Edge.class).containsKey(element.label()) :
+                expiresAt <= now;
+    }
+
+    synchronized void clear() {
+        this.queue.clear();
+        this.expired.clear();
+    }
+
+    void close() {
+        if (null != this.scheduler)
+            this.scheduler.shutdownNow();
+    }
+
+    private Long getExpiresAt(final TinkerElement element) {
+        if (null == this.key)
+            return null;
+        final Iterator<? extends Property<Object>> properties = element.properties(this.key);
+        if (!properties.hasNext())
+            return null;
+        final Object value = properties.next().value();
+        return value instanceof Number ? ((Number) value).longValue() : null;
+    }
+
+    private Map<String, Long> getTimeToLives(final Class<? extends Element> elementClass) {
+        if (Vertex.class.isAssignableFrom(elementClass))
+            return this.vertexTimeToLive;
+        else if (Edge.class.isAssignableFrom(elementClass))
+            return this.edgeTimeToLive;
+        else
+            throw new IllegalArgumentException("Class does not expire: " + elementClass);
+    }
+
+    private static final class Entry implements Comparable<Entry> {
+        private final TinkerElement element;
+        private final long expiresAt;
+        private final boolean byKey;
+
+        private Entry(final TinkerElement element, final long expiresAt, final boolean byKey) {
+            this.element = element;
+            this.expiresAt = expiresAt;
+            this.byKey = byKey;
+        }
+
+        @Override
+        public int compareTo(final Entry other) {
+            return Long.compare(this.expiresAt, other.expiresAt);
+        }
+    }
+}
@@ -0,0 +1,641 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Property;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.VertexProperty;
+import org.apache.tinkerpop.shaded.kryo.Kryo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only journal of the mutations made to a persisted {@link TinkerGraph}, enabled with
+ * {@link TinkerGraph#GREMLIN_TINKERGRAPH_JOURNAL}. Each mutation is appended as a checksummed record to a file next
+ * to the {@link TinkerGraph#GREMLIN_TINKERGRAPH_GRAPH_LOCATION} and the file is forced to disk in batches every
+ * {@link TinkerGraph#GREMLIN_TINKERGRAPH_JOURNAL_SYNC_INTERVAL} milliseconds. On open, the graph is loaded from its
+ * location and the journal is replayed over it.
+ * <p/>
+ * Every {@link TinkerGraph#GREMLIN_TINKERGRAPH_CHECKPOINT_INTERVAL} milliseconds the background thread takes a
+ * checkpoint. The journal is first rotated, under the same lock that appends take, into a segment that ends at a
+ * record boundary and so is a consistent cut of the mutations. The segment is then replayed over a private copy of the
+ * graph loaded from its location, which is written to a temporary file, atomically moved to the graph location and
+ * the segment deleted, all without holding up the writer, which carries on appending to the new journal, at the cost
+ * of holding that second copy of the graph while the checkpoint is taken. On open, a left over segment is replayed
+ * before the journal. Records describe the resulting state of the element they mutate and replay skips what is
+ * already applied, so a crash between the move and the deletion simply replays records that are already in the graph.
+ * <p/>
+ * Each thread builds its records in a buffer of its own, so concurrent writers only contend for the append of the
+ * finished record, which is what keeps the records of different writers from interleaving.
+ */
+final class TinkerGraphJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(TinkerGraphJournal.class);
+
+    private static final byte ADD_VERTEX = 1;
+    private static final byte REMOVE_VERTEX = 2;
+    private static final byte ADD_VERTEX_PROPERTY = 3;
+    private static final byte REMOVE_VERTEX_PROPERTY = 4;
+    private static final byte SET_META_PROPERTY = 5;
+    private static final byte REMOVE_META_PROPERTY = 6;
+    private static final byte ADD_EDGE = 7;
+    private static final byte REMOVE_EDGE = 8;
+    private static final byte SET_EDGE_PROPERTY = 9;
+    private static final byte REMOVE_EDGE_PROPERTY = 10;
+
+    private final TinkerGraph graph;
+    private final String graphLocation;
+    private final File file;
+    private final File segment;
+    private final long syncInterval;
+    private final ScheduledExecutorService scheduler;
+
+    private final ThreadLocal<Record> records;
+    private final Object checkpointLock = new Object();
+
+    private RandomAccessFile journalFile;
+    private DataOutputStream output;
+    private boolean closed = false;
+
+    private TinkerGraphJournal(final TinkerGraph graph, final String graphLocation, final long syncInterval, final long checkpointInterval) throws IOException {
+        this.graph = graph;
+        this.graphLocation = graphLocation;
+        this.file = new File(graphLocation + ".journal");
+        this.segment = new File(graphLocation + ".journal.old");
+        this.syncInterval = syncInterval;
+        this.records = ThreadLocal.withInitial(() -> new Record(TinkerGraphSnapshot.createKryo(graph)));
+        this.openOutput();
+
+        if (syncInterval > 0 || checkpointInterval > 0) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "tinkergraph-journal-" + this.file.getName());
+                thread.setDaemon(true);
+                return thread;
+            });
+            if (syncInterval > 0)
+                this.scheduler.scheduleWithFixedDelay(this::syncQuietly, syncInterval, syncInterval, TimeUnit.MILLISECONDS);
+            if (checkpointInterval > 0)
+                this.scheduler.scheduleWithFixedDelay(this::checkpointQuietly, checkpointInterval, checkpointInterval, TimeUnit.MILLISECONDS);
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    /**
+     * Replays any existing journal for the graph location, preceded by the segment of a checkpoint that did not
+     * complete, over the graph and then opens the journal for appends. The graph must not yet have a journal assigned
+     * so that the replay is not itself journaled.
+     */
+    public static TinkerGraphJournal open(final TinkerGraph graph, final String graphLocation, final long syncInterval,
+                                          final long checkpointInterval) throws IOException {
+        // a left over temporary file means a checkpoint did not complete and the journal is still authoritative
+        Files.deleteIfExists(Paths.get(graphLocation + ".tmp"));
+
+        final File segment = new File(graphLocation + ".journal.old");
+        if (segment.exists())
+            replay(graph, segment);
+        final File file = new File(graphLocation + ".journal");
+        if (file.exists())
+            replay(graph, file);
+        return new TinkerGraphJournal(graph, graphLocation, syncInterval, checkpointInterval);
+    }
+
+    public void addVertex(final TinkerVertex vertex) {
+        if (this.skip()) return;
+        final Record record = this.begin(ADD_VERTEX);
+        record.value(vertex.id());
+        record.value(vertex.label());
+        final List<VertexProperty> vertexProperties = new ArrayList<>();
+        TinkerHelper.getProperties(vertex).values().forEach(vertexProperties::addAll);
+        record.value(vertexProperties.size());
+        for (final VertexProperty<?> vertexProperty : vertexProperties) {
+            record.value(vertexProperty.id());
+            record.value(vertexProperty.key());
+            record.value(vertexProperty.value());
+            record.properties(vertexProperty.properties());
+        }
+        this.append(record);
+    }
+
+    public void removeVertex(final TinkerVertex vertex) {
+        if (this.skip()) return;
+        final Record record = this.begin(REMOVE_VERTEX);
+        record.value(vertex.id());
+        this.append(record);
+    }
+
+    public void addVertexProperty(final VertexProperty.Cardinality cardinality, final TinkerVertexProperty<?> vertexProperty) {
+        if (this.skip()) return;
+        final Record record = this.begin(ADD_VERTEX_PROPERTY);
+        record.value(vertexProperty.element().id());
+        record.value(cardinality.name());
+        record.value(vertexProperty.id());
+        record.value(vertexProperty.key());
+        record.value(vertexProperty.value());
+        record.properties(vertexProperty.properties());
+        this.append(record);
+    }
+
+    public void removeVertexProperty(final TinkerVertexProperty<?> vertexProperty) {
+        if (this.skip()) return;
+        final Record record = this.begin(REMOVE_VERTEX_PROPERTY);
+        record.value(vertexProperty.element().id());
+        record.value(vertexProperty.id());
+        record.value(vertexProperty.key());
+        this.append(record);
+    }
+
+    public void setMetaProperty(final TinkerVertexProperty<?> vertexProperty, final String key, final Object value) {
+        if (this.skip()) return;
+        final Record record = this.begin(SET_META_PROPERTY);
+        record.value(vertexProperty.element().id());
+        record.value(vertexProperty.id());
+        record.value(vertexProperty.key());
+        record.value(key);
+        record.value(value);
+        this.append(record);
+    }
+
+    public void removeMetaProperty(final TinkerVertexProperty<?> vertexProperty, final String key) {
+        if (this.skip()) return;
+        final Record record = this.begin(REMOVE_META_PROPERTY);
+        record.value(vertexProperty.element().id());
+        record.value(vertexProperty.id());
+        record.value(vertexProperty.key());
+        record.value(key);
+        this.append(record);
+    }
+
+    public void addEdge(final TinkerEdge edge) {
+        if (this.skip()) return;
+        final Record record = this.begin(ADD_EDGE);
+        record.value(edge.id());
+        record.value(edge.label());
+        record.value(edge.outVertex.id());
+        record.value(edge.inVertex.id());
+        record.properties(edge.properties());
+        this.append(record);
+    }
+
+    public void removeEdge(final TinkerEdge edge) {
+        if (this.skip()) return;
+        final Record record = this.begin(REMOVE_EDGE);
+        record.value(edge.id());
+        this.append(record);
+    }
+
+    public void setEdgeProperty(final TinkerEdge edge, final String key, final Object value) {
+        if (this.skip()) return;
+        final Record record = this.begin(SET_EDGE_PROPERTY);
+        record.value(edge.id());
+        record.value(key);
+        record.value(value);
+        this.append(record);
+    }
+
+    public void removeEdgeProperty(final TinkerEdge edge, final String key) {
+        if (this.skip()) return;
+        final Record record = this.begin(REMOVE_EDGE_PROPERTY);
+        record.value(edge.id());
+        record.value(key);
+        this.append(record);
+    }
+
+    /**
+     * Stops journaling the mutations nested in a mutation that journals the complete resulting state of its element
+     * once it is done, like the properties attached by {@link TinkerGraph#addVertex(Object...)}.
+     */
+    public void suppress() {
+        this.records.get().suppressed++;
+    }
+
+    public void resume() {
+        this.records.get().suppressed--;
+    }
+
+    /**
+     * Rotates the journal and writes the records it held into the graph at its location, returning once they are
+     * written. Appends are only held up while the journal is rotated.
+     */
+    public void checkpoint() {
+        synchronized (this.checkpointLock) {
+            try {
+                // a segment left by a checkpoint that did not complete is written first as it precedes the journal
+                if (this.segment.exists())
+                    this.writeSegment();
+                if (this.rotate())
+                    this.writeSegment();
+            } catch (IOException ioe) {
+                throw new IllegalStateException(String.format("Could not checkpoint graph at %s", this.graphLocation), ioe);
+            }
+        }
+    }
+
+    /**
+     * Writes the graph as it is in memory to its location and starts a new journal, as the graph already holds the
+     * records of the old one. Unlike {@link #checkpoint()}, this also makes durable the mutations that were never
+     * journaled, like those of a {@link TinkerBulkLoader}, but appends are held up until the graph is written.
+     */
+    public void save() {
+        synchronized (this.checkpointLock) {
+            synchronized (this) {
+                if (this.closed)
+                    throw new IllegalStateException(String.format("The journal at %s is closed", this.file));
+                try {
+                    final String tmp = this.graphLocation + ".tmp";
+                    this.graph.saveGraph(tmp);
+                    Files.move(Paths.get(tmp), Paths.get(this.graphLocation), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    Files.deleteIfExists(this.segment.toPath());
+                    this.output.close();
+                    this.journalFile.close();
+                    try {
+                        Files.delete(this.file.toPath());
+                    } finally {
+                        this.openOutput();
+                    }
+                } catch (IOException ioe) {
+                    throw new IllegalStateException(String.format("Could not save graph at %s", this.graphLocation), ioe);
+                }
+            }
+        }
+    }
+
+    /**
+     * Forces all appended records to disk and stops the background sync and checkpoint.
+     */
+    public synchronized void close() {
+        if (this.closed) return;
+        this.closed = true;
+        if (null != this.scheduler)
+            this.scheduler.shutdownNow();
+        try {
+            this.sync();
+            this.output.close();
+            this.journalFile.close();
+        } catch (IOException ioe) {
+            throw new IllegalStateException(String.format("Could not close journal at %s", this.file), ioe);
+        }
+    }
+
+    /**
+     * Moves the records of the journal to the segment and starts a new journal, returning {@code false} if there
+     * were no records to move.
+     */
+    private synchronized boolean rotate() throws IOException {
+        if (this.closed)
+            return false;
+        this.sync();
+        if (0 == this.journalFile.length())
+            return false;
+        this.output.close();
+        this.journalFile.close();
+        try {
+            Files.move(this.file.toPath(), this.segment.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            this.openOutput();
+        }
+        return true;
+    }
+
+    /**
+     * Replays the segment over a copy of the graph loaded from its location, writes that copy to the location and
+     * deletes the segment. The copy is opened without the journal and the other settings that would have it do more
+     * than hold the graph.
+     */
+    private void writeSegment() throws IOException {
+        final Configuration configuration = new BaseConfiguration();
+        this.graph.configuration().getKeys().forEachRemaining(key -> configuration.setProperty(key, this.graph.configuration().getProperty(key)));
+        configuration.clearProperty(TinkerGraph.GREMLIN_TINKERGRAPH_JOURNAL);
+        configuration.clearProperty(TinkerGraph.GREMLIN_TINKERGRAPH_EXPIRY_KEY);
+        configuration.clearProperty(TinkerGraph.GREMLIN_TINKERGRAPH_FROZEN);
+        configuration.clearProperty(TinkerGraph.GREMLIN_TINKERGRAPH_SHARDS);
+        final TinkerGraph copy = TinkerGraph.open(configuration);
+        replay(copy, this.segment);
+        final String tmp = this.graphLocation + ".tmp";
+        copy.saveGraph(tmp);
+        Files.move(Paths.get(tmp), Paths.get(this.graphLocation), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.delete(this.segment.toPath());
+    }
+
+    private void checkpointQuietly() {
+        try {
+            this.checkpoint();
+        } catch (Exception ex) {
+            logger.warn(String.format("Could not checkpoint graph at %s", this.graphLocation), ex);
+        }
+    }
+
+    private boolean skip() {
+        return this.records.get().suppressed > 0 || TinkerHelper.inComputerMode(this.graph);
+    }
+
+    private void openOutput() throws IOException {
+        this.journalFile = new RandomAccessFile(this.file, "rw");
+        this.journalFile.seek(this.journalFile.length());
+        this.output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(this.journalFile.getFD()), 1 << 16));
+    }
+
+    /**
+     * Starts a record of the type in the buffer of the calling thread.
+     */
+    private Record begin(final byte type) {
+        final Record record = this.records.get();
+        record.bytes.reset();
+        try {
+            record.output.writeByte(type);
+        } catch (IOException ioe) {
+            throw new IllegalStateException(ioe);
+        }
+        return record;
+    }
+
+    private synchronized void append(final Record record) {
+        if (this.closed)
+            throw new IllegalStateException(String.format("The journal at %s is closed", this.file));
+        try {
+            this.output.writeInt(record.bytes.size());
+            this.output.writeInt(record.checksum());
+            record.bytes.writeTo(this.output);
+            if (this.syncInterval <= 0)
+                this.sync();
+        } catch (IOException ioe) {
+            throw new IllegalStateException(String.format("Could not append to journal at %s", this.file), ioe);
+        }
+    }
+
+    private synchronized void sync() throws IOException {
+        this.output.flush();
+        this.journalFile.getChannel().force(false);
+    }
+
+    private void syncQuietly() {
+        try {
+            synchronized (this) {
+                if (!this.closed) this.sync();
+            }
+        } catch (Exception ex) {
+            logger.warn(String.format("Could not sync journal at %s", this.file), ex);
+        }
+    }
+
+    private static void replay(final TinkerGraph graph, final File file) throws IOException {
+        final Kryo kryo = TinkerGraphSnapshot.createKryo(graph);
+        long validLength = 0;
+        try (final RandomAccessFile journal = new RandomAccessFile(file, "rw")) {
+            final FileChannel channel = journal.getChannel();
+            final ByteBuffer header = ByteBuffer.allocate(8);
+            final CRC32 crc = new CRC32();
+            while (true) {
+                header.clear();
+                if (channel.read(header, validLength) < 8) break;
+                header.flip();
+                final int length = header.getInt();
+                final int checksum = header.getInt();
+                if (length < 0 || validLength + 8 + length > channel.size()) break;
+                final ByteBuffer payload = ByteBuffer.allocate(length);
+                channel.read(payload, validLength + 8);
+                crc.reset();
+                crc.update(payload.array(), 0, length);
+                if ((int) crc.getValue() != checksum) break;
+                payload.flip();
+                apply(graph, new BufferInput(payload), kryo);
+                validLength = validLength + 8 + length;
+            }
+
+            // a torn record at the end was never acknowledged as durable so it is dropped
+            if (validLength < channel.size()) {
+                logger.warn("Truncating {} bytes of incomplete records from journal at {}", channel.size() - validLength, file);
+                channel.truncate(validLength);
+            }
+        }
+    }
+
+    private static void apply(final TinkerGraph graph, final TinkerGraphSnapshot.ValueInput input, final Kryo kryo) throws IOException {
+        final byte type = input.readByte();
+        switch (type) {
+            case ADD_VERTEX: {
+                final Object id = input.readValue(kryo);
+                final String label = (String) input.readValue(kryo);
+                final Vertex vertex = graph.vertices.containsKey(id) ? null : graph.addVertex(T.id, id, T.label, label);
+                final int size = (Integer) input.readValue(kryo);
+                for (int i = 0; i < size; i++) {
+                    final Object vertexPropertyId = input.readValue(kryo);
+                    final String key = (String) input.readValue(kryo);
+                    final Object value = input.readValue(kryo);
+                    final Object[] keyValues = readProperties(input, kryo, T.id, vertexPropertyId);
+                    if (null != vertex)
+                        vertex.property(VertexProperty.Cardinality.list, key, value, keyValues);
+                }
+                break;
+            }
+            case REMOVE_VERTEX: {
+                final Vertex vertex = graph.vertices.get(input.readValue(kryo));
+                if (null != vertex) vertex.remove();
+                break;
+            }
+            case ADD_VERTEX_PROPERTY: {
+                final Vertex vertex = graph.vertices.get(input.readValue(kryo));
+                final VertexProperty.Cardinality cardinality = VertexProperty.Cardinality.valueOf((String) input.readValue(kryo));
+                final Object vertexPropertyId = input.readValue(kryo);
+                final String key = (String) input.readValue(kryo);
+                final Object value = input.readValue(kryo);
+                final Object[] keyValues = readProperties(input, kryo, T.id, vertexPropertyId);
+                if (null != vertex && null == findVertexProperty(vertex, vertexPropertyId, key))
+                    vertex.property(cardinality, key, value, keyValues);
+                break;
+            }
+            case REMOVE_VERTEX_PROPERTY: {
+                final VertexProperty<?> vertexProperty = findVertexProperty(graph, input, kryo);
+                if (null != vertexProperty) vertexProperty.remove();
+                break;
+            }
+            case SET_META_PROPERTY: {
+                final VertexProperty<?> vertexProperty = findVertexProperty(graph, input, kryo);
+                final String key = (String) input.readValue(kryo);
+                final Object value = input.readValue(kryo);
+                if (null != vertexProperty) vertexProperty.property(key, value);
+                break;
+            }
+            case REMOVE_META_PROPERTY: {
+                final VertexProperty<?> vertexProperty = findVertexProperty(graph, input, kryo);
+                final String key = (String) input.readValue(kryo);
+                if (null != vertexProperty) vertexProperty.property(key).remove();
+                break;
+            }
+            case ADD_EDGE: {
+                final Object id = input.readValue(kryo);
+                final String label = (String) input.readValue(kryo);
+                final Vertex outVertex = graph.vertices.get(input.readValue(kryo));
+                final Vertex inVertex = graph.vertices.get(input.readValue(kryo));
+                final Object[] keyValues = readProperties(input, kryo, T.id, id);
+                if (!graph.edges.containsKey(id) && null != outVertex && null != inVertex)
+                    outVertex.addEdge(label, inVertex, keyValues);
+                break;
+            }
+            case REMOVE_EDGE: {
+                final Edge edge = graph.edges.get(input.readValue(kryo));
+                if (null != edge) edge.remove();
+                break;
+            }
+            case SET_EDGE_PROPERTY: {
+                final Edge edge = graph.edges.get(input.readValue(kryo));
+                final String key = (String) input.readValue(kryo);
+                final Object value = input.readValue(kryo);
+                if (null != edge) edge.property(key, value);
+                break;
+            }
+            case REMOVE_EDGE_PROPERTY: {
+                final Edge edge = graph.edges.get(input.readValue(kryo));
+                final String key = (String) input.readValue(kryo);
+                if (null != edge) edge.property(key).remove();
+                break;
+            }
+            default:
+                throw new IOException(String.format("Unexpected journal record type %s", type));
+        }
+    }
+
+    private static Object[] readProperties(final TinkerGraphSnapshot.ValueInput input, final Kryo kryo,
+                                           final T idKey, final Object id) throws IOException {
+        final int size = (Integer) input.readValue(kryo);
+        final Object[] keyValues = new Object[size * 2 + 2];
+        keyValues[0] = idKey;
+        keyValues[1] = id;
+        for (int i = 0; i < size; i++) {
+            keyValues[i * 2 + 2] = input.readValue(kryo);
+            keyValues[i * 2 + 3] = input.readValue(kryo);
+        }
+        return keyValues;
+    }
+
+    private static VertexProperty<?> findVertexProperty(final TinkerGraph graph, final TinkerGraphSnapshot.ValueInput input,
+                                                        final Kryo kryo) throws IOException {
+        final Vertex vertex = graph.vertices.get(input.readValue(kryo));
+        final Object vertexPropertyId = input.readValue(kryo);
+        final String key = (String) input.readValue(kryo);
+        return null == vertex ? null : findVertexProperty(vertex, vertexPropertyId, key);
+    }
+
+    private static VertexProperty<?> findVertexProperty(final Vertex vertex, final Object vertexPropertyId, final String key) {
+        for (final VertexProperty<?> vertexProperty : TinkerHelper.getProperties((TinkerVertex) vertex).getOrDefault(key, new ArrayList<>())) {
+            if (vertexProperty.id().equals(vertexPropertyId))
+                return vertexProperty;
+        }
+        return null;
+    }
+
+    /**
+     * The record that a thread is building, along with the {@link Kryo} instance that it serializes values with as
+     * the instance is not thread-safe, and the depth of the mutations of the thread whose records are suppressed.
+     */
+    private static final class Record {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        private final DataOutputStream output = new DataOutputStream(this.bytes);
+        private final CRC32 crc = new CRC32();
+        private final Kryo kryo;
+        private int suppressed = 0;
+
+        private Record(final Kryo kryo) {
+            this.kryo = kryo;
+        }
+
+        private void value(final Object value) {
+            try {
+                TinkerGraphSnapshot.writeValue(this.output, value, this.kryo);
+            } catch (IOException ioe) {
+                throw new IllegalStateException(ioe);
+            }
+        }
+
+        private void properties(final Iterator<? extends Property<?>> properties) {
+            final List<Property<?>> list = new ArrayList<>();
+            properties.forEachRemaining(list::add);
+            this.value(list.size());
+            for (final Property<?> property : list) {
+                this.value(property.key());
+                this.value(property.value());
+            }
+        }
+
+        private int checksum() {
+            this.crc.reset();
+            this.crc.update(this.bytes.toByteArray(), 0, this.bytes.size());
+            return (int) this.crc.getValue();
+        }
+    }
+
+    private static final class BufferInput implements TinkerGraphSnapshot.ValueInput {
+        private final ByteBuffer buffer;
+
+        private BufferInput(final ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public byte readByte() {
+            return this.buffer.get();
+        }
+
+        @Override
+        public short readShort() {
+            return this.buffer.getShort();
+        }
+
+        @Override
+        public int readInt() {
+            return this.buffer.getInt();
+        }
+
+        @Override
+        public long readLong() {
+            return this.buffer.getLong();
+        }
+
+        @Override
+        public byte[] readBytes(final int length) {
+            final byte[] bytes = new byte[length];
+            this.buffer.get(bytes);
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,662 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Property;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.VertexProperty;
+import org.apache.tinkerpop.gremlin.structure.io.IoCore;
+import org.apache.tinkerpop.gremlin.structure.io.gryo.GryoMapper;
+import org.apache.tinkerpop.shaded.kryo.Kryo;
+import org.apache.tinkerpop.shaded.kryo.io.Input;
+import org.apache.tinkerpop.shaded.kryo.io.Output;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Reads and writes the binary snapshot format of {@link TinkerGraph} that is selected with a
+ * {@link TinkerGraph#GREMLIN_TINKERGRAPH_GRAPH_FORMAT} of {@code snapshot}. Unlike the graphml, graphson and gryo
+ * formats, the snapshot is specific to {@link TinkerGraph} and is read through a memory-mapped file directly into
+ * the graph's internal structures, bypassing the {@link org.apache.tinkerpop.gremlin.structure.io.GraphReader}
+ * infrastructure and the validation that {@link TinkerGraph#addVertex(Object...)} would otherwise perform.
+ * <p/>
+ * The file is laid out column by column: a table of the distinct labels and property keys, then the vertex ids,
+ * vertex labels and vertex properties, and finally the edge ids, edge labels, out-vertex ids, in-vertex ids and edge
+ * properties. Common value types are written natively while all other values are written with Gryo.
+ * <p/>
+ * Reading builds the vertices and edges, with their labels and adjacency, but only locates the properties of each
+ * element in the mapped file. They are decoded the first time that the element is asked for them, so a snapshot
+ * opens in the time it takes to read its topology and the file stays mapped until the graph is discarded.
+ */
+final class TinkerGraphSnapshot {
+
+    private static final int MAGIC = 0x544B5350; // TKSP
+    private static final int VERSION = 1;
+
+    /**
+     * Files larger than this are mapped in windows.
+     */
+    private static final long WINDOW_SIZE = 1L << 30;
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INTEGER = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte FLOAT = 5;
+    private static final byte BOOLEAN = 6;
+    private static final byte SHORT = 7;
+    private static final byte BYTE = 8;
+    private static final byte UUID_VALUE = 9;
+    private static final byte GRYO = 127;
+
+    private TinkerGraphSnapshot() {
+    }
+
+    public static void write(final TinkerGraph graph, final String location) throws IOException {
+        final Kryo kryo = createKryo(graph);
+        final Map<String, Integer> strings = new LinkedHashMap<>();
+        for (final Vertex vertex : graph.vertices.values()) {
+            intern(strings, vertex.label());
+            for (final Map.Entry<String, List<VertexProperty>> entry : TinkerHelper.getProperties((TinkerVertex) vertex).entrySet()) {
+                intern(strings, entry.getKey());
+                for (final VertexProperty<?> vertexProperty : entry.getValue()) {
+                    vertexProperty.keys().forEach(key -> intern(strings, key));
+                }
+            }
+        }
+        for (final Edge edge : graph.edges.values()) {
+            intern(strings, edge.label());
+            edge.keys().forEach(key -> intern(strings, key));
+        }
+
+        try (final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(location), 1 << 16))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt(strings.size());
+            for (final String string : strings.keySet()) {
+                writeString(output, string);
+            }
+
+            // the maps are not modified during the write so each pass sees the same order
+            output.writeLong(graph.vertices.size());
+            for (final Vertex vertex : graph.vertices.values()) {
+                writeValue(output, vertex.id(), kryo);
+            }
+            for (final Vertex vertex : graph.vertices.values()) {
+                output.writeInt(strings.get(vertex.label()));
+            }
+            for (final Vertex vertex : graph.vertices.values()) {
+                final Map<String, List<VertexProperty>> properties = TinkerHelper.getProperties((TinkerVertex) vertex);
+                int size = 0;
+                for (final List<VertexProperty> list : properties.values()) {
+                    size = size + list.size();
+                }
+                output.writeInt(size);
+                for (final Map.Entry<String, List<VertexProperty>> entry : properties.entrySet()) {
+                    for (final VertexProperty<?> vertexProperty : entry.getValue()) {
+                        writeValue(output, vertexProperty.id(), kryo);
+                        output.writeInt(strings.get(entry.getKey()));
+                        writeValue(output, vertexProperty.value(), kryo);
+                        writeProperties(output, vertexProperty.properties(), strings, kryo);
+                    }
+                }
+            }
+
+            output.writeLong(graph.edges.size());
+            for (final Edge edge : graph.edges.values()) {
+                writeValue(output, edge.id(), kryo);
+            }
+            for (final Edge edge : graph.edges.values()) {
+                output.writeInt(strings.get(edge.label()));
+            }
+            for (final Edge edge : graph.edges.values()) {
+                writeValue(output, edge.outVertex().id(), kryo);
+            }
+            for (final Edge edge : graph.edges.values()) {
+                writeValue(output, edge.inVertex().id(), kryo);
+            }
+            for (final Edge edge : graph.edges.values()) {
+                writeProperties(output, edge.properties(), strings, kryo);
+            }
+        }
+    }
+
+    public static void read(final TinkerGraph graph, final String location) throws IOException {
+        final MappedFile file;
+        try (final RandomAccessFile raf = new RandomAccessFile(location, "r");
+             final FileChannel channel = raf.getChannel()) {
+            file = new MappedFile(channel);
+        }
+        final Kryo kryo = createKryo(graph);
+        final Cursor input = file.at(0);
+        if (input.readInt() != MAGIC)
+            throw new IOException(String.format("%s is not a TinkerGraph snapshot", location));
+        final int version = input.readInt();
+        if (version != VERSION)
+            throw new IOException(String.format("%s has an unsupported snapshot version of %s", location, version));
+
+        final String[] strings = new String[input.readInt()];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = input.readString();
+        }
+        final Columns columns = new Columns(graph, file, strings, kryo);
+
+        final int vertexCount = Math.toIntExact(input.readLong());
+        final Object[] vertexIds = new Object[vertexCount];
+        for (int i = 0; i < vertexCount; i++) {
+            vertexIds[i] = graph.vertexIdManager.convert(input.readValue(kryo));
+        }
+        final TinkerVertex[] vertices = new TinkerVertex[vertexCount];
+        for (int i = 0; i < vertexCount; i++) {
+            vertices[i] = new TinkerVertex(vertexIds[i], strings[input.readInt()], graph);
+            graph.vertices.put(vertexIds[i], vertices[i]);
+            TinkerHelper.addLabelIndex(graph.vertexLabels, vertices[i]);
+        }
+        // the properties are only located here and are decoded when the vertex is first asked for them
+        for (final TinkerVertex vertex : vertices) {
+            final long position = input.position();
+            final int size = input.readInt();
+            if (size > 0) vertex.properties = new LazyProperties<>(columns, vertex, position);
+            for (int i = 0; i < size; i++) {
+                input.skipValue();
+                input.skip(4);
+                input.skipValue();
+                final int metaSize = input.readInt();
+                for (int j = 0; j < metaSize; j++) {
+                    input.skip(4);
+                    input.skipValue();
+                }
+            }
+        }
+
+        final int edgeCount = Math.toIntExact(input.readLong());
+        final Object[] edgeIds = new Object[edgeCount];
+        for (int i = 0; i < edgeCount; i++) {
+            edgeIds[i] = graph.edgeIdManager.convert(input.readValue(kryo));
+        }
+        final String[] edgeLabels = new String[edgeCount];
+        for (int i = 0; i < edgeCount; i++) {
+            edgeLabels[i] = strings[input.readInt()];
+        }
+        final TinkerVertex[] outVertices = new TinkerVertex[edgeCount];
+        for (int i = 0; i < edgeCount; i++) {
+            outVertices[i] = (TinkerVertex) graph.vertices.get(graph.vertexIdManager.convert(input.readValue(kryo)));
+        }
+        final TinkerEdge[] edges = new TinkerEdge[edgeCount];
+        for (int i = 0; i < edgeCount; i++) {
+            final TinkerVertex inVertex = (TinkerVertex) graph.vertices.get(graph.vertexIdManager.convert(input.readValue(kryo)));
+            edges[i] = new TinkerEdge(edgeIds[i], outVertices[i], edgeLabels[i], inVertex);
+            graph.edges.put(edgeIds[i], edges[i]);
+            TinkerHelper.addLabelIndex(graph.edgeLabels, edges[i]);
+            TinkerHelper.addOutEdge(outVertices[i], edgeLabels[i], edges[i]);
+            TinkerHelper.addInEdge(inVertex, edgeLabels[i], edges[i]);
+        }
+        for (final TinkerEdge edge : edges) {
+            final long position = input.position();
+            final int size = input.readInt();
+            if (size > 0) edge.properties = new LazyProperties<>(columns, edge, position);
+            for (int i = 0; i < size; i++) {
+                input.skip(4);
+                input.skipValue();
+            }
+        }
+    }
+
+    static Kryo createKryo(final TinkerGraph graph) {
+        return ((GryoMapper) graph.io(IoCore.gryo()).mapper().create()).createMapper();
+    }
+
+    private static void intern(final Map<String, Integer> strings, final String string) {
+        if (!strings.containsKey(string))
+            strings.put(string, strings.size());
+    }
+
+    private static void writeProperties(final DataOutputStream output, final Iterator<? extends Property<?>> properties,
+                                        final Map<String, Integer> strings, final Kryo kryo) throws IOException {
+        final List<Property<?>> list = new ArrayList<>();
+        properties.forEachRemaining(list::add);
+        output.writeInt(list.size());
+        for (final Property<?> property : list) {
+            output.writeInt(strings.get(property.key()));
+            writeValue(output, property.value(), kryo);
+        }
+    }
+
+    static void writeString(final DataOutput output, final String string) throws IOException {
+        final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    static void writeValue(final DataOutput output, final Object value, final Kryo kryo) throws IOException {
+        if (null == value) {
+            output.writeByte(NULL);
+        } else if (value instanceof String) {
+            output.writeByte(STRING);
+            writeString(output, (String) value);
+        } else if (value instanceof Integer) {
+            output.writeByte(INTEGER);
+            output.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            output.writeByte(LONG);
+            output.writeLong((Long) value);
+        } else if (value instanceof Double) {
+            output.writeByte(DOUBLE);
+            output.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            output.writeByte(FLOAT);
+            output.writeFloat((Float) value);
+        } else if (value instanceof Boolean) {
+            output.writeByte(BOOLEAN);
+            output.writeBoolean((Boolean) value);
+        } else if (value instanceof Short) {
+            output.writeByte(SHORT);
+            output.writeShort((Short) value);
+        } else if (value instanceof Byte) {
+            output.writeByte(BYTE);
+            output.writeByte((Byte) value);
+        } else if (value instanceof UUID) {
+            output.writeByte(UUID_VALUE);
+            output.writeLong(((UUID) value).getMostSignificantBits());
+            output.writeLong(((UUID) value).getLeastSignificantBits());
+        } else {
+            final Output gryo = new Output(256, -1);
+            kryo.writeClassAndObject(gryo, value);
+            output.writeByte(GRYO);
+            output.writeInt(gryo.position());
+            output.write(gryo.getBuffer(), 0, gryo.position());
+        }
+    }
+
+    /**
+     * The primitive reads from which the values of a snapshot or journal are decoded.
+     */
+    interface ValueInput {
+        byte readByte() throws IOException;
+
+        short readShort() throws IOException;
+
+        int readInt() throws IOException;
+
+        long readLong() throws IOException;
+
+        byte[] readBytes(final int length) throws IOException;
+
+        default String readString() throws IOException {
+            return new String(this.readBytes(this.readInt()), StandardCharsets.UTF_8);
+        }
+
+        default Object readValue(final Kryo kryo) throws IOException {
+            final byte type = this.readByte();
+            switch (type) {
+                case NULL:
+                    return null;
+                case STRING:
+                    return this.readString();
+                case INTEGER:
+                    return this.readInt();
+                case LONG:
+                    return this.readLong();
+                case DOUBLE:
+                    return Double.longBitsToDouble(this.readLong());
+                case FLOAT:
+                    return Float.intBitsToFloat(this.readInt());
+                case BOOLEAN:
+                    return this.readByte() != 0;
+                case SHORT:
+                    return this.readShort();
+                case BYTE:
+                    return this.readByte();
+                case UUID_VALUE:
+                    return new UUID(this.readLong(), this.readLong());
+                case GRYO:
+                    return kryo.readClassAndObject(new Input(this.readBytes(this.readInt())));
+                default:
+                    throw new IOException(String.format("Unexpected value type %s", type));
+            }
+        }
+    }
+
+    /**
+     * The strings of a snapshot and its mapped file from which the properties of an element are decoded when they are
+     * first accessed. Decoding is serialized as the {@link Kryo} instance is not thread-safe.
+     */
+    private static final class Columns {
+        private final TinkerGraph graph;
+        private final MappedFile file;
+        private final String[] strings;
+        private final Kryo kryo;
+
+        private Columns(final TinkerGraph graph, final MappedFile file, final String[] strings, final Kryo kryo) {
+            this.graph = graph;
+            this.file = file;
+            this.strings = strings;
+            this.kryo = kryo;
+        }
+
+        private synchronized Map<String, List<VertexProperty>> readVertexProperties(final TinkerVertex vertex, final long position) throws IOException {
+            final Cursor input = this.file.at(position);
+            final Map<String, List<VertexProperty>> properties = this.createPropertyMap();
+            final int size = input.readInt();
+            for (int i = 0; i < size; i++) {
+                final Object id = this.graph.vertexPropertyIdManager.convert(input.readValue(this.kryo));
+                final String key = this.strings[input.readInt()];
+                final TinkerVertexProperty<?> vertexProperty = new TinkerVertexProperty<>(id, vertex, key, input.readValue(this.kryo));
+                final int metaSize = input.readInt();
+                if (metaSize > 0) vertexProperty.properties = this.createPropertyMap();
+                for (int j = 0; j < metaSize; j++) {
+                    final TinkerProperty<?> metaProperty = new TinkerProperty<>(vertexProperty, this.strings[input.readInt()], input.readValue(this.kryo));
+                    vertexProperty.properties.put(metaProperty.key(), metaProperty);
+                }
+                properties.computeIfAbsent(vertexProperty.key(), k -> new ArrayList<>(1)).add(vertexProperty);
+            }
+            return properties;
+        }
+
+        private synchronized Map<String, Property> readEdgeProperties(final TinkerEdge edge, final long position) throws IOException {
+            final Cursor input = this.file.at(position);
+            final Map<String, Property> properties = this.createPropertyMap();
+            final int size = input.readInt();
+            for (int i = 0; i < size; i++) {
+                final TinkerProperty<?> property = new TinkerProperty<>(edge, this.strings[input.readInt()], input.readValue(this.kryo));
+                properties.put(property.key(), property);
+            }
+            return properties;
+        }
+
+        private <V> Map<String, V> createPropertyMap() {
+            return null == this.graph.transaction ? TinkerHelper.createPropertyMap(this.graph) : new ConcurrentHashMap<>();
+        }
+    }
+
+    /**
+     * The properties of an element read from a snapshot, which are decoded from the mapped file the first time they
+     * are accessed so that opening a snapshot only has to build the vertices and edges themselves.
+     */
+    static final class LazyProperties<V> extends AbstractMap<String, V> {
+        private final Columns columns;
+        private final TinkerElement element;
+        private final long position;
+        private volatile Map<String, V> properties = null;
+
+        private LazyProperties(final Columns columns, final TinkerElement element, final long position) {
+            this.columns = columns;
+            this.element = element;
+            this.position = position;
+        }
+
+        boolean isLoaded() {
+            return null != this.properties;
+        }
+
+        private Map<String, V> load() {
+            Map<String, V> properties = this.properties;
+            if (null == properties) {
+                synchronized (this) {
+                    properties = this.properties;
+                    if (null == properties) {
+                        try {
+                            properties = (Map<String, V>) (this.element instanceof TinkerVertex ?
+                                    this.columns.readVertexProperties((TinkerVertex) this.element, this.position) :
+                                    this.columns.readEdgeProperties((TinkerEdge) this.element, this.position));
+                        } catch (final IOException e) {
+                            throw new IllegalStateException(String.format("Could not read the properties of %s from the snapshot", this.element), e);
+                        }
+                        this.properties = properties;
+                    }
+                }
+            }
+            return properties;
+        }
+
+        @Override
+        public V get(final Object key) {
+            return this.load().get(key);
+        }
+
+        @Override
+        public V getOrDefault(final Object key, final V defaultValue) {
+            return this.load().getOrDefault(key, defaultValue);
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return this.load().containsKey(key);
+        }
+
+        @Override
+        public V put(final String key, final V value) {
+            return this.load().put(key, value);
+        }
+
+        @Override
+        public V remove(final Object key) {
+            return this.load().remove(key);
+        }
+
+        @Override
+        public V computeIfAbsent(final String key, final Function<? super String, ? extends V> mappingFunction) {
+            return this.load().computeIfAbsent(key, mappingFunction);
+        }
+
+        @Override
+        public int size() {
+            return this.load().size();
+        }
+
+        @Override
+        public void clear() {
+            this.load().clear();
+        }
+
+        @Override
+        public void forEach(final BiConsumer<? super String, ? super V> action) {
+            this.load().forEach(action);
+        }
+
+        @Override
+        public Set<String> keySet() {
+            return this.load().keySet();
+        }
+
+        @Override
+        public Collection<V> values() {
+            return this.load().values();
+        }
+
+        @Override
+        public Set<Entry<String, V>> entrySet() {
+            return this.load().entrySet();
+        }
+    }
+
+    /**
+     * A file mapped through {@link MappedByteBuffer} windows, so that files larger than the 2GB limit of a single
+     * mapping can be read, and that is read from any position. The mappings stay valid once the file is closed and
+     * also once it is deleted or replaced, as a save or a checkpoint does, but not if it is modified in place.
+     */
+    private static final class MappedFile {
+        private final long size;
+        private final MappedByteBuffer[] windows;
+
+        private MappedFile(final FileChannel channel) throws IOException {
+            this.size = channel.size();
+            this.windows = new MappedByteBuffer[Math.toIntExact((this.size + WINDOW_SIZE - 1) / WINDOW_SIZE)];
+            for (int i = 0; i < this.windows.length; i++) {
+                final long start = i * WINDOW_SIZE;
+                this.windows[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW_SIZE, this.size - start));
+            }
+        }
+
+        private Cursor at(final long position) {
+            return new Cursor(this, position);
+        }
+    }
+
+    /**
+     * Reads a {@link MappedFile} from a position onwards. Values are read with the absolute gets of the windows, which
+     * leave them unchanged, so that any number of cursors can read the same file at once.
+     */
+    private static final class Cursor implements ValueInput {
+        private final MappedFile file;
+        private long position;
+
+        private Cursor(final MappedFile file, final long position) {
+            this.file = file;
+            this.position = position;
+        }
+
+        private long position() {
+            return this.position;
+        }
+
+        /**
+         * Checks that the bytes are in the file and returns the index of the position within its window, or
+         * {@code -1} if the bytes straddle two windows.
+         */
+        private int require(final long bytes) throws IOException {
+            if (this.file.size - this.position < bytes)
+                throw new IOException("Unexpected end of TinkerGraph snapshot");
+            final int index = (int) (this.position % WINDOW_SIZE);
+            return index + bytes > WINDOW_SIZE ? -1 : index;
+        }
+
+        private MappedByteBuffer window() {
+            return this.file.windows[(int) (this.position / WINDOW_SIZE)];
+        }
+
+        private long readStraddling(final int bytes) throws IOException {
+            long value = 0;
+            for (int i = 0; i < bytes; i++) {
+                value = (value << 8) | (this.readByte() & 0xFF);
+            }
+            return value;
+        }
+
+        private void skip(final long bytes) throws IOException {
+            this.require(bytes);
+            this.position = this.position + bytes;
+        }
+
+        private void skipValue() throws IOException {
+            final byte type = this.readByte();
+            switch (type) {
+                case NULL:
+                    break;
+                case STRING:
+                case GRYO:
+                    this.skip(this.readInt());
+                    break;
+                case INTEGER:
+                case FLOAT:
+                    this.skip(4);
+                    break;
+                case LONG:
+                case DOUBLE:
+                    this.skip(8);
+                    break;
+                case BOOLEAN:
+                case BYTE:
+                    this.skip(1);
+                    break;
+                case SHORT:
+                    this.skip(2);
+                    break;
+                case UUID_VALUE:
+                    this.skip(16);
+                    break;
+                default:
+                    throw new IOException(String.format("Unexpected value type %s", type));
+            }
+        }
+
+        @Override
+        public byte readByte() throws IOException {
+            final byte value = this.window().get(this.require(1));
+            this.position++;
+            return value;
+        }
+
+        @Override
+        public short readShort() throws IOException {
+            final int index = this.require(2);
+            if (index < 0) return (short) this.readStraddling(2);
+            final short value = this.window().getShort(index);
+            this.position = this.position + 2;
+            return value;
+        }
+
+        @Override
+        public int readInt() throws IOException {
+            final int index = this.require(4);
+            if (index < 0) return (int) this.readStraddling(4);
+            final int value = this.window().getInt(index);
+            this.position = this.position + 4;
+            return value;
+        }
+
+        @Override
+        public long readLong() throws IOException {
+            final int index = this.require(8);
+            if (index < 0) return this.readStraddling(8);
+            final long value = this.window().getLong(index);
+            this.position = this.position + 8;
+            return value;
+        }
+
+        @Override
+        public byte[] readBytes(final int length) throws IOException {
+            this.require(length);
+            final byte[] bytes = new byte[length];
+            int offset = 0;
+            while (offset < length) {
+                final ByteBuffer window = this.window().duplicate();
+                window.position((int) (this.position % WINDOW_SIZE));
+                final int count = Math.min(length - offset, window.remaining());
+                window.get(bytes, offset, count);
+                offset = offset + count;
+                this.position = this.position + count;
+            }
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.GraphStatistics;
+import org.apache.tinkerpop.gremlin.structure.Property;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The {@link GraphStatistics} of a {@link TinkerGraph}. The counts of elements and labels are read from the graph
+ * as they are asked for. The degrees of the vertices are gathered in a single pass over the graph and the values of
+ * a property key in a pass over the elements of the label when they are first asked for, and both are gathered again
+ * once the number of vertices or edges has changed by more than a tenth since.
+ */
+final class TinkerGraphStatistics implements GraphStatistics {
+
+    private static final double DRIFT = 0.1d;
+    private static final int SAMPLE_SIZE = 1024;
+
+    private final TinkerGraph graph;
+    private volatile Degrees degrees = null;
+    private final Map<List<Object>, Histogram> histograms = new ConcurrentHashMap<>();
+
+    TinkerGraphStatistics(final TinkerGraph graph) {
+        this.graph = graph;
+    }
+
+    @Override
+    public long count(final Class<? extends Element> elementClass) {
+        return Vertex.class == getElementClass(elementClass) ? this.graph.vertices.size() : this.graph.edges.size();
+    }
+
+    @Override
+    public long count(final Class<? extends Element> elementClass, final String label) {
+        final Set<? extends Element> elements = Vertex.class == getElementClass(elementClass) ?
+                this.graph.vertexLabels.get(label) :
+                this.graph.edgeLabels.get(label);
+        return null == elements ? 0 : elements.size();
+    }
+
+    @Override
+    public double averageDegree(final Direction direction, final String edgeLabel) {
+        if (Direction.BOTH == direction)
+            return this.averageDegree(Direction.OUT, edgeLabel) + this.averageDegree(Direction.IN, edgeLabel);
+        Degrees degrees = this.degrees;
+        if (null == degrees || this.hasDrifted(degrees.vertexCount, degrees.edgeCount)) {
+            degrees = new Degrees(this.graph);
+            this.degrees = degrees;
+        }
+        final long edgeCount = null == edgeLabel ? degrees.edgeCount : degrees.edgeCounts.getOrDefault(edgeLabel, 0L);
+        final long[] vertexCounts = null == edgeLabel ? degrees.vertexCounts : degrees.labelVertexCounts.get(edgeLabel);
+        final long vertexCount = null == vertexCounts ? 0 : vertexCounts[Direction.OUT == direction ? 0 : 1];
+        return 0 == vertexCount ? 0d : (double) edgeCount / vertexCount;
+    }
+
+    @Override
+    public double selectivity(final Class<? extends Element> elementClass, final String label, final String key, final P<?> predicate) {
+        final Class<? extends Element> histogramClass = getElementClass(elementClass);
+        final List<Object> histogramKey = Arrays.asList(histogramClass, label, key);
+        Histogram histogram = this.histograms.get(histogramKey);
+        if (null == histogram || this.hasDrifted(histogram.vertexCount, histogram.edgeCount)) {
+            histogram = new Histogram(this.graph, histogramClass, label, key);
+            this.histograms.put(histogramKey, histogram);
+        }
+        return histogram.selectivity(predicate);
+    }
+
+    void clear() {
+        this.degrees = null;
+        this.histograms.clear();
+    }
+
+    private boolean hasDrifted(final long vertexCount, final long edgeCount) {
+        return Math.abs(this.graph.vertices.size() - vertexCount) > DRIFT * vertexCount ||
+                Math.abs(this.graph.edges.size() - edgeCount) > DRIFT * edgeCount;
+    }
+
+    private static Class<? extends Element> getElementClass(final Class<? extends Element> elementClass) {
+        if (Vertex.class.isAssignableFrom(elementClass))
+            return Vertex.class;
+        else if (Edge.class.isAssignableFrom(elementClass))
+            return Edge.class;
+        else
+            throw new IllegalArgumentException("Class has no statistics: " + elementClass);
+    }
+
+    /**
+     * The number of edges of each label and the number of vertices with at least one outgoing and incoming edge of
+     * each label.
+     */
+    private static final class Degrees {
+        private final long vertexCount;
+        private final long edgeCount;
+        private final long[] vertexCounts = new long[2];
+        private final Map<String, Long> edgeCounts = new HashMap<>();
+        private final Map<String, long[]> labelVertexCounts = new HashMap<>();
+
+        private Degrees(final TinkerGraph graph) {
+            this.vertexCount = graph.vertices.size();
+            this.edgeCount = graph.edges.size();
+            final Set<String> edgeLabels = new HashSet<>();
+            for (final Vertex vertex : graph.vertices.values()) {
+                for (int i = 0; i < 2; i++) {
+                    final Iterator<Edge> edges = vertex.edges(0 == i ? Direction.OUT : Direction.IN);
+                    while (edges.hasNext()) {
+                        final String edgeLabel = edges.next().label();
+                        if (edgeLabels.add(edgeLabel))
+                            this.labelVertexCounts.computeIfAbsent(edgeLabel, l -> new long[2])[i]++;
+                        if (0 == i)
+                            this.edgeCounts.merge(edgeLabel, 1L, Long::sum);
+                    }
+                    if (!edgeLabels.isEmpty())
+                        this.vertexCounts[i]++;
+                    edgeLabels.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * The number of elements with each value of a property key, or a uniform sample of the values when there are
+     * too many distinct values to count.
+     */
+    private static final class Histogram {
+        private final long vertexCount;
+        private final long edgeCount;
+        private final long elementCount;
+        private long valueCount = 0;
+        private Map<Object, Long> counts = new HashMap<>();
+        private final Object[] sample = new Object[SAMPLE_SIZE];
+
+        private Histogram(final TinkerGraph graph, final Class<? extends Element> elementClass, final String label, final String key) {
+            this.vertexCount = graph.vertices.size();
+            this.edgeCount = graph.edges.size();
+            final Collection<? extends Element> elements;
+            if (null == label)
+                elements = Vertex.class == elementClass ? graph.vertices.values() : graph.edges.values();
+            else {
+                final Set<? extends Element> labelElements = Vertex.class == elementClass ? graph.vertexLabels.get(label) : graph.edgeLabels.get(label);
+                elements = null == labelElements ? Collections.emptySet() : labelElements;
+            }
+            long elementCount = 0;
+            for (final Element element : elements) {
+                elementCount++;
+                final Iterator<? extends Property<Object>> properties = element.properties(key);
+                while (properties.hasNext()) {
+                    this.add(properties.next().value());
+                }
+            }
+            this.elementCount = elementCount;
+        }
+
+        private void add(final Object value) {
+            if (this.valueCount < SAMPLE_SIZE)
+                this.sample[(int) this.valueCount] = value;
+            else {
+                final long index = ThreadLocalRandom.current().nextLong(this.valueCount + 1);
+                if (index < SAMPLE_SIZE)
+                    this.sample[(int) index] = value;
+            }
+            this.valueCount++;
+            if (null != this.counts) {
+                this.counts.merge(value, 1L, Long::sum);
+                if (this.counts.size() > SAMPLE_SIZE)
+                    this.counts = null;
+            }
+        }
+
+        /**
+         * The fraction of the elements with a value that the predicate accepts. When the values are sampled, a value
+         * that matches none of the sample is taken to match one of them rather than none.
+         */
+        private double selectivity(final P<?> predicate) {
+            if (0 == this.elementCount)
+                return 0d;
+            if (null != this.counts) {
+                long matches = 0;
+                for (final Map.Entry<Object, Long> entry : this.counts.entrySet()) {
+                    if (test(predicate, entry.getKey()))
+                        matches = matches + entry.getValue();
+                }
+                return Math.min(1d, (double) matches / this.elementCount);
+            }
+            int matches = 0;
+            for (final Object value : this.sample) {
+                if (test(predicate, value))
+                    matches++;
+            }
+            return Math.min(1d, ((double) Math.max(1, matches) / SAMPLE_SIZE) * this.valueCount / this.elementCount);
+        }
+
+        private static boolean test(final P<?> predicate, final Object value) {
+            try {
+                return ((P<Object>) predicate).test(value);
+            } catch (final ClassCastException e) {
+                // a value of a type that the predicate can not be compared to is counted as not matching it
+                return false;
+            }
+        }
+    }
+}
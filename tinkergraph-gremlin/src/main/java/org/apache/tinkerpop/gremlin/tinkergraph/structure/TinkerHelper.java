@@ -20,15 +20,20 @@ package org.apache.tinkerpop.gremlin.tinkergraph.structure;
 
 import org.apache.tinkerpop.gremlin.process.computer.GraphFilter;
 import org.apache.tinkerpop.gremlin.process.computer.VertexComputeKey;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
 import org.apache.tinkerpop.gremlin.structure.Direction;
 import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Element;
 import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.Property;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.apache.tinkerpop.gremlin.structure.VertexProperty;
 import org.apache.tinkerpop.gremlin.structure.util.ElementHelper;
 import org.apache.tinkerpop.gremlin.tinkergraph.process.computer.TinkerGraphComputerView;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -37,6 +42,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Stream;
 
 /**
@@ -62,42 +70,305 @@ public final class TinkerHelper {
         }
 
         edge = new TinkerEdge(idValue, outVertex, label, inVertex);
-        ElementHelper.attachProperties(edge, keyValues);
+        if (null != graph.transaction) {
+            ((TinkerEdge) edge).version = graph.transaction.created(edge, false);
+            if (null != graph.edges.putIfAbsent(idValue, edge))
+                throw Graph.Exceptions.edgeWithIdAlreadyExists(idValue);
+            ElementHelper.attachProperties(edge, keyValues);
+            TinkerHelper.addLabelIndex(graph.edgeLabels, edge);
+            TinkerHelper.addOutEdge(outVertex, label, edge);
+            TinkerHelper.addInEdge(inVertex, label, edge);
+            return edge;
+        }
+        if (null != graph.journal) graph.journal.suppress();
+        try {
+            ElementHelper.attachProperties(edge, keyValues);
+        } finally {
+            if (null != graph.journal) graph.journal.resume();
+        }
         graph.edges.put(edge.id(), edge);
+        TinkerHelper.addLabelIndex(graph.edgeLabels, edge);
         TinkerHelper.addOutEdge(outVertex, label, edge);
         TinkerHelper.addInEdge(inVertex, label, edge);
+        if (null != graph.journal) graph.journal.addEdge((TinkerEdge) edge);
+        if (null != graph.expiry) graph.expiry.added((TinkerEdge) edge);
         return edge;
 
     }
 
     protected static void addOutEdge(final TinkerVertex vertex, final String label, final Edge edge) {
-        if (null == vertex.outEdges) vertex.outEdges = new HashMap<>();
+        if (null != ((TinkerGraph) vertex.graph()).transaction) {
+            vertex.outEdges.computeIfAbsent(label, l -> ConcurrentHashMap.newKeySet()).add(edge);
+            return;
+        }
+        final boolean compact = ((TinkerGraph) vertex.graph()).compactAdjacency;
+        if (null == vertex.outEdges) vertex.outEdges = compact ? new HashMap<>(2) : new HashMap<>();
         Set<Edge> edges = vertex.outEdges.get(label);
         if (null == edges) {
-            edges = new HashSet<>();
+            edges = compact ? new TinkerEdgeArraySet() : new HashSet<>();
             vertex.outEdges.put(label, edges);
         }
         edges.add(edge);
+        addVertexCentricIndex(vertex, Direction.OUT, label, (TinkerEdge) edge);
     }
 
     protected static void addInEdge(final TinkerVertex vertex, final String label, final Edge edge) {
-        if (null == vertex.inEdges) vertex.inEdges = new HashMap<>();
+        if (null != ((TinkerGraph) vertex.graph()).transaction) {
+            vertex.inEdges.computeIfAbsent(label, l -> ConcurrentHashMap.newKeySet()).add(edge);
+            return;
+        }
+        final boolean compact = ((TinkerGraph) vertex.graph()).compactAdjacency;
+        if (null == vertex.inEdges) vertex.inEdges = compact ? new HashMap<>(2) : new HashMap<>();
         Set<Edge> edges = vertex.inEdges.get(label);
         if (null == edges) {
-            edges = new HashSet<>();
+            edges = compact ? new TinkerEdgeArraySet() : new HashSet<>();
             vertex.inEdges.put(label, edges);
         }
         edges.add(edge);
+        addVertexCentricIndex(vertex, Direction.IN, label, (TinkerEdge) edge);
+    }
+
+    /**
+     * Creates the map that holds the properties of an element, which packs them into arrays when
+     * {@link TinkerGraph#GREMLIN_TINKERGRAPH_COMPACT_PROPERTIES} is enabled.
+     */
+    static <V> Map<String, V> createPropertyMap(final TinkerGraph graph) {
+        return graph.compactProperties ? new TinkerPropertyArrayMap<>() : new HashMap<>();
+    }
+
+    private static void addVertexCentricIndex(final TinkerVertex vertex, final Direction direction, final String label, final TinkerEdge edge) {
+        final Set<String> keys = ((TinkerGraph) vertex.graph()).vertexCentricIndexKeys.get(label);
+        if (null == keys || null == edge.properties)
+            return;
+        for (final String key : keys) {
+            final Property<?> property = edge.properties.get(key);
+            if (null != property)
+                getVertexCentricIndex(vertex, direction, label, key).add(property.value(), edge);
+        }
     }
 
-    public static List<TinkerVertex> queryVertexIndex(final TinkerGraph graph, final String key, final Object value) {
+    private static TinkerVertexCentricIndex getVertexCentricIndex(final TinkerVertex vertex, final Direction direction, final String label, final String key) {
+        Map<String, Map<String, TinkerVertexCentricIndex>> indices = Direction.OUT == direction ? vertex.outEdgeIndices : vertex.inEdgeIndices;
+        if (null == indices) {
+            indices = new HashMap<>();
+            if (Direction.OUT == direction)
+                vertex.outEdgeIndices = indices;
+            else
+                vertex.inEdgeIndices = indices;
+        }
+        return indices.computeIfAbsent(label, l -> new HashMap<>()).computeIfAbsent(key, k -> new TinkerVertexCentricIndex());
+    }
+
+    /**
+     * Moves the edge from the old value to the new value in the vertex-centric indices of both of its vertices if the
+     * key is indexed for the label of the edge. A {@code null} value stands for the absence of the key.
+     */
+    static void updateVertexCentricIndex(final TinkerEdge edge, final String key, final Object newValue, final Object oldValue) {
+        final Set<String> keys = ((TinkerGraph) edge.graph()).vertexCentricIndexKeys.get(edge.label());
+        if (null == keys || !keys.contains(key))
+            return;
+        for (final Direction direction : Direction.proper) {
+            final TinkerVertexCentricIndex index = getVertexCentricIndex((TinkerVertex) (Direction.OUT == direction ? edge.outVertex : edge.inVertex), direction, edge.label(), key);
+            if (null != oldValue) index.remove(oldValue, edge);
+            if (null != newValue) index.add(newValue, edge);
+        }
+    }
+
+    static void dropVertexCentricIndex(final TinkerVertex vertex, final Direction direction, final String label, final String key) {
+        final Map<String, Map<String, TinkerVertexCentricIndex>> indices = Direction.OUT == direction ? vertex.outEdgeIndices : vertex.inEdgeIndices;
+        final Map<String, TinkerVertexCentricIndex> labelIndices = null == indices ? null : indices.get(label);
+        if (null != labelIndices && null != labelIndices.remove(key) && labelIndices.isEmpty())
+            indices.remove(label);
+    }
+
+    /**
+     * Gets the edges of the label incident to the vertex in the direction whose value for the key passes the
+     * predicates, in the order of their values, or {@code null} if there is no vertex-centric index for the label and
+     * key. The predicates must be {@link #isVertexCentricIndexable(P) indexable}.
+     */
+    public static Iterator<Edge> queryVertexCentricIndex(final TinkerVertex vertex, final Direction direction, final String label,
+                                                         final String key, final List<P<?>> predicates, final boolean descending) {
+        final Set<String> keys = ((TinkerGraph) vertex.graph()).vertexCentricIndexKeys.get(label);
+        if (null == keys || !keys.contains(key))
+            return null;
+        final Map<String, Map<String, TinkerVertexCentricIndex>> indices = Direction.OUT == direction ? vertex.outEdgeIndices : vertex.inEdgeIndices;
+        final TinkerVertexCentricIndex index = null == indices ? null : indices.getOrDefault(label, Collections.emptyMap()).get(key);
+        return null == index ? Collections.emptyIterator() : index.get(predicates, descending);
+    }
+
+    /**
+     * Determines if the vertex-centric index for the label and key yields every edge of the label incident to the
+     * vertex in the direction in the order that {@link org.apache.tinkerpop.gremlin.process.traversal.Order} would
+     * sort them by the key, which is not the case if some of the edges lack the key or their values can not be
+     * compared to one another.
+     */
+    public static boolean isVertexCentricIndexSorted(final TinkerVertex vertex, final Direction direction, final String label, final String key) {
+        final Set<String> keys = ((TinkerGraph) vertex.graph()).vertexCentricIndexKeys.get(label);
+        if (null == keys || !keys.contains(key))
+            return false;
+        final Map<String, Set<Edge>> adjacency = Direction.OUT == direction ? vertex.outEdges : vertex.inEdges;
+        final int degree = null == adjacency ? 0 : adjacency.getOrDefault(label, Collections.emptySet()).size();
+        if (0 == degree)
+            return true;
+        final Map<String, Map<String, TinkerVertexCentricIndex>> indices = Direction.OUT == direction ? vertex.outEdgeIndices : vertex.inEdgeIndices;
+        final TinkerVertexCentricIndex index = null == indices ? null : indices.getOrDefault(label, Collections.emptyMap()).get(key);
+        return null != index && index.size() == degree && index.isComparable();
+    }
+
+    public static boolean isVertexCentricIndexable(final P<?> predicate) {
+        return TinkerVertexCentricIndex.isIndexable(predicate);
+    }
+
+    public static Collection<TinkerVertex> queryVertexIndex(final TinkerGraph graph, final String key, final Object value) {
         return null == graph.vertexIndex ? Collections.emptyList() : graph.vertexIndex.get(key, value);
     }
 
-    public static List<TinkerEdge> queryEdgeIndex(final TinkerGraph graph, final String key, final Object value) {
+    public static Collection<TinkerEdge> queryEdgeIndex(final TinkerGraph graph, final String key, final Object value) {
         return null == graph.edgeIndex ? Collections.emptyList() : graph.edgeIndex.get(key, value);
     }
 
+    public static Collection<TinkerVertex> queryVertexIndex(final TinkerGraph graph, final String key, final List<P<?>> predicates) {
+        return null == graph.vertexIndex ? Collections.emptyList() : graph.vertexIndex.get(key, predicates);
+    }
+
+    public static Collection<TinkerEdge> queryEdgeIndex(final TinkerGraph graph, final String key, final List<P<?>> predicates) {
+        return null == graph.edgeIndex ? Collections.emptyList() : graph.edgeIndex.get(key, predicates);
+    }
+
+    /**
+     * Determines if the index on the key for the element class can answer the predicate.
+     */
+    public static boolean isIndexable(final TinkerGraph graph, final Class<? extends Element> elementClass, final String key, final P<?> predicate) {
+        final TinkerIndex<?> index = getIndex(graph, elementClass);
+        return null != index && index.isIndexable(key, predicate);
+    }
+
+    /**
+     * Estimates the number of elements the index on the key for the element class would return for the predicates,
+     * counting no further than the limit.
+     */
+    public static long countIndex(final TinkerGraph graph, final Class<? extends Element> elementClass, final String key,
+                                  final List<P<?>> predicates, final long limit) {
+        final TinkerIndex<?> index = getIndex(graph, elementClass);
+        return null == index ? 0 : index.count(key, predicates, limit);
+    }
+
+    static <E extends Element> void addLabelIndex(final Map<String, Set<E>> labels, final E element) {
+        labels.computeIfAbsent(element.label(), label -> ConcurrentHashMap.newKeySet()).add(element);
+    }
+
+    static <E extends Element> void removeLabelIndex(final Map<String, Set<E>> labels, final E element) {
+        final Set<E> elements = labels.get(element.label());
+        if (null != elements)
+            elements.remove(element);
+    }
+
+    /**
+     * Gets a live, read-only view of the elements of the element class that have any of the given labels.
+     */
+    public static Collection<? extends Element> queryLabelIndex(final TinkerGraph graph, final Class<? extends Element> elementClass,
+                                                                final Set<String> labels) {
+        final Map<String, ? extends Set<? extends Element>> labelIndex = getLabelIndex(graph, elementClass);
+        // an element has a single label so the sets of the labels never overlap
+        final List<Set<? extends Element>> labelElements = new ArrayList<>(labels.size());
+        for (final String label : labels) {
+            final Set<? extends Element> elements = labelIndex.get(label);
+            if (null != elements)
+                labelElements.add(elements);
+        }
+        return new TinkerIndex.BucketUnion<>(labelElements);
+    }
+
+    /**
+     * Counts the elements of the element class that have any of the given labels.
+     */
+    public static long countLabelIndex(final TinkerGraph graph, final Class<? extends Element> elementClass,
+                                       final Set<String> labels) {
+        final Map<String, ? extends Set<? extends Element>> labelIndex = getLabelIndex(graph, elementClass);
+        long count = 0;
+        for (final String label : labels) {
+            final Set<? extends Element> labelElements = labelIndex.get(label);
+            if (null != labelElements)
+                count = count + labelElements.size();
+        }
+        return count;
+    }
+
+    private static Map<String, ? extends Set<? extends Element>> getLabelIndex(final TinkerGraph graph, final Class<? extends Element> elementClass) {
+        return Vertex.class.isAssignableFrom(elementClass) ? graph.vertexLabels : graph.edgeLabels;
+    }
+
+    /**
+     * Gets the elements of the label that have any of the given values for each key, using the composite index that
+     * covers the longest prefix of its keys with the given keys. Keys beyond that prefix are not applied. Returns
+     * {@code null} if there is no composite index on the label whose first key is given.
+     */
+    public static Collection<? extends Element> queryCompositeIndex(final TinkerGraph graph, final Class<? extends Element> elementClass,
+                                                                    final String label, final Map<String, ? extends Collection<?>> values) {
+        final TinkerCompositeIndex<?> compositeIndex = getCompositeIndex(graph, elementClass, label, values.keySet());
+        return null == compositeIndex ? null : compositeIndex.get(getPrefixValues(compositeIndex, values));
+    }
+
+    /**
+     * Counts the elements {@link #queryCompositeIndex} would return, or returns {@code -1} if there is no composite
+     * index to answer it.
+     */
+    public static long countCompositeIndex(final TinkerGraph graph, final Class<? extends Element> elementClass,
+                                           final String label, final Map<String, ? extends Collection<?>> values) {
+        final TinkerCompositeIndex<?> compositeIndex = getCompositeIndex(graph, elementClass, label, values.keySet());
+        return null == compositeIndex ? -1 : compositeIndex.count(getPrefixValues(compositeIndex, values));
+    }
+
+    /**
+     * Determines the number of the given keys that {@link #queryCompositeIndex} would apply.
+     */
+    public static int getCompositeIndexCoverage(final TinkerGraph graph, final Class<? extends Element> elementClass,
+                                                final String label, final Set<String> keys) {
+        final TinkerCompositeIndex<?> compositeIndex = getCompositeIndex(graph, elementClass, label, keys);
+        return null == compositeIndex ? 0 : compositeIndex.getPrefixLength(keys);
+    }
+
+    private static TinkerCompositeIndex<?> getCompositeIndex(final TinkerGraph graph, final Class<? extends Element> elementClass,
+                                                             final String label, final Set<String> keys) {
+        final TinkerIndex<?> index = getIndex(graph, elementClass);
+        return null == index || null == label ? null : index.getCompositeIndex(label, keys);
+    }
+
+    private static List<Collection<?>> getPrefixValues(final TinkerCompositeIndex<?> compositeIndex,
+                                                       final Map<String, ? extends Collection<?>> values) {
+        final List<Collection<?>> prefixValues = new ArrayList<>();
+        for (final String key : compositeIndex.getKeys().subList(0, compositeIndex.getPrefixLength(values.keySet()))) {
+            prefixValues.add(values.get(key));
+        }
+        return prefixValues;
+    }
+
+    private static TinkerIndex<?> getIndex(final TinkerGraph graph, final Class<? extends Element> elementClass) {
+        return Vertex.class.isAssignableFrom(elementClass) ? graph.vertexIndex : graph.edgeIndex;
+    }
+
+    /**
+     * Determines if the graph holds expired elements that are yet to be removed and must be left out of what is read
+     * from it, collecting a batch of them first if an expiry is due.
+     */
+    public static boolean hasExpired(final TinkerGraph graph) {
+        return null != graph.expiry && !inComputerMode(graph) && graph.expiry.hasExpired();
+    }
+
+    public static boolean isExpired(final Element element) {
+        final TinkerGraph graph = (TinkerGraph) element.graph();
+        return hasExpired(graph) && graph.expiry.isExpired((TinkerElement) element);
+    }
+
+    /**
+     * Removes the expired elements from the graph, which is only safe to call from the writer of the graph when it
+     * holds no iterators over the graph, as is the case when a root traversal that mutates the graph is started.
+     */
+    public static void removeExpired(final TinkerGraph graph) {
+        if (null != graph.expiry && !inComputerMode(graph))
+            graph.expiry.removeExpired();
+    }
+
     public static boolean inComputerMode(final TinkerGraph graph) {
         return null != graph.graphComputerView;
     }
@@ -115,11 +386,28 @@ public final class TinkerHelper {
     }
 
     public static Map<String, List<VertexProperty>> getProperties(final TinkerVertex vertex) {
-        return null == vertex.properties ? Collections.emptyMap() : vertex.properties;
+        if (null == vertex.properties) return Collections.emptyMap();
+        if (null == ((TinkerGraph) vertex.graph()).transaction) return vertex.properties;
+        final Map<String, List<VertexProperty>> properties = new HashMap<>();
+        for (final String key : vertex.properties.keySet()) {
+            final List<VertexProperty> visible = vertex.getVisibleProperties(key);
+            if (!visible.isEmpty())
+                properties.put(key, visible);
+        }
+        return properties;
+    }
+
+    /**
+     * Determines if the element exists for the current thread, which can only differ from what the graph
+     * structures hold when the graph is transactional.
+     */
+    public static boolean isVisible(final Element element) {
+        return !((TinkerElement) element).isRemoved();
     }
 
     public static void autoUpdateIndex(final TinkerEdge edge, final String key, final Object newValue, final Object oldValue) {
         final TinkerGraph graph = (TinkerGraph) edge.graph();
+        updateVertexCentricIndex(edge, key, newValue, oldValue);
         if (graph.edgeIndex != null)
             graph.edgeIndex.autoUpdate(key, newValue, oldValue, edge);
     }
@@ -138,6 +426,14 @@ public final class TinkerHelper {
 
     public static void removeElementIndex(final TinkerEdge edge) {
         final TinkerGraph graph = (TinkerGraph) edge.graph();
+        final Set<String> keys = graph.vertexCentricIndexKeys.get(edge.label());
+        if (null != keys && null != edge.properties) {
+            for (final String key : keys) {
+                final Property<?> property = edge.properties.get(key);
+                if (null != property)
+                    updateVertexCentricIndex(edge, key, null, property.value());
+            }
+        }
         if (graph.edgeIndex != null)
             graph.edgeIndex.removeElement(edge);
     }
@@ -145,13 +441,14 @@ public final class TinkerHelper {
     public static void removeIndex(final TinkerVertex vertex, final String key, final Object value) {
         final TinkerGraph graph = (TinkerGraph) vertex.graph();
         if (graph.vertexIndex != null)
-            graph.vertexIndex.remove(key, value, vertex);
+            graph.vertexIndex.autoRemove(key, value, vertex);
     }
 
     public static void removeIndex(final TinkerEdge edge, final String key, final Object value) {
         final TinkerGraph graph = (TinkerGraph) edge.graph();
+        updateVertexCentricIndex(edge, key, null, value);
         if (graph.edgeIndex != null)
-            graph.edgeIndex.remove(key, value, edge);
+            graph.edgeIndex.autoRemove(key, value, edge);
     }
 
     public static Iterator<TinkerEdge> getEdges(final TinkerVertex vertex, final Direction direction, final String... edgeLabels) {
@@ -176,10 +473,22 @@ public final class TinkerHelper {
                     Stream.of(edgeLabels).map(vertex.inEdges::get).filter(Objects::nonNull).forEach(edges::addAll);
             }
         }
+        if (null != ((TinkerGraph) vertex.graph()).transaction)
+            edges.removeIf(edge -> ((TinkerEdge) edge).isRemoved());
+        else if (hasExpired((TinkerGraph) vertex.graph()))
+            edges.removeIf(TinkerHelper::isExpired);
         return (Iterator) edges.iterator();
     }
 
     public static Iterator<TinkerVertex> getVertices(final TinkerVertex vertex, final Direction direction, final String... edgeLabels) {
+        if (null != ((TinkerGraph) vertex.graph()).transaction || hasExpired((TinkerGraph) vertex.graph())) {
+            final List<Vertex> vertices = new ArrayList<>();
+            if (direction.equals(Direction.OUT) || direction.equals(Direction.BOTH))
+                getEdges(vertex, Direction.OUT, edgeLabels).forEachRemaining(edge -> vertices.add(edge.inVertex));
+            if (direction.equals(Direction.IN) || direction.equals(Direction.BOTH))
+                getEdges(vertex, Direction.IN, edgeLabels).forEachRemaining(edge -> vertices.add(edge.outVertex));
+            return (Iterator) vertices.iterator();
+        }
         final List<Vertex> vertices = new ArrayList<>();
         if (direction.equals(Direction.OUT) || direction.equals(Direction.BOTH)) {
             if (vertex.outEdges != null) {
@@ -204,6 +513,91 @@ public final class TinkerHelper {
         return (Iterator) vertices.iterator();
     }
 
+    /**
+     * The number of edges incident to the vertex, which is only approximate on a transactional graph as it counts
+     * edges that are not visible to the current thread.
+     */
+    public static long getDegree(final TinkerVertex vertex) {
+        return getDegree(vertex, Direction.BOTH);
+    }
+
+    /**
+     * The number of edges with any of the labels, or with any label if none are given, incident to the vertex in the
+     * direction, which is the number of edges or vertices that {@link Vertex#edges(Direction, String...)} and
+     * {@link Vertex#vertices(Direction, String...)} return. It is read from the sizes of the adjacency sets without
+     * visiting any edges and is only approximate on a transactional graph.
+     */
+    public static long getDegree(final TinkerVertex vertex, final Direction direction, final String... edgeLabels) {
+        long degree = 0;
+        if (direction.equals(Direction.OUT) || direction.equals(Direction.BOTH))
+            degree = degree + getDegree(vertex.outEdges, edgeLabels);
+        if (direction.equals(Direction.IN) || direction.equals(Direction.BOTH))
+            degree = degree + getDegree(vertex.inEdges, edgeLabels);
+        return degree;
+    }
+
+    private static long getDegree(final Map<String, Set<Edge>> adjacency, final String... edgeLabels) {
+        if (null == adjacency)
+            return 0;
+        long degree = 0;
+        if (edgeLabels.length == 0) {
+            for (final Set<Edge> edges : adjacency.values()) {
+                degree = degree + edges.size();
+            }
+        } else {
+            for (final String edgeLabel : edgeLabels) {
+                final Set<Edge> edges = adjacency.get(edgeLabel);
+                if (null != edges)
+                    degree = degree + edges.size();
+            }
+        }
+        return degree;
+    }
+
+    /**
+     * Gets the vertices of a {@link TinkerGraph#freeze() frozen} graph in the order of its layout, or {@code null}
+     * if the graph is not frozen.
+     */
+    public static List<Vertex> getFrozenVertices(final TinkerGraph graph) {
+        return null == graph.csr ? null : graph.csr.getVertices();
+    }
+
+    /**
+     * Splits the vertices or edges of the graph into at most {@link TinkerGraph#GREMLIN_TINKERGRAPH_SHARDS} disjoint
+     * shards that together hold all of them. The shards are ranges of the hash table that holds the elements, which
+     * partitions them by the hash of their ids, or ranges of the arrays of a {@link TinkerGraph#freeze() frozen}
+     * graph, so nothing is copied.
+     */
+    public static List<Spliterator<? extends Element>> getShards(final TinkerGraph graph, final Class<? extends Element> elementClass) {
+        final boolean vertices = Vertex.class.isAssignableFrom(elementClass);
+        final List<Spliterator<? extends Element>> shards = new ArrayList<>(graph.shards);
+        if (null != graph.csr)
+            shards.add(vertices ? Arrays.spliterator(graph.csr.vertices) : Arrays.spliterator(graph.csr.outEdges));
+        else
+            shards.add(vertices ? graph.vertices.values().spliterator() : graph.edges.values().spliterator());
+        while (shards.size() < graph.shards) {
+            // splitting the largest shard keeps the shards close in size
+            int largest = 0;
+            for (int i = 1; i < shards.size(); i++) {
+                if (shards.get(i).estimateSize() > shards.get(largest).estimateSize())
+                    largest = i;
+            }
+            final Spliterator<? extends Element> prefix = shards.get(largest).trySplit();
+            if (null == prefix)
+                break;
+            shards.add(largest, prefix);
+        }
+        return shards;
+    }
+
+    public static int getShardCount(final TinkerGraph graph) {
+        return graph.shards;
+    }
+
+    public static ExecutorService getShardExecutor(final TinkerGraph graph) {
+        return graph.getShardExecutor();
+    }
+
     public static Map<Object, Vertex> getVertices(final TinkerGraph graph) {
         return graph.vertices;
     }
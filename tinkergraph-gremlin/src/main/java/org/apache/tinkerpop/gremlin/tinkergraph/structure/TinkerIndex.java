@@ -18,27 +18,48 @@
  */
 package org.apache.tinkerpop.gremlin.tinkergraph.structure;
 
+import org.apache.tinkerpop.gremlin.process.traversal.Compare;
+import org.apache.tinkerpop.gremlin.process.traversal.Contains;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.util.OrP;
 import org.apache.tinkerpop.gremlin.structure.Element;
 import org.apache.tinkerpop.gremlin.structure.Graph;
 import org.apache.tinkerpop.gremlin.structure.Property;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
 
+import java.math.BigDecimal;
+import java.util.AbstractCollection;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
 
 /**
+ * The property indices of the vertices or the edges of a {@link TinkerGraph}. The buckets of elements for each value
+ * are concurrent sets, so lookups never block and return live views of the buckets rather than copies, which reflect
+ * concurrent changes in the weakly consistent fashion of {@link ConcurrentHashMap}. Writes to the buckets of a key
+ * are serialized on the map of that key so that an emptied bucket is never removed while another writer adds to it.
+ *
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
 final class TinkerIndex<T extends Element> {
 
     protected Map<String, Map<Object, Set<T>>> index = new ConcurrentHashMap<>();
     protected final Class<T> indexClass;
-    private final Set<String> indexedKeys = new HashSet<>();
+    private final Map<String, TinkerGraph.IndexType> indexedKeys = new ConcurrentHashMap<>();
+    private final Map<String, KeyStatistics> statistics = new ConcurrentHashMap<>();
+    private final List<TinkerCompositeIndex<T>> compositeIndices = new CopyOnWriteArrayList<>();
     private final TinkerGraph graph;
 
     public TinkerIndex(final TinkerGraph graph, final Class<T> indexClass) {
@@ -47,30 +68,48 @@ final class TinkerIndex<T extends Element> {
     }
 
     protected void put(final String key, final Object value, final T element) {
-        Map<Object, Set<T>> keyMap = this.index.get(key);
-        if (keyMap == null) {
-            keyMap = new ConcurrentHashMap<>();
-            this.index.put(key, keyMap);
-        }
-        Set<T> objects = keyMap.get(value);
-        if (null == objects) {
-            objects = new HashSet<>();
-            keyMap.put(value, objects);
+        final Map<Object, Set<T>> keyMap = this.index.computeIfAbsent(key, this::createKeyMap);
+        synchronized (keyMap) {
+            Set<T> objects = keyMap.get(value);
+            if (null == objects) {
+                objects = ConcurrentHashMap.newKeySet();
+                keyMap.put(value, objects);
+            }
+            if (objects.add(element))
+                this.getStatistics(key).elements.increment();
         }
-        objects.add(element);
-
     }
 
-    public List<T> get(final String key, final Object value) {
+    /**
+     * Gets a live, read-only view of the elements with the value for the key.
+     */
+    public Collection<T> get(final String key, final Object value) {
         final Map<Object, Set<T>> keyMap = this.index.get(key);
-        if (null == keyMap) {
+        final Set<T> set = null == keyMap ? null : keyMap.get(value);
+        this.recordLookup(key, null != set && !set.isEmpty());
+        return null == set ? Collections.emptySet() : Collections.unmodifiableSet(set);
+    }
+
+    /**
+     * Get the elements that may satisfy all of the predicates on the key. The predicates must each be
+     * {@link #isIndexable(String, P)} and the result is a superset of the matching elements that still requires
+     * filtering by the caller.
+     */
+    public Collection<T> get(final String key, final List<P<?>> predicates) {
+        final List<Set<T>> buckets = new ArrayList<>(this.getBuckets(key, predicates));
+        this.recordLookup(key, buckets.stream().anyMatch(bucket -> !bucket.isEmpty()));
+        if (buckets.isEmpty())
             return Collections.emptyList();
-        } else {
-            Set<T> set = keyMap.get(value);
-            if (null == set)
-                return Collections.emptyList();
-            else
-                return new ArrayList<>(set);
+        else if (buckets.size() == 1)
+            return Collections.unmodifiableSet(buckets.get(0));
+        else if (!Vertex.class.isAssignableFrom(this.indexClass))
+            // an edge has a single value per key so it is in only one bucket
+            return new BucketUnion<>(buckets);
+        else {
+            // a multi-property vertex can be in more than one bucket
+            final Set<T> elements = new LinkedHashSet<>();
+            buckets.forEach(elements::addAll);
+            return elements;
         }
     }
 
@@ -87,58 +126,243 @@ final class TinkerIndex<T extends Element> {
         }
     }
 
+    /**
+     * Estimate the number of elements that {@link #get(String, List)} would return for the predicates, which is
+     * exact unless multi-properties place an element in more than one bucket. The buckets are only counted until the
+     * count reaches the limit, so a count that is not below the limit only tells that there are at least as many
+     * elements, which spares walking every bucket of a wide range when a cheaper index has already been found.
+     */
+    public long count(final String key, final List<P<?>> predicates, final long limit) {
+        long count = 0;
+        for (final Set<T> bucket : this.getBuckets(key, predicates)) {
+            if (count >= limit)
+                break;
+            count = count + bucket.size();
+        }
+        return count;
+    }
+
+    /**
+     * Determines if the predicate can be answered by the index of the key. Equality and {@code within()} can be
+     * answered by any index, while range comparisons like {@code gt()}, {@code between()} or {@code outside()}
+     * require an {@link TinkerGraph.IndexType#ORDERED} index.
+     */
+    public boolean isIndexable(final String key, final P<?> predicate) {
+        final TinkerGraph.IndexType indexType = this.indexedKeys.get(key);
+        if (null == indexType)
+            return false;
+        else if (predicate instanceof OrP) {
+            if (indexType != TinkerGraph.IndexType.ORDERED)
+                return false;
+            for (final P<?> p : ((OrP<?>) predicate).getPredicates()) {
+                if (!isRange(p))
+                    return false;
+            }
+            return true;
+        } else if (null == predicate.getValue())
+            return false;
+        else if (predicate.getBiPredicate() == Compare.eq ||
+                (predicate.getBiPredicate() == Contains.within && predicate.getValue() instanceof Collection))
+            return true;
+        else
+            return indexType == TinkerGraph.IndexType.ORDERED && isRange(predicate);
+    }
+
     public void remove(final String key, final Object value, final T element) {
         final Map<Object, Set<T>> keyMap = this.index.get(key);
         if (null != keyMap) {
-            Set<T> objects = keyMap.get(value);
-            if (null != objects) {
-                objects.remove(element);
-                if (objects.size() == 0) {
-                    keyMap.remove(value);
+            synchronized (keyMap) {
+                final Set<T> objects = keyMap.get(value);
+                if (null != objects) {
+                    if (objects.remove(element))
+                        this.getStatistics(key).elements.decrement();
+                    if (objects.isEmpty()) {
+                        keyMap.remove(value);
+                    }
                 }
             }
         }
     }
 
+    /**
+     * Removes the element from the buckets of its current property values, so it must be called before the
+     * properties of the element are discarded.
+     */
     public void removeElement(final T element) {
         if (this.indexClass.isAssignableFrom(element.getClass())) {
-            for (Map<Object, Set<T>> map : index.values()) {
-                for (Set<T> set : map.values()) {
-                    set.remove(element);
-                }
+            for (final String key : this.indexedKeys.keySet()) {
+                element.properties(key).forEachRemaining(property -> this.remove(key, ((Property) property).value(), element));
+            }
+            for (final TinkerCompositeIndex<T> compositeIndex : this.compositeIndices) {
+                compositeIndex.remove(element);
             }
         }
     }
 
     public void autoUpdate(final String key, final Object newValue, final Object oldValue, final T element) {
-        if (this.indexedKeys.contains(key)) {
+        if (this.indexedKeys.containsKey(key)) {
             if (oldValue != null)
                 this.remove(key, oldValue, element);
             this.put(key, newValue, element);
         }
+        this.updateCompositeIndices(key, element);
     }
 
     public void autoRemove(final String key, final Object oldValue, final T element) {
-        if (this.indexedKeys.contains(key))
+        if (this.indexedKeys.containsKey(key))
             this.remove(key, oldValue, element);
+        this.updateCompositeIndices(key, element);
+    }
+
+    private void updateCompositeIndices(final String key, final T element) {
+        for (final TinkerCompositeIndex<T> compositeIndex : this.compositeIndices) {
+            if (compositeIndex.isIndexed(element.label(), key))
+                compositeIndex.update(element);
+        }
     }
 
-    public void createKeyIndex(final String key) {
+    public void createKeyIndex(final String key, final TinkerGraph.IndexType indexType) {
         if (null == key)
             throw Graph.Exceptions.argumentCanNotBeNull("key");
         if (key.isEmpty())
             throw new IllegalArgumentException("The key for the index cannot be an empty string");
+        if (null == indexType)
+            throw Graph.Exceptions.argumentCanNotBeNull("indexType");
 
-        if (this.indexedKeys.contains(key))
+        if (indexType == this.indexedKeys.get(key))
             return;
-        this.indexedKeys.add(key);
+        this.dropKeyIndex(key);
+        this.indexedKeys.put(key, indexType);
+        this.index.put(key, this.buildKeyMap(key));
+    }
+
+    /**
+     * Gets the statistics of the index on the key or {@code null} if the key is not indexed.
+     */
+    public TinkerGraph.IndexStatistics getStatistics(final String key, final Class<? extends Element> elementClass) {
+        final TinkerGraph.IndexType indexType = this.indexedKeys.get(key);
+        if (null == indexType)
+            return null;
+        final Map<Object, Set<T>> keyMap = this.index.get(key);
+        final KeyStatistics keyStatistics = this.getStatistics(key);
+        return new TinkerGraph.IndexStatistics(key, elementClass, indexType, null == keyMap ? 0 : keyMap.size(),
+                keyStatistics.elements.sum(), keyStatistics.hits.sum(), keyStatistics.misses.sum());
+    }
 
-        (Vertex.class.isAssignableFrom(this.indexClass) ?
-                this.graph.vertices.values().<T>parallelStream() :
-                this.graph.edges.values().<T>parallelStream())
-                .map(e -> new Object[]{((T) e).property(key), e})
-                .filter(a -> ((Property) a[0]).isPresent())
-                .forEach(a -> this.put(key, ((Property) a[0]).value(), (T) a[1]));
+    private KeyStatistics getStatistics(final String key) {
+        return this.statistics.computeIfAbsent(key, k -> new KeyStatistics());
+    }
+
+    private void recordLookup(final String key, final boolean hit) {
+        if (this.indexedKeys.containsKey(key)) {
+            if (hit)
+                this.getStatistics(key).hits.increment();
+            else
+                this.getStatistics(key).misses.increment();
+        }
+    }
+
+    /**
+     * Rebuilds every indexed key from the elements of the graph, as is needed after elements are added without
+     * updating the index.
+     */
+    public void rebuild() {
+        for (final String key : this.indexedKeys.keySet()) {
+            this.index.put(key, this.buildKeyMap(key));
+        }
+        for (final TinkerCompositeIndex<T> compositeIndex : this.compositeIndices) {
+            compositeIndex.rebuild(this.elements());
+        }
+    }
+
+    public void createCompositeIndex(final String label, final List<String> keys) {
+        if (null == label)
+            throw Graph.Exceptions.argumentCanNotBeNull("label");
+        if (keys.isEmpty())
+            throw new IllegalArgumentException("A composite index requires at least one key");
+        if (keys.stream().anyMatch(key -> null == key || key.isEmpty()))
+            throw new IllegalArgumentException("The keys for the index cannot be null or empty strings");
+
+        if (null != this.getCompositeIndex(label, keys))
+            return;
+        final TinkerCompositeIndex<T> compositeIndex = new TinkerCompositeIndex<>(label, keys);
+        compositeIndex.rebuild(this.elements());
+        this.compositeIndices.add(compositeIndex);
+    }
+
+    public void dropCompositeIndex(final String label, final List<String> keys) {
+        this.compositeIndices.removeIf(compositeIndex -> compositeIndex.getLabel().equals(label) && compositeIndex.getKeys().equals(keys));
+    }
+
+    public List<TinkerCompositeIndex<T>> getCompositeIndices() {
+        return Collections.unmodifiableList(this.compositeIndices);
+    }
+
+    private TinkerCompositeIndex<T> getCompositeIndex(final String label, final List<String> keys) {
+        for (final TinkerCompositeIndex<T> compositeIndex : this.compositeIndices) {
+            if (compositeIndex.getLabel().equals(label) && compositeIndex.getKeys().equals(keys))
+                return compositeIndex;
+        }
+        return null;
+    }
+
+    /**
+     * Gets the composite index on the label that covers the longest prefix of its keys with the given keys.
+     */
+    public TinkerCompositeIndex<T> getCompositeIndex(final String label, final Set<String> keys) {
+        TinkerCompositeIndex<T> best = null;
+        int bestLength = 0;
+        for (final TinkerCompositeIndex<T> compositeIndex : this.compositeIndices) {
+            if (!compositeIndex.getLabel().equals(label))
+                continue;
+            final int length = compositeIndex.getPrefixLength(keys);
+            if (length > bestLength) {
+                best = compositeIndex;
+                bestLength = length;
+            }
+        }
+        return best;
+    }
+
+    private Stream<T> elements() {
+        return Vertex.class.isAssignableFrom(this.indexClass) ?
+                this.graph.vertices.values().<T>parallelStream().map(e -> (T) e) :
+                this.graph.edges.values().<T>parallelStream().map(e -> (T) e);
+    }
+
+    /**
+     * Gets the values of the key on the element. On a transactional graph these are the values of every version of
+     * the property that the graph still holds, so that each open transaction can find what it sees.
+     */
+    private Stream<Object> values(final T element, final String key) {
+        if (null == this.graph.transaction)
+            return IteratorUtils.stream(element.properties(key)).map(Property::value);
+        if (element instanceof TinkerVertex) {
+            return ((TinkerVertex) element).properties.getOrDefault(key, Collections.emptyList()).stream().map(Property::value);
+        } else {
+            final List<Object> values = new ArrayList<>();
+            for (TinkerProperty<?> p = (TinkerProperty<?>) ((TinkerEdge) element).properties.get(key); null != p; p = p.previous) {
+                values.add(p.value);
+            }
+            return values.stream();
+        }
+    }
+
+    private Map<Object, Set<T>> buildKeyMap(final String key) {
+        final Map<Object, Set<T>> keyMap = this.createKeyMap(key);
+        final KeyStatistics keyStatistics = new KeyStatistics();
+        this.elements().forEach(e -> this.values(e, key).forEach(value -> {
+            if (keyMap.computeIfAbsent(value, v -> ConcurrentHashMap.newKeySet()).add(e))
+                keyStatistics.elements.increment();
+        }));
+        // lookups made before a rebuild still count toward the statistics of the key
+        final KeyStatistics previous = this.statistics.get(key);
+        if (null != previous) {
+            keyStatistics.hits.add(previous.hits.sum());
+            keyStatistics.misses.add(previous.misses.sum());
+        }
+        this.statistics.put(key, keyStatistics);
+        return keyMap;
     }
 
     public void dropKeyIndex(final String key) {
@@ -146,9 +370,223 @@ final class TinkerIndex<T extends Element> {
             this.index.remove(key).clear();
 
         this.indexedKeys.remove(key);
+        this.statistics.remove(key);
     }
 
     public Set<String> getIndexedKeys() {
-        return this.indexedKeys;
+        return this.indexedKeys.keySet();
+    }
+
+    public TinkerGraph.IndexType getIndexType(final String key) {
+        return this.indexedKeys.get(key);
+    }
+
+    private Map<Object, Set<T>> createKeyMap(final String key) {
+        return this.indexedKeys.get(key) == TinkerGraph.IndexType.ORDERED ?
+                new ConcurrentSkipListMap<>(TinkerIndex::compareValues) :
+                new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Gets the buckets of the elements that may satisfy the predicates. The buckets of a range are a live view of the
+     * index rather than a copy, so that they can be counted without walking all of them.
+     */
+    private Collection<Set<T>> getBuckets(final String key, final List<P<?>> predicates) {
+        final Map<Object, Set<T>> keyMap = this.index.get(key);
+        if (null == keyMap)
+            return Collections.emptyList();
+
+        // equality is the most selective so use it if present, then within() and then the ranges which are
+        // intersected with each other as the predicates are all and'd together
+        final List<Set<T>> buckets = new ArrayList<>();
+        P<?> within = null;
+        P<?> or = null;
+        final Range range = new Range();
+        for (final P<?> predicate : predicates) {
+            if (predicate.getBiPredicate() == Compare.eq) {
+                final Set<T> bucket = keyMap.get(predicate.getValue());
+                if (null != bucket) buckets.add(bucket);
+                return buckets;
+            } else if (predicate.getBiPredicate() == Contains.within)
+                within = predicate;
+            else if (predicate instanceof OrP)
+                or = predicate;
+            else
+                range.restrict(predicate);
+        }
+
+        if (null != within) {
+            for (final Object value : new LinkedHashSet<>((Collection<?>) within.getValue())) {
+                final Set<T> bucket = keyMap.get(value);
+                if (null != bucket && !containsBucket(buckets, bucket)) buckets.add(bucket);
+            }
+        } else if (!range.isUnbounded()) {
+            return range.subMap((NavigableMap<Object, Set<T>>) keyMap).values();
+        } else if (null != or) {
+            for (final P<?> p : ((OrP<?>) or).getPredicates()) {
+                for (final Set<T> bucket : new Range().restrict(p).subMap((NavigableMap<Object, Set<T>>) keyMap).values()) {
+                    if (!containsBucket(buckets, bucket)) buckets.add(bucket);
+                }
+            }
+        }
+        return buckets;
+    }
+
+    /**
+     * A read-only view of buckets that do not share any elements.
+     */
+    static final class BucketUnion<T> extends AbstractCollection<T> {
+        private final List<? extends Set<? extends T>> buckets;
+
+        BucketUnion(final List<? extends Set<? extends T>> buckets) {
+            this.buckets = buckets;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return this.buckets.stream().<T>flatMap(Set::stream).iterator();
+        }
+
+        @Override
+        public int size() {
+            int size = 0;
+            for (final Set<? extends T> bucket : this.buckets) {
+                size = size + bucket.size();
+            }
+            return size;
+        }
+    }
+
+    private static final class KeyStatistics {
+        private final LongAdder elements = new LongAdder();
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+    }
+
+    private static <T> boolean containsBucket(final List<Set<T>> buckets, final Set<T> bucket) {
+        for (final Set<T> b : buckets) {
+            if (b == bucket) return true;
+        }
+        return false;
+    }
+
+    static boolean isRange(final P<?> predicate) {
+        final Object biPredicate = predicate.getBiPredicate();
+        return null != predicate.getValue() &&
+                (biPredicate == Compare.eq || biPredicate == Compare.gt || biPredicate == Compare.gte ||
+                        biPredicate == Compare.lt || biPredicate == Compare.lte);
+    }
+
+    /**
+     * Values of an {@link TinkerGraph.IndexType#ORDERED} index are grouped by their family, which is the class of
+     * the value or {@link Number} for any number, so that a range never crosses into values that the
+     * {@link Compare} predicates could not evaluate against the bound. Numbers are compared in the same fashion as
+     * {@link Compare} where differing classes are compared as {@link BigDecimal}.
+     */
+    static int compareValues(final Object a, final Object b) {
+        if (a instanceof FamilyBound || b instanceof FamilyBound) {
+            final int c = familyOf(a).getName().compareTo(familyOf(b).getName());
+            if (c != 0) return c;
+            if (a instanceof FamilyBound && b instanceof FamilyBound)
+                return Boolean.compare(((FamilyBound) a).high, ((FamilyBound) b).high);
+            return a instanceof FamilyBound ? (((FamilyBound) a).high ? 1 : -1) : (((FamilyBound) b).high ? -1 : 1);
+        }
+
+        final Class<?> familyA = familyOf(a);
+        final Class<?> familyB = familyOf(b);
+        if (!familyA.equals(familyB))
+            return familyA.getName().compareTo(familyB.getName());
+        else if (a instanceof Number && !a.getClass().equals(b.getClass()))
+            return compareNumbers((Number) a, (Number) b);
+        else if (a instanceof Comparable)
+            return ((Comparable) a).compareTo(b);
+        else if (a.equals(b))
+            return 0;
+        else {
+            // not naturally ordered so just keep them apart
+            final int c = Integer.compare(a.hashCode(), b.hashCode());
+            return c != 0 ? c : Integer.compare(System.identityHashCode(a), System.identityHashCode(b));
+        }
+    }
+
+    private static int compareNumbers(final Number a, final Number b) {
+        if (isSpecial(a) || isSpecial(b))
+            return Double.compare(a.doubleValue(), b.doubleValue());
+        return new BigDecimal(a.toString()).compareTo(new BigDecimal(b.toString()));
+    }
+
+    private static boolean isSpecial(final Number n) {
+        return (n instanceof Double && (((Double) n).isNaN() || ((Double) n).isInfinite())) ||
+                (n instanceof Float && (((Float) n).isNaN() || ((Float) n).isInfinite()));
+    }
+
+    private static Class<?> familyOf(final Object value) {
+        if (value instanceof FamilyBound)
+            return ((FamilyBound) value).family;
+        return value instanceof Number ? Number.class : value.getClass();
+    }
+
+    /**
+     * A marker for the lowest or highest possible value of a family in an ordered index.
+     */
+    private static final class FamilyBound {
+        private final Class<?> family;
+        private final boolean high;
+
+        private FamilyBound(final Class<?> family, final boolean high) {
+            this.family = family;
+            this.high = high;
+        }
+    }
+
+    /**
+     * The intersection of a set of {@link Compare} predicates against a single key.
+     */
+    static final class Range {
+        private Object low = null;
+        private boolean lowInclusive = true;
+        private Object high = null;
+        private boolean highInclusive = true;
+
+        Range restrict(final P<?> predicate) {
+            final Object value = predicate.getValue();
+            final Object biPredicate = predicate.getBiPredicate();
+            if (biPredicate == Compare.gt || biPredicate == Compare.gte || biPredicate == Compare.eq)
+                this.restrictLow(value, biPredicate != Compare.gt);
+            if (biPredicate == Compare.lt || biPredicate == Compare.lte || biPredicate == Compare.eq)
+                this.restrictHigh(value, biPredicate != Compare.lt);
+            return this;
+        }
+
+        private void restrictLow(final Object value, final boolean inclusive) {
+            final int c = null == this.low ? 1 : compareValues(value, this.low);
+            if (c > 0) {
+                this.low = value;
+                this.lowInclusive = inclusive;
+            } else if (c == 0)
+                this.lowInclusive = this.lowInclusive && inclusive;
+        }
+
+        private void restrictHigh(final Object value, final boolean inclusive) {
+            final int c = null == this.high ? -1 : compareValues(value, this.high);
+            if (c < 0) {
+                this.high = value;
+                this.highInclusive = inclusive;
+            } else if (c == 0)
+                this.highInclusive = this.highInclusive && inclusive;
+        }
+
+        boolean isUnbounded() {
+            return null == this.low && null == this.high;
+        }
+
+        <V> NavigableMap<Object, V> subMap(final NavigableMap<Object, V> map) {
+            final Object from = null == this.low ? new FamilyBound(familyOf(this.high), false) : this.low;
+            final Object to = null == this.high ? new FamilyBound(familyOf(this.low), true) : this.high;
+            final int c = compareValues(from, to);
+            if (c > 0 || (c == 0 && !(this.lowInclusive && this.highInclusive)))
+                return Collections.emptyNavigableMap();
+            return map.subMap(from, this.lowInclusive, to, this.highInclusive);
+        }
     }
 }
@@ -32,10 +32,17 @@ public final class TinkerProperty<V> implements Property<V> {
     protected final Element element;
     protected final String key;
     protected V value;
+    volatile TinkerTransaction.Version version = null;
+
+    /**
+     * The property this one replaced for the same key while older transactions may still see it, when the graph
+     * is transactional.
+     */
+    volatile TinkerProperty<V> previous = null;
 
     public TinkerProperty(final Element element, final String key, final V value) {
         this.element = element;
-        this.key = key;
+        this.key = element.graph() instanceof TinkerGraph ? ((TinkerGraph) element.graph()).internKey(key) : key;
         this.value = value;
     }
 
@@ -76,11 +83,24 @@ public final class TinkerProperty<V> implements Property<V> {
 
     @Override
     public void remove() {
+        ((TinkerGraph) this.element.graph()).verifyNotFrozen();
+        final TinkerTransaction transaction = ((TinkerGraph) this.element.graph()).transaction;
+        if (null != transaction) {
+            if (transaction.isVisible(this, this.version))
+                transaction.removed(this);
+            return;
+        }
         if (this.element instanceof Edge) {
-            ((TinkerEdge) this.element).properties.remove(this.key);
-            TinkerHelper.removeIndex((TinkerEdge) this.element, this.key, this.value);
+            final TinkerEdge edge = (TinkerEdge) this.element;
+            edge.properties.remove(this.key);
+            TinkerHelper.removeIndex(edge, this.key, this.value);
+            final TinkerGraph graph = (TinkerGraph) edge.graph();
+            if (null != graph.journal) graph.journal.removeEdgeProperty(edge, this.key);
         } else {
-            ((TinkerVertexProperty) this.element).properties.remove(this.key);
+            final TinkerVertexProperty vertexProperty = (TinkerVertexProperty) this.element;
+            vertexProperty.properties.remove(this.key);
+            final TinkerGraph graph = (TinkerGraph) vertexProperty.graph();
+            if (null != graph.journal) graph.journal.removeMetaProperty(vertexProperty, this.key);
         }
     }
 }
@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * The properties of a single element keyed by property key in a pair of packed arrays. It is used in place of a
+ * {@code HashMap} when {@link TinkerGraph#GREMLIN_TINKERGRAPH_COMPACT_PROPERTIES} is enabled and costs two references
+ * per property rather than a hash entry and a table slot. Lookups are linear in the number of keys of the element,
+ * which is small for the elements this is meant for, and the keys are interned by the graph so they are usually
+ * matched by reference before falling back to {@link String#equals(Object)}.
+ * <p/>
+ * Keys and values may not be {@code null}.
+ */
+final class TinkerPropertyArrayMap<V> extends AbstractMap<String, V> {
+
+    private static final Object[] EMPTY = new Object[0];
+
+    private Object[] keys = EMPTY;
+    private Object[] values = EMPTY;
+    private int size = 0;
+    private int modCount = 0;
+
+    @Override
+    public V get(final Object key) {
+        final int index = this.indexOf(key);
+        return index < 0 ? null : (V) this.values[index];
+    }
+
+    @Override
+    public V getOrDefault(final Object key, final V defaultValue) {
+        final int index = this.indexOf(key);
+        return index < 0 ? defaultValue : (V) this.values[index];
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return this.indexOf(key) >= 0;
+    }
+
+    @Override
+    public V put(final String key, final V value) {
+        final int index = this.indexOf(key);
+        if (index >= 0) {
+            final V previous = (V) this.values[index];
+            this.values[index] = value;
+            return previous;
+        }
+        if (this.size == this.keys.length) {
+            final int capacity = this.size + (this.size >> 1) + 1;
+            this.keys = Arrays.copyOf(this.keys, capacity);
+            this.values = Arrays.copyOf(this.values, capacity);
+        }
+        this.keys[this.size] = key;
+        this.values[this.size++] = value;
+        this.modCount++;
+        return null;
+    }
+
+    @Override
+    public V remove(final Object key) {
+        final int index = this.indexOf(key);
+        if (index < 0)
+            return null;
+        final V previous = (V) this.values[index];
+        this.removeAt(index);
+        return previous;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(this.keys, 0, this.size, null);
+        Arrays.fill(this.values, 0, this.size, null);
+        this.size = 0;
+        this.modCount++;
+    }
+
+    @Override
+    public void forEach(final BiConsumer<? super String, ? super V> action) {
+        final int expectedModCount = this.modCount;
+        for (int i = 0; i < this.size; i++) {
+            action.accept((String) this.keys[i], (V) this.values[i]);
+        }
+        if (expectedModCount != this.modCount)
+            throw new ConcurrentModificationException();
+    }
+
+    @Override
+    public Set<Entry<String, V>> entrySet() {
+        return new AbstractSet<Entry<String, V>>() {
+            @Override
+            public Iterator<Entry<String, V>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private int indexOf(final Object key) {
+        for (int i = 0; i < this.size; i++) {
+            if (this.keys[i] == key)
+                return i;
+        }
+        for (int i = 0; i < this.size; i++) {
+            if (this.keys[i].equals(key))
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Removes the property at the index by moving the last property into its slot which keeps the arrays packed.
+     */
+    private void removeAt(final int index) {
+        this.keys[index] = this.keys[--this.size];
+        this.values[index] = this.values[this.size];
+        this.keys[this.size] = null;
+        this.values[this.size] = null;
+        this.modCount++;
+    }
+
+    private final class EntryIterator implements Iterator<Entry<String, V>> {
+        private int current = 0;
+        private int last = -1;
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return this.current < size;
+        }
+
+        @Override
+        public Entry<String, V> next() {
+            if (this.expectedModCount != modCount)
+                throw new ConcurrentModificationException();
+            if (this.current >= size)
+                throw new NoSuchElementException();
+            final int index = this.current++;
+            this.last = index;
+            return new SimpleEntry<String, V>((String) keys[index], (V) values[index]) {
+                @Override
+                public V setValue(final V value) {
+                    values[index] = value;
+                    return super.setValue(value);
+                }
+            };
+        }
+
+        @Override
+        public void remove() {
+            if (this.last < 0)
+                throw new IllegalStateException();
+            if (this.expectedModCount != modCount)
+                throw new ConcurrentModificationException();
+            removeAt(this.last);
+            // the last property was swapped into the removed slot so it must be visited next
+            this.current = this.last;
+            this.last = -1;
+            this.expectedModCount = modCount;
+        }
+    }
+}
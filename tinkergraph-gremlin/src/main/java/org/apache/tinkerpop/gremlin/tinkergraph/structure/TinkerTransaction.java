@@ -0,0 +1,445 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Property;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.VertexProperty;
+import org.apache.tinkerpop.gremlin.structure.util.AbstractThreadLocalTransaction;
+import org.apache.tinkerpop.gremlin.structure.util.TransactionException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@link org.apache.tinkerpop.gremlin.structure.Transaction} of a {@link TinkerGraph} opened with
+ * {@link TinkerGraph#GREMLIN_TINKERGRAPH_TRANSACTIONS}, which gives each thread snapshot isolation through
+ * multi-version concurrency control.
+ * <p/>
+ * Every element and property created or removed while the graph is transactional carries a {@link Version} with the
+ * commits that created and removed it. A transaction sees what was committed before it started along with its own
+ * changes. Changes are made to the graph structures in place, stamped with the transaction that made them so that
+ * nothing else sees them, and a commit publishes all of them at once by assigning them the next version. Removals are
+ * held by the transaction until it commits and the removed elements and properties are only purged from the graph
+ * once no open transaction can still see them. Concurrent changes to the same element or property are detected when
+ * committing, where the first transaction to commit wins and the others fail and are rolled back.
+ * <p/>
+ * Threads that read without a transaction see the latest committed version of each element and property.
+ */
+final class TinkerTransaction extends AbstractThreadLocalTransaction {
+
+    /**
+     * The removal version of an element or property that has not been removed.
+     */
+    static final long LIVE = Long.MAX_VALUE;
+
+    private final TinkerGraph graph;
+    private final ThreadLocal<Context> context = new ThreadLocal<>();
+    private final Set<Context> openContexts = ConcurrentHashMap.newKeySet();
+    private final AtomicLong contextIds = new AtomicLong(0L);
+    private final Object commitLock = new Object();
+    private final Deque<Garbage> garbage = new ArrayDeque<>();
+    private volatile long committedVersion = 0L;
+
+    TinkerTransaction(final TinkerGraph graph) {
+        super(graph);
+        this.graph = graph;
+        this.prepare();
+    }
+
+    @Override
+    protected void doOpen() {
+        final Context context = new Context(this.contextIds.incrementAndGet());
+        // register before reading the version so that a concurrent purge can not drop what this snapshot sees
+        this.openContexts.add(context);
+        context.readVersion = this.committedVersion;
+        this.context.set(context);
+    }
+
+    @Override
+    protected void doCommit() throws TransactionException {
+        final Context context = this.context.get();
+        try {
+            synchronized (this.commitLock) {
+                try {
+                    this.validate(context);
+                } catch (final TransactionException te) {
+                    this.drop(context.created);
+                    throw te;
+                }
+
+                final long version = this.committedVersion + 1;
+                for (final Object item : context.created) {
+                    getVersion(item).created = version;
+                }
+                for (final Object item : context.removed) {
+                    Version itemVersion = getVersion(item);
+                    if (null == itemVersion) {
+                        itemVersion = new Version(0L);
+                        setVersion(item, itemVersion);
+                    }
+                    itemVersion.removed = version;
+                    this.garbage.add(new Garbage(version, item));
+                }
+                this.committedVersion = version;
+            }
+        } finally {
+            this.close(context);
+        }
+    }
+
+    @Override
+    protected void doRollback() throws TransactionException {
+        final Context context = this.context.get();
+        try {
+            synchronized (this.commitLock) {
+                this.drop(context.created);
+            }
+        } finally {
+            this.close(context);
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        return null != this.context.get();
+    }
+
+    /**
+     * Determines if the current thread can see the element or property with the given version.
+     */
+    boolean isVisible(final Object item, final Version version) {
+        final Context context = this.context.get();
+        if (null != version) {
+            final long readVersion = null == context ? this.committedVersion : context.readVersion;
+            final long created = version.created;
+            if (created < 0 ? null == context || created != -context.id : created > readVersion)
+                return false;
+            if (version.removed <= readVersion)
+                return false;
+        }
+        return null == context || context.removed.isEmpty() || !context.removed.contains(item);
+    }
+
+    /**
+     * Gets the first property of a chain of versions of a property that the current thread can see.
+     */
+    <V> Property<V> getVisible(final Property<V> property) {
+        for (TinkerProperty<V> p = (TinkerProperty<V>) property; null != p; p = p.previous) {
+            if (this.isVisible(p, p.version))
+                return p;
+        }
+        return Property.empty();
+    }
+
+    /**
+     * Records the creation of an element or property by the transaction of the current thread, opening it as
+     * necessary, and returns the version to stamp it with. An exclusive property fails to commit if a concurrent
+     * transaction commits a property for the same key on the same element first.
+     */
+    Version created(final Object item, final boolean exclusive) {
+        this.readWrite();
+        final Context context = this.context.get();
+        context.created.add(item);
+        if (exclusive) context.exclusive.add(item);
+        return new Version(-context.id);
+    }
+
+    /**
+     * Records the removal of an element or property by the transaction of the current thread, opening it as
+     * necessary.
+     */
+    void removed(final Object item) {
+        this.readWrite();
+        this.context.get().removed.add(item);
+    }
+
+    /**
+     * Ensures that no concurrent transaction committed a change that conflicts with those of the context.
+     */
+    private void validate(final Context context) {
+        for (final Object item : context.removed) {
+            final Version version = getVersion(item);
+            if (null != version && LIVE != version.removed)
+                throw conflict(item);
+            if (item instanceof TinkerVertex) {
+                // an edge added by a concurrent transaction would be left without one of its vertices
+                for (final Edge edge : this.getAdjacentEdges((TinkerVertex) item)) {
+                    if (this.isCommittedAfter(((TinkerEdge) edge).version, context) && LIVE == ((TinkerEdge) edge).version.removed)
+                        throw conflict(item);
+                }
+            }
+        }
+        for (final Object item : context.created) {
+            for (final TinkerElement owner : getOwners(item)) {
+                if (null != owner.version && LIVE != owner.version.removed)
+                    throw conflict(owner);
+            }
+            if (context.exclusive.contains(item)) {
+                for (final Object sibling : this.getSiblings(item)) {
+                    if (sibling != item && this.isCommittedAfter(getVersion(sibling), context))
+                        throw conflict(item);
+                }
+            }
+        }
+    }
+
+    private boolean isCommittedAfter(final Version version, final Context context) {
+        return null != version &&
+                ((version.created >= 0 && version.created > context.readVersion) ||
+                        (LIVE != version.removed && version.removed > context.readVersion));
+    }
+
+    private void close(final Context context) {
+        this.openContexts.remove(context);
+        this.context.remove();
+        this.purge();
+    }
+
+    /**
+     * Drops the removed elements and properties that no open transaction can see any more.
+     */
+    private void purge() {
+        synchronized (this.commitLock) {
+            long horizon = this.committedVersion;
+            for (final Context context : this.openContexts) {
+                horizon = Math.min(horizon, context.readVersion);
+            }
+            while (!this.garbage.isEmpty() && this.garbage.peekFirst().version <= horizon) {
+                this.drop(this.garbage.pollFirst().item);
+            }
+        }
+    }
+
+    /**
+     * Drops the items in the reverse of the order in which they were created.
+     */
+    private void drop(final List<Object> items) {
+        for (int i = items.size() - 1; i >= 0; i--) {
+            this.drop(items.get(i));
+        }
+    }
+
+    /**
+     * Removes an element or property from the graph structures. Containers are left in place even when they are
+     * emptied as other threads may be adding to them.
+     */
+    private void drop(final Object item) {
+        if (item instanceof TinkerVertex) {
+            final TinkerVertex vertex = (TinkerVertex) item;
+            for (final List<VertexProperty> vertexProperties : vertex.properties.values()) {
+                for (final VertexProperty vertexProperty : vertexProperties) {
+                    TinkerHelper.removeIndex(vertex, vertexProperty.key(), vertexProperty.value());
+                }
+            }
+            this.graph.vertices.remove(vertex.id(), vertex);
+            TinkerHelper.removeLabelIndex(this.graph.vertexLabels, vertex);
+            vertex.removed = true;
+        } else if (item instanceof TinkerEdge) {
+            final TinkerEdge edge = (TinkerEdge) item;
+            final Set<Edge> outEdges = ((TinkerVertex) edge.outVertex).outEdges.get(edge.label());
+            if (null != outEdges) outEdges.remove(edge);
+            final Set<Edge> inEdges = ((TinkerVertex) edge.inVertex).inEdges.get(edge.label());
+            if (null != inEdges) inEdges.remove(edge);
+            for (final Property head : edge.properties.values()) {
+                for (TinkerProperty p = (TinkerProperty) head; null != p; p = p.previous) {
+                    TinkerHelper.removeIndex(edge, p.key, p.value);
+                }
+            }
+            this.graph.edges.remove(edge.id(), edge);
+            TinkerHelper.removeLabelIndex(this.graph.edgeLabels, edge);
+            edge.removed = true;
+        } else if (item instanceof TinkerVertexProperty) {
+            final TinkerVertexProperty<?> vertexProperty = (TinkerVertexProperty<?>) item;
+            final TinkerVertex vertex = (TinkerVertex) vertexProperty.element();
+            final List<VertexProperty> vertexProperties = vertex.properties.get(vertexProperty.key());
+            if (null != vertexProperties) {
+                vertexProperties.removeIf(p -> p == vertexProperty);
+                if (vertexProperties.stream().noneMatch(p -> p.value().equals(vertexProperty.value())))
+                    TinkerHelper.removeIndex(vertex, vertexProperty.key(), vertexProperty.value());
+            }
+            vertexProperty.removed = true;
+        } else {
+            final TinkerProperty<?> property = (TinkerProperty<?>) item;
+            final Map<String, Property> properties = property.element instanceof TinkerEdge ?
+                    ((TinkerEdge) property.element).properties :
+                    ((TinkerVertexProperty) property.element).properties;
+            final TinkerProperty head = (TinkerProperty) properties.computeIfPresent(property.key, (key, p) -> unlink((TinkerProperty) p, property));
+            if (property.element instanceof TinkerEdge) {
+                boolean indexed = false;
+                for (TinkerProperty p = head; null != p; p = p.previous) {
+                    indexed = indexed || p.value.equals(property.value);
+                }
+                if (!indexed)
+                    TinkerHelper.removeIndex((TinkerEdge) property.element, property.key, property.value);
+            }
+        }
+    }
+
+    private Collection<Edge> getAdjacentEdges(final TinkerVertex vertex) {
+        final List<Edge> edges = new ArrayList<>();
+        vertex.outEdges.values().forEach(edges::addAll);
+        vertex.inEdges.values().forEach(edges::addAll);
+        return edges;
+    }
+
+    /**
+     * Gets the versions of the property for the same key of the same element, including the property itself.
+     */
+    private Collection<Object> getSiblings(final Object item) {
+        if (item instanceof TinkerVertexProperty) {
+            final TinkerVertexProperty<?> vertexProperty = (TinkerVertexProperty<?>) item;
+            return new ArrayList<>(((TinkerVertex) vertexProperty.element()).properties.getOrDefault(vertexProperty.key(), Collections.emptyList()));
+        } else if (item instanceof TinkerProperty) {
+            final TinkerProperty<?> property = (TinkerProperty<?>) item;
+            final Map<String, Property> properties = property.element instanceof TinkerEdge ?
+                    ((TinkerEdge) property.element).properties :
+                    ((TinkerVertexProperty) property.element).properties;
+            final List<Object> siblings = new ArrayList<>();
+            for (TinkerProperty p = (TinkerProperty) properties.get(property.key); null != p; p = p.previous) {
+                siblings.add(p);
+            }
+            return siblings;
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * Converts the graph structures loaded before the graph became transactional to ones that can be read and
+     * written by many threads at once.
+     */
+    private void prepare() {
+        for (final Vertex v : this.graph.vertices.values()) {
+            final TinkerVertex vertex = (TinkerVertex) v;
+            final Map<String, List<VertexProperty>> properties = new ConcurrentHashMap<>();
+            if (null != vertex.properties) {
+                vertex.properties.forEach((key, list) -> {
+                    list.forEach(p -> ((TinkerVertexProperty<?>) p).properties = copyProperties(((TinkerVertexProperty<?>) p).properties));
+                    properties.put(key, new CopyOnWriteArrayList<>(list));
+                });
+            }
+            vertex.properties = properties;
+            vertex.outEdges = copyEdges(vertex.outEdges);
+            vertex.inEdges = copyEdges(vertex.inEdges);
+        }
+        for (final Edge edge : this.graph.edges.values()) {
+            ((TinkerEdge) edge).properties = copyProperties(((TinkerEdge) edge).properties);
+        }
+    }
+
+    private static Map<String, Property> copyProperties(final Map<String, Property> properties) {
+        return null == properties ? new ConcurrentHashMap<>() : new ConcurrentHashMap<>(properties);
+    }
+
+    private static Map<String, Set<Edge>> copyEdges(final Map<String, Set<Edge>> edges) {
+        final Map<String, Set<Edge>> copy = new ConcurrentHashMap<>();
+        if (null != edges) {
+            edges.forEach((label, set) -> {
+                final Set<Edge> edgeSet = ConcurrentHashMap.newKeySet();
+                edgeSet.addAll(set);
+                copy.put(label, edgeSet);
+            });
+        }
+        return copy;
+    }
+
+    private static TinkerProperty unlink(final TinkerProperty head, final TinkerProperty property) {
+        if (head == property)
+            return property.previous;
+        for (TinkerProperty p = head; null != p.previous; p = p.previous) {
+            if (p.previous == property) {
+                p.previous = property.previous;
+                break;
+            }
+        }
+        return head;
+    }
+
+    private static Collection<TinkerElement> getOwners(final Object item) {
+        if (item instanceof TinkerEdge)
+            return Arrays.asList((TinkerElement) ((TinkerEdge) item).outVertex, (TinkerElement) ((TinkerEdge) item).inVertex);
+        else if (item instanceof TinkerVertexProperty)
+            return Collections.singletonList((TinkerElement) ((TinkerVertexProperty<?>) item).element());
+        else if (item instanceof TinkerProperty)
+            return Collections.singletonList((TinkerElement) ((TinkerProperty<?>) item).element);
+        return Collections.emptyList();
+    }
+
+    private static Version getVersion(final Object item) {
+        return item instanceof TinkerElement ? ((TinkerElement) item).version : ((TinkerProperty<?>) item).version;
+    }
+
+    private static void setVersion(final Object item, final Version version) {
+        if (item instanceof TinkerElement)
+            ((TinkerElement) item).version = version;
+        else
+            ((TinkerProperty<?>) item).version = version;
+    }
+
+    private static TransactionException conflict(final Object item) {
+        return new TransactionException(String.format("%s was changed by a concurrent transaction", item));
+    }
+
+    /**
+     * The commits that created and removed an element or property. A negative creation version is the identifier of
+     * the open transaction that created it.
+     */
+    static final class Version {
+        volatile long created;
+        volatile long removed = LIVE;
+
+        Version(final long created) {
+            this.created = created;
+        }
+    }
+
+    private static final class Context {
+        private final long id;
+        private volatile long readVersion = Long.MIN_VALUE;
+        private final List<Object> created = new ArrayList<>();
+        private final Set<Object> exclusive = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final Set<Object> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        private Context(final long id) {
+            this.id = id;
+        }
+    }
+
+    private static final class Garbage {
+        private final long version;
+        private final Object item;
+
+        private Garbage(final long version, final Object item) {
+            this.version = version;
+            this.item = item;
+        }
+    }
+}
@@ -29,12 +29,13 @@ import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 
 /**
@@ -45,11 +46,18 @@ public final class TinkerVertex extends TinkerElement implements Vertex {
     protected Map<String, List<VertexProperty>> properties;
     protected Map<String, Set<Edge>> outEdges;
     protected Map<String, Set<Edge>> inEdges;
+    protected Map<String, Map<String, TinkerVertexCentricIndex>> outEdgeIndices;
+    protected Map<String, Map<String, TinkerVertexCentricIndex>> inEdgeIndices;
     private final TinkerGraph graph;
 
     protected TinkerVertex(final Object id, final String label, final TinkerGraph graph) {
         super(id, label);
         this.graph = graph;
+        if (null != graph.transaction) {
+            this.properties = new ConcurrentHashMap<>();
+            this.outEdges = new ConcurrentHashMap<>();
+            this.inEdges = new ConcurrentHashMap<>();
+        }
     }
 
     @Override
@@ -59,7 +67,7 @@ public final class TinkerVertex extends TinkerElement implements Vertex {
 
     @Override
     public <V> VertexProperty<V> property(final String key) {
-        if (this.removed) return VertexProperty.empty();
+        if (this.isRemoved()) return VertexProperty.empty();
         if (TinkerHelper.inComputerMode(this.graph)) {
             final List<VertexProperty> list = (List) this.graph.graphComputerView.getProperty(this, key);
             if (list.size() == 0)
@@ -70,7 +78,11 @@ public final class TinkerVertex extends TinkerElement implements Vertex {
                 throw Vertex.Exceptions.multiplePropertiesExistForProvidedKey(key);
         } else {
             if (this.properties != null && this.properties.containsKey(key)) {
-                final List<VertexProperty> list = (List) this.properties.get(key);
+                final List<VertexProperty> list = null == this.graph.transaction ?
+                        (List) this.properties.get(key) :
+                        this.getVisibleProperties(key);
+                if (list.isEmpty())
+                    return VertexProperty.<V>empty();
                 if (list.size() > 1)
                     throw Vertex.Exceptions.multiplePropertiesExistForProvidedKey(key);
                 else
@@ -82,9 +94,12 @@ public final class TinkerVertex extends TinkerElement implements Vertex {
 
     @Override
     public <V> VertexProperty<V> property(final VertexProperty.Cardinality cardinality, final String key, final V value, final Object... keyValues) {
-        if (this.removed) throw elementAlreadyRemoved(Vertex.class, id);
+        if (this.isRemoved()) throw elementAlreadyRemoved(Vertex.class, id);
+        this.graph.verifyNotFrozen();
         ElementHelper.legalPropertyKeyValueArray(keyValues);
         ElementHelper.validateProperty(key, value);
+        if (null != this.graph.expiry && !TinkerHelper.inComputerMode(this.graph))
+            this.graph.expiry.propertySet(this, key, value);
         final Optional<Object> optionalId = ElementHelper.getIdValue(keyValues);
         final Optional<VertexProperty<V>> optionalVertexProperty = ElementHelper.stageVertexProperty(this, cardinality, key, value, keyValues);
         if (optionalVertexProperty.isPresent()) return optionalVertexProperty.get();
@@ -98,14 +113,32 @@ public final class TinkerVertex extends TinkerElement implements Vertex {
                     graph.vertexPropertyIdManager.convert(optionalId.get()) :
                     graph.vertexPropertyIdManager.getNextId(graph);
 
-            final VertexProperty<V> vertexProperty = new TinkerVertexProperty<V>(idValue, this, key, value);
+            final TinkerVertexProperty<V> vertexProperty = new TinkerVertexProperty<V>(idValue, this, key, value);
+
+            if (null != this.graph.transaction) {
+                vertexProperty.version = this.graph.transaction.created(vertexProperty, cardinality == VertexProperty.Cardinality.single);
+                this.properties.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>()).add(vertexProperty);
+                TinkerHelper.autoUpdateIndex(this, key, value, null);
+                ElementHelper.attachProperties(vertexProperty, keyValues);
+                return vertexProperty;
+            }
 
-            if (null == this.properties) this.properties = new HashMap<>();
-            final List<VertexProperty> list = this.properties.getOrDefault(key, new ArrayList<>());
+            if (null == this.properties) this.properties = TinkerHelper.createPropertyMap(this.graph);
+            final List<VertexProperty> list = this.properties.getOrDefault(key, this.graph.compactProperties ? new ArrayList<>(1) : new ArrayList<>());
             list.add(vertexProperty);
-            this.properties.put(key, list);
+            this.properties.put(vertexProperty.key(), list);
             TinkerHelper.autoUpdateIndex(this, key, value, null);
-            ElementHelper.attachProperties(vertexProperty, keyValues);
+            if (null != this.graph.journal) {
+                this.graph.journal.suppress();
+                try {
+                    ElementHelper.attachProperties(vertexProperty, keyValues);
+                } finally {
+                    this.graph.journal.resume();
+                }
+                this.graph.journal.addVertexProperty(cardinality, vertexProperty);
+            } else {
+                ElementHelper.attachProperties(vertexProperty, keyValues);
+            }
             return vertexProperty;
         }
     }
@@ -113,7 +146,7 @@ public final class TinkerVertex extends TinkerElement implements Vertex {
     @Override
     public Set<String> keys() {
         if (null == this.properties) return Collections.emptySet();
-        return TinkerHelper.inComputerMode((TinkerGraph) graph()) ?
+        return TinkerHelper.inComputerMode((TinkerGraph) graph()) || null != this.graph.transaction ?
                 Vertex.super.keys() :
                 this.properties.keySet();
     }
@@ -121,19 +154,36 @@ public final class TinkerVertex extends TinkerElement implements Vertex {
     @Override
     public Edge addEdge(final String label, final Vertex vertex, final Object... keyValues) {
         if (null == vertex) throw Graph.Exceptions.argumentCanNotBeNull("vertex");
-        if (this.removed) throw elementAlreadyRemoved(Vertex.class, this.id);
+        this.graph.verifyNotFrozen();
+        if (this.isRemoved()) throw elementAlreadyRemoved(Vertex.class, this.id);
+        if (((TinkerVertex) vertex).isRemoved()) throw elementAlreadyRemoved(Vertex.class, vertex.id());
         return TinkerHelper.addEdge(this.graph, this, (TinkerVertex) vertex, label, keyValues);
     }
 
     @Override
     public void remove() {
+        this.graph.verifyNotFrozen();
+        if (null != this.graph.transaction) {
+            if (!this.isRemoved()) {
+                this.edges(Direction.BOTH).forEachRemaining(Edge::remove);
+                this.graph.transaction.removed(this);
+            }
+            return;
+        }
         final List<Edge> edges = new ArrayList<>();
         this.edges(Direction.BOTH).forEachRemaining(edges::add);
-        edges.stream().filter(edge -> !((TinkerEdge) edge).removed).forEach(Edge::remove);
-        this.properties = null;
+        if (null != this.graph.journal) this.graph.journal.suppress();
+        try {
+            edges.stream().filter(edge -> !((TinkerEdge) edge).removed).forEach(Edge::remove);
+        } finally {
+            if (null != this.graph.journal) this.graph.journal.resume();
+        }
         TinkerHelper.removeElementIndex(this);
+        this.properties = null;
         this.graph.vertices.remove(this.id);
+        TinkerHelper.removeLabelIndex(this.graph.vertexLabels, this);
         this.removed = true;
+        if (null != this.graph.journal) this.graph.journal.removeVertex(this);
     }
 
     @Override
@@ -141,6 +191,18 @@ public final class TinkerVertex extends TinkerElement implements Vertex {
         return StringFactory.vertexString(this);
     }
 
+    /**
+     * Gets the properties for the key that the current thread can see when the graph is transactional.
+     */
+    List<VertexProperty> getVisibleProperties(final String key) {
+        final List<VertexProperty> visible = new ArrayList<>();
+        for (final VertexProperty vertexProperty : this.properties.getOrDefault(key, Collections.emptyList())) {
+            if (this.graph.transaction.isVisible(vertexProperty, ((TinkerVertexProperty) vertexProperty).version))
+                visible.add(vertexProperty);
+        }
+        return visible;
+    }
+
     @Override
     public Iterator<Edge> edges(final Direction direction, final String... edgeLabels) {
         final Iterator<Edge> edgeIterator = (Iterator) TinkerHelper.getEdges(this, direction, edgeLabels);
@@ -162,11 +224,16 @@ public final class TinkerVertex extends TinkerElement implements Vertex {
 
     @Override
     public <V> Iterator<VertexProperty<V>> properties(final String... propertyKeys) {
-        if (this.removed) return Collections.emptyIterator();
+        if (this.isRemoved()) return Collections.emptyIterator();
         if (TinkerHelper.inComputerMode((TinkerGraph) graph()))
             return (Iterator) ((TinkerGraph) graph()).graphComputerView.getProperties(TinkerVertex.this).stream().filter(p -> ElementHelper.keyExists(p.key(), propertyKeys)).iterator();
         else {
             if (null == this.properties) return Collections.emptyIterator();
+            if (null != this.graph.transaction)
+                return (Iterator) this.properties.keySet().stream()
+                        .filter(key -> ElementHelper.keyExists(key, propertyKeys))
+                        .flatMap(key -> this.getVisibleProperties(key).stream())
+                        .collect(Collectors.toList()).iterator();
             if (propertyKeys.length == 1) {
                 final List<VertexProperty> properties = this.properties.getOrDefault(propertyKeys[0], Collections.emptyList());
                 if (properties.size() == 1) {
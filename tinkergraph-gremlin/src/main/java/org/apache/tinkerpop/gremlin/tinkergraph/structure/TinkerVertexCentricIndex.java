@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Contains;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The edges of a single label that are incident to a vertex in one direction, sorted by their value of a property
+ * key. Values are ordered as they are in an {@link TinkerGraph.IndexType#ORDERED} index, so the edges can be
+ * iterated in the order of their values and restricted to a range of them without visiting the other edges of the
+ * vertex. Edges that do not have the key are not in the index.
+ */
+final class TinkerVertexCentricIndex {
+
+    private final NavigableMap<Object, Set<Edge>> values = new ConcurrentSkipListMap<>(TinkerIndex::compareValues);
+    private final AtomicInteger size = new AtomicInteger();
+
+    public void add(final Object value, final Edge edge) {
+        if (this.values.computeIfAbsent(value, v -> ConcurrentHashMap.newKeySet()).add(edge))
+            this.size.incrementAndGet();
+    }
+
+    public void remove(final Object value, final Edge edge) {
+        this.values.computeIfPresent(value, (v, edges) -> {
+            if (edges.remove(edge))
+                this.size.decrementAndGet();
+            return edges.isEmpty() ? null : edges;
+        });
+    }
+
+    /**
+     * The number of edges in the index.
+     */
+    public int size() {
+        return this.size.get();
+    }
+
+    /**
+     * Determines if the values of the edges in the index are all of the same family and can thus be sorted by
+     * {@link org.apache.tinkerpop.gremlin.process.traversal.Order} without error.
+     */
+    public boolean isComparable() {
+        if (this.values.isEmpty())
+            return true;
+        final Object first = this.values.firstKey();
+        final Object last = this.values.lastKey();
+        return first instanceof Comparable &&
+                (first instanceof Number ? last instanceof Number : first.getClass().equals(last.getClass()));
+    }
+
+    /**
+     * Gets the edges whose value passes the predicates in the order of their values. The predicates must be
+     * {@link #isIndexable(P) indexable}.
+     */
+    public Iterator<Edge> get(final List<P<?>> predicates, final boolean descending) {
+        final TinkerIndex.Range range = new TinkerIndex.Range();
+        Collection<?> within = null;
+        for (final P<?> predicate : predicates) {
+            if (predicate.getBiPredicate() == Contains.within)
+                within = (Collection<?>) predicate.getValue();
+            else
+                range.restrict(predicate);
+        }
+
+        final NavigableMap<Object, Set<Edge>> values = range.isUnbounded() ? this.values : range.subMap(this.values);
+        if (null == within)
+            return IteratorUtils.flatMap((descending ? values.descendingMap() : values).values().iterator(), Set::iterator);
+
+        // look up each value of within() that is in the range rather than walk the range
+        final NavigableSet<Object> withinValues = new TreeSet<>(TinkerIndex::compareValues);
+        withinValues.addAll(within);
+        return IteratorUtils.flatMap((descending ? withinValues.descendingSet() : withinValues).iterator(), value -> {
+            final Set<Edge> edges = values.get(value);
+            return null == edges ? Collections.<Edge>emptyIterator() : edges.iterator();
+        });
+    }
+
+    /**
+     * Determines if the predicate can be answered by the index, which is the case for equality, {@code within()}
+     * and the range comparisons like {@code gt()} or {@code lte()}.
+     */
+    public static boolean isIndexable(final P<?> predicate) {
+        return TinkerIndex.isRange(predicate) ||
+                (predicate.getBiPredicate() == Contains.within && predicate.getValue() instanceof Collection);
+    }
+}
@@ -29,10 +29,10 @@ import org.apache.tinkerpop.gremlin.tinkergraph.process.computer.TinkerGraphComp
 import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
 
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
@@ -52,10 +52,11 @@ public class TinkerVertexProperty<V> extends TinkerElement implements VertexProp
      * with {@link TinkerGraphComputerView}.
      */
     public TinkerVertexProperty(final TinkerVertex vertex, final String key, final V value, final Object... propertyKeyValues) {
-        super(((TinkerGraph) vertex.graph()).vertexPropertyIdManager.getNextId((TinkerGraph) vertex.graph()), key);
+        super(((TinkerGraph) vertex.graph()).vertexPropertyIdManager.getNextId((TinkerGraph) vertex.graph()), ((TinkerGraph) vertex.graph()).internKey(key));
         this.vertex = vertex;
-        this.key = key;
+        this.key = this.label;
         this.value = value;
+        if (null != ((TinkerGraph) vertex.graph()).transaction) this.properties = new ConcurrentHashMap<>();
         ElementHelper.legalPropertyKeyValueArray(propertyKeyValues);
         ElementHelper.attachProperties(this, propertyKeyValues);
     }
@@ -65,10 +66,11 @@ public class TinkerVertexProperty<V> extends TinkerElement implements VertexProp
      * can be explicitly set and validated against the expected data type.
      */
     public TinkerVertexProperty(final Object id, final TinkerVertex vertex, final String key, final V value, final Object... propertyKeyValues) {
-        super(id, key);
+        super(id, ((TinkerGraph) vertex.graph()).internKey(key));
         this.vertex = vertex;
-        this.key = key;
+        this.key = this.label;
         this.value = value;
+        if (null != ((TinkerGraph) vertex.graph()).transaction) this.properties = new ConcurrentHashMap<>();
         ElementHelper.legalPropertyKeyValueArray(propertyKeyValues);
         ElementHelper.attachProperties(this, propertyKeyValues);
     }
@@ -106,20 +108,41 @@ public class TinkerVertexProperty<V> extends TinkerElement implements VertexProp
 
     @Override
     public Set<String> keys() {
-        return null == this.properties ? Collections.emptySet() : this.properties.keySet();
+        if (null == this.properties) return Collections.emptySet();
+        final TinkerTransaction transaction = ((TinkerGraph) this.vertex.graph()).transaction;
+        return null == transaction ?
+                this.properties.keySet() :
+                this.properties.keySet().stream().filter(key -> this.property(key).isPresent()).collect(Collectors.toSet());
     }
 
     @Override
     public <U> Property<U> property(final String key) {
-        return null == this.properties ? Property.<U>empty() : this.properties.getOrDefault(key, Property.<U>empty());
+        if (null == this.properties) return Property.<U>empty();
+        final TinkerTransaction transaction = ((TinkerGraph) this.vertex.graph()).transaction;
+        if (null == transaction)
+            return this.properties.getOrDefault(key, Property.<U>empty());
+        return this.isRemoved() ? Property.<U>empty() : transaction.getVisible(this.properties.get(key));
     }
 
     @Override
     public <U> Property<U> property(final String key, final U value) {
-        if (this.removed) throw elementAlreadyRemoved(VertexProperty.class, id);
-        final Property<U> property = new TinkerProperty<>(this, key, value);
-        if (this.properties == null) this.properties = new HashMap<>();
-        this.properties.put(key, property);
+        if (this.isRemoved()) throw elementAlreadyRemoved(VertexProperty.class, id);
+        final TinkerGraph graph = (TinkerGraph) this.vertex.graph();
+        graph.verifyNotFrozen();
+        final TinkerProperty<U> property = new TinkerProperty<>(this, key, value);
+        if (null != graph.transaction) {
+            property.version = graph.transaction.created(property, true);
+            final Property<U> oldProperty = this.property(key);
+            if (oldProperty.isPresent()) oldProperty.remove();
+            this.properties.compute(key, (k, previous) -> {
+                property.previous = (TinkerProperty<U>) previous;
+                return property;
+            });
+            return property;
+        }
+        if (this.properties == null) this.properties = TinkerHelper.createPropertyMap(graph);
+        this.properties.put(property.key(), property);
+        if (null != graph.journal) graph.journal.setMetaProperty(this, key, value);
         return property;
     }
 
@@ -130,6 +153,13 @@ public class TinkerVertexProperty<V> extends TinkerElement implements VertexProp
 
     @Override
     public void remove() {
+        ((TinkerGraph) this.vertex.graph()).verifyNotFrozen();
+        final TinkerTransaction transaction = ((TinkerGraph) this.vertex.graph()).transaction;
+        if (null != transaction) {
+            if (!this.isRemoved())
+                transaction.removed(this);
+            return;
+        }
         if (null != this.vertex.properties && this.vertex.properties.containsKey(this.key)) {
             this.vertex.properties.get(this.key).remove(this);
             if (this.vertex.properties.get(this.key).size() == 0) {
@@ -144,12 +174,18 @@ public class TinkerVertexProperty<V> extends TinkerElement implements VertexProp
             if (delete.get()) TinkerHelper.removeIndex(this.vertex, this.key, this.value);
             this.properties = null;
             this.removed = true;
+            final TinkerGraph graph = (TinkerGraph) this.vertex.graph();
+            if (null != graph.journal) graph.journal.removeVertexProperty(this);
         }
     }
 
     @Override
     public <U> Iterator<Property<U>> properties(final String... propertyKeys) {
         if (null == this.properties) return Collections.emptyIterator();
+        if (null != ((TinkerGraph) this.vertex.graph()).transaction) {
+            if (this.isRemoved()) return Collections.emptyIterator();
+            return (Iterator) this.keys().stream().filter(key -> ElementHelper.keyExists(key, propertyKeys)).map(this::property).collect(Collectors.toList()).iterator();
+        }
         if (propertyKeys.length == 1) {
             final Property<U> property = this.properties.get(propertyKeys[0]);
             return null == property ? Collections.emptyIterator() : IteratorUtils.of(property);
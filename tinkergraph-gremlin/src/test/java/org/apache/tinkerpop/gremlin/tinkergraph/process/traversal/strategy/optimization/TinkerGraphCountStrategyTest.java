@@ -19,16 +19,21 @@
 
 package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization;
 
+import org.apache.tinkerpop.gremlin.process.traversal.P;
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategies;
 import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.DefaultGraphTraversal;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.GraphStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
 import org.apache.tinkerpop.gremlin.process.traversal.util.DefaultTraversalStrategies;
 import org.apache.tinkerpop.gremlin.process.traversal.util.EmptyTraversal;
 import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.T;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.map.TinkerCountGlobalStep;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.sideEffect.TinkerGraphStep;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -74,6 +79,14 @@ public class TinkerGraphCountStrategyTest {
 
     }
 
+    private static Traversal.Admin<?, ?> countStep(final Class<? extends Element> elementClass, final HasContainer... hasContainers) {
+        final TinkerGraphStep<?, ?> graphStep = new TinkerGraphStep<>(new GraphStep<>(EmptyTraversal.instance(), elementClass, true));
+        for (final HasContainer hasContainer : hasContainers) {
+            graphStep.addHasContainer(hasContainer);
+        }
+        return new DefaultGraphTraversal<>().addStep(new TinkerCountGlobalStep(EmptyTraversal.instance(), graphStep));
+    }
+
     @Parameterized.Parameters(name = "{0}")
     public static Iterable<Object[]> generateTestParameters() {
         return Arrays.asList(new Object[][]{
@@ -86,10 +99,14 @@ public class TinkerGraphCountStrategyTest {
                 {__.V().map(out().groupCount()).identity().count().as("a"), countStep(Vertex.class), TraversalStrategies.GlobalCache.getStrategies(TinkerGraph.class).toList()},
                 {__.V().label().map(s -> s.get().length()).count(), countStep(Vertex.class), TraversalStrategies.GlobalCache.getStrategies(TinkerGraph.class).toList()},
                 {__.V().as("a").map(select("a")).count(), countStep(Vertex.class),TraversalStrategies.GlobalCache.getStrategies(TinkerGraph.class).toList()},
+                {__.V().hasLabel("person").has("name", "marko").count(), countStep(Vertex.class, new HasContainer(T.label.getAccessor(), P.eq("person")), new HasContainer("name", P.eq("marko"))), Collections.emptyList()},
+                {__.V().has("age", P.gt(30)).label().count(), countStep(Vertex.class, new HasContainer("age", P.gt(30))), TraversalStrategies.GlobalCache.getStrategies(TinkerGraph.class).toList()},
                 //
                 {__.V(), __.V(), Collections.emptyList()},
                 {__.V().out().count(), __.V().out().count(), Collections.emptyList()},
                 {__.V(1).count(), __.V(1).count(), Collections.emptyList()},
+                {__.V().has(T.id, 1).count(), __.V().has(T.id, 1).count(), Collections.emptyList()},
+                {__.V().out().has("name", "marko").count(), __.V().out().has("name", "marko").count(), Collections.emptyList()},
                 {__.count(), __.count(), Collections.emptyList()},
                 {__.V().map(out().groupCount("m")).identity().count().as("a"), __.V().map(out().groupCount("m")).identity().count().as("a"), Collections.emptyList()},
         });
@@ -22,10 +22,33 @@ import org.apache.commons.configuration.BaseConfiguration;
 import org.apache.commons.configuration.Configuration;
 import org.apache.tinkerpop.gremlin.GraphHelper;
 import org.apache.tinkerpop.gremlin.TestHelper;
+import org.apache.tinkerpop.gremlin.process.computer.Computer;
+import org.apache.tinkerpop.gremlin.process.computer.GraphComputer;
+import org.apache.tinkerpop.gremlin.process.computer.LongMessageCombiner;
+import org.apache.tinkerpop.gremlin.process.computer.LongMessenger;
+import org.apache.tinkerpop.gremlin.process.computer.Memory;
+import org.apache.tinkerpop.gremlin.process.computer.MessageCombiner;
+import org.apache.tinkerpop.gremlin.process.computer.MessageScope;
+import org.apache.tinkerpop.gremlin.process.computer.Messenger;
+import org.apache.tinkerpop.gremlin.process.computer.VertexComputeKey;
+import org.apache.tinkerpop.gremlin.process.computer.clustering.peerpressure.PeerPressureVertexProgram;
+import org.apache.tinkerpop.gremlin.process.computer.ranking.pagerank.PageRankVertexProgram;
+import org.apache.tinkerpop.gremlin.process.computer.util.StaticVertexProgram;
+import org.apache.tinkerpop.gremlin.process.traversal.Order;
 import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.WhereTraversalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.MatchStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.optimization.CostBasedStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.Direction;
 import org.apache.tinkerpop.gremlin.structure.Edge;
 import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.GraphStatistics;
 import org.apache.tinkerpop.gremlin.structure.T;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.apache.tinkerpop.gremlin.structure.VertexProperty;
@@ -42,6 +65,12 @@ import org.apache.tinkerpop.gremlin.structure.io.gryo.GryoClassResolverV1d0;
 import org.apache.tinkerpop.gremlin.structure.io.gryo.GryoMapper;
 import org.apache.tinkerpop.gremlin.structure.io.gryo.GryoVersion;
 import org.apache.tinkerpop.gremlin.structure.io.gryo.GryoWriter;
+import org.apache.tinkerpop.gremlin.structure.util.TransactionException;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.computer.TinkerGraphComputer;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.map.TinkerVertexStep;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.sideEffect.TinkerGraphStep;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.sideEffect.TinkerParallelGraphStep;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization.TinkerGraphDegreeCountStrategy;
 import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
 import org.apache.tinkerpop.shaded.jackson.databind.ObjectMapper;
 import org.apache.tinkerpop.shaded.kryo.ClassResolver;
@@ -59,19 +88,39 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.PrimitiveIterator;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 
 /**
@@ -302,6 +351,1098 @@ public class TinkerGraphTest {
         }, 0.5)).has("oid", "1").count().next());
     }
 
+    @Test
+    public void shouldUseOrderedVertexIndexForRangeQueries() {
+        final TinkerGraph g = TinkerGraph.open();
+        g.createIndex("age", Vertex.class, TinkerGraph.IndexType.ORDERED);
+        assertEquals(TinkerGraph.IndexType.ORDERED, g.getIndexType("age", Vertex.class));
+
+        g.addVertex("name", "marko", "age", 29);
+        g.addVertex("name", "vadas", "age", 27);
+        g.addVertex("name", "josh", "age", 32);
+        g.addVertex("name", "peter", "age", 35L);
+        g.addVertex("name", "lop", "lang", "java");
+
+        // a tricky way to evaluate if indices are actually being used is to pass a fake BiPredicate to has()
+        // to get into the Pipeline and evaluate what's going through it.  in this case, we know that at index
+        // is used because only the names of vertices within the age range should pass through the pipeline.
+        assertEquals(new Long(2), g.traversal().V().has("name", P.test((t, u) -> {
+            assertTrue(t.equals("josh") || t.equals("peter"));
+            return true;
+        }, "x")).has("age", P.gt(30)).count().next());
+
+        assertEquals(new Long(2), g.traversal().V().has("name", P.test((t, u) -> {
+            assertTrue(t.equals("marko") || t.equals("josh"));
+            return true;
+        }, "x")).has("age", P.between(28, 35)).count().next());
+
+        assertEquals(new Long(2), g.traversal().V().has("name", P.test((t, u) -> {
+            assertTrue(t.equals("vadas") || t.equals("peter"));
+            return true;
+        }, "x")).has("age", P.outside(28, 34)).count().next());
+
+        assertEquals(new Long(2), g.traversal().V().has("name", P.test((t, u) -> {
+            assertTrue(t.equals("vadas") || t.equals("josh"));
+            return true;
+        }, "x")).has("age", P.within(27, 32, 100)).count().next());
+
+        assertEquals(new Long(1), g.traversal().V().has("age", P.gte(35)).count().next());
+        assertEquals(new Long(0), g.traversal().V().has("age", P.inside(35, 29)).count().next());
+        assertEquals(new Long(0), g.traversal().V().has("age", P.gt("a")).count().next());
+
+        g.traversal().V().has("name", "josh").properties("age").drop().iterate();
+        assertEquals(new Long(1), g.traversal().V().has("age", P.gt(30)).count().next());
+    }
+
+    @Test
+    public void shouldUseOrderedEdgeIndexForRangeQueries() {
+        final TinkerGraph g = TinkerGraph.open();
+        g.createIndex("weight", Edge.class, TinkerGraph.IndexType.ORDERED);
+
+        final Vertex v = g.addVertex();
+        v.addEdge("friend", v, "oid", "1", "weight", 0.5d);
+        v.addEdge("friend", v, "oid", "2", "weight", 0.6d);
+        v.addEdge("friend", v, "oid", "3", "weight", 1.0d);
+
+        assertEquals(new Long(2), g.traversal().E().has("oid", P.test((t, u) -> {
+            assertTrue(t.equals("2") || t.equals("3"));
+            return true;
+        }, "x")).has("weight", P.gt(0.5d)).count().next());
+    }
+
+    @Test
+    public void shouldNotUseHashIndexForRangeQueries() {
+        final TinkerGraph g = TinkerGraph.open();
+        g.createIndex("age", Vertex.class);
+        assertEquals(TinkerGraph.IndexType.HASH, g.getIndexType("age", Vertex.class));
+
+        g.addVertex("name", "marko", "age", 29);
+        g.addVertex("name", "josh", "age", 32);
+
+        assertEquals(new Long(1), g.traversal().V().has("age", P.gt(30)).count().next());
+        assertEquals(new Long(2), g.traversal().V().has("age", P.within(29, 32)).count().next());
+
+        // rebuild as ordered
+        g.createIndex("age", Vertex.class, TinkerGraph.IndexType.ORDERED);
+        assertEquals(TinkerGraph.IndexType.ORDERED, g.getIndexType("age", Vertex.class));
+        assertEquals(new Long(1), g.traversal().V().has("age", P.gt(30)).count().next());
+    }
+
+    @Test
+    public void shouldChooseMostSelectiveVertexIndex() {
+        final TinkerGraph g = TinkerGraph.open();
+        g.createIndex("country", Vertex.class);
+        g.createIndex("name", Vertex.class);
+
+        for (int i = 0; i < 10; i++) {
+            g.addVertex("name", "name" + i, "country", "US");
+        }
+
+        // only a single vertex should be pulled from the name index even though country is also indexed
+        assertEquals(new Long(1), g.traversal().V().has("country", P.test((t, u) -> {
+            assertEquals("US", t);
+            return true;
+        }, "US")).has("country", "US").has("name", P.test((t, u) -> {
+            assertEquals("name3", t);
+            return true;
+        }, "x")).has("name", "name3").count().next());
+    }
+
+    @Test
+    public void shouldOnlyCountIndexRangeUpToLimit() {
+        final TinkerGraph g = TinkerGraph.open();
+        g.createIndex("age", Vertex.class, TinkerGraph.IndexType.ORDERED);
+        g.createIndex("name", Vertex.class);
+        for (int i = 0; i < 100; i++) {
+            g.addVertex("name", "name" + i, "age", i);
+        }
+
+        final List<P<?>> range = Collections.singletonList(P.gte(0));
+        assertEquals(100, TinkerHelper.countIndex(g, Vertex.class, "age", range, Long.MAX_VALUE));
+        assertEquals(10, TinkerHelper.countIndex(g, Vertex.class, "age", range, 10));
+        assertEquals(5, TinkerHelper.countIndex(g, Vertex.class, "age", Collections.singletonList(P.lt(5)), 10));
+
+        // the narrower name index is chosen over the wide range of ages
+        assertEquals(new Long(1), g.traversal().V().has("age", P.gte(0)).has("name", P.test((t, u) -> {
+            assertEquals("name3", t);
+            return true;
+        }, "x")).has("name", "name3").count().next());
+    }
+
+    @Test
+    public void shouldUseLabelIndex() {
+        final TinkerGraph g = TinkerGraph.open();
+        for (int i = 0; i < 10; i++) {
+            final Vertex person = g.addVertex(T.label, "person", "name", "person" + i);
+            final Vertex software = g.addVertex(T.label, "software", "name", "software" + i);
+            person.addEdge(i % 2 == 0 ? "created" : "uses", software);
+        }
+
+        // only persons should be pulled from the label index
+        final GraphTraversalSource t = g.traversal();
+        assertEquals(new Long(10), t.V().hasLabel("person").has("name", P.test((x, u) -> {
+            assertTrue(((String) x).startsWith("person"));
+            return true;
+        }, "x")).count().next());
+        assertEquals(new Long(20), t.V().hasLabel("person", "software").count().next());
+        assertEquals(new Long(0), t.V().hasLabel("person").hasLabel("software").count().next());
+        assertEquals(new Long(5), t.E().hasLabel("created").count().next());
+        assertEquals(5, t.E().hasLabel("uses").toList().size());
+
+        // the label index follows removals
+        t.V().hasLabel("software").limit(3).drop().iterate();
+        assertEquals(new Long(7), t.V().hasLabel("software").count().next());
+        assertEquals(7, IteratorUtils.count(t.E().hasLabel("created", "uses")));
+        g.clear();
+        assertEquals(new Long(0), t.V().hasLabel("person").count().next());
+    }
+
+    @Test
+    public void shouldMaintainIndexUnderConcurrentWriters() throws Exception {
+        final TinkerGraph graph = TinkerGraph.open();
+        graph.createIndex("group", Vertex.class);
+        graph.createIndex("rank", Vertex.class, TinkerGraph.IndexType.ORDERED);
+
+        final int threads = 4;
+        final int verticesPerThread = 500;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        final AtomicBoolean writing = new AtomicBoolean(true);
+        final List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int offset = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < verticesPerThread; i++) {
+                    // every thread writes to the same few buckets so that they are created and emptied concurrently
+                    final Vertex v = graph.addVertex("group", "g" + (i % 5), "rank", i);
+                    v.property("group", "g" + ((i + offset) % 5));
+                    if (i % 10 == 0) v.remove();
+                }
+            }));
+        }
+        // reads iterate the live buckets while they change
+        final Future<?> reader = executor.submit(() -> {
+            while (writing.get()) {
+                TinkerHelper.queryVertexIndex(graph, "group", "g0").forEach(Vertex::id);
+                IteratorUtils.count(graph.traversal().V().has("rank", P.between(10, 20)));
+            }
+        });
+        for (final Future<?> future : futures) future.get();
+        writing.set(false);
+        reader.get();
+        executor.shutdown();
+
+        final GraphTraversalSource g = graph.traversal();
+        final long remaining = threads * verticesPerThread * 9 / 10;
+        assertEquals(remaining, IteratorUtils.count(graph.vertices()));
+        for (int i = 0; i < 5; i++) {
+            final String group = "g" + i;
+            assertEquals(IteratorUtils.count(IteratorUtils.filter(graph.vertices(), v -> v.value("group").equals(group))),
+                    TinkerHelper.queryVertexIndex(graph, "group", group).size());
+        }
+
+        final TinkerGraph.IndexStatistics statistics = graph.getIndexStatistics("group", Vertex.class);
+        assertEquals(TinkerGraph.IndexType.HASH, statistics.getIndexType());
+        assertEquals(5, statistics.getValueCount());
+        assertEquals(remaining, statistics.getElementCount());
+        final long hits = statistics.getHits();
+        final long misses = statistics.getMisses();
+        assertEquals(1, IteratorUtils.count(g.V().has("group", "g1").limit(1)));
+        assertEquals(0, IteratorUtils.count(g.V().has("group", "g9")));
+        assertEquals(hits + 1, graph.getIndexStatistics("group", Vertex.class).getHits());
+        assertEquals(misses + 1, graph.getIndexStatistics("group", Vertex.class).getMisses());
+        assertNull(graph.getIndexStatistics("name", Vertex.class));
+
+        // a traversal that moves elements between buckets visits each element once
+        g.V().has("rank", P.gte(0)).property("rank", __.values("rank").math("_ + 1000")).iterate();
+        assertEquals(remaining, IteratorUtils.count(g.V().has("rank", P.gte(1000))));
+        assertEquals(0, IteratorUtils.count(g.V().has("rank", P.gte(2000))));
+    }
+
+    @Test
+    public void shouldComputeOverSkewedGraphWithManyWorkers() throws Exception {
+        final TinkerGraph graph = TinkerGraph.open();
+        final List<Vertex> hubs = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            hubs.add(graph.addVertex("name", "hub" + i));
+        }
+        final Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            final Vertex v = graph.addVertex("name", "v" + i);
+            v.addEdge("follows", hubs.get(i % hubs.size()));
+            if (random.nextBoolean()) hubs.get(random.nextInt(hubs.size())).addEdge("follows", v);
+        }
+
+        final int workers = graph.compute().features().getMaxWorkers();
+        final Map<Object, Double> expected = new HashMap<>();
+        graph.compute().workers(1).program(PageRankVertexProgram.build().create(graph)).submit().get().graph().vertices()
+                .forEachRemaining(v -> expected.put(v.id(), v.value(PageRankVertexProgram.PAGE_RANK)));
+        final Graph result = graph.compute().workers(workers).program(PageRankVertexProgram.build().create(graph)).submit().get().graph();
+        assertEquals(expected.size(), IteratorUtils.count(result.vertices()));
+        result.vertices().forEachRemaining(v -> assertEquals(expected.get(v.id()), v.value(PageRankVertexProgram.PAGE_RANK), 0.0001d));
+
+        // every vertex is mapped exactly once
+        assertEquals(2003L, graph.traversal().withComputer(Computer.compute().workers(workers)).V().count().next().longValue());
+        assertEquals(2003L, graph.traversal().withComputer(Computer.compute().workers(workers)).V().values("name").dedup().count().next().longValue());
+    }
+
+    @Test
+    public void shouldComputeWithPrimitiveMessages() throws Exception {
+        final TinkerGraph graph = TinkerGraph.open();
+        final Vertex v1 = graph.addVertex(T.id, 1L);
+        final Vertex v2 = graph.addVertex(T.id, 2L);
+        final Vertex v3 = graph.addVertex(T.id, 3L);
+        final Vertex v4 = graph.addVertex(T.id, 4L);
+        final Vertex v10 = graph.addVertex(T.id, 10L);
+        final Vertex v11 = graph.addVertex(T.id, 11L);
+        graph.addVertex(T.id, 20L);
+        v1.addEdge("link", v2);
+        v3.addEdge("link", v2);
+        v3.addEdge("link", v4);
+        v11.addEdge("link", v10);
+
+        final Graph result = graph.compute().program(new MinimumIdVertexProgram()).submit().get().graph();
+        final Map<Object, Long> components = new HashMap<>();
+        result.vertices().forEachRemaining(v -> components.put(v.id(), v.value(MinimumIdVertexProgram.COMPONENT)));
+        assertEquals(7, components.size());
+        for (final long id : Arrays.asList(1L, 2L, 3L, 4L)) {
+            assertEquals(1L, components.get(id).longValue());
+        }
+        assertEquals(10L, components.get(10L).longValue());
+        assertEquals(10L, components.get(11L).longValue());
+        assertEquals(20L, components.get(20L).longValue());
+    }
+
+    @Test
+    public void shouldComputeWithSpilledMessagesAndProperties() throws Exception {
+        final TinkerGraph graph = TinkerFactory.createModern();
+        final File spillDirectory = TestHelper.makeTestDataPath(TinkerGraphTest.class, "shouldComputeWithSpilledMessagesAndProperties");
+        final Computer spilling = Computer.compute(TinkerGraphComputer.class).
+                configure(TinkerGraphComputer.GREMLIN_TINKERGRAPH_COMPUTER_SPILL_THRESHOLD, 0.0d).
+                configure(TinkerGraphComputer.GREMLIN_TINKERGRAPH_COMPUTER_SPILL_DIRECTORY, spillDirectory.getAbsolutePath());
+
+        // traversers are sent as combined messages and halt in compute properties
+        assertEquals(graph.traversal().withComputer().V().repeat(__.both()).times(3).groupCount().by("name").next(),
+                graph.traversal().withComputer(spilling).V().repeat(__.both()).times(3).groupCount().by("name").next());
+        assertEquals(new HashSet<>(graph.traversal().withComputer().V().out().out().path().by(T.id).toList()),
+                new HashSet<>(graph.traversal().withComputer(spilling).V().out().out().path().by(T.id).toList()));
+
+        // peer pressure sends messages without a combiner
+        final Graph expected = graph.compute().workers(1).program(PeerPressureVertexProgram.build().create(graph)).submit().get().graph();
+        final Graph result = graph.compute().workers(1).program(PeerPressureVertexProgram.build().create(graph)).
+                configure(TinkerGraphComputer.GREMLIN_TINKERGRAPH_COMPUTER_SPILL_THRESHOLD, 0.0d).submit().get().graph();
+        expected.vertices().forEachRemaining(v -> assertEquals(v.<Object>value(PeerPressureVertexProgram.CLUSTER),
+                result.vertices(v.id()).next().value(PeerPressureVertexProgram.CLUSTER)));
+
+        // the spill files are deleted once the jobs are done
+        assertEquals(0, spillDirectory.listFiles().length);
+    }
+
+    @Test
+    public void shouldReadFromSnapshotOfTransaction() throws Exception {
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_TRANSACTIONS, true);
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        assertTrue(graph.features().graph().supportsTransactions());
+        final Object id = graph.addVertex("balance", 10).id();
+        graph.tx().commit();
+
+        final ExecutorService reader = Executors.newSingleThreadExecutor();
+        final Supplier<Object> read = () -> graph.vertices(id).next().value("balance");
+        assertEquals(10, reader.submit(read::get).get());
+
+        // the reader keeps its snapshot while another transaction commits
+        graph.vertices(id).next().property("balance", 20);
+        assertEquals(20, read.get());
+        assertEquals(10, reader.submit(read::get).get());
+        graph.tx().commit();
+        assertEquals(10, reader.submit(read::get).get());
+        reader.submit(() -> graph.tx().commit()).get();
+        assertEquals(20, reader.submit(read::get).get());
+
+        // elements that are added or removed are not seen by others until commit and are undone by rollback
+        final Object other = graph.addVertex("balance", 5).id();
+        graph.vertices(id).next().remove();
+        assertFalse(graph.vertices(id).hasNext());
+        reader.submit(() -> graph.tx().commit()).get();
+        assertEquals(1, (long) reader.submit(() -> IteratorUtils.count(graph.vertices())).get());
+        graph.tx().rollback();
+        assertEquals(20, read.get());
+        assertFalse(graph.vertices(other).hasNext());
+        graph.tx().commit();
+
+        reader.submit(() -> graph.tx().close()).get();
+        reader.shutdown();
+        graph.close();
+    }
+
+    @Test
+    public void shouldFailCommitOfConcurrentUpdateToSameProperty() throws Exception {
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_TRANSACTIONS, true);
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        final Object id = graph.addVertex("balance", 10).id();
+        graph.tx().commit();
+
+        final ExecutorService first = Executors.newSingleThreadExecutor();
+        final ExecutorService second = Executors.newSingleThreadExecutor();
+        first.submit(() -> graph.vertices(id).next().property("balance", 1)).get();
+        second.submit(() -> graph.vertices(id).next().property("balance", 2)).get();
+        first.submit(() -> graph.tx().commit()).get();
+        try {
+            second.submit(() -> graph.tx().commit()).get();
+            fail("The second commit should have conflicted with the first");
+        } catch (final ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof TransactionException);
+        }
+        assertFalse(second.submit(() -> graph.tx().isOpen()).get());
+        assertEquals(1, (int) graph.vertices(id).next().value("balance"));
+        assertEquals(1, IteratorUtils.count(graph.vertices(id).next().properties("balance")));
+        graph.tx().commit();
+
+        first.shutdown();
+        second.shutdown();
+        graph.close();
+    }
+
+    @Test
+    public void shouldPreserveInvariantUnderConcurrentTransactions() throws Exception {
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_TRANSACTIONS, true);
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        graph.createIndex("balance", Vertex.class);
+        final int accounts = 10;
+        for (int i = 0; i < accounts; i++) {
+            graph.addVertex(T.id, i, "balance", 100);
+        }
+        graph.tx().commit();
+
+        final int threads = 4;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        final AtomicBoolean writing = new AtomicBoolean(true);
+        final List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final Random random = new Random(t);
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 500; i++) {
+                    final int from = random.nextInt(accounts);
+                    final int to = (from + 1 + random.nextInt(accounts - 1)) % accounts;
+                    try {
+                        final Vertex fromVertex = graph.vertices(from).next();
+                        final Vertex toVertex = graph.vertices(to).next();
+                        fromVertex.property("balance", (int) fromVertex.value("balance") - 1);
+                        toVertex.property("balance", (int) toVertex.value("balance") + 1);
+                        graph.tx().commit();
+                    } catch (final TransactionException ex) {
+                        // lost to a concurrent transfer and rolled back
+                    }
+                }
+            }));
+        }
+        // every snapshot sees the same total no matter how many transfers are in flight
+        final Future<?> reader = executor.submit(() -> {
+            while (writing.get()) {
+                assertEquals(accounts * 100, graph.traversal().V().values("balance").sum().next().intValue());
+                graph.tx().commit();
+            }
+        });
+        for (final Future<?> future : futures) future.get();
+        writing.set(false);
+        reader.get();
+        executor.shutdown();
+
+        assertEquals(accounts * 100, graph.traversal().V().values("balance").sum().next().intValue());
+        assertEquals(accounts, IteratorUtils.count(graph.traversal().V().properties("balance")));
+        graph.tx().commit();
+        graph.close();
+    }
+
+    @Test
+    public void shouldUseCompositeVertexIndex() {
+        final TinkerGraph g = TinkerGraph.open();
+        g.createCompositeIndex("person", Vertex.class, "country", "status");
+        for (int i = 0; i < 20; i++) {
+            g.addVertex(T.label, "person", "country", i % 2 == 0 ? "US" : "UK", "status", i % 4 < 2 ? "active" : "inactive");
+            g.addVertex(T.label, "company", "country", "US", "status", "active");
+        }
+
+        // only the active persons in the US should be pulled from the composite index
+        final GraphTraversalSource t = g.traversal();
+        assertEquals(new Long(5), t.V().hasLabel("person").has("country", "US").has("status", P.test((x, u) -> {
+            assertEquals("active", x);
+            return true;
+        }, "x")).has("status", "active").count().next());
+
+        // a prefix of the keys can be used as well
+        assertEquals(new Long(10), t.V().hasLabel("person").has("country", P.test((x, u) -> {
+            assertEquals("US", x);
+            return true;
+        }, "x")).has("country", "US").count().next());
+        assertEquals(new Long(10), t.V().hasLabel("person").has("country", P.within("UK", "FR")).count().next());
+        assertEquals(new Long(0), t.V().hasLabel("person").has("country", "US").has("country", "UK").count().next());
+
+        // the index follows changes to the indexed properties
+        final Vertex v = t.V().hasLabel("person").has("country", "US").has("status", "active").next();
+        v.property("status", "inactive");
+        assertEquals(new Long(4), t.V().hasLabel("person").has("country", "US").has("status", "active").count().next());
+        v.property("status").remove();
+        assertEquals(new Long(9), t.V().hasLabel("person").has("country", "US").count().next());
+        v.property("status", "active");
+        assertEquals(new Long(5), t.V().hasLabel("person").has("country", "US").has("status", "active").count().next());
+        v.remove();
+        assertEquals(new Long(4), t.V().hasLabel("person").has("country", "US").has("status", "active").count().next());
+
+        assertEquals(Collections.singletonList(Arrays.asList("country", "status")), g.getCompositeIndexKeys("person", Vertex.class));
+        g.dropCompositeIndex("person", Vertex.class, "country", "status");
+        assertEquals(Collections.emptyList(), g.getCompositeIndexKeys("person", Vertex.class));
+        assertEquals(new Long(4), t.V().hasLabel("person").has("country", "US").has("status", "active").count().next());
+    }
+
+    @Test
+    public void shouldUseCompositeEdgeIndex() {
+        final TinkerGraph g = TinkerGraph.open();
+        final Vertex v = g.addVertex();
+        for (int i = 0; i < 10; i++) {
+            v.addEdge("rated", v, "stars", i % 5, "source", "web");
+            v.addEdge("viewed", v, "stars", i % 5, "source", "web");
+        }
+        g.createCompositeIndex("rated", Edge.class, "source", "stars");
+
+        assertEquals(new Long(2), g.traversal().E().hasLabel("rated").has("source", "web").has("stars", P.test((x, u) -> {
+            assertEquals(3, x);
+            return true;
+        }, "x")).has("stars", 3).count().next());
+        assertEquals(4, g.traversal().E().hasLabel("rated").has("source", "web").has("stars", P.within(1, 2)).toList().size());
+    }
+
+    @Test
+    public void shouldUseVertexCentricIndex() {
+        final TinkerGraph indexed = TinkerGraph.open();
+        final TinkerGraph unindexed = TinkerGraph.open();
+        indexed.createVertexCentricIndex("rated", "stars");
+        for (final TinkerGraph g : Arrays.asList(indexed, unindexed)) {
+            final Random random = new Random(7);
+            for (int i = 0; i < 20; i++) {
+                g.addVertex(T.id, i);
+            }
+            for (int i = 0; i < 400; i++) {
+                final Vertex out = g.vertices(random.nextInt(20)).next();
+                final Vertex in = g.vertices(random.nextInt(20)).next();
+                out.addEdge("follows", in, T.id, "f" + i, "time", i);
+                if (i % 10 == 0)
+                    out.addEdge("rated", in, T.id, "r" + i);
+                else
+                    out.addEdge("rated", in, T.id, "r" + i, "stars", random.nextInt(6));
+            }
+        }
+        // an index created over existing edges is filled from them
+        indexed.createVertexCentricIndex("follows", "time");
+        assertEquals(new HashSet<>(Arrays.asList("time")), indexed.getVertexCentricIndexKeys("follows"));
+
+        final List<Function<GraphTraversalSource, GraphTraversal<?, ?>>> traversals = Arrays.asList(
+                t -> t.V().outE("rated").has("stars", P.gt(4)).id().order(),
+                t -> t.V().inE("rated").has("stars", P.within(1, 3)).id().order(),
+                t -> t.V().bothE("rated").has("stars", P.between(2, 4)).id().order(),
+                t -> t.V(3).outE("follows").order().by("time", Order.decr).limit(10).id(),
+                t -> t.V().outE("follows").order().by("time").range(5, 15).id(),
+                t -> t.V().local(__.inE("follows").order().by("time", Order.decr).limit(2)).id(),
+                t -> t.V().outE("follows").has("time", P.lt(200)).order().by("time", Order.decr).limit(3).id());
+        final Runnable compare = () -> {
+            for (final Function<GraphTraversalSource, GraphTraversal<?, ?>> traversal : traversals) {
+                final List<?> expected = traversal.apply(unindexed.traversal()).toList();
+                assertEquals(expected, traversal.apply(indexed.traversal()).toList());
+            }
+        };
+        compare.run();
+
+        // the index follows changes to the indexed properties and removal of edges
+        for (final TinkerGraph g : Arrays.asList(indexed, unindexed)) {
+            g.edges("r1").next().property("stars", 5);
+            g.edges("r10").next().property("stars", 5);
+            g.edges("r2").next().property("stars").remove();
+            g.edges("r3").next().remove();
+            g.edges("f398").next().property("time", -1);
+            g.vertices(3).next().remove();
+        }
+        compare.run();
+
+        indexed.dropVertexCentricIndex("follows", "time");
+        assertEquals(Collections.emptySet(), indexed.getVertexCentricIndexKeys("follows"));
+        compare.run();
+    }
+
+    @Test
+    public void shouldScanBothEdgesOnKeyWithoutVertexCentricIndex() {
+        final TinkerGraph g = TinkerGraph.open();
+        g.createVertexCentricIndex("rated", "stars");
+        final Vertex a = g.addVertex(T.id, 1);
+        final Vertex b = g.addVertex(T.id, 2);
+        a.addEdge("rated", b, T.id, "r1", "stars", 3, "weight", 0.5d);
+        a.addEdge("rated", b, T.id, "r2", "stars", 4, "weight", 1.5d);
+        b.addEdge("rated", a, T.id, "r3", "stars", 5, "weight", 2.5d);
+
+        assertEquals(Arrays.asList("r2", "r3"), g.traversal().V(1).bothE("rated").has("weight", P.gt(1)).id().order().toList());
+        assertEquals(Arrays.asList("r2", "r2", "r3", "r3"), g.traversal().V().bothE("rated").has("weight", P.gt(1)).id().order().toList());
+        assertEquals(Arrays.asList("r3"), g.traversal().V().bothE("rated").has("weight", P.gt(1)).has("stars", P.gt(4)).id().dedup().toList());
+    }
+
+    @Test
+    public void shouldFoldStepsIntoTinkerVertexStep() {
+        final TinkerGraph g = TinkerGraph.open();
+        g.createVertexCentricIndex("follows", "time");
+        final Vertex v = g.addVertex();
+        for (int i = 0; i < 10; i++) {
+            v.addEdge("follows", g.addVertex(), "time", i);
+        }
+
+        final Traversal.Admin<Vertex, Edge> traversal = g.traversal().V(v).outE("follows").has("time", P.gte(3)).order().by("time", Order.decr).limit(2).asAdmin();
+        traversal.applyStrategies();
+        assertTrue(traversal.getSteps().get(1) instanceof TinkerVertexStep);
+        assertEquals(1, ((TinkerVertexStep) traversal.getSteps().get(1)).getHasContainers().size());
+        assertEquals(Arrays.asList(9, 8), IteratorUtils.list(IteratorUtils.map(traversal, e -> e.value("time"))));
+
+        // a missing order key fails as it does without the index
+        v.addEdge("follows", v);
+        try {
+            g.traversal().V(v).outE("follows").order().by("time").limit(2).toList();
+            fail("Ordering by a missing property should fail");
+        } catch (Exception ignored) {
+        }
+
+        // unindexed labels and vertex-centric indices on transactional graphs are left alone
+        final Traversal.Admin<Vertex, Edge> unindexed = g.traversal().V(v).outE("knows").has("time", 1).asAdmin();
+        unindexed.applyStrategies();
+        assertEquals(VertexStep.class, unindexed.getSteps().get(1).getClass());
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_TRANSACTIONS, true);
+        try {
+            TinkerGraph.open(conf).createVertexCentricIndex("follows", "time");
+            fail("Vertex-centric indices should not be supported on transactional graphs");
+        } catch (IllegalStateException ignored) {
+        }
+    }
+
+    @Test
+    public void shouldGatherStatistics() {
+        final TinkerGraph g = TinkerFactory.createModern();
+        final GraphStatistics statistics = g.statistics().get();
+        assertEquals(6, statistics.count(Vertex.class));
+        assertEquals(4, statistics.count(Vertex.class, "person"));
+        assertEquals(0, statistics.count(Edge.class, "likes"));
+        assertEquals(2d, statistics.averageDegree(Direction.OUT, null), 0.0001d);
+        assertEquals(3.5d, statistics.averageDegree(Direction.BOTH, null), 0.0001d);
+        assertEquals(4d / 3, statistics.averageDegree(Direction.OUT, "created"), 0.0001d);
+        assertEquals(2d, statistics.averageDegree(Direction.IN, "created"), 0.0001d);
+        assertEquals(0.5d, statistics.selectivity(Vertex.class, "person", "age", P.gt(30)), 0.0001d);
+        assertEquals(2d / 6, statistics.selectivity(Vertex.class, null, "lang", P.eq("java")), 0.0001d);
+        assertEquals(0d, statistics.selectivity(Vertex.class, null, "name", P.gt(1)), 0.0001d);
+
+        // the degrees are gathered again once the graph has grown by more than a tenth
+        final Vertex lop = g.vertices(3).next();
+        final Vertex v = g.addVertex("person");
+        for (int i = 0; i < 10; i++) {
+            v.addEdge("created", lop);
+        }
+        assertEquals(14d / 4, statistics.averageDegree(Direction.OUT, "created"), 0.0001d);
+        assertEquals(5, statistics.count(Vertex.class, "person"));
+    }
+
+    @Test
+    public void shouldOptimizeWithStatistics() {
+        final TinkerGraph graph = TinkerFactory.createModern();
+        final GraphTraversalSource g = graph.traversal().withStrategies(CostBasedStrategy.instance());
+
+        // the name keeps fewer vertices than the age so it is tested first
+        final Traversal.Admin<Vertex, Vertex> has = g.V().has("age", P.gt(0)).has("name", "marko").asAdmin();
+        has.applyStrategies();
+        assertEquals("name", ((TinkerGraphStep<?, ?>) has.getStartStep()).getHasContainers().get(0).getKey());
+        assertEquals(Collections.singletonList(graph.vertices(1).next()), has.toList());
+        final Traversal.Admin<Vertex, Vertex> unranked = graph.traversal().V().has("age", P.gt(0)).has("name", "marko").asAdmin();
+        unranked.applyStrategies();
+        assertEquals("age", ((TinkerGraphStep<?, ?>) unranked.getStartStep()).getHasContainers().get(0).getKey());
+
+        // software has more creators on average than people have creations so the where() walks out from the people
+        final Traversal.Admin<Vertex, Map<String, Object>> where = g.V().hasLabel("person").as("a").V().hasLabel("software").as("b").
+                where(__.as("b").in("created").as("a")).<Object>select("a", "b").by("name").asAdmin();
+        where.applyStrategies();
+        final WhereTraversalStep<?> whereStep = TraversalHelper.getFirstStepOfAssignableClass(WhereTraversalStep.class, where).get();
+        assertEquals(Direction.OUT, ((VertexStep<?>) whereStep.getLocalChildren().get(0).getSteps().get(1)).getDirection());
+        assertEquals(graph.traversal().V().hasLabel("person").as("a").V().hasLabel("software").as("b").
+                where(__.as("b").in("created").as("a")).<Object>select("a", "b").by("name").toList(), where.toList());
+
+        // marko knows more people than people create software on average so the match() tries the creations first
+        final Traversal.Admin<Vertex, Map<String, Object>> match = g.V().match(__.as("a").out("knows").as("b"), __.as("a").out("created").as("c")).asAdmin();
+        match.applyStrategies();
+        final MatchStep<?, ?> matchStep = TraversalHelper.getFirstStepOfAssignableClass(MatchStep.class, match).get();
+        assertEquals("created", ((VertexStep<?>) matchStep.getGlobalChildren().get(0).getSteps().get(1)).getEdgeLabels()[0]);
+        assertEquals(new HashSet<>(graph.traversal().V().match(__.as("a").out("knows").as("b"), __.as("a").out("created").as("c")).toList()),
+                new HashSet<>(match.toList()));
+
+        // a vertex-centric index is only read when its predicates keep at most half of the edges
+        graph.createVertexCentricIndex("knows", "weight");
+        final Traversal.Admin<Vertex, Edge> scanned = g.V().outE("knows").has("weight", P.gt(0.0d)).asAdmin();
+        scanned.applyStrategies();
+        assertTrue(((TinkerVertexStep) scanned.getSteps().get(1)).isScan());
+        assertEquals(2, scanned.toList().size());
+        final Traversal.Admin<Vertex, Edge> indexed = g.V().outE("knows").has("weight", P.gt(0.9d)).asAdmin();
+        indexed.applyStrategies();
+        assertFalse(((TinkerVertexStep) indexed.getSteps().get(1)).isScan());
+        assertEquals(1, indexed.toList().size());
+        final Traversal.Admin<Vertex, Edge> unscanned = graph.traversal().V().outE("knows").has("weight", P.gt(0.0d)).asAdmin();
+        unscanned.applyStrategies();
+        assertFalse(((TinkerVertexStep) unscanned.getSteps().get(1)).isScan());
+    }
+
+    @Test
+    public void shouldCountFromDegrees() {
+        final TinkerGraph g = TinkerFactory.createModern();
+        final Vertex v = g.vertices(1).next();
+        v.addEdge("self", v);
+
+        final List<Function<GraphTraversalSource, GraphTraversal<?, ?>>> traversals = Arrays.asList(
+                t -> t.V(1).outE("knows").count(),
+                t -> t.V(1).both().count(),
+                t -> t.V().bothE().count(),
+                t -> t.V().out().out().in("created", "knows").count(),
+                t -> t.V().where(__.outE().count().is(P.gt(1))).id(),
+                t -> t.V().where(__.inE("created").count().is(P.inside(0, 3))).id(),
+                t -> t.V().where(__.outE("self").count().is(0)).id(),
+                t -> t.V().where(__.both().count().is(P.gt(0))).id(),
+                t -> t.V().and(__.out("created"), __.in("knows")).id(),
+                t -> t.V().local(__.outE().limit(2).count()),
+                t -> t.V().project("id", "degree").by(T.id).by(__.bothE().count()));
+        for (final Function<GraphTraversalSource, GraphTraversal<?, ?>> traversal : traversals) {
+            final Traversal.Admin<?, ?> admin = traversal.apply(g.traversal()).asAdmin();
+            admin.applyStrategies();
+            assertTrue(admin.toString(), admin.toString().contains("TinkerDegreeCountGlobalStep"));
+            assertEquals(traversal.apply(g.traversal().withoutStrategies(TinkerGraphDegreeCountStrategy.class)).toList(), IteratorUtils.list(admin));
+        }
+
+        // the count of vertices can not stand in for a count of the adjacent edges that is filtered
+        final Traversal.Admin<?, ?> filtered = g.traversal().V().outE().has("weight", P.gt(0.5d)).count().asAdmin();
+        filtered.applyStrategies();
+        assertFalse(filtered.toString().contains("TinkerDegreeCountGlobalStep"));
+        assertEquals(new Long(2), filtered.next());
+    }
+
+    @Test
+    public void shouldBulkLoadFromMultipleThreadsAndRebuildIndices() throws Exception {
+        final TinkerGraph graph = TinkerGraph.open();
+        graph.createIndex("name", Vertex.class);
+        graph.createIndex("weight", Edge.class, TinkerGraph.IndexType.ORDERED);
+
+        final int vertexCount = 1000;
+        final int threads = 4;
+        try (final TinkerBulkLoader loader = graph.bulkLoader()) {
+            final ExecutorService executor = Executors.newFixedThreadPool(threads);
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final int offset = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = offset; i < vertexCount; i = i + threads) {
+                        loader.addVertex((long) i, "person", "name", "v" + i, "tag", "a", "tag", "b");
+                    }
+                }));
+            }
+            for (final Future<?> future : futures) future.get();
+            futures.clear();
+
+            // every thread adds edges to and from the same few vertices so that they contend for the same locks
+            for (int t = 0; t < threads; t++) {
+                final int offset = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = offset; i < vertexCount; i = i + threads) {
+                        loader.addEdge(null, (long) i, "knows", 0L, "weight", i);
+                        loader.addEdge(null, 1L, "knows", (long) i, "weight", i);
+                    }
+                }));
+            }
+            for (final Future<?> future : futures) future.get();
+            executor.shutdown();
+        }
+
+        assertEquals(vertexCount, IteratorUtils.count(graph.vertices()));
+        assertEquals(vertexCount * 2, IteratorUtils.count(graph.edges()));
+        assertEquals(vertexCount + 1, IteratorUtils.count(graph.vertices(0L).next().edges(Direction.IN)));
+        assertEquals(vertexCount + 1, IteratorUtils.count(graph.vertices(1L).next().edges(Direction.OUT)));
+        assertEquals(2, IteratorUtils.count(graph.vertices(5L).next().properties("tag")));
+
+        final GraphTraversalSource g = graph.traversal();
+        assertEquals(1, g.V().has("name", "v500").count().next().intValue());
+        assertEquals(20, g.E().has("weight", P.lt(10)).count().next().intValue());
+        assertEquals(1, TinkerHelper.queryVertexIndex(graph, "name", "v999").size());
+
+        // the graph is usable as normal once the loader is closed
+        graph.addVertex(T.id, 5000L, "name", "v5000");
+        assertEquals(1, g.V().has("name", "v5000").count().next().intValue());
+    }
+
+    @Test
+    public void shouldOnlyVisitTheElementsALimitNeeds() {
+        final TinkerGraph graph = TinkerGraph.open();
+        graph.createIndex("group", Vertex.class);
+        for (int i = 0; i < 100; i++) {
+            graph.addVertex(T.label, i % 2 == 0 ? "even" : "odd", "group", i % 3, "name", "v" + i);
+        }
+
+        final AtomicInteger tested = new AtomicInteger();
+        final P<Object> counting = new P<>((a, b) -> tested.incrementAndGet() > 0, null);
+        final GraphTraversalSource g = graph.traversal();
+        assertEquals(1, g.V().has("name", counting).limit(1).toList().size());
+        assertEquals(1, tested.getAndSet(0));
+        assertEquals(2, g.V().hasLabel("even", "odd").has("name", counting).limit(2).toList().size());
+        assertEquals(2, tested.getAndSet(0));
+        assertEquals(1, g.V().has("group", 1).has("name", counting).limit(1).toList().size());
+        assertEquals(1, tested.getAndSet(0));
+
+        // a traversal that adds vertices does not visit the ones it adds
+        assertEquals(100, g.V().addV("copy").toList().size());
+        assertEquals(200, IteratorUtils.count(graph.vertices()));
+    }
+
+    @Test
+    public void shouldExpireElementsByLabelAndExpiryKey() throws Exception {
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_EXPIRY_KEY, "expiresAt");
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_EXPIRY_INTERVAL, 0L);
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        graph.createIndex("name", Vertex.class);
+        final long now = System.currentTimeMillis();
+
+        final Vertex account = graph.addVertex(T.id, 1, T.label, "account", "name", "a");
+        final Vertex event = graph.addVertex(T.id, 2, T.label, "event", "name", "e");
+        final Vertex kept = graph.addVertex(T.id, 3, T.label, "event", "name", "k", "expiresAt", now + 3600000L);
+        graph.addVertex(T.id, 4, T.label, "account", "name", "x", "expiresAt", now - 1L);
+        account.addEdge("raised", event, T.id, 5);
+        account.addEdge("raised", kept, T.id, 6, "expiresAt", now - 1L);
+
+        graph.setTimeToLive("event", Vertex.class, 1, TimeUnit.MILLISECONDS);
+        assertEquals(1L, graph.getTimeToLive("event", Vertex.class));
+        assertEquals(0L, graph.getTimeToLive("account", Vertex.class));
+        Thread.sleep(10);
+        graph.expire();
+
+        // the expiry key takes precedence over the time-to-live of the label and edges go with their vertices
+        final GraphTraversalSource g = graph.traversal();
+        assertEquals(Arrays.asList(1, 3), g.V().id().order().toList());
+        assertEquals(0L, g.E().count().next().longValue());
+        assertEquals(0L, g.V().has("name", P.within("e", "x")).count().next().longValue());
+        assertEquals(1L, g.V().has("name", "k").count().next().longValue());
+
+        // moving the expiry later keeps the element alive past the time it was first queued at
+        kept.property("expiresAt", now - 1L);
+        kept.property("expiresAt", now + 3600000L);
+        graph.expire();
+        assertEquals(2L, g.V().count().next().longValue());
+
+        try {
+            account.property("expiresAt", "tomorrow");
+            fail("The expiry key must hold a number");
+        } catch (IllegalArgumentException iae) {
+            // expected
+        }
+    }
+
+    @Test
+    public void shouldOnlyRemoveExpiredElementsWhenAMutatingTraversalStarts() throws Exception {
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_EXPIRY_KEY, "expiresAt");
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_EXPIRY_INTERVAL, 10L);
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        final long now = System.currentTimeMillis();
+        final Vertex a = graph.addVertex(T.id, 1);
+        final Vertex b = graph.addVertex(T.id, 2, "expiresAt", now + 200L);
+        a.addEdge("knows", graph.addVertex(T.id, 3));
+        for (int i = 0; i < 10; i++) {
+            a.addEdge("knows", graph.addVertex("expiresAt", now + 200L));
+        }
+        Thread.sleep(500);
+
+        // mutations through the structure API and reads leave the expired elements in place, but reads skip them
+        a.addEdge("knows", b);
+        graph.addVertex(T.id, 4);
+        assertEquals(1, IteratorUtils.count(a.edges(Direction.OUT)));
+        assertEquals(Arrays.asList(1, 3, 4), graph.traversal().V().id().order().toList());
+        assertEquals(14, TinkerHelper.getVertices(graph).size());
+        assertEquals(12, TinkerHelper.getEdges(graph).size());
+
+        // the expired elements are removed before the traversal iterates the adjacency that it then adds to
+        final GraphTraversalSource g = graph.traversal();
+        g.V(a).outE().inV().addE("likes").to(a).iterate();
+        assertEquals(3, TinkerHelper.getVertices(graph).size());
+        assertEquals(2, TinkerHelper.getEdges(graph).size());
+        assertEquals(1, IteratorUtils.count(a.edges(Direction.OUT)));
+        assertEquals(1, IteratorUtils.count(a.edges(Direction.IN, "likes")));
+        assertEquals(Arrays.asList(1, 3, 4), g.V().id().order().toList());
+        assertEquals(2L, g.E().count().next().longValue());
+        graph.close();
+    }
+
+    @Test
+    public void shouldNotCountExpiredElementsBeforeTheyAreRemoved() throws Exception {
+        for (final int shards : Arrays.asList(1, 4)) {
+            final Configuration conf = new BaseConfiguration();
+            conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_EXPIRY_INTERVAL, 10L);
+            conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_SHARDS, shards);
+            final TinkerGraph graph = TinkerGraph.open(conf);
+            graph.createIndex("name", Vertex.class);
+            final Vertex a = graph.addVertex(T.id, 1, T.label, "account", "name", "a");
+            for (int i = 0; i < 100; i++) {
+                a.addEdge("raised", graph.addVertex(T.label, "event", "name", "e"));
+            }
+            graph.setTimeToLive("event", Vertex.class, 100, TimeUnit.MILLISECONDS);
+            final GraphTraversalSource g = graph.traversal();
+            assertEquals(101L, g.V().count().next().longValue());
+            assertEquals(100L, g.E().count().next().longValue());
+            Thread.sleep(500);
+
+            assertEquals(1L, g.V().count().next().longValue());
+            assertEquals(0L, g.E().count().next().longValue());
+            assertEquals(0L, g.V().hasLabel("event").count().next().longValue());
+            assertEquals(0L, g.V().has("name", "e").count().next().longValue());
+            assertEquals(1L, g.V().values("name").count().next().longValue());
+            assertEquals(0L, g.V().out().count().next().longValue());
+            assertEquals(0L, g.V(a).outE("raised").count().next().longValue());
+
+            // nothing is removed until a traversal mutates the graph
+            assertEquals(101, TinkerHelper.getVertices(graph).size());
+            g.V(a).property("name", "b").iterate();
+            assertEquals(1, TinkerHelper.getVertices(graph).size());
+            assertEquals(0, TinkerHelper.getEdges(graph).size());
+            assertEquals(1L, g.V().count().next().longValue());
+            graph.close();
+        }
+    }
+
+    @Test
+    public void shouldNotAddEdgeToRemovedVertex() {
+        final TinkerGraph graph = TinkerGraph.open();
+        final Vertex a = graph.addVertex();
+        final Vertex b = graph.addVertex();
+        b.remove();
+        try {
+            a.addEdge("knows", b);
+            fail("An edge can not be added to a removed vertex");
+        } catch (IllegalStateException ise) {
+            // expected
+        }
+        assertFalse(graph.edges().hasNext());
+    }
+
+    @Test
+    public void shouldTraverseAndRemoveEdgesWithCompactAdjacency() {
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_COMPACT_ADJACENCY, true);
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        TinkerFactory.generateModern(graph);
+        IoTest.assertModernGraph(graph, false, true);
+
+        final GraphTraversalSource g = graph.traversal();
+        assertEquals(3, g.V().has("name", "marko").out().count().next().intValue());
+        assertEquals(2, g.V().has("name", "marko").out("knows").count().next().intValue());
+        assertEquals(3, g.V().has("name", "lop").in("created").count().next().intValue());
+
+        final Vertex marko = g.V().has("name", "marko").next();
+        for (int i = 0; i < 100; i++) {
+            marko.addEdge("knows", graph.addVertex("name", "v" + i));
+        }
+        assertEquals(102, g.V(marko).out("knows").count().next().intValue());
+
+        g.V(marko).outE("knows").has("weight", 1.0d).drop().iterate();
+        assertEquals(101, g.V(marko).out("knows").count().next().intValue());
+        assertEquals(0, g.V().has("name", "josh").in("knows").count().next().intValue());
+
+        g.V(marko).outE("knows").drop().iterate();
+        assertEquals(0, g.V(marko).out("knows").count().next().intValue());
+        assertEquals(1, g.V(marko).out().count().next().intValue());
+
+        g.V(marko).drop().iterate();
+        assertEquals(2, g.V().has("name", "lop").in("created").count().next().intValue());
+    }
+
+    @Test
+    public void shouldKeepEdgePositionsWhenRemovingEdgesWithCompactAdjacency() {
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_COMPACT_ADJACENCY, true);
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        final Vertex hub = graph.addVertex("name", "hub");
+        final List<Edge> edges = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            final Vertex v = graph.addVertex("name", "v" + i);
+            edges.add(hub.addEdge("knows", v));
+            edges.add(v.addEdge("knows", hub));
+        }
+        final Edge loop = hub.addEdge("knows", hub);
+
+        // every removal swaps the last edge of each set into the slot of the removed one
+        Collections.shuffle(edges, new Random(1234));
+        for (final Edge edge : edges.subList(0, 1000)) {
+            edge.remove();
+        }
+        final Set<Edge> remaining = new HashSet<>(edges.subList(1000, 2000));
+        remaining.add(loop);
+        assertEquals(remaining, IteratorUtils.set(hub.edges(Direction.BOTH)));
+        for (final Edge edge : remaining) {
+            final TinkerVertex outVertex = (TinkerVertex) edge.outVertex();
+            final TinkerVertex inVertex = (TinkerVertex) edge.inVertex();
+            assertTrue(outVertex.outEdges.get("knows").contains(edge));
+            assertTrue(inVertex.inEdges.get("knows").contains(edge));
+        }
+        for (final Edge edge : edges.subList(0, 1000)) {
+            assertFalse(((TinkerVertex) edge.outVertex()).outEdges.get("knows").contains(edge));
+        }
+
+        hub.remove();
+        assertFalse(graph.edges().hasNext());
+        assertEquals(0, IteratorUtils.count(graph.traversal().V().both()));
+    }
+
+    @Test
+    public void shouldReadAndWritePropertiesWithCompactProperties() {
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_COMPACT_PROPERTIES, true);
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        TinkerFactory.generateModern(graph);
+        IoTest.assertModernGraph(graph, false, true);
+
+        // keys that are equal but distinct instances are stored as the same instance
+        final Vertex v1 = graph.addVertex(new String("name"), "a", new String("since"), 1);
+        final Vertex v2 = graph.addVertex(new String("name"), "b", new String("since"), 2);
+        assertSame(v1.property("name").key(), v2.property("name").key());
+        final Edge e = v1.addEdge("knows", v2, new String("since"), 3);
+        assertSame(v1.property("since").key(), e.property("since").key());
+
+        v1.property("since", 10);
+        v1.property(VertexProperty.Cardinality.list, "alias", "x", "meta", true);
+        v1.property(VertexProperty.Cardinality.list, "alias", "y");
+        e.property("weight", 0.5d);
+        e.property("since", 4);
+        assertEquals(new HashSet<>(Arrays.asList("name", "since", "alias")), v1.keys());
+        assertEquals(10, (int) v1.value("since"));
+        assertEquals(2, IteratorUtils.count(v1.properties("alias")));
+        assertEquals(true, v1.properties("alias").next().value("meta"));
+        assertEquals(new HashSet<>(Arrays.asList("since", "weight")), e.keys());
+        assertEquals(4, (int) e.value("since"));
+
+        v1.property("name").remove();
+        e.property("since").remove();
+        assertFalse(v1.property("name").isPresent());
+        assertEquals(Collections.singleton("weight"), e.keys());
+        assertEquals(1, graph.traversal().V().has("name", "b").count().next().intValue());
+    }
+
+    @Test
+    public void shouldTraverseAndComputeOverFrozenGraph() throws Exception {
+        final TinkerGraph graph = TinkerFactory.createModern();
+        final Map<Object, Double> expected = new HashMap<>();
+        graph.compute().program(PageRankVertexProgram.build().create(graph)).submit().get().graph().vertices()
+                .forEachRemaining(v -> expected.put(v.id(), v.value(PageRankVertexProgram.PAGE_RANK)));
+        graph.createIndex("name", Vertex.class);
+        graph.freeze();
+        assertTrue(graph.isFrozen());
+
+        IoTest.assertModernGraph(graph, false, true);
+        final GraphTraversalSource g = graph.traversal();
+        assertEquals(6, IteratorUtils.count(graph.edges()));
+        assertEquals(Arrays.asList("josh", "lop", "vadas"), g.V().has("name", "marko").out().<String>values("name").order().toList());
+        assertEquals(Arrays.asList("marko", "peter"), g.V().has("name", "lop").in("created").in().<String>values("name").order().toList());
+        assertEquals(3, g.V(1).outE("knows", "created").count().next().intValue());
+        assertEquals(3, g.V(1).bothE().count().next().intValue());
+
+        final Graph result = graph.compute().workers(2).program(PageRankVertexProgram.build().create(graph)).submit().get().graph();
+        result.vertices().forEachRemaining(v -> assertEquals(expected.get(v.id()), v.value(PageRankVertexProgram.PAGE_RANK), 0.0001d));
+        assertEquals(12L, g.withComputer().V().both().count().next().longValue());
+
+        final Vertex marko = g.V().has("name", "marko").next();
+        for (final Runnable mutation : Arrays.<Runnable>asList(
+                graph::addVertex,
+                () -> marko.addEdge("knows", marko),
+                () -> marko.property("age", 30),
+                () -> marko.property("name").remove(),
+                () -> marko.edges(Direction.OUT).next().property("weight", 1.0d),
+                () -> marko.edges(Direction.OUT).next().remove(),
+                marko::remove,
+                graph::clear)) {
+            try {
+                mutation.run();
+                fail("A frozen graph should not be modified");
+            } catch (IllegalStateException ignored) {
+            }
+        }
+        IoTest.assertModernGraph(graph, false, true);
+
+        try {
+            graph.compute().program(PageRankVertexProgram.build().create(graph))
+                    .result(GraphComputer.ResultGraph.ORIGINAL).persist(GraphComputer.Persist.VERTEX_PROPERTIES).submit().get();
+            fail("A frozen graph should not take on compute properties");
+        } catch (IllegalArgumentException ignored) {
+        }
+    }
+
+    @Test
+    public void shouldOpenFrozenGraph() {
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_FROZEN, true);
+        assertTrue(TinkerGraph.open(conf).isFrozen());
+
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_TRANSACTIONS, true);
+        try {
+            TinkerGraph.open(conf);
+            fail("Transactional graphs can not be frozen");
+        } catch (IllegalStateException ignored) {
+        }
+    }
+
+    @Test
+    public void shouldTraverseShardsInParallel() {
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_SHARDS, 4);
+        final TinkerGraph sharded = TinkerGraph.open(conf);
+        final TinkerGraph graph = TinkerGraph.open();
+        final Random random = new Random(42);
+        for (int i = 0; i < 1000; i++) {
+            sharded.addVertex(T.id, i, T.label, "person", "age", i % 50);
+            graph.addVertex(T.id, i, T.label, "person", "age", i % 50);
+        }
+        for (int i = 0; i < 5000; i++) {
+            final int out = random.nextInt(1000);
+            final int in = random.nextInt(1000);
+            sharded.vertices(out).next().addEdge("knows", sharded.vertices(in).next(), "weight", i % 7);
+            graph.vertices(out).next().addEdge("knows", graph.vertices(in).next(), "weight", i % 7);
+        }
+
+        final GraphTraversalSource s = sharded.traversal();
+        final GraphTraversalSource g = graph.traversal();
+        final Traversal.Admin<?, ?> traversal = s.V().out().values("age").sum().asAdmin();
+        traversal.applyStrategies();
+        assertTrue(traversal.getStartStep() instanceof TinkerParallelGraphStep);
+        final Traversal.Admin<?, ?> limited = s.V().out().limit(10).values("age").sum().asAdmin();
+        limited.applyStrategies();
+        assertFalse(limited.getStartStep() instanceof TinkerParallelGraphStep);
+
+        final List<Function<GraphTraversalSource, GraphTraversal<?, ?>>> traversals = Arrays.asList(
+                t -> t.V().out().values("age").sum(),
+                t -> t.V().both().both().count(),
+                t -> t.V().has("age", P.gt(25)).out().groupCount().by("age"),
+                t -> t.E().has("weight", 3).inV().values("age").order(),
+                t -> t.V().as("a").out().where(P.neq("a")).values("age").max(),
+                t -> t.V().repeat(__.out()).times(2).values("age").mean());
+        for (final Function<GraphTraversalSource, GraphTraversal<?, ?>> t : traversals) {
+            assertEquals(t.apply(g).toList(), t.apply(s).toList());
+        }
+        sharded.freeze();
+        for (final Function<GraphTraversalSource, GraphTraversal<?, ?>> t : traversals) {
+            assertEquals(t.apply(g).toList(), t.apply(s).toList());
+        }
+        sharded.close();
+
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_TRANSACTIONS, true);
+        try {
+            TinkerGraph.open(conf);
+            fail("Transactional graphs can not be sharded");
+        } catch (IllegalStateException ignored) {
+        }
+    }
+
     @Test
     public void shouldSerializeTinkerGraphToGryo() throws Exception {
         final TinkerGraph graph = TinkerFactory.createModern();
@@ -488,6 +1629,351 @@ public class TinkerGraphTest {
         reloadedGraph.close();
     }
 
+    @Test
+    public void shouldPersistToSnapshot() {
+        final String graphLocation = TestHelper.makeTestDataDirectory(TinkerGraphTest.class) + "shouldPersistToSnapshot.tgs";
+        final File f = new File(graphLocation);
+        if (f.exists() && f.isFile()) f.delete();
+
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_FORMAT, "snapshot");
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_LOCATION, graphLocation);
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        TinkerFactory.generateModern(graph);
+        graph.addVertex("name", "date", "time", new Date(1000L));
+        graph.close();
+
+        final TinkerGraph reloadedGraph = TinkerGraph.open(conf);
+        assertEquals(new Date(1000L), reloadedGraph.traversal().V().has("name", "date").values("time").next());
+        reloadedGraph.traversal().V().has("name", "date").drop().iterate();
+        IoTest.assertModernGraph(reloadedGraph, true, false);
+        reloadedGraph.close();
+    }
+
+    @Test
+    public void shouldPersistToSnapshotAndHandleMultiProperties() {
+        final String graphLocation = TestHelper.makeTestDataDirectory(TinkerGraphTest.class) + "shouldPersistToSnapshotMulti.tgs";
+        final File f = new File(graphLocation);
+        if (f.exists() && f.isFile()) f.delete();
+
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_FORMAT, "snapshot");
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_LOCATION, graphLocation);
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        TinkerFactory.generateTheCrew(graph);
+        graph.close();
+
+        // the snapshot keeps multi-properties regardless of the default cardinality
+        final TinkerGraph reloadedGraph = TinkerGraph.open(conf);
+        IoTest.assertCrewGraph(reloadedGraph, false);
+        reloadedGraph.close();
+    }
+
+    @Test
+    public void shouldReadPropertiesFromSnapshotWhenFirstAccessed() {
+        final String graphLocation = TestHelper.makeTestDataDirectory(TinkerGraphTest.class) + "shouldReadPropertiesLazily.tgs";
+        final File f = new File(graphLocation);
+        if (f.exists() && f.isFile()) f.delete();
+
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_FORMAT, "snapshot");
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_LOCATION, graphLocation);
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        TinkerFactory.generateTheCrew(graph);
+        graph.close();
+
+        final TinkerGraph reloadedGraph = TinkerGraph.open(conf);
+        final TinkerVertex marko = (TinkerVertex) reloadedGraph.vertices(1).next();
+        final TinkerVertex stephen = (TinkerVertex) reloadedGraph.vertices(7).next();
+        final TinkerEdge edge = (TinkerEdge) reloadedGraph.edges(13).next();
+        assertFalse(((TinkerGraphSnapshot.LazyProperties) marko.properties).isLoaded());
+        assertFalse(((TinkerGraphSnapshot.LazyProperties) stephen.properties).isLoaded());
+        assertFalse(((TinkerGraphSnapshot.LazyProperties) edge.properties).isLoaded());
+
+        assertEquals("marko", marko.value("name"));
+        assertEquals(4, IteratorUtils.count(marko.properties("location")));
+        assertEquals(2009, (int) edge.value("since"));
+        assertTrue(((TinkerGraphSnapshot.LazyProperties) marko.properties).isLoaded());
+        assertTrue(((TinkerGraphSnapshot.LazyProperties) edge.properties).isLoaded());
+        assertFalse(((TinkerGraphSnapshot.LazyProperties) stephen.properties).isLoaded());
+
+        // the properties that are read lazily can be modified like any others
+        marko.property("name").remove();
+        marko.property("age", 29);
+        edge.property("since", 2011);
+        assertFalse(marko.property("name").isPresent());
+        assertEquals(29, (int) marko.value("age"));
+        assertEquals(2011, (int) edge.value("since"));
+        assertEquals("stephen", reloadedGraph.traversal().V().has("name", "stephen").values("name").next());
+        reloadedGraph.close();
+    }
+
+    @Test
+    public void shouldReplayJournalWithoutSavingOnClose() {
+        final String graphLocation = TestHelper.makeTestDataDirectory(TinkerGraphTest.class) + "shouldReplayJournal.tgs";
+        deleteJournaledGraph(graphLocation);
+
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_FORMAT, "snapshot");
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_LOCATION, graphLocation);
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_JOURNAL, true);
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_CHECKPOINT_INTERVAL, 0);
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        TinkerFactory.generateTheCrew(graph);
+        final Vertex v = graph.addVertex(T.id, 100, T.label, "person", "name", "temp");
+        v.property("name").property("since", 2017);
+        v.property("name").property("since").remove();
+        v.property(VertexProperty.Cardinality.single, "name", "marko2");
+        final Edge e = v.addEdge("knows", graph.vertices(1).next(), "weight", 0.5d);
+        e.property("weight", 0.75d);
+        e.property("since", 2017);
+        e.property("since").remove();
+        graph.addVertex(T.id, 200).remove();
+        graph.close();
+
+        // nothing but the journal was written
+        assertFalse(new File(graphLocation).exists());
+        assertTrue(new File(graphLocation + ".journal").length() > 0);
+
+        final TinkerGraph reloadedGraph = TinkerGraph.open(conf);
+        assertEquals(7, IteratorUtils.count(reloadedGraph.vertices()));
+        assertEquals(15, IteratorUtils.count(reloadedGraph.edges()));
+        assertFalse(reloadedGraph.vertices(200).hasNext());
+        final Vertex reloaded = reloadedGraph.vertices(100).next();
+        assertEquals("marko2", reloaded.value("name"));
+        assertEquals(1, IteratorUtils.count(reloaded.properties("name")));
+        final Edge reloadedEdge = reloaded.edges(Direction.OUT).next();
+        assertEquals(e.id(), reloadedEdge.id());
+        assertEquals(0.75d, reloadedEdge.value("weight"), 0.0d);
+        assertFalse(reloadedEdge.property("since").isPresent());
+        assertEquals(2, IteratorUtils.count(reloadedGraph.vertices(1).next().properties("location").next().properties()));
+        reloadedGraph.close();
+    }
+
+    @Test
+    public void shouldCheckpointJournal() {
+        final String graphLocation = TestHelper.makeTestDataDirectory(TinkerGraphTest.class) + "shouldCheckpointJournal.tgs";
+        deleteJournaledGraph(graphLocation);
+
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_FORMAT, "snapshot");
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_LOCATION, graphLocation);
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_JOURNAL, true);
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_JOURNAL_SYNC_INTERVAL, 0);
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        TinkerFactory.generateModern(graph);
+        graph.checkpoint();
+        assertTrue(new File(graphLocation).exists());
+        assertEquals(0, new File(graphLocation + ".journal").length());
+
+        graph.vertices(1).next().remove();
+        graph.close();
+
+        final TinkerGraph reloadedGraph = TinkerGraph.open(conf);
+        assertEquals(5, IteratorUtils.count(reloadedGraph.vertices()));
+        assertEquals(3, IteratorUtils.count(reloadedGraph.edges()));
+        reloadedGraph.close();
+    }
+
+    @Test
+    public void shouldCheckpointJournalInBackground() throws Exception {
+        final String graphLocation = TestHelper.makeTestDataDirectory(TinkerGraphTest.class) + "shouldCheckpointJournalInBackground.tgs";
+        deleteJournaledGraph(graphLocation);
+
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_FORMAT, "snapshot");
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_LOCATION, graphLocation);
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_JOURNAL, true);
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_CHECKPOINT_INTERVAL, 50);
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        TinkerFactory.generateModern(graph);
+
+        // the checkpoint is written without any further mutation
+        for (int i = 0; i < 200 && !new File(graphLocation).exists(); i++) {
+            Thread.sleep(50);
+        }
+        assertTrue(new File(graphLocation).exists());
+        graph.addVertex(T.id, 100);
+        graph.close();
+
+        final TinkerGraph reloadedGraph = TinkerGraph.open(conf);
+        assertEquals(7, IteratorUtils.count(reloadedGraph.vertices()));
+        assertEquals(6, IteratorUtils.count(reloadedGraph.edges()));
+        reloadedGraph.close();
+    }
+
+    @Test
+    public void shouldReplaySegmentOfIncompleteCheckpointBeforeJournal() throws Exception {
+        final String graphLocation = TestHelper.makeTestDataDirectory(TinkerGraphTest.class) + "shouldReplaySegment.tgs";
+        deleteJournaledGraph(graphLocation);
+
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_FORMAT, "snapshot");
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_LOCATION, graphLocation);
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_JOURNAL, true);
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_CHECKPOINT_INTERVAL, 0);
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        TinkerFactory.generateModern(graph);
+        graph.close();
+
+        // simulate a crash after the journal was rotated but before the checkpoint was written
+        Files.move(Paths.get(graphLocation + ".journal"), Paths.get(graphLocation + ".journal.old"));
+        final TinkerGraph reopenedGraph = TinkerGraph.open(conf);
+        assertEquals(6, IteratorUtils.count(reopenedGraph.vertices()));
+        reopenedGraph.vertices(1).next().remove();
+        reopenedGraph.close();
+
+        final TinkerGraph reloadedGraph = TinkerGraph.open(conf);
+        assertEquals(5, IteratorUtils.count(reloadedGraph.vertices()));
+        assertEquals(3, IteratorUtils.count(reloadedGraph.edges()));
+        reloadedGraph.checkpoint();
+        assertFalse(new File(graphLocation + ".journal.old").exists());
+        assertEquals(0, new File(graphLocation + ".journal").length());
+        reloadedGraph.close();
+
+        final TinkerGraph checkpointedGraph = TinkerGraph.open(conf);
+        assertEquals(5, IteratorUtils.count(checkpointedGraph.vertices()));
+        assertEquals(3, IteratorUtils.count(checkpointedGraph.edges()));
+        checkpointedGraph.close();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shouldNotSupportVariablesWithJournal() {
+        final String graphLocation = TestHelper.makeTestDataDirectory(TinkerGraphTest.class) + "shouldNotSupportVariables.tgs";
+        deleteJournaledGraph(graphLocation);
+
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_FORMAT, "snapshot");
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_LOCATION, graphLocation);
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_JOURNAL, true);
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        try {
+            assertFalse(graph.features().graph().variables().supportsVariables());
+            graph.variables().set("name", "journaled");
+        } finally {
+            graph.close();
+        }
+    }
+
+    @Test
+    public void shouldSaveBulkLoadedElementsWithJournal() {
+        final String graphLocation = TestHelper.makeTestDataDirectory(TinkerGraphTest.class) + "shouldSaveBulkLoad.tgs";
+        deleteJournaledGraph(graphLocation);
+
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_FORMAT, "snapshot");
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_LOCATION, graphLocation);
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_JOURNAL, true);
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_CHECKPOINT_INTERVAL, 0);
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        graph.addVertex(T.id, 100L, "name", "journaled");
+        try (final TinkerBulkLoader loader = graph.bulkLoader()) {
+            for (long i = 0; i < 10; i++) {
+                loader.addVertex(i, "person", "name", "v" + i);
+            }
+            for (long i = 1; i < 10; i++) {
+                loader.addEdge(null, 0L, "knows", i, "weight", (double) i);
+            }
+        }
+        assertTrue(new File(graphLocation).exists());
+        assertEquals(0, new File(graphLocation + ".journal").length());
+
+        // mutations after the load are journaled as usual
+        graph.vertices(1L).next().property("name", "marko");
+        graph.close();
+
+        final TinkerGraph reloadedGraph = TinkerGraph.open(conf);
+        assertEquals(11, IteratorUtils.count(reloadedGraph.vertices()));
+        assertEquals(9, IteratorUtils.count(reloadedGraph.edges()));
+        assertEquals("journaled", reloadedGraph.vertices(100L).next().value("name"));
+        assertEquals("marko", reloadedGraph.vertices(1L).next().value("name"));
+        assertEquals("v2", reloadedGraph.vertices(2L).next().value("name"));
+        assertEquals(45.0d, reloadedGraph.traversal().V(0L).outE("knows").values("weight").sum().next().doubleValue(), 0.0d);
+        reloadedGraph.close();
+    }
+
+    @Test
+    public void shouldReplayJournalOfConcurrentWriters() throws Exception {
+        final String graphLocation = TestHelper.makeTestDataDirectory(TinkerGraphTest.class) + "shouldReplayConcurrentWriters.tgs";
+        deleteJournaledGraph(graphLocation);
+
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_FORMAT, "snapshot");
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_LOCATION, graphLocation);
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_JOURNAL, true);
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_CHECKPOINT_INTERVAL, 0);
+        final TinkerGraph graph = TinkerGraph.open(conf);
+
+        // every thread writes a chain of its own vertices so that the records of the threads interleave in the journal
+        final int vertexCount = 500;
+        final int threads = 8;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int thread = t;
+            futures.add(executor.submit(() -> {
+                Vertex previous = null;
+                for (int i = 0; i < vertexCount; i++) {
+                    final Vertex vertex = graph.addVertex(T.id, (long) thread * vertexCount + i, "thread", thread, "name", "v" + i);
+                    vertex.property("tags", Arrays.asList(thread, i));
+                    if (null != previous)
+                        previous.addEdge("next", vertex, "weight", (double) i);
+                    previous = vertex;
+                }
+            }));
+        }
+        for (final Future<?> future : futures) future.get();
+        executor.shutdown();
+        graph.close();
+
+        final TinkerGraph reloadedGraph = TinkerGraph.open(conf);
+        final GraphTraversalSource g = reloadedGraph.traversal();
+        assertEquals(threads * vertexCount, IteratorUtils.count(reloadedGraph.vertices()));
+        assertEquals(threads * (vertexCount - 1), IteratorUtils.count(reloadedGraph.edges()));
+        for (int t = 0; t < threads; t++) {
+            assertEquals(vertexCount, g.V().has("thread", t).count().next().intValue());
+            assertEquals("v7", g.V((long) t * vertexCount + 7).values("name").next());
+            assertEquals(Arrays.asList(t, 7), g.V((long) t * vertexCount + 7).values("tags").next());
+            assertEquals(vertexCount * (vertexCount - 1) / 2, g.V().has("thread", t).outE("next").values("weight").sum().next().intValue());
+        }
+        reloadedGraph.close();
+    }
+
+    @Test
+    public void shouldTruncateTornRecordAtEndOfJournal() throws Exception {
+        final String graphLocation = TestHelper.makeTestDataDirectory(TinkerGraphTest.class) + "shouldTruncateTornJournal.tgs";
+        deleteJournaledGraph(graphLocation);
+
+        final Configuration conf = new BaseConfiguration();
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_FORMAT, "snapshot");
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_GRAPH_LOCATION, graphLocation);
+        conf.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_JOURNAL, true);
+        final TinkerGraph graph = TinkerGraph.open(conf);
+        TinkerFactory.generateModern(graph);
+        graph.close();
+
+        // simulate a crash part way through appending a record
+        final File journal = new File(graphLocation + ".journal");
+        final long length = journal.length();
+        try (final RandomAccessFile raf = new RandomAccessFile(journal, "rw")) {
+            raf.seek(length);
+            raf.writeInt(100);
+            raf.writeInt(0);
+            raf.write(new byte[]{1, 2, 3});
+        }
+
+        final TinkerGraph reloadedGraph = TinkerGraph.open(conf);
+        IoTest.assertModernGraph(reloadedGraph, true, false);
+        assertEquals(length, journal.length());
+        reloadedGraph.close();
+    }
+
+    private static void deleteJournaledGraph(final String graphLocation) {
+        new File(graphLocation).delete();
+        new File(graphLocation + ".journal").delete();
+        new File(graphLocation + ".journal.old").delete();
+    }
+
     @Test
     public void shouldPersistWithRelativePath() {
         final String graphLocation = TestHelper.convertToRelative(TinkerGraphTest.class,
@@ -735,4 +2221,62 @@ public class TinkerGraphTest {
             return false;
         }
     }
+
+    /**
+     * Labels each vertex with the smallest identifier in its connected component by way of primitive messages.
+     */
+    private static class MinimumIdVertexProgram extends StaticVertexProgram<Long> {
+
+        private static final String COMPONENT = "component";
+
+        private final MessageScope.Local<Long> outScope = MessageScope.Local.of(__::outE);
+        private final MessageScope.Local<Long> inScope = MessageScope.Local.of(__::inE);
+
+        @Override
+        public void setup(final Memory memory) {
+        }
+
+        @Override
+        public void execute(final Vertex vertex, final Messenger<Long> messenger, final Memory memory) {
+            final LongMessenger longMessenger = (LongMessenger) messenger;
+            long component = memory.isInitialIteration() ? (long) vertex.id() : vertex.value(COMPONENT);
+            final PrimitiveIterator.OfLong messages = longMessenger.receiveLongMessages();
+            while (messages.hasNext()) {
+                component = Math.min(component, messages.nextLong());
+            }
+            vertex.property(VertexProperty.Cardinality.single, COMPONENT, component);
+            longMessenger.sendMessage(this.outScope, component);
+            longMessenger.sendMessage(this.inScope, component);
+        }
+
+        @Override
+        public boolean terminate(final Memory memory) {
+            return memory.getIteration() >= 5;
+        }
+
+        @Override
+        public Set<VertexComputeKey> getVertexComputeKeys() {
+            return Collections.singleton(VertexComputeKey.of(COMPONENT, false));
+        }
+
+        @Override
+        public Optional<MessageCombiner<Long>> getMessageCombiner() {
+            return Optional.of((LongMessageCombiner) Math::min);
+        }
+
+        @Override
+        public Set<MessageScope> getMessageScopes(final Memory memory) {
+            return new HashSet<>(Arrays.asList(this.outScope, this.inScope));
+        }
+
+        @Override
+        public GraphComputer.ResultGraph getPreferredResultGraph() {
+            return GraphComputer.ResultGraph.NEW;
+        }
+
+        @Override
+        public GraphComputer.Persist getPreferredPersist() {
+            return GraphComputer.Persist.VERTEX_PROPERTIES;
+        }
+    }
 }